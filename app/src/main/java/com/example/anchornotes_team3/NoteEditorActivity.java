@@ -35,6 +35,8 @@ import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.anchornotes_team3.adapter.AttachmentsAdapter;
+import com.example.anchornotes_team3.api.ApiClient;
+import com.example.anchornotes_team3.auth.AuthManager;
 import com.example.anchornotes_team3.geofence.GeofenceManager;
 import com.example.anchornotes_team3.model.Attachment;
 import com.example.anchornotes_team3.model.Geofence;
@@ -63,8 +65,10 @@ import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 
 /**
  * Activity for creating and editing notes
@@ -2517,6 +2521,16 @@ public class NoteEditorActivity extends AppCompatActivity implements Attachments
             if (attachment.getUri() != null) {
                 android.util.Log.d("NoteEditor", "🎵 Playing audio from URI: " + attachment.getUri());
                 mediaPlayer.setDataSource(this, attachment.getUri());
+            } else if (attachment.getId() != null && !attachment.getId().isEmpty()) {
+                // Stream through the backend, which answers Range requests so seeking does not re-download
+                Uri streamUri = Uri.parse(ApiClient.getBaseUrl() + "api/attachments/audio/" + attachment.getId() + "/content");
+                Map<String, String> headers = new HashMap<>();
+                String bearerToken = AuthManager.getInstance(this).getBearerToken();
+                if (bearerToken != null) {
+                    headers.put("Authorization", bearerToken);
+                }
+                android.util.Log.d("NoteEditor", "🎵 Streaming audio from: " + streamUri);
+                mediaPlayer.setDataSource(this, streamUri, headers);
             } else if (attachment.getMediaUrl() != null) {
                 android.util.Log.d("NoteEditor", "🎵 Playing audio from URL: " + attachment.getMediaUrl());
                 mediaPlayer.setDataSource(attachment.getMediaUrl());
@@ -107,9 +107,11 @@ public class AttachmentsAdapter extends RecyclerView.Adapter<RecyclerView.ViewHo
                         .centerCrop()
                         .into(ivPhoto);
             } else if (attachment.getMediaUrl() != null) {
-                // Backend file - load from URL
+                // Backend file - load the server thumbnail that covers this card, not the full photo
+                ViewGroup.LayoutParams size = itemView.getLayoutParams();
+                int edgePx = size != null ? Math.max(size.width, size.height) : 0;
                 Glide.with(itemView.getContext())
-                        .load(attachment.getMediaUrl())
+                        .load(attachment.getPreviewUrl(edgePx))
                         .centerCrop()
                         .into(ivPhoto);
             }
@@ -74,6 +74,13 @@ public class ApiClient {
         return retrofit.create(ApiService.class);
     }
     
+    /**
+     * Base URL of the backend, for clients that do not go through Retrofit (e.g. MediaPlayer)
+     */
+    public static String getBaseUrl() {
+        return BASE_URL;
+    }
+    
     /**
      * Update base URL if needed (for settings/config)
      */
@@ -99,6 +99,17 @@ public interface ApiService {
             @Part("durationSec") Integer durationSec
     );
     
+    // Attach a file the backend already has, by SHA-256; 404 means it has to be uploaded
+    @POST("api/notes/{id}/photo/blob/{sha256}")
+    Call<NoteResponse> attachPhotoBlob(@Path("id") String noteId, @Path("sha256") String sha256);
+    
+    @POST("api/notes/{id}/audio/blob/{sha256}")
+    Call<NoteResponse> attachAudioBlob(
+            @Path("id") String noteId,
+            @Path("sha256") String sha256,
+            @Query("durationSec") Integer durationSec
+    );
+    
     @DELETE("api/notes/{noteId}/photo/{attachmentId}")
     Call<Void> deletePhotoAttachment(@Path("noteId") String noteId, @Path("attachmentId") String attachmentId);
     
@@ -6,6 +6,7 @@ import com.example.anchornotes_team3.model.Tag;
 
 import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Response DTO for Note from backend
@@ -90,6 +91,7 @@ public class NoteResponse {
         private String id;
         private String url;  // Backend returns "url", not "mediaUrl"
         private Integer durationSec;
+        private Map<String, String> thumbnails;  // Photos only: longest edge in px -> URL, once generated
 
         public String getId() {
             return id;
@@ -102,6 +104,10 @@ public class NoteResponse {
         public Integer getDurationSec() {
             return durationSec;
         }
+
+        public Map<String, String> getThumbnails() {
+            return thumbnails;
+        }
     }
 }
 
@@ -5,6 +5,7 @@ import com.example.anchornotes_team3.model.Geofence;
 import com.example.anchornotes_team3.model.Tag;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * Response DTO for Template from backend
@@ -64,6 +65,7 @@ public class TemplateResponse {
         private String id;
         private String url;
         private Integer durationSec;
+        private Map<String, String> thumbnails;  // Photos only: longest edge in px -> URL, once generated
 
         public String getId() {
             return id;
@@ -76,6 +78,10 @@ public class TemplateResponse {
         public Integer getDurationSec() {
             return durationSec;
         }
+
+        public Map<String, String> getThumbnails() {
+            return thumbnails;
+        }
     }
 }
 
@@ -2,6 +2,9 @@ package com.example.anchornotes_team3.model;
 
 import android.net.Uri;
 
+import java.util.Map;
+import java.util.TreeMap;
+
 /**
  * Model class representing an Attachment (photo or audio)
  * Stores both local URI and backend attachment ID
@@ -19,6 +22,7 @@ public class Attachment {
     private Integer durationSec; // For audio only
     private String displayName;
     private boolean isUploaded;  // Track upload status
+    private Map<String, String> thumbnails;  // Photos only: longest edge in px -> URL (from backend)
 
     public Attachment(AttachmentType type, Uri uri) {
         this.type = type;
@@ -101,6 +105,37 @@ public class Attachment {
         isUploaded = uploaded;
     }
 
+    public Map<String, String> getThumbnails() {
+        return thumbnails;
+    }
+
+    public void setThumbnails(Map<String, String> thumbnails) {
+        this.thumbnails = thumbnails;
+    }
+
+    /**
+     * URL to show this photo at about minEdgePx: the smallest server thumbnail at least that
+     * large, else the largest one, else the original.
+     */
+    public String getPreviewUrl(int minEdgePx) {
+        if (thumbnails == null || thumbnails.isEmpty()) {
+            return mediaUrl;
+        }
+        TreeMap<Integer, String> bySize = new TreeMap<>();
+        for (Map.Entry<String, String> thumbnail : thumbnails.entrySet()) {
+            try {
+                bySize.put(Integer.parseInt(thumbnail.getKey()), thumbnail.getValue());
+            } catch (NumberFormatException ignored) {
+                // not a size; skip it
+            }
+        }
+        if (bySize.isEmpty()) {
+            return mediaUrl;
+        }
+        Map.Entry<Integer, String> covering = bySize.ceilingEntry(minEdgePx);
+        return covering != null ? covering.getValue() : bySize.lastEntry().getValue();
+    }
+
     public String getFormattedDuration() {
         if (durationSec == null || type != AttachmentType.AUDIO) {
             return "";
@@ -15,9 +15,12 @@ import com.example.anchornotes_team3.model.Note;
 import com.example.anchornotes_team3.model.Tag;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
@@ -615,7 +618,8 @@ public class NoteRepository {
     // ==================== Attachment Operations ====================
     
     /**
-     * Upload a photo attachment
+     * Upload a photo attachment. If the backend already has a file with the same content,
+     * it is attached by hash and nothing is uploaded.
      */
     public void uploadPhoto(String noteId, Uri photoUri, AttachmentCallback callback) {
         try {
@@ -623,44 +627,26 @@ public class NoteRepository {
             File file = createFileFromUri(photoUri);
             Log.d(TAG, "📸 Created temp file: " + file.getAbsolutePath() + ", size: " + file.length() + " bytes");
 
-            RequestBody requestFile = RequestBody.create(MediaType.parse("image/*"), file);
-            MultipartBody.Part body = MultipartBody.Part.createFormData("file", file.getName(), requestFile);
-
-            Log.d(TAG, "📸 Sending upload request to backend...");
-            getApiService().uploadPhoto(noteId, body).enqueue(new Callback<NoteResponse>() {
+            String sha256 = sha256(file);
+            getApiService().attachPhotoBlob(noteId, sha256).enqueue(new Callback<NoteResponse>() {
                 @Override
                 public void onResponse(@NonNull Call<NoteResponse> call,
                                      @NonNull Response<NoteResponse> response) {
-                    Log.d(TAG, "📸 Upload response code: " + response.code());
-                    if (response.isSuccessful() && response.body() != null) {
-                        NoteResponse noteResponse = response.body();
-                        // Extract attachment info from the image field
-                        String attachmentId = noteResponse.getImage() != null ? noteResponse.getImage().getId() : null;
-                        String mediaUrl = noteResponse.getImage() != null ? noteResponse.getImage().getUrl() : null;
-                        Log.d(TAG, "✅ Photo upload successful! Attachment ID: " + attachmentId + ", URL: " + mediaUrl);
-                        callback.onSuccess(attachmentId, mediaUrl);
+                    if (response.isSuccessful() && response.body() != null && response.body().getImage() != null) {
+                        NoteResponse.AttachmentResponse image = response.body().getImage();
+                        Log.d(TAG, "✅ Photo already stored, attached by hash. Attachment ID: " + image.getId());
+                        callback.onSuccess(image.getId(), image.getUrl());
+                        file.delete();
                     } else {
-                        String errorBody = "";
-                        try {
-                            if (response.errorBody() != null) {
-                                errorBody = response.errorBody().string();
-                            }
-                        } catch (IOException e) {
-                            Log.e(TAG, "Error reading error body", e);
-                        }
-                        Log.e(TAG, "❌ Photo upload failed: " + response.code() + ", error: " + errorBody);
-                        callback.onError("Failed to upload photo: " + response.code() + " - " + errorBody);
+                        Log.d(TAG, "📸 Photo not stored yet (" + response.code() + "), uploading...");
+                        sendPhotoUpload(noteId, file, callback);
                     }
-                    // Clean up temp file
-                    file.delete();
-                    Log.d(TAG, "🗑️ Temp file deleted");
                 }
 
                 @Override
                 public void onFailure(@NonNull Call<NoteResponse> call, @NonNull Throwable t) {
-                    Log.e(TAG, "❌ Network error uploading photo", t);
-                    callback.onError("Network error: " + t.getMessage());
-                    file.delete();
+                    Log.w(TAG, "⚠️ Hash lookup failed, uploading photo instead", t);
+                    sendPhotoUpload(noteId, file, callback);
                 }
             });
         } catch (IOException e) {
@@ -668,9 +654,53 @@ public class NoteRepository {
             callback.onError("Failed to read photo file: " + e.getMessage());
         }
     }
-    
+
+    private void sendPhotoUpload(String noteId, File file, AttachmentCallback callback) {
+        RequestBody requestFile = RequestBody.create(MediaType.parse("image/*"), file);
+        MultipartBody.Part body = MultipartBody.Part.createFormData("file", file.getName(), requestFile);
+
+        Log.d(TAG, "📸 Sending upload request to backend...");
+        getApiService().uploadPhoto(noteId, body).enqueue(new Callback<NoteResponse>() {
+            @Override
+            public void onResponse(@NonNull Call<NoteResponse> call,
+                                 @NonNull Response<NoteResponse> response) {
+                Log.d(TAG, "📸 Upload response code: " + response.code());
+                if (response.isSuccessful() && response.body() != null) {
+                    NoteResponse noteResponse = response.body();
+                    // Extract attachment info from the image field
+                    String attachmentId = noteResponse.getImage() != null ? noteResponse.getImage().getId() : null;
+                    String mediaUrl = noteResponse.getImage() != null ? noteResponse.getImage().getUrl() : null;
+                    Log.d(TAG, "✅ Photo upload successful! Attachment ID: " + attachmentId + ", URL: " + mediaUrl);
+                    callback.onSuccess(attachmentId, mediaUrl);
+                } else {
+                    String errorBody = "";
+                    try {
+                        if (response.errorBody() != null) {
+                            errorBody = response.errorBody().string();
+                        }
+                    } catch (IOException e) {
+                        Log.e(TAG, "Error reading error body", e);
+                    }
+                    Log.e(TAG, "❌ Photo upload failed: " + response.code() + ", error: " + errorBody);
+                    callback.onError("Failed to upload photo: " + response.code() + " - " + errorBody);
+                }
+                // Clean up temp file
+                file.delete();
+                Log.d(TAG, "🗑️ Temp file deleted");
+            }
+
+            @Override
+            public void onFailure(@NonNull Call<NoteResponse> call, @NonNull Throwable t) {
+                Log.e(TAG, "❌ Network error uploading photo", t);
+                callback.onError("Network error: " + t.getMessage());
+                file.delete();
+            }
+        });
+    }
+
     /**
-     * Upload an audio attachment
+     * Upload an audio attachment. If the backend already has a file with the same content,
+     * it is attached by hash and nothing is uploaded.
      */
     public void uploadAudio(String noteId, Uri audioUri, int durationSec, AttachmentCallback callback) {
         try {
@@ -678,43 +708,26 @@ public class NoteRepository {
             File file = createFileFromUri(audioUri);
             Log.d(TAG, "🎵 Created temp file: " + file.getAbsolutePath() + ", size: " + file.length() + " bytes");
 
-            RequestBody requestFile = RequestBody.create(MediaType.parse("audio/*"), file);
-            MultipartBody.Part body = MultipartBody.Part.createFormData("file", file.getName(), requestFile);
-
-            Log.d(TAG, "🎵 Sending upload request to backend...");
-            getApiService().uploadAudio(noteId, body, durationSec).enqueue(new Callback<NoteResponse>() {
+            String sha256 = sha256(file);
+            getApiService().attachAudioBlob(noteId, sha256, durationSec).enqueue(new Callback<NoteResponse>() {
                 @Override
                 public void onResponse(@NonNull Call<NoteResponse> call,
                                      @NonNull Response<NoteResponse> response) {
-                    Log.d(TAG, "🎵 Upload response code: " + response.code());
-                    if (response.isSuccessful() && response.body() != null) {
-                        NoteResponse noteResponse = response.body();
-                        // Extract attachment info from the audio field
-                        String attachmentId = noteResponse.getAudio() != null ? noteResponse.getAudio().getId() : null;
-                        String mediaUrl = noteResponse.getAudio() != null ? noteResponse.getAudio().getUrl() : null;
-                        Log.d(TAG, "✅ Audio upload successful! Attachment ID: " + attachmentId + ", URL: " + mediaUrl);
-                        callback.onSuccess(attachmentId, mediaUrl);
+                    if (response.isSuccessful() && response.body() != null && response.body().getAudio() != null) {
+                        NoteResponse.AttachmentResponse audio = response.body().getAudio();
+                        Log.d(TAG, "✅ Audio already stored, attached by hash. Attachment ID: " + audio.getId());
+                        callback.onSuccess(audio.getId(), audio.getUrl());
+                        file.delete();
                     } else {
-                        String errorBody = "";
-                        try {
-                            if (response.errorBody() != null) {
-                                errorBody = response.errorBody().string();
-                            }
-                        } catch (IOException e) {
-                            Log.e(TAG, "Error reading error body", e);
-                        }
-                        Log.e(TAG, "❌ Audio upload failed: " + response.code() + ", error: " + errorBody);
-                        callback.onError("Failed to upload audio: " + response.code() + " - " + errorBody);
+                        Log.d(TAG, "🎵 Audio not stored yet (" + response.code() + "), uploading...");
+                        sendAudioUpload(noteId, file, durationSec, callback);
                     }
-                    file.delete();
-                    Log.d(TAG, "🗑️ Temp file deleted");
                 }
 
                 @Override
                 public void onFailure(@NonNull Call<NoteResponse> call, @NonNull Throwable t) {
-                    Log.e(TAG, "❌ Network error uploading audio", t);
-                    callback.onError("Network error: " + t.getMessage());
-                    file.delete();
+                    Log.w(TAG, "⚠️ Hash lookup failed, uploading audio instead", t);
+                    sendAudioUpload(noteId, file, durationSec, callback);
                 }
             });
         } catch (IOException e) {
@@ -723,6 +736,48 @@ public class NoteRepository {
         }
     }
 
+    private void sendAudioUpload(String noteId, File file, int durationSec, AttachmentCallback callback) {
+        RequestBody requestFile = RequestBody.create(MediaType.parse("audio/*"), file);
+        MultipartBody.Part body = MultipartBody.Part.createFormData("file", file.getName(), requestFile);
+
+        Log.d(TAG, "🎵 Sending upload request to backend...");
+        getApiService().uploadAudio(noteId, body, durationSec).enqueue(new Callback<NoteResponse>() {
+            @Override
+            public void onResponse(@NonNull Call<NoteResponse> call,
+                                 @NonNull Response<NoteResponse> response) {
+                Log.d(TAG, "🎵 Upload response code: " + response.code());
+                if (response.isSuccessful() && response.body() != null) {
+                    NoteResponse noteResponse = response.body();
+                    // Extract attachment info from the audio field
+                    String attachmentId = noteResponse.getAudio() != null ? noteResponse.getAudio().getId() : null;
+                    String mediaUrl = noteResponse.getAudio() != null ? noteResponse.getAudio().getUrl() : null;
+                    Log.d(TAG, "✅ Audio upload successful! Attachment ID: " + attachmentId + ", URL: " + mediaUrl);
+                    callback.onSuccess(attachmentId, mediaUrl);
+                } else {
+                    String errorBody = "";
+                    try {
+                        if (response.errorBody() != null) {
+                            errorBody = response.errorBody().string();
+                        }
+                    } catch (IOException e) {
+                        Log.e(TAG, "Error reading error body", e);
+                    }
+                    Log.e(TAG, "❌ Audio upload failed: " + response.code() + ", error: " + errorBody);
+                    callback.onError("Failed to upload audio: " + response.code() + " - " + errorBody);
+                }
+                file.delete();
+                Log.d(TAG, "🗑️ Temp file deleted");
+            }
+
+            @Override
+            public void onFailure(@NonNull Call<NoteResponse> call, @NonNull Throwable t) {
+                Log.e(TAG, "❌ Network error uploading audio", t);
+                callback.onError("Network error: " + t.getMessage());
+                file.delete();
+            }
+        });
+    }
+
     /**
      * Delete a photo attachment from backend
      */
@@ -821,6 +876,7 @@ public class NoteRepository {
                     img.getUrl(),
                     null
             );
+            photoAttachment.setThumbnails(img.getThumbnails());
             attachments.add(photoAttachment);
         }
         if (response.getAudio() != null) {
@@ -858,6 +914,30 @@ public class NoteRepository {
         }
         return tempFile;
     }
+
+    /**
+     * Lowercase hex SHA-256 of a file, which the backend stores attachments under
+     */
+    private static String sha256(File file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException("SHA-256 not available", e);
+        }
+        try (InputStream inputStream = new FileInputStream(file)) {
+            byte[] buffer = new byte[8192];
+            int bytesRead;
+            while ((bytesRead = inputStream.read(buffer)) != -1) {
+                digest.update(buffer, 0, bytesRead);
+            }
+        }
+        StringBuilder hex = new StringBuilder(64);
+        for (byte b : digest.digest()) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
     
     // ==================== Template Operations ====================
     
@@ -1101,6 +1181,7 @@ public class NoteRepository {
                     img.getUrl(),
                     null
             );
+            photoAttachment.setThumbnails(img.getThumbnails());
             template.setImage(photoAttachment);
         }
         if (response.getAudio() != null) {
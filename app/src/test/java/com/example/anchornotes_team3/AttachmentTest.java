@@ -7,6 +7,9 @@ import com.example.anchornotes_team3.model.Attachment;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.HashMap;
+import java.util.Map;
+
 import static org.junit.Assert.*;
 
 /**
@@ -120,4 +123,30 @@ public class AttachmentTest {
         photoAttachment.setDisplayName(displayName);
         assertEquals("Display name should match set value", displayName, photoAttachment.getDisplayName());
     }
+
+    /**
+     * Attachment - Test thumbnail selection for previews
+     * Tests that the smallest server thumbnail covering the view is used, with the original as fallback
+     */
+    @Test
+    public void testPreviewUrlPicksCoveringThumbnail() {
+        Attachment photo = new Attachment(
+                "attach-1",
+                Attachment.AttachmentType.PHOTO,
+                "https://example.com/photo.png",
+                null
+        );
+        assertEquals("Without thumbnails the original is shown",
+                "https://example.com/photo.png", photo.getPreviewUrl(360));
+
+        Map<String, String> thumbnails = new HashMap<>();
+        thumbnails.put("480", "https://example.com/photo.thumb-480.jpg");
+        thumbnails.put("160", "https://example.com/photo.thumb-160.jpg");
+        photo.setThumbnails(thumbnails);
+
+        assertEquals("https://example.com/photo.thumb-480.jpg", photo.getPreviewUrl(360));
+        assertEquals("https://example.com/photo.thumb-160.jpg", photo.getPreviewUrl(100));
+        assertEquals("Larger than every thumbnail uses the largest",
+                "https://example.com/photo.thumb-480.jpg", photo.getPreviewUrl(1080));
+    }
 }
@@ -0,0 +1,83 @@
+package com.csci310.anchornotes.blob;
+
+import com.csci310.anchornotes.config.BlobProperties;
+import com.csci310.anchornotes.datasource.RoutingContext;
+import com.csci310.anchornotes.datasource.ShardRouter;
+import com.csci310.anchornotes.jobs.ClusterJob;
+import com.csci310.anchornotes.repository.AttachmentBlobRepository;
+import com.csci310.anchornotes.service.AttachmentBlobService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Deletes attachment files that no photo or audio row has referenced for the release grace
+ * period. Runs on one replica at a time (on every shard when sharded).
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.blobs", name = "collector-enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class BlobCollector implements ClusterJob {
+
+    private final BlobProperties properties;
+    private final AttachmentBlobService blobService;
+    private final List<String> shards;
+
+    public BlobCollector(BlobProperties properties,
+                         AttachmentBlobService blobService,
+                         ObjectProvider<ShardRouter> shardRouter) {
+        this.properties = properties;
+        this.blobService = blobService;
+        ShardRouter router = shardRouter.getIfAvailable();
+        this.shards = router != null ? router.shards() : null;
+    }
+
+    @Override
+    public String name() {
+        return "blobs.collect";
+    }
+
+    @Override
+    public Duration interval() {
+        return properties.getCollectInterval();
+    }
+
+    @Override
+    public void run(int partition, int partitions) {
+        int deleted = 0;
+        if (shards == null) {
+            deleted = collect();
+        } else {
+            for (String shard : shards) {
+                try (RoutingContext.Scope ignored = RoutingContext.bindShard(shard)) {
+                    deleted += collect();
+                }
+            }
+        }
+        if (deleted > 0) {
+            log.info("Deleted {} unreferenced attachment files", deleted);
+        }
+    }
+
+    private int collect() {
+        Instant releasedBefore = Instant.now().minus(properties.getReleaseGrace());
+        int deleted = 0;
+        for (AttachmentBlobRepository.ReleasedBlob blob
+                : blobService.findReleased(releasedBefore, properties.getCollectBatchSize())) {
+            try {
+                if (blobService.collect(blob.getUserId().toString(), blob, releasedBefore)) {
+                    deleted++;
+                }
+            } catch (IOException e) {
+                log.warn("Could not delete the files of blob {}, keeping it for the next run: {}", blob.getSha256(), e.getMessage());
+            }
+        }
+        return deleted;
+    }
+}
@@ -0,0 +1,15 @@
+package com.csci310.anchornotes.blob;
+
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.web.multipart.MultipartFile;
+
+/**
+ * A file to store as a blob: something that can be read more than once (to hash it, then to
+ * upload it), its length, and the name and type the client gave it.
+ */
+public record BlobSource(InputStreamSource content, long size, String fileName, String contentType) {
+
+    public static BlobSource of(MultipartFile file) {
+        return new BlobSource(file, file.getSize(), file.getOriginalFilename(), file.getContentType());
+    }
+}
@@ -0,0 +1,78 @@
+package com.csci310.anchornotes.blob;
+
+import com.csci310.anchornotes.config.BlobProperties;
+import com.csci310.anchornotes.dto.note.NoteResponse;
+import com.csci310.anchornotes.photo.PhotoNormalizer;
+import com.csci310.anchornotes.service.AttachmentService;
+import com.csci310.anchornotes.service.SupabaseStorageService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.UUID;
+
+/**
+ * Uploads through the backend: hash the file, normalize a photo and send it to storage, all
+ * without a database connection, then attach it in one short transaction. A file the user has
+ * uploaded before is not sent to storage again.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BlobUploader {
+
+    private final AttachmentService attachmentService;
+    private final SupabaseStorageService storageService;
+    private final PhotoNormalizer photoNormalizer;
+    private final BlobProperties blobProperties;
+
+    /**
+     * Store a photo and attach it to the note. A new JPEG is normalized first (see
+     * PhotoNormalizer).
+     */
+    public NoteResponse uploadPhoto(String userId, Long noteId, BlobSource source) throws IOException {
+        log.info("Uploading photo for note {} and user: {}", noteId, userId);
+        NoteResponse response = attachmentService.attachPhotoBlob(userId, noteId, store(userId, source, true));
+        log.info("Photo uploaded and attached to note {}", noteId);
+        return response;
+    }
+
+    /**
+     * Store an audio file and attach it to the note
+     */
+    public NoteResponse uploadAudio(String userId, Long noteId, BlobSource source, Integer durationSec) throws IOException {
+        log.info("Uploading audio for note {} and user: {}", noteId, userId);
+        NoteResponse response = attachmentService.attachAudioBlob(userId, noteId, store(userId, source, false), durationSec);
+        log.info("Audio uploaded and attached to note {}", noteId);
+        return response;
+    }
+
+    /**
+     * Make sure the user has the file stored and return its SHA-256, for attaching by hash.
+     * A photo is normalized after the lookup: the blob keeps the hash of the bytes the client
+     * sent, so attaching by that hash still finds it, while storage holds the smaller file.
+     */
+    public String store(String userId, BlobSource source, boolean photo) throws IOException {
+        String sha256;
+        try (InputStream in = source.content().getInputStream()) {
+            sha256 = Blobs.sha256(in);
+        }
+        if (attachmentService.reserveBlob(userId, sha256)) {
+            log.info("File {} is already stored, skipping upload of {} bytes", sha256, source.size());
+            return sha256;
+        }
+
+        BlobSource stored = photo ? photoNormalizer.normalize(source) : source;
+        String filePath = Blobs.filePath(UUID.fromString(userId), sha256, stored.fileName());
+        if (stored != source && photoNormalizer.keepsOriginal()) {
+            storageService.putObject(storageService.objectPath(Blobs.BUCKET, Blobs.originalPath(filePath)), source.content(),
+                    source.size(), source.contentType(), blobProperties.getUploadTimeout());
+        }
+        storageService.putObject(storageService.objectPath(Blobs.BUCKET, filePath), stored.content(), stored.size(),
+                stored.contentType(), blobProperties.getUploadTimeout());
+        attachmentService.recordBlob(userId, sha256, filePath, stored.contentType(), stored.size());
+        return sha256;
+    }
+}
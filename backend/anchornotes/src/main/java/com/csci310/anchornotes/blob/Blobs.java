@@ -0,0 +1,88 @@
+package com.csci310.anchornotes.blob;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Content addressing of attachment files: each user's files are stored once under the
+ * SHA-256 of their bytes.
+ */
+public final class Blobs {
+
+    public static final String BUCKET = "attachment";
+
+    private static final Pattern SHA256 = Pattern.compile("[0-9a-f]{64}");
+    private static final Pattern EXTENSION = Pattern.compile("[a-z0-9]{1,10}");
+
+    private Blobs() {
+    }
+
+    /** Lowercase hex SHA-256 of everything left in the stream; does not close it. */
+    public static String sha256(InputStream in) throws IOException {
+        MessageDigest digest = newDigest();
+        byte[] buffer = new byte[64 * 1024];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            digest.update(buffer, 0, read);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /** Lowercase hex SHA-256 of a string's UTF-8 bytes. */
+    public static String sha256(String text) {
+        return HexFormat.of().formatHex(newDigest().digest(text.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /** Null unless the value is a hex SHA-256; case is ignored and the result is lowercase. */
+    public static String normalize(String sha256) {
+        if (sha256 == null) {
+            return null;
+        }
+        String lower = sha256.toLowerCase(Locale.ROOT);
+        return SHA256.matcher(lower).matches() ? lower : null;
+    }
+
+    /**
+     * Path inside the bucket: the user, then the hash, keeping the original file's extension
+     * when it looks like one so the object is still served and exported sensibly.
+     */
+    public static String filePath(UUID userId, String sha256, String originalFilename) {
+        return userId + "/" + sha256 + extension(originalFilename);
+    }
+
+    /**
+     * Where an upload is kept as it arrived when a normalized version of it is stored at
+     * filePath (see PhotoProperties.keepOriginal). The hash in both names is the upload's.
+     */
+    public static String originalPath(String filePath) {
+        int dot = filePath.indexOf('.', filePath.lastIndexOf('/') + 1);
+        return (dot < 0 ? filePath : filePath.substring(0, dot)) + ".original";
+    }
+
+    private static String extension(String filename) {
+        if (filename == null) {
+            return "";
+        }
+        int dot = filename.lastIndexOf('.');
+        if (dot < 0) {
+            return "";
+        }
+        String extension = filename.substring(dot + 1).toLowerCase(Locale.ROOT);
+        return EXTENSION.matcher(extension).matches() ? "." + extension : "";
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.csci310.anchornotes.concurrency;
+
+import com.csci310.anchornotes.config.ConcurrencyLimitProperties;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Gradient-style adaptive concurrency limit.
+ *
+ * Two exponential moving averages of request latency are kept: a long one that tracks the
+ * latency the group normally has, and a short one that tracks what it has right now. While
+ * the short average stays within {@code latencyTolerance} of the long one the limit grows
+ * by roughly its square root (a small allowance for queueing); once requests slow down the
+ * ratio pulls the limit down proportionally. Failures and requests slower than the hard
+ * timeout back the limit off multiplicatively. Requests beyond the limit are rejected
+ * immediately instead of queueing, so latency stays bounded under overload.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private static final double LONG_WINDOW_ALPHA = 2.0 / (600 + 1);
+    private static final double SHORT_WINDOW_ALPHA = 2.0 / (10 + 1);
+    private static final double SMOOTHING = 0.2;
+
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final double latencyTolerance;
+    private final long timeoutNanos;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile double limit;
+
+    private double longRttNanos;
+    private double shortRttNanos;
+
+    public AdaptiveConcurrencyLimiter(String name, ConcurrencyLimitProperties.Route settings) {
+        this.name = name;
+        this.minLimit = Math.max(1, settings.getMinLimit());
+        this.maxLimit = Math.max(this.minLimit, settings.getMaxLimit());
+        this.backoffRatio = settings.getBackoffRatio();
+        this.latencyTolerance = settings.getLatencyTolerance();
+        this.timeoutNanos = settings.getTimeout().toNanos();
+        this.limit = Math.min(maxLimit, Math.max(minLimit, settings.getInitialLimit()));
+    }
+
+    /**
+     * @return true if the caller may proceed; it must then call {@link #release} exactly once
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * @param rttNanos time the request spent in the application
+     * @param failed   true if the request ended in an exception
+     */
+    public void release(long rttNanos, boolean failed) {
+        int inFlightAtCompletion = inFlight.getAndDecrement();
+        onSample(rttNanos, inFlightAtCompletion, failed);
+    }
+
+    private synchronized void onSample(long rttNanos, int inFlightAtCompletion, boolean failed) {
+        double current = limit;
+
+        if (failed || rttNanos > timeoutNanos) {
+            limit = Math.max(minLimit, current * backoffRatio);
+            return;
+        }
+
+        if (longRttNanos == 0) {
+            longRttNanos = rttNanos;
+            shortRttNanos = rttNanos;
+        } else {
+            longRttNanos += LONG_WINDOW_ALPHA * (rttNanos - longRttNanos);
+            shortRttNanos += SHORT_WINDOW_ALPHA * (rttNanos - shortRttNanos);
+        }
+
+        // After a long overload the long average is inflated too; let it drift back down
+        if (longRttNanos / shortRttNanos > 2) {
+            longRttNanos *= 0.95;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, latencyTolerance * longRttNanos / shortRttNanos));
+        double target = current * gradient + Math.sqrt(current);
+        double next = current * (1 - SMOOTHING) + target * SMOOTHING;
+
+        // Don't grow the limit while it isn't the constraint
+        if (next > current && inFlightAtCompletion * 2 < current) {
+            return;
+        }
+        limit = Math.max(minLimit, Math.min(maxLimit, next));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
@@ -0,0 +1,154 @@
+package com.csci310.anchornotes.concurrency;
+
+import com.csci310.anchornotes.config.ConcurrencyLimitProperties;
+import com.csci310.anchornotes.dto.ApiResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sheds load before it reaches the controllers. Every request is assigned to a route group
+ * with its own {@link AdaptiveConcurrencyLimiter}; when the group is at its limit the request
+ * is answered with 503 and a Retry-After header right away instead of waiting for a thread
+ * or a database connection.
+ */
+@Component
+@Slf4j
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private static final String DEFAULT_GROUP = "default";
+
+    private final ConcurrencyLimitProperties properties;
+    private final ObjectMapper objectMapper;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final List<RouteGroup> groups = new ArrayList<>();
+    private final RouteGroup defaultGroup;
+
+    public ConcurrencyLimitFilter(ConcurrencyLimitProperties properties,
+                                  ObjectMapper objectMapper,
+                                  MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        for (Map.Entry<String, ConcurrencyLimitProperties.Route> entry : properties.getRoutes().entrySet()) {
+            groups.add(new RouteGroup(entry.getKey(), entry.getValue(), meterRegistry));
+        }
+        this.defaultGroup = new RouteGroup(DEFAULT_GROUP, properties.getDefaults(), meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!properties.isEnabled()) {
+            return true;
+        }
+        String path = request.getRequestURI();
+        return properties.getExcludedPaths().stream().anyMatch(pattern -> pathMatcher.match(pattern, path));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        RouteGroup group = resolve(request);
+        AdaptiveConcurrencyLimiter limiter = group.limiter;
+
+        if (!limiter.tryAcquire()) {
+            group.rejected.increment();
+            log.warn("Shedding {} {} (group {}, limit {})",
+                    request.getMethod(), request.getRequestURI(), group.name, limiter.getLimit());
+            reject(response);
+            return;
+        }
+
+        long started = System.nanoTime();
+        boolean failed = true;
+        try {
+            filterChain.doFilter(request, response);
+            failed = false;
+        } finally {
+            limiter.release(System.nanoTime() - started, failed);
+        }
+    }
+
+    private RouteGroup resolve(HttpServletRequest request) {
+        String method = request.getMethod();
+        String path = request.getRequestURI();
+        for (RouteGroup group : groups) {
+            if (group.matches(method, path, pathMatcher)) {
+                return group;
+            }
+        }
+        return defaultGroup;
+    }
+
+    private void reject(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(properties.getRetryAfterSeconds()));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(),
+                ApiResponse.error("Server is busy, please retry shortly"));
+    }
+
+    public List<AdaptiveConcurrencyLimiter> getLimiters() {
+        List<AdaptiveConcurrencyLimiter> limiters = new ArrayList<>();
+        groups.forEach(group -> limiters.add(group.limiter));
+        limiters.add(defaultGroup.limiter);
+        return limiters;
+    }
+
+    private static final class RouteGroup {
+        private final String name;
+        private final List<String[]> patterns = new ArrayList<>();
+        private final AdaptiveConcurrencyLimiter limiter;
+        private final Counter rejected;
+
+        RouteGroup(String name, ConcurrencyLimitProperties.Route settings, MeterRegistry meterRegistry) {
+            this.name = name;
+            for (String pattern : settings.getPatterns()) {
+                String trimmed = pattern.trim();
+                int space = trimmed.indexOf(' ');
+                patterns.add(space > 0
+                        ? new String[]{trimmed.substring(0, space).toUpperCase(), trimmed.substring(space + 1).trim()}
+                        : new String[]{null, trimmed});
+            }
+            this.limiter = new AdaptiveConcurrencyLimiter(name, settings);
+            Gauge.builder("app.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                    .tag("group", name)
+                    .description("Current adaptive concurrency limit")
+                    .register(meterRegistry);
+            Gauge.builder("app.concurrency.in-flight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                    .tag("group", name)
+                    .description("Requests currently admitted")
+                    .register(meterRegistry);
+            this.rejected = Counter.builder("app.concurrency.rejected")
+                    .tag("group", name)
+                    .description("Requests shed with 503")
+                    .register(meterRegistry);
+        }
+
+        boolean matches(String method, String path, AntPathMatcher matcher) {
+            for (String[] pattern : patterns) {
+                if ((pattern[0] == null || pattern[0].equals(method)) && matcher.match(pattern[1], path)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
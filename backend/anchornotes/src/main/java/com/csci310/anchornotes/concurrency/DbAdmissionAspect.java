@@ -0,0 +1,58 @@
+package com.csci310.anchornotes.concurrency;
+
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+
+/**
+ * Wraps {@link DbPriority} service methods in a {@link DbAdmissionController} permit.
+ *
+ * Runs ahead of the transaction interceptor so the permit is taken before a connection is
+ * borrowed and released only after commit. Nested calls on the same thread reuse the outer
+ * permit instead of asking for a second one. Only {@link SingleFlightAspect} runs earlier.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+@RequiredArgsConstructor
+public class DbAdmissionAspect {
+
+    private static final ThreadLocal<PriorityClass> HELD = new ThreadLocal<>();
+
+    private final DbAdmissionController admissionController;
+
+    @Around("@within(com.csci310.anchornotes.concurrency.DbPriority) "
+            + "|| @annotation(com.csci310.anchornotes.concurrency.DbPriority)")
+    public Object admit(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (!admissionController.isEnabled() || HELD.get() != null) {
+            return joinPoint.proceed();
+        }
+
+        PriorityClass priority = resolvePriority(joinPoint);
+        admissionController.acquire(priority);
+        HELD.set(priority);
+        try {
+            return joinPoint.proceed();
+        } finally {
+            HELD.remove();
+            admissionController.release(priority);
+        }
+    }
+
+    private PriorityClass resolvePriority(ProceedingJoinPoint joinPoint) {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        DbPriority annotation = AnnotationUtils.findAnnotation(method, DbPriority.class);
+        if (annotation == null) {
+            annotation = AnnotationUtils.findAnnotation(joinPoint.getTarget().getClass(), DbPriority.class);
+        }
+        return annotation != null ? annotation.value() : PriorityClass.INTERACTIVE;
+    }
+}
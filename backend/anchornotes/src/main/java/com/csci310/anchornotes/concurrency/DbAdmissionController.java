@@ -0,0 +1,168 @@
+package com.csci310.anchornotes.concurrency;
+
+import com.csci310.anchornotes.config.DbAdmissionProperties;
+import com.csci310.anchornotes.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Admission gate in front of the connection pool with two priority classes.
+ *
+ * Permits match the pool size. Interactive work is admitted whenever a permit is free.
+ * Bulk work is admitted only when no interactive caller is waiting and fewer than
+ * {@code maxBulkConcurrency} bulk units are already running, so an interactive request
+ * never waits behind more than that many in-flight bulk operations, and at least one
+ * connection is always left for interactive traffic.
+ */
+@Component
+@Slf4j
+public class DbAdmissionController {
+
+    private final DbAdmissionProperties properties;
+    private final int permits;
+    private final int maxBulk;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+    private int available;
+    private int bulkRunning;
+    private int interactiveWaiting;
+    private int bulkWaiting;
+
+    private final Map<PriorityClass, Timer> waitTimers = new EnumMap<>(PriorityClass.class);
+    private final Map<PriorityClass, Counter> timeouts = new EnumMap<>(PriorityClass.class);
+
+    public DbAdmissionController(DbAdmissionProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.permits = Math.max(1, properties.getPermits());
+        this.maxBulk = Math.max(1, Math.min(properties.getMaxBulkConcurrency(), permits - 1));
+        this.available = permits;
+
+        for (PriorityClass priority : PriorityClass.values()) {
+            waitTimers.put(priority, Timer.builder("app.db.admission.wait")
+                    .tag("class", priority.name().toLowerCase())
+                    .description("Time spent waiting for a DB admission permit")
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .register(meterRegistry));
+            timeouts.put(priority, Counter.builder("app.db.admission.timeouts")
+                    .tag("class", priority.name().toLowerCase())
+                    .description("Callers that gave up waiting for a DB admission permit")
+                    .register(meterRegistry));
+        }
+        Gauge.builder("app.db.admission.waiting", this, gate -> gate.waiting(PriorityClass.INTERACTIVE))
+                .tag("class", "interactive").register(meterRegistry);
+        Gauge.builder("app.db.admission.waiting", this, gate -> gate.waiting(PriorityClass.BULK))
+                .tag("class", "bulk").register(meterRegistry);
+        Gauge.builder("app.db.admission.in-use", this, DbAdmissionController::inUse)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Blocks until a permit for the given class is available.
+     *
+     * @throws ServiceUnavailableException if the class timeout elapses first
+     */
+    public void acquire(PriorityClass priority) {
+        Duration timeout = priority == PriorityClass.INTERACTIVE
+                ? properties.getInteractiveTimeout()
+                : properties.getBulkTimeout();
+        long started = System.nanoTime();
+        long remaining = timeout.toNanos();
+
+        lock.lock();
+        try {
+            markWaiting(priority, 1);
+            try {
+                while (!canAdmit(priority)) {
+                    if (remaining <= 0) {
+                        timeouts.get(priority).increment();
+                        log.warn("DB admission timed out for {} work after {} ms", priority, timeout.toMillis());
+                        throw new ServiceUnavailableException("Server is busy, please retry shortly");
+                    }
+                    remaining = released.awaitNanos(remaining);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ServiceUnavailableException("Interrupted while waiting for database capacity");
+            } finally {
+                markWaiting(priority, -1);
+            }
+
+            available--;
+            if (priority == PriorityClass.BULK) {
+                bulkRunning++;
+            }
+        } finally {
+            lock.unlock();
+        }
+        waitTimers.get(priority).record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+    }
+
+    public void release(PriorityClass priority) {
+        lock.lock();
+        try {
+            available++;
+            if (priority == PriorityClass.BULK) {
+                bulkRunning--;
+            }
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    private boolean canAdmit(PriorityClass priority) {
+        if (available <= 0) {
+            return false;
+        }
+        if (priority == PriorityClass.INTERACTIVE) {
+            return true;
+        }
+        return interactiveWaiting == 0 && bulkRunning < maxBulk;
+    }
+
+    private void markWaiting(PriorityClass priority, int delta) {
+        if (priority == PriorityClass.INTERACTIVE) {
+            interactiveWaiting += delta;
+            if (delta < 0) {
+                // Bulk callers may have been held back only because this caller was waiting
+                released.signalAll();
+            }
+        } else {
+            bulkWaiting += delta;
+        }
+    }
+
+    int waiting(PriorityClass priority) {
+        lock.lock();
+        try {
+            return priority == PriorityClass.INTERACTIVE ? interactiveWaiting : bulkWaiting;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int inUse() {
+        lock.lock();
+        try {
+            return permits - available;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
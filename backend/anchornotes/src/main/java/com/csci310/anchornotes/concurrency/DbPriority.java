@@ -0,0 +1,18 @@
+package com.csci310.anchornotes.concurrency;
+
+import java.lang.annotation.*;
+
+/**
+ * Picks the admission class a service method uses for its database work.
+ * Can be put on a class to set the default for all of its public methods;
+ * a method-level annotation overrides the class-level one.
+ *
+ * @see DbAdmissionController
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface DbPriority {
+
+    PriorityClass value();
+}
@@ -0,0 +1,8 @@
+package com.csci310.anchornotes.concurrency;
+
+public enum PriorityClass {
+    /** Single-note reads and writes a user is waiting on (open note, autosave, pin). */
+    INTERACTIVE,
+    /** Full-list fetches, filters, background syncs and other multi-row work. */
+    BULK
+}
@@ -0,0 +1,18 @@
+package com.csci310.anchornotes.concurrency;
+
+import java.lang.annotation.*;
+
+/**
+ * Marks a per-user read whose concurrent identical calls should share one execution.
+ * The first argument must be the user id; the flight key is the name plus all arguments.
+ *
+ * @see SingleFlightGroup
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface SingleFlight {
+
+    /** Flight name, used in the key and as the metrics tag. */
+    String value();
+}
@@ -0,0 +1,70 @@
+package com.csci310.anchornotes.concurrency;
+
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Routes {@link SingleFlight} methods through the {@link SingleFlightGroup}, and bumps the
+ * user's write generation after any other call into a {@link DbPriority} service that is not
+ * a read-only transaction.
+ *
+ * Ordered ahead of {@link DbAdmissionAspect} so coalesced callers never take an admission
+ * permit or a connection.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class SingleFlightAspect {
+
+    private final SingleFlightGroup singleFlightGroup;
+
+    @Around("@within(com.csci310.anchornotes.concurrency.DbPriority) && execution(public * *(String, ..))")
+    public Object coalesce(ProceedingJoinPoint joinPoint) throws Throwable {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        Object[] args = joinPoint.getArgs();
+        String userId = (String) args[0];
+
+        SingleFlight singleFlight = AnnotationUtils.findAnnotation(method, SingleFlight.class);
+        if (singleFlight != null && userId != null) {
+            List<Object> key = new ArrayList<>(args.length + 1);
+            key.add(singleFlight.value());
+            key.addAll(Arrays.asList(args));
+            return singleFlightGroup.execute(singleFlight.value(), userId, key, () -> proceed(joinPoint));
+        }
+
+        Object result = joinPoint.proceed();
+        if (userId != null && !isReadOnly(method)) {
+            singleFlightGroup.invalidate(userId);
+        }
+        return result;
+    }
+
+    private static boolean isReadOnly(Method method) {
+        Transactional transactional = AnnotationUtils.findAnnotation(method, Transactional.class);
+        return transactional != null && transactional.readOnly();
+    }
+
+    private static Object proceed(ProceedingJoinPoint joinPoint) {
+        try {
+            return joinPoint.proceed();
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.csci310.anchornotes.concurrency;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent identical reads. The first caller for a key runs the loader; callers
+ * arriving while it is still running wait for and share its result (or exception).
+ *
+ * Each user has a write generation. A write bumps it once it has committed, and a caller only
+ * joins a flight that started in the current generation, so a read issued after a write
+ * returned never receives a result loaded before that write.
+ */
+@Component
+@Slf4j
+public class SingleFlightGroup {
+
+    private static final int GENERATION_STRIPES = 1024;
+
+    private final Map<List<Object>, Flight> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Counter[]> counters = new ConcurrentHashMap<>();
+
+    public SingleFlightGroup(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String name, String userId, List<Object> key, Supplier<T> loader) {
+        Counter[] calls = counters.computeIfAbsent(name, this::registerCounters);
+        long generation = generations.get(stripe(userId));
+
+        Flight mine = new Flight(generation);
+        Flight flight = inFlight.compute(key, (k, existing) ->
+                existing != null && existing.generation == generation ? existing : mine);
+
+        if (flight != mine) {
+            calls[1].increment();
+            try {
+                return (T) flight.result.join();
+            } catch (CompletionException e) {
+                throw rethrow(e.getCause());
+            }
+        }
+
+        calls[0].increment();
+        try {
+            T result = loader.get();
+            mine.result.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            mine.result.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    /** Called after a write for this user has committed. */
+    public void invalidate(String userId) {
+        generations.incrementAndGet(stripe(userId));
+    }
+
+    private static int stripe(String userId) {
+        return (userId.hashCode() & 0x7fffffff) % GENERATION_STRIPES;
+    }
+
+    private Counter[] registerCounters(String name) {
+        return new Counter[] {
+                Counter.builder("app.singleflight.calls").tag("name", name).tag("result", "executed")
+                        .description("Reads that ran their own query")
+                        .register(meterRegistry),
+                Counter.builder("app.singleflight.calls").tag("name", name).tag("result", "coalesced")
+                        .description("Reads that shared the result of an identical in-flight read")
+                        .register(meterRegistry)
+        };
+    }
+
+    private static RuntimeException rethrow(Throwable cause) {
+        if (cause instanceof RuntimeException runtime) {
+            return runtime;
+        }
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        return new IllegalStateException(cause);
+    }
+
+    private static final class Flight {
+        private final long generation;
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+
+        private Flight(long generation) {
+            this.generation = generation;
+        }
+    }
+}
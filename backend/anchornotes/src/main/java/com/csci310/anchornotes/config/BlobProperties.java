@@ -0,0 +1,36 @@
+package com.csci310.anchornotes.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Settings for content-addressed attachment files.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.blobs")
+@Getter
+@Setter
+public class BlobProperties {
+
+    /** Timeout for streaming one uploaded file to storage. */
+    private Duration uploadTimeout = Duration.ofMinutes(2);
+
+    /** Whether this replica takes part in deleting files no attachment uses any more. */
+    private boolean collectorEnabled = true;
+
+    /** How often the collector looks for unreferenced files. */
+    private Duration collectInterval = Duration.ofHours(1);
+
+    /**
+     * How long a file stays after its last attachment is deleted, so a client that was just
+     * told the server has its hash can still attach it.
+     */
+    private Duration releaseGrace = Duration.ofHours(24);
+
+    /** Files deleted per shard in one collector run. */
+    private int collectBatchSize = 200;
+}
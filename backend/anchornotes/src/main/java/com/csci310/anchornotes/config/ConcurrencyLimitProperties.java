@@ -0,0 +1,54 @@
+package com.csci310.anchornotes.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Settings for the adaptive concurrency limiter in front of the controllers.
+ * Each route group gets its own limit so a burst on one group cannot take
+ * every request thread (and DB connection) away from the others.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.concurrency-limit")
+@Getter
+@Setter
+public class ConcurrencyLimitProperties {
+
+    private boolean enabled = true;
+
+    /** Value of the Retry-After header on shed requests. */
+    private int retryAfterSeconds = 1;
+
+    /** Paths that are never limited (health checks, metrics). */
+    private List<String> excludedPaths = new ArrayList<>(List.of("/health", "/actuator/**", "/error"));
+
+    /** Limit used for requests that match no named route group. */
+    private Route defaults = new Route();
+
+    /** Named route groups, checked in declaration order. */
+    private Map<String, Route> routes = new LinkedHashMap<>();
+
+    @Getter
+    @Setter
+    public static class Route {
+        /** Ant-style paths, optionally prefixed with an HTTP method, e.g. "GET /api/notes/search". */
+        private List<String> patterns = new ArrayList<>();
+        private int initialLimit = 20;
+        private int minLimit = 2;
+        private int maxLimit = 200;
+        /** Multiplicative decrease applied when a request is slow or fails. */
+        private double backoffRatio = 0.9;
+        /** A request slower than this multiple of the observed no-load latency counts as congestion. */
+        private double latencyTolerance = 2.0;
+        /** A request slower than this always counts as congestion. */
+        private Duration timeout = Duration.ofSeconds(5);
+    }
+}
@@ -0,0 +1,33 @@
+package com.csci310.anchornotes.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Settings for the priority-aware database admission gate.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.db-admission")
+@Getter
+@Setter
+public class DbAdmissionProperties {
+
+    private boolean enabled = true;
+
+    /** Concurrent admitted units of DB work; should match the connection pool size. */
+    private int permits = 10;
+
+    /**
+     * Most permits bulk work may hold at once. Kept below {@link #permits} so at least
+     * one connection is always left for interactive work.
+     */
+    private int maxBulkConcurrency = 1;
+
+    private Duration interactiveTimeout = Duration.ofSeconds(5);
+
+    private Duration bulkTimeout = Duration.ofSeconds(15);
+}
@@ -0,0 +1,39 @@
+package com.csci310.anchornotes.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Settings for the per-user change stream at /api/events.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.events")
+@Getter
+@Setter
+public class EventStreamProperties {
+
+    /** Recent events kept per user so a reconnecting client can resume from Last-Event-ID. */
+    private int replayBufferSize = 256;
+
+    /** How long a user's replay buffer is kept after their last connection closes. */
+    private Duration replayRetention = Duration.ofMinutes(10);
+
+    /**
+     * Events queued per connection waiting to be written. A client that falls this far
+     * behind is sent a single resync event instead and should reload.
+     */
+    private int connectionBufferSize = 128;
+
+    /** Open streams allowed per user; a new one beyond this closes the oldest. */
+    private int maxConnectionsPerUser = 4;
+
+    /** Idle streams get a comment line this often so proxies and dead peers are noticed. */
+    private Duration heartbeatInterval = Duration.ofSeconds(25);
+
+    /** Streams are closed after this long; clients reconnect with Last-Event-ID. */
+    private Duration connectionTimeout = Duration.ofMinutes(30);
+}
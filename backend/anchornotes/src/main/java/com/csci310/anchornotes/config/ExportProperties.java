@@ -0,0 +1,39 @@
+package com.csci310.anchornotes.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Settings for the account export at /api/export.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.export")
+@Getter
+@Setter
+public class ExportProperties {
+
+    /**
+     * Rows read per query. Each page is its own short read-only transaction and is written
+     * (and flushed) before the next one is read, so this bounds the rows held in memory.
+     */
+    private int pageSize = 500;
+
+    /** Exports running at once on this replica; more are answered with 503. */
+    private int maxConcurrentExports = 4;
+
+    /** Times a page is retried when the database is busy before the export is cut off. */
+    private int pageAttempts = 3;
+
+    /** Wait between those retries. */
+    private Duration pageRetryBackoff = Duration.ofSeconds(1);
+
+    /** Streams still running after this long are closed; also the default for other async responses. */
+    private Duration timeout = Duration.ofHours(1);
+
+    /** Connect and first-byte timeout for each attachment fetched from storage into a ZIP. */
+    private Duration storageTimeout = Duration.ofSeconds(30);
+}
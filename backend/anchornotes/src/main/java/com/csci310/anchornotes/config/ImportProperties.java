@@ -0,0 +1,54 @@
+package com.csci310.anchornotes.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Settings for bulk imports at /api/import.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.import")
+@Getter
+@Setter
+public class ImportProperties {
+
+    /** Largest request body accepted, in bytes. */
+    private long maxBytes = 256L * 1024 * 1024;
+
+    /** Notes accepted per import; a larger upload is rejected as a whole. */
+    private int maxNotes = 100_000;
+
+    /** Tag records per import; their ids are kept in memory to resolve notes' tagIds. */
+    private int maxTags = 10_000;
+
+    /** Longest single NDJSON line, in characters; longer lines are rejected. */
+    private int maxLineLength = 1024 * 1024;
+
+    /** Color for tags that notes name but the upload does not define. */
+    private String defaultTagColor = "#9E9E9E";
+
+    /** Imports merging at once on this replica. */
+    private int maxConcurrentImports = 2;
+
+    /** Validated uploads waiting for a merge slot; beyond this new uploads get 503. */
+    private int maxQueuedImports = 8;
+
+    /** Rejected lines listed in the job status; the rest are only counted. */
+    private int maxReportedErrors = 50;
+
+    /** Directory for staged rows between upload and merge; the system temp dir when unset. */
+    private String spoolDirectory;
+
+    /**
+     * A job still queued or loading after this long without an update is reported as failed:
+     * the replica running it went away.
+     */
+    private Duration staleAfter = Duration.ofMinutes(15);
+
+    /** Finished jobs older than this are removed when the user starts another import. */
+    private Duration retention = Duration.ofDays(7);
+}
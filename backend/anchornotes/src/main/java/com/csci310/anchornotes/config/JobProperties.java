@@ -0,0 +1,42 @@
+package com.csci310.anchornotes.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Settings for cluster-wide background jobs coordinated through the job_leases table.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.jobs")
+@Getter
+@Setter
+public class JobProperties {
+
+    /** When off, this replica never claims job partitions; others in the cluster still do. */
+    private boolean enabled = true;
+
+    /** How often due partitions are claimed and held leases renewed. */
+    private Duration pollInterval = Duration.ofSeconds(5);
+
+    /**
+     * How long a claim lasts without renewal. A crashed replica's partitions become
+     * claimable again after this; keep it several poll intervals long.
+     */
+    private Duration leaseDuration = Duration.ofSeconds(60);
+
+    /** Job partitions this replica runs at once, across all jobs. */
+    private int maxConcurrentRuns = 4;
+
+    /**
+     * Partitions of one job claimed per poll. Kept small so partitioned jobs spread across
+     * replicas instead of the first poller taking them all.
+     */
+    private int maxClaimsPerPoll = 1;
+
+    /** Lease owner name; defaults to host, pid and a random suffix. */
+    private String nodeId;
+}
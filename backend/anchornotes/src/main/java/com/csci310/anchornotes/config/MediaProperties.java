@@ -0,0 +1,39 @@
+package com.csci310.anchornotes.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Settings for streaming attachment files to clients.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.media")
+@Getter
+@Setter
+public class MediaProperties {
+
+    /**
+     * Directory for this replica's copies of recently played files; a directory under the
+     * system temp dir when unset. Cache files left from an earlier run are deleted on startup.
+     */
+    private String cacheDirectory;
+
+    /** Disk space the cache may use; the least recently played files are evicted beyond it. */
+    private long cacheMaxBytes = 1024L * 1024 * 1024;
+
+    /** Larger files are always streamed from storage and never cached. */
+    private long cacheMaxObjectBytes = 64L * 1024 * 1024;
+
+    /** Files downloaded into the cache at once on this replica. */
+    private int fillWorkers = 2;
+
+    /** Cache downloads waiting for a worker; beyond this a miss is served without caching. */
+    private int fillQueueCapacity = 32;
+
+    /** Timeout for connecting to storage and getting response headers. */
+    private Duration storageTimeout = Duration.ofSeconds(30);
+}
@@ -0,0 +1,48 @@
+package com.csci310.anchornotes.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Settings for normalizing uploaded photos before they are stored.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.photos")
+@Getter
+@Setter
+public class PhotoProperties {
+
+    /** Whether uploaded JPEG photos are resized, re-encoded and stripped of metadata. */
+    private boolean normalize = true;
+
+    /** Longest edge of a stored photo, in pixels. Smaller photos are not scaled up. */
+    private int maxDimension = 2560;
+
+    /** JPEG quality of re-encoded photos, 0 to 1. */
+    private float quality = 0.85f;
+
+    /**
+     * Also store the file exactly as uploaded, next to the normalized one, as
+     * {@code <userId>/<sha256>.original}. Clients are only ever given the normalized file.
+     */
+    private boolean keepOriginal = false;
+
+    /** Photos normalized at once on this replica. Re-encoding is CPU-bound, so keep this near the core count. */
+    private int workers = 2;
+
+    /** Uploads waiting for a worker; beyond this a photo is stored without re-encoding. */
+    private int queueCapacity = 16;
+
+    /** How long an upload waits for its photo to be normalized before storing it without re-encoding. */
+    private Duration timeout = Duration.ofSeconds(30);
+
+    /** Larger uploads are stored as they are. */
+    private long maxSourceBytes = 32L * 1024 * 1024;
+
+    /** Photos with more pixels than this are not decoded (decompression bombs). */
+    private long maxSourcePixels = 100_000_000L;
+}
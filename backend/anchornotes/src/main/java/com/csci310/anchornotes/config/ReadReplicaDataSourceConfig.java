@@ -0,0 +1,76 @@
+package com.csci310.anchornotes.config;
+
+import com.csci310.anchornotes.datasource.ReadReplicaRouter;
+import com.csci310.anchornotes.datasource.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Replaces the auto-configured pool with a primary pool (spring.datasource.*) and a replica
+ * pool (app.datasource.replica.*) behind a routing DataSource. Only active when
+ * {@code app.datasource.replica.enabled=true}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.datasource.replica", name = "enabled", havingValue = "true")
+public class ReadReplicaDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    public HikariDataSource replicaDataSource(DataSourceProperties primary, ReadReplicaProperties properties) {
+        if (properties.getUrl() == null || properties.getUrl().isBlank()) {
+            throw new IllegalStateException("app.datasource.replica.url is required when the replica is enabled");
+        }
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("replica");
+        dataSource.setJdbcUrl(properties.getUrl());
+        dataSource.setUsername(properties.getUsername() != null ? properties.getUsername() : primary.getUsername());
+        dataSource.setPassword(properties.getPassword() != null ? properties.getPassword() : primary.getPassword());
+        dataSource.setDriverClassName(primary.getDriverClassName());
+        dataSource.setMaximumPoolSize(properties.getMaximumPoolSize());
+        dataSource.setMinimumIdle(properties.getMinimumIdle());
+        dataSource.setConnectionTimeout(properties.getConnectionTimeout().toMillis());
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    public ReadReplicaRouter readReplicaRouter(ReadReplicaProperties properties,
+                                               @Qualifier("replicaDataSource") DataSource replica,
+                                               MeterRegistry meterRegistry) {
+        ReadReplicaRouter router = new ReadReplicaRouter(properties, replica, meterRegistry);
+        router.start();
+        return router;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 @Qualifier("replicaDataSource") DataSource replica,
+                                 ReadReplicaRouter router) {
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(router);
+        routing.setTargetDataSources(Map.of(
+                ReadReplicaRouter.Target.PRIMARY, primary,
+                ReadReplicaRouter.Target.REPLICA, replica));
+        routing.setDefaultTargetDataSource(primary);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+}
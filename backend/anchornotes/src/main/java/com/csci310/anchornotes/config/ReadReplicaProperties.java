@@ -0,0 +1,41 @@
+package com.csci310.anchornotes.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Settings for sending read-only transactions to a read replica.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.datasource.replica")
+@Getter
+@Setter
+public class ReadReplicaProperties {
+
+    /** Off by default: everything uses spring.datasource as before. */
+    private boolean enabled = false;
+
+    private String url;
+    private String username;
+    private String password;
+
+    private int maximumPoolSize = 4;
+    private int minimumIdle = 0;
+    private Duration connectionTimeout = Duration.ofSeconds(5);
+
+    /**
+     * After a user's write, that user's reads go to the primary for at least this long so
+     * they see their own change even if the replica is behind.
+     */
+    private Duration readYourWritesWindow = Duration.ofSeconds(5);
+
+    /** Above this replication lag all reads go to the primary. */
+    private Duration maxLag = Duration.ofSeconds(10);
+
+    /** How often replica lag and reachability are checked. */
+    private Duration lagCheckInterval = Duration.ofSeconds(2);
+}
@@ -0,0 +1,68 @@
+package com.csci310.anchornotes.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Settings for the server-side time reminder scheduler.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.reminders")
+@Getter
+@Setter
+public class ReminderProperties {
+
+    private boolean enabled = true;
+
+    /** Timing wheel resolution; reminders fire at most this late. */
+    private Duration tick = Duration.ofSeconds(1);
+
+    /** Reminders due within this much of now are held in memory. */
+    private Duration loadWindow = Duration.ofHours(6);
+
+    /**
+     * How often each partition of the window is reloaded from the database. Catches reminders
+     * entering the window and any change that was not seen as an event.
+     */
+    private Duration reloadInterval = Duration.ofMinutes(5);
+
+    /** Note id partitions the window is loaded in; replicas share them through job leases. */
+    private int partitions = 4;
+
+    /** Undelivered reminders this far in the past are still fired (e.g. after a restart). */
+    private Duration catchUpWindow = Duration.ofHours(1);
+
+    /** Notifier calls in flight at once. */
+    private int maxConcurrentDeliveries = 8;
+
+    /** Attempts per reminder before giving up until the next reload. */
+    private int maxAttempts = 5;
+
+    /** Delay before the first retry, doubled for each one after. */
+    private Duration retryBackoff = Duration.ofSeconds(10);
+
+    /**
+     * How long a replica may spend delivering a claimed reminder before another replica may
+     * take it over. Keep it above the notifier's own timeout.
+     */
+    private Duration claimTimeout = Duration.ofMinutes(2);
+
+    /** Delivery records older than this are deleted; must be longer than the catch-up window. */
+    private Duration deliveryRetention = Duration.ofDays(30);
+
+    /** Where due reminders go: log (default) or webhook. */
+    private String notifier = "log";
+
+    private Webhook webhook = new Webhook();
+
+    @Getter
+    @Setter
+    public static class Webhook {
+        private String url;
+        private Duration timeout = Duration.ofSeconds(5);
+    }
+}
@@ -0,0 +1,27 @@
+package com.csci310.anchornotes.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Settings for note revision history.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.revisions")
+@Getter
+@Setter
+public class RevisionProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * A full snapshot is stored every this many revisions; any revision is rebuilt from
+     * the nearest snapshot plus at most this many minus one deltas.
+     */
+    private int snapshotInterval = 20;
+
+    /** Most recent revisions kept per note; older ones are pruned a snapshot interval at a time. */
+    private int retainRevisions = 200;
+}
@@ -1,6 +1,8 @@
 package com.csci310.anchornotes.config;
 
+import com.csci310.anchornotes.concurrency.ConcurrencyLimitFilter;
 import com.csci310.anchornotes.security.JwtAuthenticationFilter;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -20,6 +22,7 @@ import org.springframework.web.cors.CorsConfigurationSource;
 public class SecurityConfig {
 
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
+    private final ConcurrencyLimitFilter concurrencyLimitFilter;
     private final CorsConfigurationSource corsConfigurationSource;
 
     @Bean
@@ -30,10 +33,14 @@ public class SecurityConfig {
                 .sessionManagement(session ->
                     session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
-                        .requestMatchers("/api/auth/**", "/api/public/**", "/health", "/error").permitAll()
+                        // Completion of an already-authorized async response (SSE streams)
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+                        .requestMatchers("/api/auth/**", "/api/public/**", "/health", "/actuator/health", "/error").permitAll()
                         .anyRequest().authenticated()
                 )
-                .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
+                .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
+                // Shed load before spending any work on token verification
+                .addFilterBefore(concurrencyLimitFilter, JwtAuthenticationFilter.class);
 
         return http.build();
     }
@@ -0,0 +1,104 @@
+package com.csci310.anchornotes.config;
+
+import com.csci310.anchornotes.datasource.ShardDataSources;
+import com.csci310.anchornotes.datasource.ShardRouter;
+import com.csci310.anchornotes.datasource.ShardRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Replaces the auto-configured pool with one pool per shard behind a routing DataSource:
+ * the primary shard from spring.datasource.* and the rest from app.sharding.shards.*.
+ * Only active when {@code app.sharding.enabled=true}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.sharding", name = "enabled", havingValue = "true")
+public class ShardingDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryShardDataSource(DataSourceProperties properties, ShardingProperties sharding,
+                                                   ReadReplicaProperties replica) {
+        if (replica.isEnabled()) {
+            throw new IllegalStateException("app.sharding and app.datasource.replica cannot be enabled together");
+        }
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName(sharding.getPrimaryShard());
+        return dataSource;
+    }
+
+    @Bean
+    public ShardRouter shardRouter(ShardingProperties properties,
+                                   @Qualifier("primaryShardDataSource") DataSource primary,
+                                   MeterRegistry meterRegistry) {
+        List<String> shards = new ArrayList<>();
+        shards.add(properties.getPrimaryShard());
+        shards.addAll(properties.getShards().keySet());
+        ShardRouter router = new ShardRouter(properties, shards, primary, meterRegistry);
+        router.start();
+        return router;
+    }
+
+    @Bean
+    public ShardDataSources shardDataSources(@Qualifier("primaryShardDataSource") DataSource primary,
+                                             DataSourceProperties primaryProperties,
+                                             ShardingProperties properties,
+                                             MeterRegistry meterRegistry) {
+        Map<String, DataSource> dataSources = new LinkedHashMap<>();
+        Map<String, HikariDataSource> owned = new LinkedHashMap<>();
+        dataSources.put(properties.getPrimaryShard(), primary);
+        properties.getShards().forEach((name, shard) -> {
+            if (name.equals(properties.getPrimaryShard())) {
+                throw new IllegalStateException("Shard " + name + " is already the primary shard");
+            }
+            HikariDataSource pool = shardPool(name, shard, primaryProperties);
+            // not beans, so the pool metrics auto-configuration does not see them
+            pool.setMetricRegistry(meterRegistry);
+            owned.put(name, pool);
+            dataSources.put(name, pool);
+        });
+        return new ShardDataSources(dataSources, owned);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ShardDataSources shards, ShardRouter router) {
+        ShardRoutingDataSource routing = new ShardRoutingDataSource(router);
+        routing.setTargetDataSources(new LinkedHashMap<>(shards.asMap()));
+        routing.setDefaultTargetDataSource(shards.get(router.primaryShard()));
+        // an unknown shard is a misconfiguration, not a reason to write to the primary
+        routing.setLenientFallback(false);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    private static HikariDataSource shardPool(String name, ShardingProperties.Shard shard, DataSourceProperties primary) {
+        if (shard.getUrl() == null || shard.getUrl().isBlank()) {
+            throw new IllegalStateException("app.sharding.shards." + name + ".url is required");
+        }
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName(name);
+        dataSource.setJdbcUrl(shard.getUrl());
+        dataSource.setUsername(shard.getUsername() != null ? shard.getUsername() : primary.getUsername());
+        dataSource.setPassword(shard.getPassword() != null ? shard.getPassword() : primary.getPassword());
+        dataSource.setDriverClassName(primary.getDriverClassName());
+        dataSource.setMaximumPoolSize(shard.getMaximumPoolSize());
+        dataSource.setMinimumIdle(shard.getMinimumIdle());
+        dataSource.setConnectionTimeout(shard.getConnectionTimeout().toMillis());
+        return dataSource;
+    }
+}
@@ -0,0 +1,63 @@
+package com.csci310.anchornotes.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Settings for spreading users across several Postgres databases.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.sharding")
+@Getter
+@Setter
+public class ShardingProperties {
+
+    /** Off by default: everything uses spring.datasource as before. */
+    private boolean enabled = false;
+
+    /**
+     * Name of the shard served by spring.datasource. It also holds the shard directory and
+     * cluster tables (job leases) that are not per user.
+     */
+    private String primaryShard = "s0";
+
+    /** The other shards by name. Renaming a shard moves its users on the ring. */
+    private Map<String, Shard> shards = new LinkedHashMap<>();
+
+    /** Points per shard on the hash ring; more points spread users more evenly. */
+    private int virtualNodes = 128;
+
+    /** How often each backend re-reads per-user shard overrides from the primary shard. */
+    private Duration overrideRefreshInterval = Duration.ofSeconds(5);
+
+    private Rebalance rebalance = new Rebalance();
+
+    @Getter
+    @Setter
+    public static class Shard {
+        private String url;
+        /** Defaults to spring.datasource.username / password. */
+        private String username;
+        private String password;
+        private int maximumPoolSize = 4;
+        private int minimumIdle = 0;
+        private Duration connectionTimeout = Duration.ofSeconds(5);
+    }
+
+    /**
+     * Set {@code user} and {@code target} to run the rebalance tool instead of the server:
+     * it moves that user's data to the target shard and exits.
+     */
+    @Getter
+    @Setter
+    public static class Rebalance {
+        private String user;
+        private String target;
+    }
+}
@@ -0,0 +1,55 @@
+package com.csci310.anchornotes.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * HTTP client settings for calls to Supabase Auth: pool size, timeouts,
+ * retry budget for idempotent calls and the circuit breaker thresholds.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.supabase.http")
+@Getter
+@Setter
+public class SupabaseHttpProperties {
+
+    private int maxConnections = 20;
+
+    private Duration connectTimeout = Duration.ofSeconds(2);
+
+    /** Socket read timeout; a slow auth endpoint fails the call instead of holding a request thread. */
+    private Duration readTimeout = Duration.ofSeconds(5);
+
+    /** How long a caller may wait for a pooled connection before failing fast. */
+    private Duration connectionRequestTimeout = Duration.ofSeconds(1);
+
+    private Retry retry = new Retry();
+
+    private Breaker circuitBreaker = new Breaker();
+
+    @Getter
+    @Setter
+    public static class Retry {
+        /** Total attempts for idempotent calls, including the first. Non-idempotent calls are never retried. */
+        private int maxAttempts = 3;
+        /** Backoff before the first retry, doubled (with jitter) for each one after. */
+        private Duration initialBackoff = Duration.ofMillis(100);
+    }
+
+    @Getter
+    @Setter
+    public static class Breaker {
+        /** Number of most recent calls the failure rate is computed over. */
+        private int slidingWindowSize = 20;
+        /** Calls needed in the window before the breaker can open. */
+        private int minimumCalls = 10;
+        private double failureRateThreshold = 0.5;
+        /** How long the breaker stays open before letting trial calls through. */
+        private Duration openDuration = Duration.ofSeconds(30);
+        private int halfOpenCalls = 3;
+    }
+}
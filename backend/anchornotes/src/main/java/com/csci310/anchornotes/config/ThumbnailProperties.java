@@ -0,0 +1,51 @@
+package com.csci310.anchornotes.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Settings for the photo thumbnail pipeline.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.thumbnails")
+@Getter
+@Setter
+public class ThumbnailProperties {
+
+    private boolean enabled = true;
+
+    /** Longest edge of each thumbnail, in pixels. Smaller photos are not scaled up. */
+    private List<Integer> sizes = List.of(160, 480);
+
+    /** JPEG quality of the thumbnails, 0 to 1. */
+    private float quality = 0.8f;
+
+    /** Photos resized at once on this replica. Resizing is CPU-bound, so keep this near the core count. */
+    private int workers = 2;
+
+    /** Photos waiting for a worker; beyond this new ones are left to the backfill job. */
+    private int queueCapacity = 200;
+
+    /** Larger originals are not downloaded for thumbnails. */
+    private long maxSourceBytes = 25L * 1024 * 1024;
+
+    /** Originals with more pixels than this are not decoded (decompression bombs). */
+    private long maxSourcePixels = 100_000_000L;
+
+    /** Timeout for each storage download and upload. */
+    private Duration storageTimeout = Duration.ofSeconds(30);
+
+    /** How often the backfill job looks for photos without thumbnails. */
+    private Duration backfillInterval = Duration.ofMinutes(10);
+
+    /** Photos the backfill job queues per run. */
+    private int backfillBatchSize = 100;
+
+    /** The backfill job leaves photos younger than this to the upload-time pipeline. */
+    private Duration backfillMinAge = Duration.ofMinutes(5);
+}
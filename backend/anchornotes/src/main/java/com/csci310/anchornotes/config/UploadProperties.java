@@ -0,0 +1,45 @@
+package com.csci310.anchornotes.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Settings for resumable attachment uploads at /api/uploads.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.uploads")
+@Getter
+@Setter
+public class UploadProperties {
+
+    /** Largest file accepted, in bytes. */
+    private long maxSizeBytes = 200L * 1024 * 1024;
+
+    /** Largest chunk accepted in one request, in bytes; each is held in memory while it is stored. */
+    private int maxChunkBytes = 8 * 1024 * 1024;
+
+    /** Sessions a user may have open at once; creating another gets 409. */
+    private int maxOpenSessions = 5;
+
+    /** A session is deleted, with its chunks, this long after the last chunk arrived. */
+    private Duration expireAfter = Duration.ofHours(24);
+
+    /**
+     * A session left completing this long, typically because its replica died midway, may be
+     * completed again; until then another complete request gets 409.
+     */
+    private Duration completionTimeout = Duration.ofMinutes(10);
+
+    /** How often expired sessions are deleted. */
+    private Duration expiryInterval = Duration.ofMinutes(15);
+
+    /** Sessions deleted per shard in one expiry run. */
+    private int expiryBatchSize = 500;
+
+    /** Directory where a finished upload is put together before it is stored; the system temp dir when unset. */
+    private String spoolDirectory;
+}
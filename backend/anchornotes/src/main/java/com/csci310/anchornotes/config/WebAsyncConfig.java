@@ -0,0 +1,29 @@
+package com.csci310.anchornotes.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Async request handling for streamed responses such as the account export.
+ *
+ * Each response body is written from its own virtual thread: a slow client blocks only that
+ * thread on the socket, instead of holding one of the few shared task-executor threads and
+ * queueing every other export behind it. SSE streams set their own timeout.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class WebAsyncConfig implements WebMvcConfigurer {
+
+    private final ExportProperties exportProperties;
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("mvc-async-");
+        executor.setVirtualThreads(true);
+        configurer.setTaskExecutor(executor);
+        configurer.setDefaultTimeout(exportProperties.getTimeout().toMillis());
+    }
+}
@@ -0,0 +1,31 @@
+package com.csci310.anchornotes.controller;
+
+import com.csci310.anchornotes.dto.attachment.BlobResponse;
+import com.csci310.anchornotes.service.AttachmentService;
+import com.csci310.anchornotes.util.UserContextUtil;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Lets a client ask whether a file is already stored before uploading it. 404 means upload
+ * it; 200 means it can be attached with POST /api/notes/{id}/photo/blob/{sha256} (or audio).
+ */
+@RestController
+@RequestMapping("/api/attachments/blobs")
+@RequiredArgsConstructor
+public class AttachmentBlobController {
+
+    private final AttachmentService attachmentService;
+    private final UserContextUtil userContextUtil;
+
+    @GetMapping("/{sha256}")
+    public ResponseEntity<BlobResponse> getBlob(Authentication auth, @PathVariable String sha256) {
+        String userId = userContextUtil.getCurrentUserId(auth);
+        return ResponseEntity.ok(attachmentService.findBlob(userId, sha256));
+    }
+}
@@ -1,5 +1,7 @@
 package com.csci310.anchornotes.controller;
 
+import com.csci310.anchornotes.blob.BlobSource;
+import com.csci310.anchornotes.blob.BlobUploader;
 import com.csci310.anchornotes.dto.attachment.CompleteUploadRequest;
 import com.csci310.anchornotes.dto.attachment.UploadRequest;
 import com.csci310.anchornotes.dto.attachment.UploadResponse;
@@ -25,6 +27,7 @@ import java.io.IOException;
 public class AttachmentController {
 
     private final AttachmentService attachmentService;
+    private final BlobUploader blobUploader;
     private final UserContextUtil userContextUtil;
 
     // Photo endpoints
@@ -53,7 +56,7 @@ public class AttachmentController {
     public ResponseEntity<Void> deletePhoto(
             Authentication auth,
             @PathVariable Long noteId,
-            @PathVariable Long attachmentId) {
+            @PathVariable Long attachmentId) throws IOException {
         String userId = userContextUtil.getCurrentUserId(auth);
         attachmentService.deletePhoto(userId, noteId, attachmentId);
         return ResponseEntity.noContent().build();
@@ -86,12 +89,35 @@ public class AttachmentController {
     public ResponseEntity<Void> deleteAudio(
             Authentication auth,
             @PathVariable Long noteId,
-            @PathVariable Long attachmentId) {
+            @PathVariable Long attachmentId) throws IOException {
         String userId = userContextUtil.getCurrentUserId(auth);
         attachmentService.deleteAudio(userId, noteId, attachmentId);
         return ResponseEntity.noContent().build();
     }
 
+    // Content-addressed endpoints: attach a file the user already uploaded, by SHA-256
+
+    @PostMapping("/photo/blob/{sha256}")
+    public ResponseEntity<NoteResponse> attachPhotoBlob(
+            Authentication auth,
+            @PathVariable Long noteId,
+            @PathVariable String sha256) {
+        String userId = userContextUtil.getCurrentUserId(auth);
+        NoteResponse response = attachmentService.attachPhotoBlob(userId, noteId, sha256);
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+
+    @PostMapping("/audio/blob/{sha256}")
+    public ResponseEntity<NoteResponse> attachAudioBlob(
+            Authentication auth,
+            @PathVariable Long noteId,
+            @PathVariable String sha256,
+            @RequestParam(value = "durationSec", required = false) Integer durationSec) {
+        String userId = userContextUtil.getCurrentUserId(auth);
+        NoteResponse response = attachmentService.attachAudioBlob(userId, noteId, sha256, durationSec);
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+
     // Direct upload endpoints (single-step through backend)
 
     @PostMapping(value = "/photo/upload", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
@@ -100,7 +126,7 @@ public class AttachmentController {
             @PathVariable Long noteId,
             @RequestParam("file") MultipartFile file) throws IOException {
         String userId = userContextUtil.getCurrentUserId(auth);
-        NoteResponse response = attachmentService.uploadPhoto(userId, noteId, file);
+        NoteResponse response = blobUploader.uploadPhoto(userId, noteId, BlobSource.of(file));
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
@@ -111,7 +137,7 @@ public class AttachmentController {
             @RequestParam("file") MultipartFile file,
             @RequestParam(value = "durationSec", required = false) Integer durationSec) throws IOException {
         String userId = userContextUtil.getCurrentUserId(auth);
-        NoteResponse response = attachmentService.uploadAudio(userId, noteId, file, durationSec);
+        NoteResponse response = blobUploader.uploadAudio(userId, noteId, BlobSource.of(file), durationSec);
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 }
@@ -0,0 +1,58 @@
+package com.csci310.anchornotes.controller;
+
+import com.csci310.anchornotes.events.EventStreamBroker;
+import com.csci310.anchornotes.util.UserContextUtil;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/events")
+@RequiredArgsConstructor
+@Slf4j
+public class EventController {
+
+    private final EventStreamBroker eventStreamBroker;
+    private final UserContextUtil userContextUtil;
+
+    /**
+     * Server-Sent Events stream of the user's note, tag, template and geofence changes.
+     * Resume position comes from the Last-Event-ID header, or the lastEventId query
+     * parameter for clients that cannot set headers on reconnect.
+     */
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamEvents(
+            Authentication auth,
+            HttpServletResponse response,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventIdHeader,
+            @RequestParam(value = "lastEventId", required = false) String lastEventIdParam) {
+        String userId = userContextUtil.getCurrentUserId(auth);
+
+        // Stop reverse proxies from buffering the stream
+        response.setHeader("X-Accel-Buffering", "no");
+        response.setHeader("Cache-Control", "no-cache");
+
+        String lastEventId = lastEventIdHeader != null ? lastEventIdHeader : lastEventIdParam;
+        return eventStreamBroker.subscribe(userId, parseEventId(lastEventId));
+    }
+
+    private static Long parseEventId(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            // Unknown position: the broker answers with a resync
+            return -1L;
+        }
+    }
+}
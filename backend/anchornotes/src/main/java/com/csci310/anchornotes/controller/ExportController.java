@@ -0,0 +1,57 @@
+package com.csci310.anchornotes.controller;
+
+import com.csci310.anchornotes.export.AccountExporter;
+import com.csci310.anchornotes.export.ExportFormat;
+import com.csci310.anchornotes.util.UserContextUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+
+@RestController
+@RequestMapping("/api/export")
+@RequiredArgsConstructor
+@Slf4j
+public class ExportController {
+
+    private final AccountExporter accountExporter;
+    private final UserContextUtil userContextUtil;
+
+    /**
+     * Download everything the user owns: NDJSON by default, or with format=zip a ZIP that
+     * also holds every attachment's bytes. The body is streamed as it is read, so there is
+     * no Content-Length; the final "end" record shows the download is complete.
+     */
+    @GetMapping
+    public ResponseEntity<StreamingResponseBody> export(
+            Authentication auth,
+            @RequestParam(value = "format", defaultValue = "ndjson") String format) {
+        String userId = userContextUtil.getCurrentUserId(auth);
+        ExportFormat exportFormat = ExportFormat.from(format);
+
+        AccountExporter.Permit permit = accountExporter.reserve();
+        String fileName = "anchornotes-export-" + LocalDate.now(ZoneOffset.UTC) + exportFormat.extension();
+        return ResponseEntity.ok()
+                .contentType(exportFormat.mediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(fileName).build().toString())
+                .cacheControl(CacheControl.noStore())
+                // Stop reverse proxies from buffering the whole download
+                .header("X-Accel-Buffering", "no")
+                .body(out -> {
+                    try (permit) {
+                        accountExporter.export(userId, exportFormat, out);
+                    }
+                });
+    }
+}
@@ -0,0 +1,50 @@
+package com.csci310.anchornotes.controller;
+
+import com.csci310.anchornotes.dto.importjob.ImportJobResponse;
+import com.csci310.anchornotes.importer.ImportCoordinator;
+import com.csci310.anchornotes.util.UserContextUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/import")
+@RequiredArgsConstructor
+@Slf4j
+public class ImportController {
+
+    private final ImportCoordinator importCoordinator;
+    private final UserContextUtil userContextUtil;
+
+    /**
+     * Import notes from an NDJSON body: an /api/export file, or one note object per line.
+     * Returns once the upload has been validated; the merge runs in the background and its
+     * progress is at the Location returned.
+     */
+    @PostMapping
+    public ResponseEntity<ImportJobResponse> startImport(Authentication auth, InputStream body) throws IOException {
+        String userId = userContextUtil.getCurrentUserId(auth);
+        ImportJobResponse response = importCoordinator.start(userId, body);
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .location(URI.create("/api/import/" + response.getId()))
+                .body(response);
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<ImportJobResponse> getImport(Authentication auth, @PathVariable UUID id) {
+        String userId = userContextUtil.getCurrentUserId(auth);
+        return ResponseEntity.ok(importCoordinator.status(userId, id));
+    }
+}
@@ -0,0 +1,44 @@
+package com.csci310.anchornotes.controller;
+
+import com.csci310.anchornotes.media.MediaStreamer;
+import com.csci310.anchornotes.service.AttachmentService;
+import com.csci310.anchornotes.util.UserContextUtil;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+
+/**
+ * The bytes of a user's own attachment files, with Range support for seeking in audio.
+ * Responses carry a strong ETag that never changes for an attachment, so clients may cache
+ * them and resume with If-Range.
+ */
+@RestController
+@RequestMapping("/api/attachments")
+@RequiredArgsConstructor
+public class MediaController {
+
+    private final AttachmentService attachmentService;
+    private final MediaStreamer mediaStreamer;
+    private final UserContextUtil userContextUtil;
+
+    @GetMapping("/photo/{attachmentId}/content")
+    public void getPhoto(Authentication auth, @PathVariable Long attachmentId,
+                         HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String userId = userContextUtil.getCurrentUserId(auth);
+        mediaStreamer.stream(attachmentService.findPhotoMedia(userId, attachmentId), request, response);
+    }
+
+    @GetMapping("/audio/{attachmentId}/content")
+    public void getAudio(Authentication auth, @PathVariable Long attachmentId,
+                         HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String userId = userContextUtil.getCurrentUserId(auth);
+        mediaStreamer.stream(attachmentService.findAudioMedia(userId, attachmentId), request, response);
+    }
+}
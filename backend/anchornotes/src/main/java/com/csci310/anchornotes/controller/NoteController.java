@@ -1,6 +1,8 @@
 package com.csci310.anchornotes.controller;
 
 import com.csci310.anchornotes.dto.ApiResponse;
+import com.csci310.anchornotes.dto.BulkDeleteRequest;
+import com.csci310.anchornotes.dto.BulkDeleteResponse;
 import com.csci310.anchornotes.dto.geofence.GeofenceRequest;
 import com.csci310.anchornotes.dto.note.*;
 import com.csci310.anchornotes.dto.reminder.TimeReminderRequest;
@@ -61,6 +63,16 @@ public class NoteController {
         return ResponseEntity.ok(response);
     }
 
+    @PatchMapping("/{id}/text")
+    public ResponseEntity<TextPatchResponse> patchText(
+            Authentication auth,
+            @PathVariable Long id,
+            @Valid @RequestBody TextPatchRequest request) {
+        String userId = userContextUtil.getCurrentUserId(auth);
+        TextPatchResponse response = noteService.patchText(userId, id, request);
+        return ResponseEntity.ok(response);
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteNote(
             Authentication auth,
@@ -70,13 +82,32 @@ public class NoteController {
         return ResponseEntity.noContent().build();
     }
 
+    @PostMapping("/bulk-delete")
+    public ResponseEntity<BulkDeleteResponse> deleteNotes(
+            Authentication auth,
+            @Valid @RequestBody BulkDeleteRequest request) {
+        String userId = userContextUtil.getCurrentUserId(auth);
+        int deleted = noteService.deleteNotes(userId, request.getIds());
+        return ResponseEntity.ok(new BulkDeleteResponse(request.getIds().size(), deleted));
+    }
+
     @PostMapping("/{id}/pin")
-    public ResponseEntity<NoteResponse> pinNote(
+    public ResponseEntity<NoteStateResponse> pinNote(
             Authentication auth,
             @PathVariable Long id,
             @Valid @RequestBody PinRequest request) {
         String userId = userContextUtil.getCurrentUserId(auth);
-        NoteResponse response = noteService.pinNote(userId, id, request.getPinned());
+        NoteStateResponse response = noteService.pinNote(userId, id, request.getPinned());
+        return ResponseEntity.ok(response);
+    }
+
+    @PutMapping("/{id}/background-color")
+    public ResponseEntity<NoteStateResponse> setBackgroundColor(
+            Authentication auth,
+            @PathVariable Long id,
+            @Valid @RequestBody BackgroundColorRequest request) {
+        String userId = userContextUtil.getCurrentUserId(auth);
+        NoteStateResponse response = noteService.setBackgroundColor(userId, id, request.getBackgroundColor());
         return ResponseEntity.ok(response);
     }
 
@@ -98,7 +129,7 @@ public class NoteController {
             @PathVariable Long id,
             @Valid @RequestBody TimeReminderRequest request) {
         String userId = userContextUtil.getCurrentUserId(auth);
-        NoteResponse response = noteService.setTimeReminder(userId, id, request);
+        NoteStateResponse response = noteService.setTimeReminder(userId, id, request);
 
         return ResponseEntity.ok(Map.of(
             "noteId", response.getId(),
@@ -145,6 +176,15 @@ public class NoteController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/filter/facets")
+    public ResponseEntity<FacetsResponse> getFilterFacets(
+            Authentication auth,
+            @ModelAttribute com.csci310.anchornotes.dto.note.FilterRequest request) {
+        String userId = userContextUtil.getCurrentUserId(auth);
+        FacetsResponse response = noteService.getFilterFacets(userId, request);
+        return ResponseEntity.ok(response);
+    }
+
     // RELEVANT NOTES - Critical endpoint
 
     @PostMapping("/relevant-notes")
@@ -0,0 +1,53 @@
+package com.csci310.anchornotes.controller;
+
+import com.csci310.anchornotes.dto.note.NoteResponse;
+import com.csci310.anchornotes.dto.revision.RevisionResponse;
+import com.csci310.anchornotes.dto.revision.RevisionSummaryResponse;
+import com.csci310.anchornotes.service.NoteRevisionService;
+import com.csci310.anchornotes.util.UserContextUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/notes/{noteId}/revisions")
+@RequiredArgsConstructor
+@Slf4j
+public class NoteRevisionController {
+
+    private final NoteRevisionService noteRevisionService;
+    private final UserContextUtil userContextUtil;
+
+    @GetMapping
+    public ResponseEntity<List<RevisionSummaryResponse>> listRevisions(
+            Authentication auth,
+            @PathVariable Long noteId) {
+        String userId = userContextUtil.getCurrentUserId(auth);
+        List<RevisionSummaryResponse> response = noteRevisionService.listRevisions(userId, noteId);
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/{revision}")
+    public ResponseEntity<RevisionResponse> getRevision(
+            Authentication auth,
+            @PathVariable Long noteId,
+            @PathVariable Long revision) {
+        String userId = userContextUtil.getCurrentUserId(auth);
+        RevisionResponse response = noteRevisionService.getRevision(userId, noteId, revision);
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/{revision}/restore")
+    public ResponseEntity<NoteResponse> restoreRevision(
+            Authentication auth,
+            @PathVariable Long noteId,
+            @PathVariable Long revision) {
+        String userId = userContextUtil.getCurrentUserId(auth);
+        NoteResponse response = noteRevisionService.restoreRevision(userId, noteId, revision);
+        return ResponseEntity.ok(response);
+    }
+}
@@ -0,0 +1,28 @@
+package com.csci310.anchornotes.controller;
+
+import com.csci310.anchornotes.dto.stats.StatsResponse;
+import com.csci310.anchornotes.service.StatsService;
+import com.csci310.anchornotes.util.UserContextUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/stats")
+@RequiredArgsConstructor
+@Slf4j
+public class StatsController {
+
+    private final StatsService statsService;
+    private final UserContextUtil userContextUtil;
+
+    @GetMapping
+    public ResponseEntity<StatsResponse> getStats(Authentication auth) {
+        String userId = userContextUtil.getCurrentUserId(auth);
+        return ResponseEntity.ok(statsService.getStats(userId));
+    }
+}
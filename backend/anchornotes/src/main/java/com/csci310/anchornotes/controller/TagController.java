@@ -1,5 +1,7 @@
 package com.csci310.anchornotes.controller;
 
+import com.csci310.anchornotes.dto.BulkDeleteRequest;
+import com.csci310.anchornotes.dto.BulkDeleteResponse;
 import com.csci310.anchornotes.dto.tag.CreateTagRequest;
 import com.csci310.anchornotes.dto.tag.TagResponse;
 import com.csci310.anchornotes.service.TagService;
@@ -47,4 +49,13 @@ public class TagController {
         tagService.deleteTag(userId, id);
         return ResponseEntity.noContent().build();
     }
+
+    @PostMapping("/bulk-delete")
+    public ResponseEntity<BulkDeleteResponse> deleteTags(
+            Authentication auth,
+            @Valid @RequestBody BulkDeleteRequest request) {
+        String userId = userContextUtil.getCurrentUserId(auth);
+        int deleted = tagService.deleteTags(userId, request.getIds());
+        return ResponseEntity.ok(new BulkDeleteResponse(request.getIds().size(), deleted));
+    }
 }
@@ -1,5 +1,7 @@
 package com.csci310.anchornotes.controller;
 
+import com.csci310.anchornotes.dto.BulkDeleteRequest;
+import com.csci310.anchornotes.dto.BulkDeleteResponse;
 import com.csci310.anchornotes.dto.note.NoteResponse;
 import com.csci310.anchornotes.dto.template.CreateTemplateRequest;
 import com.csci310.anchornotes.dto.template.InstantiateTemplateRequest;
@@ -61,6 +63,15 @@ public class TemplateController {
         return ResponseEntity.noContent().build();
     }
 
+    @PostMapping("/bulk-delete")
+    public ResponseEntity<BulkDeleteResponse> deleteTemplates(
+            Authentication auth,
+            @Valid @RequestBody BulkDeleteRequest request) {
+        String userId = userContextUtil.getCurrentUserId(auth);
+        int deleted = templateService.deleteTemplates(userId, request.getIds());
+        return ResponseEntity.ok(new BulkDeleteResponse(request.getIds().size(), deleted));
+    }
+
     @PostMapping("/{id}/instantiate")
     public ResponseEntity<NoteResponse> instantiateTemplate(
             Authentication auth,
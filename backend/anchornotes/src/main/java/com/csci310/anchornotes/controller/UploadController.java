@@ -0,0 +1,74 @@
+package com.csci310.anchornotes.controller;
+
+import com.csci310.anchornotes.dto.note.NoteResponse;
+import com.csci310.anchornotes.dto.upload.CreateUploadRequest;
+import com.csci310.anchornotes.dto.upload.UploadSessionResponse;
+import com.csci310.anchornotes.upload.ResumableUploads;
+import com.csci310.anchornotes.util.UserContextUtil;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/uploads")
+@RequiredArgsConstructor
+public class UploadController {
+
+    private final ResumableUploads resumableUploads;
+    private final UserContextUtil userContextUtil;
+
+    @PostMapping
+    public ResponseEntity<UploadSessionResponse> createUpload(
+            Authentication auth,
+            @Valid @RequestBody CreateUploadRequest request) {
+        String userId = userContextUtil.getCurrentUserId(auth);
+        UploadSessionResponse response = resumableUploads.create(userId, request);
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .location(URI.create("/api/uploads/" + response.getId()))
+                .body(response);
+    }
+
+    /** Where the upload stands; after an interruption, resume from the returned offset. */
+    @GetMapping("/{id}")
+    public ResponseEntity<UploadSessionResponse> getUpload(Authentication auth, @PathVariable UUID id) {
+        String userId = userContextUtil.getCurrentUserId(auth);
+        return ResponseEntity.ok(resumableUploads.status(userId, id));
+    }
+
+    /**
+     * Send the bytes starting at offset as the raw request body. 409 with the current offset
+     * if the upload is not at that offset.
+     */
+    @PutMapping("/{id}")
+    public ResponseEntity<UploadSessionResponse> putChunk(
+            Authentication auth,
+            @PathVariable UUID id,
+            @RequestParam long offset,
+            HttpServletRequest request) throws IOException {
+        String userId = userContextUtil.getCurrentUserId(auth);
+        ResumableUploads.AppendResult result = resumableUploads.append(
+                userId, id, offset, request.getInputStream(), request.getContentLengthLong());
+        return ResponseEntity.status(result.stored() ? HttpStatus.OK : HttpStatus.CONFLICT).body(result.session());
+    }
+
+    @PostMapping("/{id}/complete")
+    public ResponseEntity<NoteResponse> completeUpload(Authentication auth, @PathVariable UUID id) throws IOException {
+        String userId = userContextUtil.getCurrentUserId(auth);
+        return ResponseEntity.status(HttpStatus.CREATED).body(resumableUploads.complete(userId, id));
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> cancelUpload(Authentication auth, @PathVariable UUID id) {
+        String userId = userContextUtil.getCurrentUserId(auth);
+        resumableUploads.cancel(userId, id);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,135 @@
+package com.csci310.anchornotes.datasource;
+
+import com.csci310.anchornotes.config.ReadReplicaProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides whether a read-only transaction may use the replica.
+ *
+ * Reads go to the primary while the replica is unreachable or lagging more than
+ * {@code maxLag}, and for a user who wrote within the last {@code readYourWritesWindow}
+ * (stretched to the current lag when that is longer), so a user never reads a state older
+ * than their own last write. Write times are tracked per replica process; a client whose
+ * next read lands on another backend instance is only covered by the lag check.
+ */
+@Slf4j
+public class ReadReplicaRouter {
+
+    public enum Target { PRIMARY, REPLICA }
+
+    enum Reason { REPLICA, READ_YOUR_WRITES, REPLICA_LAG, REPLICA_DOWN }
+
+    // Zero when the replica has replayed everything it received; on an idle primary
+    // pg_last_xact_replay_timestamp() grows without the replica actually being behind.
+    private static final String LAG_QUERY = "SELECT CASE WHEN NOT pg_is_in_recovery() "
+            + "OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 "
+            + "ELSE COALESCE(EXTRACT(EPOCH FROM NOW() - pg_last_xact_replay_timestamp()) * 1000, 0) END";
+
+    private final ReadReplicaProperties properties;
+    private final DataSource replica;
+    private final Map<String, Long> lastWriteNanos = new ConcurrentHashMap<>();
+    private final Map<Reason, Counter> routed = new EnumMap<>(Reason.class);
+    private final ScheduledExecutorService monitor = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofVirtual().name("replica-lag-monitor").factory());
+
+    private volatile long lagMillis;
+    private volatile boolean replicaUp = true;
+
+    public ReadReplicaRouter(ReadReplicaProperties properties, DataSource replica, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.replica = replica;
+
+        for (Reason reason : Reason.values()) {
+            routed.put(reason, Counter.builder("app.db.reads")
+                    .tag("target", reason == Reason.REPLICA ? "replica" : "primary")
+                    .tag("reason", reason.name().toLowerCase().replace('_', '-'))
+                    .description("Read-only transactions by the pool they were sent to")
+                    .register(meterRegistry));
+        }
+        Gauge.builder("app.db.replica.lag", this, router -> router.replicaUp ? router.lagMillis : -1)
+                .baseUnit("milliseconds")
+                .description("Replication lag of the read replica, -1 while unreachable")
+                .register(meterRegistry);
+    }
+
+    public void start() {
+        long intervalMillis = properties.getLagCheckInterval().toMillis();
+        monitor.scheduleWithFixedDelay(this::checkReplica, 0, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void recordWrite(String userId) {
+        lastWriteNanos.put(userId, System.nanoTime());
+    }
+
+    /**
+     * Pool for a read-only transaction on behalf of the user bound in {@link RoutingContext}, if any.
+     */
+    public Target routeRead() {
+        Reason reason = decide(RoutingContext.currentUser());
+        routed.get(reason).increment();
+        return reason == Reason.REPLICA ? Target.REPLICA : Target.PRIMARY;
+    }
+
+    private Reason decide(String userId) {
+        if (!replicaUp) {
+            return Reason.REPLICA_DOWN;
+        }
+        long lag = lagMillis;
+        if (lag > properties.getMaxLag().toMillis()) {
+            return Reason.REPLICA_LAG;
+        }
+        if (userId != null) {
+            Long wroteAt = lastWriteNanos.get(userId);
+            if (wroteAt != null && System.nanoTime() - wroteAt < stickyNanos(lag)) {
+                return Reason.READ_YOUR_WRITES;
+            }
+        }
+        return Reason.REPLICA;
+    }
+
+    private long stickyNanos(long lag) {
+        return Math.max(properties.getReadYourWritesWindow().toNanos(), TimeUnit.MILLISECONDS.toNanos(lag));
+    }
+
+    void checkReplica() {
+        try (Connection connection = replica.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(LAG_QUERY)) {
+            rs.next();
+            lagMillis = rs.getLong(1);
+            if (!replicaUp) {
+                log.info("Read replica reachable again (lag {} ms)", lagMillis);
+            }
+            replicaUp = true;
+        } catch (SQLException | RuntimeException e) {
+            if (replicaUp) {
+                log.warn("Read replica unreachable, sending reads to the primary: {}", e.getMessage());
+            }
+            replicaUp = false;
+        }
+
+        long cutoff = System.nanoTime() - stickyNanos(lagMillis);
+        lastWriteNanos.values().removeIf(wroteAt -> wroteAt - cutoff < 0);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        monitor.shutdownNow();
+    }
+}
@@ -0,0 +1,30 @@
+package com.csci310.anchornotes.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Sends connections for read-only transactions to the replica when {@link ReadReplicaRouter}
+ * allows it, and everything else to the primary.
+ *
+ * Must sit behind a {@code LazyConnectionDataSourceProxy}: the transaction manager asks for a
+ * connection before it marks the transaction read-only, and the lazy proxy defers the real
+ * lookup until the first statement, when the flag is set.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    private final ReadReplicaRouter router;
+
+    public ReplicaRoutingDataSource(ReadReplicaRouter router) {
+        this.router = router;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isActualTransactionActive()
+                && TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return router.routeRead();
+        }
+        return ReadReplicaRouter.Target.PRIMARY;
+    }
+}
@@ -0,0 +1,53 @@
+package com.csci310.anchornotes.datasource;
+
+/**
+ * Who the current thread's database work is for, read by the routing DataSources when they
+ * pick a pool. Service calls bind the user (see {@link UserRoutingAspect}); background work
+ * that is not per user can pin a shard instead.
+ */
+public final class RoutingContext {
+
+    private static final ThreadLocal<String> USER = new ThreadLocal<>();
+    private static final ThreadLocal<String> SHARD = new ThreadLocal<>();
+
+    /** Restores the previous binding; use with try-with-resources. */
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    private RoutingContext() {
+    }
+
+    public static Scope bindUser(String userId) {
+        return bind(USER, userId);
+    }
+
+    /**
+     * Send this thread's connections to one shard regardless of user, e.g. for a job that
+     * scans every shard in turn.
+     */
+    public static Scope bindShard(String shard) {
+        return bind(SHARD, shard);
+    }
+
+    public static String currentUser() {
+        return USER.get();
+    }
+
+    public static String currentShard() {
+        return SHARD.get();
+    }
+
+    private static Scope bind(ThreadLocal<String> holder, String value) {
+        String previous = holder.get();
+        holder.set(value);
+        return () -> {
+            if (previous == null) {
+                holder.remove();
+            } else {
+                holder.set(previous);
+            }
+        };
+    }
+}
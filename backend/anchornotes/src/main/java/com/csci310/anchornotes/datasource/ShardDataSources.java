@@ -0,0 +1,45 @@
+package com.csci310.anchornotes.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import javax.sql.DataSource;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Every shard's pool by name, primary first. Owns the pools of the non-primary shards and
+ * closes them on shutdown; the primary pool is a bean of its own.
+ */
+public class ShardDataSources implements AutoCloseable {
+
+    private final Map<String, DataSource> byName;
+    private final Map<String, HikariDataSource> owned;
+
+    public ShardDataSources(Map<String, DataSource> byName, Map<String, HikariDataSource> owned) {
+        this.byName = Collections.unmodifiableMap(new LinkedHashMap<>(byName));
+        this.owned = owned;
+    }
+
+    public DataSource get(String shard) {
+        DataSource dataSource = byName.get(shard);
+        if (dataSource == null) {
+            throw new IllegalArgumentException("Unknown shard " + shard);
+        }
+        return dataSource;
+    }
+
+    public Set<String> names() {
+        return byName.keySet();
+    }
+
+    public Map<String, DataSource> asMap() {
+        return byName;
+    }
+
+    @Override
+    public void close() {
+        owned.values().forEach(HikariDataSource::close);
+    }
+}
@@ -0,0 +1,49 @@
+package com.csci310.anchornotes.datasource;
+
+import com.csci310.anchornotes.config.ShardingProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+/**
+ * The rebalance tool: when {@code app.sharding.rebalance.user} is set, moves that user to
+ * {@code app.sharding.rebalance.target} and exits instead of serving.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.sharding.rebalance", name = "user")
+@RequiredArgsConstructor
+@Slf4j
+public class ShardRebalanceRunner implements ApplicationRunner {
+
+    private final ShardRebalancer rebalancer;
+    private final ShardingProperties properties;
+    private final ConfigurableApplicationContext context;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        String user = properties.getRebalance().getUser();
+        String target = properties.getRebalance().getTarget();
+        int exitCode;
+        try {
+            if (target == null || target.isBlank()) {
+                throw new IllegalArgumentException("app.sharding.rebalance.target is required");
+            }
+            ShardRebalancer.MoveResult result = rebalancer.move(user, target);
+            log.info("Moved user {} from {} to {}: {}", user, result.source(), result.target(), result.rows());
+            exitCode = 0;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            exitCode = 1;
+        } catch (Exception e) {
+            log.error("Rebalance of user {} failed", user, e);
+            exitCode = 1;
+        }
+        int code = exitCode;
+        System.exit(SpringApplication.exit(context, () -> code));
+    }
+}
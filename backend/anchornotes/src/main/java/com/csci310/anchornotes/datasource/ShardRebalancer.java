@@ -0,0 +1,198 @@
+package com.csci310.anchornotes.datasource;
+
+import com.csci310.anchornotes.config.ShardingProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.UUID;
+
+/**
+ * Moves one user's data from their current shard to another while the rest of the cluster
+ * keeps serving.
+ *
+ * The user is first flagged as moving, so every backend rejects their writes with a 503
+ * once it has refreshed the directory; reads keep going to the old shard. Their rows are
+ * then copied from a repeatable-read snapshot of the source in a single target transaction
+ * (the stats triggers rebuild user_note_stats there, and the blob reference counts are
+ * rebuilt the same way as the attachments arrive), the directory is pointed at the
+ * target, and after another refresh interval the rows are deleted from the source. Row ids
+ * are copied as they are, which is safe because each shard's identity columns hand out a
+ * distinct residue (see the README); a collision aborts the move before anything changes.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.sharding", name = "enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class ShardRebalancer {
+
+    private static final String BY_USER = "user_id = ?";
+
+    /** Copy order respects foreign keys; deletes run in reverse. */
+    private static final List<Table> TABLES = List.of(
+            new Table("geofence", BY_USER),
+            // copied counts are zeroed; the triggers count the attachments back in as they are copied
+            new Table("attachment_blobs", BY_USER, "UPDATE attachment_blobs SET ref_count = 0 WHERE user_id = ?"),
+            new Table("photo_attachment", BY_USER),
+            new Table("audio_attachment", BY_USER),
+            new Table("tags", BY_USER),
+            new Table("notes", BY_USER),
+            new Table("templates", BY_USER),
+            new Table("note_tags", BY_USER),
+            new Table("template_tags", "template_id IN (SELECT id FROM templates WHERE user_id = ?)"),
+            new Table("note_revisions", BY_USER),
+            new Table("reminder_deliveries", BY_USER),
+            new Table("import_jobs", BY_USER),
+            new Table("upload_sessions", BY_USER),
+            new Table("upload_chunks", BY_USER));
+
+    private static final int BATCH_SIZE = 500;
+
+    private final ShardRouter router;
+    private final ShardDataSources shards;
+    private final ShardingProperties properties;
+
+    /** afterCopy, if set, runs on the target once the table's rows are in, with the user id bound. */
+    record Table(String name, String filter, String afterCopy) {
+        Table(String name, String filter) {
+            this(name, filter, null);
+        }
+    }
+
+    /** Rows copied per table. */
+    public record MoveResult(String source, String target, Map<String, Integer> rows) {
+    }
+
+    public MoveResult move(String userId, String target) throws SQLException, InterruptedException {
+        UUID user = UUID.fromString(userId);
+        String source = router.shardFor(userId);
+        if (source.equals(target)) {
+            throw new IllegalArgumentException("User " + userId + " is already on " + target);
+        }
+        DataSource from = shards.get(source);
+        DataSource to = shards.get(target);
+
+        log.info("Moving user {} from {} to {}", userId, source, target);
+        router.assign(userId, source, true);
+        Map<String, Integer> rows;
+        try {
+            awaitRefresh();
+            rows = copy(user, from, to);
+            router.assign(userId, target, false);
+        } catch (SQLException | RuntimeException | InterruptedException e) {
+            // the copy rolls back on failure; only if the directory update itself failed does the
+            // target keep an unused copy, which has to be deleted there before retrying
+            log.error("Moving user {} failed, leaving them on {}", userId, source, e);
+            router.assign(userId, source, false);
+            throw e;
+        }
+        log.info("User {} now served from {} ({} rows); removing them from {}", userId, target, rows, source);
+
+        // backends that have not refreshed yet still read from the source
+        awaitRefresh();
+        delete(user, from);
+        return new MoveResult(source, target, rows);
+    }
+
+    private void awaitRefresh() throws InterruptedException {
+        // one interval for every backend to refresh, one more for requests already in flight
+        Thread.sleep(properties.getOverrideRefreshInterval().multipliedBy(2).toMillis());
+    }
+
+    private Map<String, Integer> copy(UUID user, DataSource from, DataSource to) throws SQLException {
+        Map<String, Integer> rows = new LinkedHashMap<>();
+        try (Connection source = from.getConnection(); Connection target = to.getConnection()) {
+            source.setAutoCommit(false);
+            source.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+            source.setReadOnly(true);
+            target.setAutoCommit(false);
+            try {
+                for (Table table : TABLES) {
+                    rows.put(table.name(), copyTable(table, user, source, target));
+                    if (table.afterCopy() != null) {
+                        try (PreparedStatement after = target.prepareStatement(table.afterCopy())) {
+                            after.setObject(1, user);
+                            after.executeUpdate();
+                        }
+                    }
+                }
+                target.commit();
+            } catch (SQLException | RuntimeException e) {
+                target.rollback();
+                throw e;
+            } finally {
+                source.rollback();
+            }
+        }
+        return rows;
+    }
+
+    private static int copyTable(Table table, UUID user, Connection source, Connection target) throws SQLException {
+        try (PreparedStatement select = source.prepareStatement(
+                "SELECT * FROM " + table.name() + " WHERE " + table.filter())) {
+            select.setObject(1, user);
+            select.setFetchSize(BATCH_SIZE);
+            try (ResultSet rs = select.executeQuery()) {
+                ResultSetMetaData meta = rs.getMetaData();
+                int columns = meta.getColumnCount();
+                StringJoiner names = new StringJoiner(", ");
+                StringJoiner params = new StringJoiner(", ");
+                for (int i = 1; i <= columns; i++) {
+                    names.add(meta.getColumnName(i));
+                    params.add("?");
+                }
+                int copied = 0;
+                try (PreparedStatement insert = target.prepareStatement(
+                        "INSERT INTO " + table.name() + " (" + names + ") VALUES (" + params + ")")) {
+                    while (rs.next()) {
+                        for (int i = 1; i <= columns; i++) {
+                            insert.setObject(i, rs.getObject(i));
+                        }
+                        insert.addBatch();
+                        if (++copied % BATCH_SIZE == 0) {
+                            insert.executeBatch();
+                        }
+                    }
+                    insert.executeBatch();
+                }
+                return copied;
+            }
+        }
+    }
+
+    private static void delete(UUID user, DataSource from) throws SQLException {
+        try (Connection source = from.getConnection()) {
+            source.setAutoCommit(false);
+            try {
+                for (Table table : TABLES.reversed()) {
+                    try (PreparedStatement delete = source.prepareStatement(
+                            "DELETE FROM " + table.name() + " WHERE " + table.filter())) {
+                        delete.setObject(1, user);
+                        delete.executeUpdate();
+                    }
+                }
+                // the triggers left an all-zero row behind
+                try (PreparedStatement delete = source.prepareStatement(
+                        "DELETE FROM user_note_stats WHERE user_id = ?")) {
+                    delete.setObject(1, user);
+                    delete.executeUpdate();
+                }
+                source.commit();
+            } catch (SQLException | RuntimeException e) {
+                source.rollback();
+                throw e;
+            }
+        }
+    }
+}
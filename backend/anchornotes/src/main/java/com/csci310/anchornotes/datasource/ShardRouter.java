@@ -0,0 +1,181 @@
+package com.csci310.anchornotes.datasource;
+
+import com.csci310.anchornotes.config.ShardingProperties;
+import com.csci310.anchornotes.util.ConsistentHashRing;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides which shard holds a user's data.
+ *
+ * Users are placed on a {@link ConsistentHashRing} of the configured shards by user id. A
+ * user moved by the rebalance tool has a row in {@code user_shard_overrides} on the primary
+ * shard, which wins over the ring; every backend re-reads that table each
+ * {@code overrideRefreshInterval}. While a user is being moved the override is flagged
+ * {@code moving} and their writes are rejected so the copy stays consistent.
+ */
+@Slf4j
+public class ShardRouter {
+
+    record Override(String shard, boolean moving) {
+    }
+
+    private final ShardingProperties properties;
+    private final List<String> shards;
+    private final ConsistentHashRing<String> ring;
+    private final DataSource directory;
+    private final Map<String, Counter> routed = new HashMap<>();
+    private final ScheduledExecutorService refresher = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofVirtual().name("shard-directory-refresh").factory());
+
+    // replaced as a whole on refresh; user id -> override
+    private volatile Map<String, Override> overrides = Map.of();
+
+    public ShardRouter(ShardingProperties properties, List<String> shards, DataSource directory, MeterRegistry meterRegistry) {
+        if (!shards.contains(properties.getPrimaryShard())) {
+            throw new IllegalArgumentException("Primary shard " + properties.getPrimaryShard() + " is not in " + shards);
+        }
+        this.properties = properties;
+        this.shards = List.copyOf(shards);
+        this.ring = new ConsistentHashRing<>(this.shards, properties.getVirtualNodes());
+        this.directory = directory;
+
+        for (String shard : this.shards) {
+            routed.put(shard, Counter.builder("app.db.shard.connections")
+                    .tag("shard", shard)
+                    .description("Connections routed to each shard")
+                    .register(meterRegistry));
+        }
+        Gauge.builder("app.db.shard.overrides", this, router -> router.overrides.size())
+                .description("Users pinned to a shard other than their ring shard")
+                .register(meterRegistry);
+    }
+
+    public void start() {
+        long intervalMillis = properties.getOverrideRefreshInterval().toMillis();
+        refresher.scheduleWithFixedDelay(this::refreshOverrides, 0, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public List<String> shards() {
+        return shards;
+    }
+
+    public String primaryShard() {
+        return properties.getPrimaryShard();
+    }
+
+    public String shardFor(String userId) {
+        Override override = overrides.get(userId);
+        return override != null ? override.shard() : ringShardFor(userId);
+    }
+
+    public String ringShardFor(String userId) {
+        return ring.nodeFor(userId);
+    }
+
+    public boolean isMoving(String userId) {
+        Override override = overrides.get(userId);
+        return override != null && override.moving();
+    }
+
+    /**
+     * Shard for a connection requested now: a shard pinned on this thread, else the bound
+     * user's shard, else the primary.
+     */
+    String route() {
+        String shard = RoutingContext.currentShard();
+        if (shard == null) {
+            String userId = RoutingContext.currentUser();
+            shard = userId != null ? shardFor(userId) : properties.getPrimaryShard();
+        }
+        Counter counter = routed.get(shard);
+        if (counter != null) {
+            counter.increment();
+        }
+        return shard;
+    }
+
+    /**
+     * Record that {@code userId} lives on {@code shard}, flagged as moving or not, in the
+     * directory and in this process. Other backends pick it up on their next refresh.
+     */
+    public void assign(String userId, String shard, boolean moving) throws SQLException {
+        if (!shards.contains(shard)) {
+            throw new IllegalArgumentException("Unknown shard " + shard);
+        }
+        boolean onRing = !moving && shard.equals(ringShardFor(userId));
+        try (Connection connection = directory.getConnection()) {
+            if (onRing) {
+                try (PreparedStatement delete = connection.prepareStatement(
+                        "DELETE FROM user_shard_overrides WHERE user_id = ?")) {
+                    delete.setObject(1, UUID.fromString(userId));
+                    delete.executeUpdate();
+                }
+            } else {
+                try (PreparedStatement upsert = connection.prepareStatement(
+                        "INSERT INTO user_shard_overrides (user_id, shard, moving) VALUES (?, ?, ?) "
+                                + "ON CONFLICT (user_id) DO UPDATE SET shard = EXCLUDED.shard, "
+                                + "moving = EXCLUDED.moving, updated_at = NOW()")) {
+                    upsert.setObject(1, UUID.fromString(userId));
+                    upsert.setString(2, shard);
+                    upsert.setBoolean(3, moving);
+                    upsert.executeUpdate();
+                }
+            }
+        }
+        synchronized (this) {
+            Map<String, Override> next = new HashMap<>(overrides);
+            if (onRing) {
+                next.remove(userId);
+            } else {
+                next.put(userId, new Override(shard, moving));
+            }
+            overrides = Map.copyOf(next);
+        }
+    }
+
+    void refreshOverrides() {
+        Map<String, Override> loaded = new HashMap<>();
+        try (Connection connection = directory.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT user_id, shard, moving FROM user_shard_overrides")) {
+            while (rs.next()) {
+                String shard = rs.getString(2);
+                if (!shards.contains(shard)) {
+                    // routing such a user anywhere else would show them someone else's empty shard
+                    log.error("User {} is assigned to unconfigured shard {}; their requests will fail",
+                            rs.getString(1), shard);
+                }
+                loaded.put(rs.getString(1), new Override(shard, rs.getBoolean(3)));
+            }
+        } catch (SQLException | RuntimeException e) {
+            log.warn("Could not refresh shard overrides, keeping {} known: {}", overrides.size(), e.getMessage());
+            return;
+        }
+        synchronized (this) {
+            overrides = Map.copyOf(loaded);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        refresher.shutdownNow();
+    }
+}
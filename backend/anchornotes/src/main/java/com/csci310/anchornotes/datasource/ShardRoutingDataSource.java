@@ -0,0 +1,24 @@
+package com.csci310.anchornotes.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+/**
+ * Sends each connection to the shard {@link ShardRouter} picks for the work bound in
+ * {@link RoutingContext}. Unbound work (job leases, the shard directory) uses the primary.
+ *
+ * Must sit behind a {@code LazyConnectionDataSourceProxy} so the lookup happens at the
+ * first statement, after the service call has bound its user.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource {
+
+    private final ShardRouter router;
+
+    public ShardRoutingDataSource(ShardRouter router) {
+        this.router = router;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return router.route();
+    }
+}
@@ -0,0 +1,61 @@
+package com.csci310.anchornotes.datasource;
+
+import com.csci310.anchornotes.exception.ServiceUnavailableException;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.lang.reflect.Method;
+
+/**
+ * Binds the user a service call runs for in {@link RoutingContext}, for the same per-user
+ * service methods as the single-flight aspect.
+ *
+ * With a read replica, records the user's write once any call that is not a read-only
+ * transaction returns (after its commit). With sharding, rejects writes for a user whose
+ * data is being moved to another shard.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+public class UserRoutingAspect {
+
+    private final ReadReplicaRouter replicaRouter;
+    private final ShardRouter shardRouter;
+
+    public UserRoutingAspect(ObjectProvider<ReadReplicaRouter> replicaRouter, ObjectProvider<ShardRouter> shardRouter) {
+        this.replicaRouter = replicaRouter.getIfAvailable();
+        this.shardRouter = shardRouter.getIfAvailable();
+    }
+
+    @Around("@within(com.csci310.anchornotes.concurrency.DbPriority) && execution(public * *(String, ..))")
+    public Object bindUser(ProceedingJoinPoint joinPoint) throws Throwable {
+        String userId = (String) joinPoint.getArgs()[0];
+        if (userId == null) {
+            return joinPoint.proceed();
+        }
+        boolean readOnly = isReadOnly(((MethodSignature) joinPoint.getSignature()).getMethod());
+        if (!readOnly && shardRouter != null && shardRouter.isMoving(userId)) {
+            throw new ServiceUnavailableException("Your notes are being moved, please retry in a moment");
+        }
+        try (RoutingContext.Scope ignored = RoutingContext.bindUser(userId)) {
+            Object result = joinPoint.proceed();
+            if (!readOnly && replicaRouter != null) {
+                replicaRouter.recordWrite(userId);
+            }
+            return result;
+        }
+    }
+
+    private static boolean isReadOnly(Method method) {
+        Transactional transactional = AnnotationUtils.findAnnotation(method, Transactional.class);
+        return transactional != null && transactional.readOnly();
+    }
+}
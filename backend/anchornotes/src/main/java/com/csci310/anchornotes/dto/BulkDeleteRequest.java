@@ -0,0 +1,20 @@
+package com.csci310.anchornotes.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkDeleteRequest {
+    @NotEmpty(message = "At least one id is required")
+    @Size(max = 1000, message = "At most 1000 ids per request")
+    private List<Long> ids;
+}
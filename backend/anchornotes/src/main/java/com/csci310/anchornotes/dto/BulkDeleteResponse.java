@@ -0,0 +1,15 @@
+package com.csci310.anchornotes.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkDeleteResponse {
+    private int requested;
+    private int deleted;
+}
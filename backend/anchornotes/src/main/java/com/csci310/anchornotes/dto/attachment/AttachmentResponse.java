@@ -5,6 +5,8 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.Map;
+
 @Data
 @Builder
 @NoArgsConstructor
@@ -13,4 +15,5 @@ public class AttachmentResponse {
     private String id;
     private String url;
     private Integer durationSec; // for audio only
+    private Map<Integer, String> thumbnails; // for photos only: longest edge in px -> URL, once generated
 }
@@ -0,0 +1,16 @@
+package com.csci310.anchornotes.dto.attachment;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BlobResponse {
+    private String sha256;
+    private String mediaType;
+    private Long sizeBytes;
+}
@@ -0,0 +1,23 @@
+package com.csci310.anchornotes.dto.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Data line of one /api/events message. The SSE id is the resume position and the SSE
+ * event name equals {@code type}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChangeEventResponse {
+    private String type;
+    private String entity;
+    private String entityId;
+    private Instant at;
+}
@@ -0,0 +1,31 @@
+package com.csci310.anchornotes.dto.importjob;
+
+import com.csci310.anchornotes.entity.ImportState;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportJobResponse {
+    private UUID id;
+    private ImportState state;
+    private long linesRead;
+    private long rejected;
+    private long skipped;
+    private long notesStaged;
+    private long notesImported;
+    private long tagsCreated;
+    private long geofencesImported;
+    private List<String> errors;
+    private Instant createdAt;
+    private Instant updatedAt;
+    private Instant finishedAt;
+}
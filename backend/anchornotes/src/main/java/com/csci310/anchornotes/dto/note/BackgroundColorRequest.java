@@ -0,0 +1,17 @@
+package com.csci310.anchornotes.dto.note;
+
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BackgroundColorRequest {
+    // null clears the color
+    @Size(max = 32, message = "Background color must be at most 32 characters")
+    private String backgroundColor;
+}
@@ -0,0 +1,40 @@
+package com.csci310.anchornotes.dto.note;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Match counts for the filter screen. {@code total} is the size of the current result;
+ * each facet counts the notes that would match if only that option changed.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacetsResponse {
+    private long total;
+    private List<TagCount> tags;
+    private FlagCount hasPhoto;
+    private FlagCount hasAudio;
+    private FlagCount hasLocation;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class TagCount {
+        private String tagId;
+        private long count;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class FlagCount {
+        private long trueCount;
+        private long falseCount;
+    }
+}
@@ -19,6 +19,7 @@ public class NoteResponse {
     private String id;
     private String title;
     private String text;
+    private Long textVersion;
     private Boolean pinned;
     private Instant lastEdited;
     private Instant createdAt;
@@ -0,0 +1,26 @@
+package com.csci310.anchornotes.dto.note;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Response for single-column changes (pin, reminder time, background color).
+ * Field names match NoteResponse so existing clients can read it as a partial note.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class NoteStateResponse {
+    private String id;
+    private Boolean pinned;
+    private Instant reminderTimeUtc;
+    private String backgroundColor;
+    private Instant lastEdited;
+}
@@ -21,6 +21,10 @@ public class SearchRequest {
     @Builder.Default
     private Integer offset = 0;
 
+    // false leaves text out of the items, for result lists drawn from the snippets alone
+    @Builder.Default
+    private Boolean includeText = true;
+
     // Deprecated fields - kept for backward compatibility
     // Use the new /filter endpoint instead
     @Deprecated
@@ -1,11 +1,13 @@
 package com.csci310.anchornotes.dto.note;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.util.List;
+import java.util.Map;
 
 @Data
 @Builder
@@ -14,4 +16,9 @@ import java.util.List;
 public class SearchResponse {
     private Long total;
     private List<NoteResponse> items;
+
+    // Search only: by note id, the title and text snippets around the query (notes matched
+    // only by their location's address have none)
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Map<String, List<SnippetResponse>> snippets;
 }
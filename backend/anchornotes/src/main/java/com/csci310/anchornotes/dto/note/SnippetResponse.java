@@ -0,0 +1,32 @@
+package com.csci310.anchornotes.dto.note;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Part of a note field around a search match. Offsets count UTF-16 code units, as Java and
+ * Android strings do.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SnippetResponse {
+    private String field; // "title" or "text"
+    private String text; // the window of the field shown
+    private Integer start; // where the window starts in the field; show an ellipsis when > 0
+    private Integer fieldLength; // show an ellipsis when start + text length is less
+    private List<Highlight> highlights; // matches inside the window, relative to its start
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Highlight {
+        private Integer start;
+        private Integer length;
+    }
+}
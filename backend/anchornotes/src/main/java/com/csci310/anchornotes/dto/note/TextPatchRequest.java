@@ -0,0 +1,47 @@
+package com.csci310.anchornotes.dto.note;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TextPatchRequest {
+    @NotNull(message = "Base version is required")
+    private Long baseVersion;
+
+    @NotEmpty(message = "At least one edit is required")
+    @Size(max = 1000, message = "At most 1000 edits per patch")
+    @Valid
+    private List<TextEdit> ops;
+
+    /**
+     * Replace {@code deleteCount} chars at {@code offset} with {@code insertText}.
+     * Offsets count UTF-16 code units, as Java and Android strings do.
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class TextEdit {
+        @NotNull(message = "Offset is required")
+        @Min(value = 0, message = "Offset must not be negative")
+        private Integer offset;
+
+        @NotNull(message = "Delete count is required")
+        @Min(value = 0, message = "Delete count must not be negative")
+        private Integer deleteCount;
+
+        private String insertText;
+    }
+}
@@ -0,0 +1,19 @@
+package com.csci310.anchornotes.dto.note;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TextPatchResponse {
+    private String id;
+    private Long textVersion;
+    private Integer length;
+    private Instant lastEdited;
+}
@@ -0,0 +1,20 @@
+package com.csci310.anchornotes.dto.revision;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevisionResponse {
+    private String noteId;
+    private Long revision;
+    private String title;
+    private String text;
+    private Instant createdAt;
+}
@@ -0,0 +1,19 @@
+package com.csci310.anchornotes.dto.revision;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevisionSummaryResponse {
+    private Long revision;
+    private String title;
+    private Integer length;
+    private Instant createdAt;
+}
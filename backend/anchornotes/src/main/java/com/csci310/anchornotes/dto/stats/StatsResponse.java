@@ -0,0 +1,24 @@
+package com.csci310.anchornotes.dto.stats;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StatsResponse {
+    private long totalNotes;
+    private long pinnedNotes;
+    private long timeReminders;
+    private long geofenceNotes;
+    private long photoNotes;
+    private long audioNotes;
+    private long totalTags;
+    private double averageTagsPerNote;
+    private Instant updatedAt;
+}
@@ -0,0 +1,36 @@
+package com.csci310.anchornotes.dto.upload;
+
+import com.csci310.anchornotes.entity.UploadKind;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CreateUploadRequest {
+    @NotNull(message = "Note id is required")
+    private Long noteId;
+
+    @NotNull(message = "Kind is required (PHOTO or AUDIO)")
+    private UploadKind kind;
+
+    private String fileName;
+
+    private String mime;
+
+    @NotNull(message = "File size is required")
+    @Positive(message = "File size must be positive")
+    private Long size;
+
+    // optional; when given, the finished upload must match it
+    @Pattern(regexp = "[0-9a-fA-F]{64}", message = "sha256 must be 64 hex characters")
+    private String sha256;
+
+    private Integer durationSec; // for audio only
+}
@@ -0,0 +1,25 @@
+package com.csci310.anchornotes.dto.upload;
+
+import com.csci310.anchornotes.entity.UploadKind;
+import com.csci310.anchornotes.entity.UploadState;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadSessionResponse {
+    private UUID id;
+    private Long noteId;
+    private UploadKind kind;
+    private UploadState state;
+    private long size;
+    private long offset; // bytes stored so far; the next chunk starts here
+    private Instant expiresAt;
+}
@@ -0,0 +1,61 @@
+package com.csci310.anchornotes.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * One stored attachment file, shared by every photo or audio row of the user with the same
+ * content. Rows are created and deleted with native statements in
+ * {@code AttachmentBlobRepository}, and refCount is kept by database triggers; the entity is
+ * only read.
+ */
+@Entity
+@Table(name = "attachment_blobs")
+@IdClass(AttachmentBlob.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AttachmentBlob {
+
+    @Id
+    @Column(name = "user_id", nullable = false, columnDefinition = "uuid")
+    private UUID userId;
+
+    @Id
+    @Column(nullable = false)
+    private String sha256;
+
+    // path inside the attachment bucket
+    @Column(name = "file_path", nullable = false)
+    private String filePath;
+
+    @Column(name = "media_type")
+    private String mediaType;
+
+    @Column(name = "size_bytes", nullable = false)
+    private long sizeBytes;
+
+    @Column(name = "ref_count", nullable = false)
+    private int refCount;
+
+    // when refCount last dropped to zero; null while referenced
+    @Column(name = "released_at")
+    private Instant releasedAt;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private UUID userId;
+        private String sha256;
+    }
+}
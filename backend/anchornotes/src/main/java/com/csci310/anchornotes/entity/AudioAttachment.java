@@ -30,6 +30,10 @@ public class AudioAttachment {
     @Transient
     private Integer durationSec;
 
+    // SHA-256 of the file in attachment_blobs; null for uploads that are not content-addressed
+    @Column(name = "blob_sha256")
+    private String blobSha256;
+
     @Column(name = "created_at", updatable = false)
     private Instant createdAt;
 
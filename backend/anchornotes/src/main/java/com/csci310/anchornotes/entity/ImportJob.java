@@ -0,0 +1,83 @@
+package com.csci310.anchornotes.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Progress of one bulk import. Counts up to notesStaged are known once the upload has been
+ * validated; the imported counts are written with the merge itself.
+ */
+@Entity
+@Table(name = "import_jobs")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ImportJob {
+
+    @Id
+    @Column(columnDefinition = "uuid")
+    private UUID id;
+
+    @Column(name = "user_id", nullable = false, columnDefinition = "uuid")
+    private UUID userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ImportState state;
+
+    @Column(name = "lines_read", nullable = false)
+    private long linesRead;
+
+    @Column(nullable = false)
+    private long rejected;
+
+    // records of types that are not imported (templates, attachments)
+    @Column(nullable = false)
+    private long skipped;
+
+    @Column(name = "notes_staged", nullable = false)
+    private long notesStaged;
+
+    @Column(name = "notes_imported", nullable = false)
+    private long notesImported;
+
+    @Column(name = "tags_created", nullable = false)
+    private long tagsCreated;
+
+    @Column(name = "geofences_imported", nullable = false)
+    private long geofencesImported;
+
+    // first rejected lines, newline-separated
+    @Column(columnDefinition = "TEXT")
+    private String errors;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+
+    @Column(name = "finished_at")
+    private Instant finishedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        Instant now = Instant.now();
+        if (createdAt == null) {
+            createdAt = now;
+        }
+        updatedAt = now;
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = Instant.now();
+    }
+}
@@ -0,0 +1,8 @@
+package com.csci310.anchornotes.entity;
+
+public enum ImportState {
+    QUEUED,
+    LOADING,
+    COMPLETED,
+    FAILED
+}
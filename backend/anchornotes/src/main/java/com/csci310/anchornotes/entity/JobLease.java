@@ -0,0 +1,55 @@
+package com.csci310.anchornotes.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * Lease on one partition of a cluster job. Rows are claimed and released with native
+ * statements in {@code JobLeaseRepository}; the entity is only read.
+ */
+@Entity
+@Table(name = "job_leases")
+@IdClass(JobLease.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class JobLease {
+
+    @Id
+    @Column(name = "job_name", nullable = false)
+    private String jobName;
+
+    @Id
+    @Column(name = "partition_no", nullable = false)
+    private Integer partitionNo;
+
+    private String owner;
+
+    @Column(name = "lease_until", nullable = false)
+    private Instant leaseUntil;
+
+    @Column(name = "next_run_at", nullable = false)
+    private Instant nextRunAt;
+
+    @Column(name = "last_started_at")
+    private Instant lastStartedAt;
+
+    @Column(name = "last_finished_at")
+    private Instant lastFinishedAt;
+
+    @Column(name = "last_error")
+    private String lastError;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private String jobName;
+        private Integer partitionNo;
+    }
+}
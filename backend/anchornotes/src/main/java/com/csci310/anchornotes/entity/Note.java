@@ -6,6 +6,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.PartitionKey;
 
 import java.time.Instant;
 import java.util.HashSet;
@@ -25,6 +26,9 @@ public class Note {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    // notes is hash-partitioned on user_id; naming it in entity updates and deletes lets them
+    // go straight to one partition instead of probing every partition's primary key
+    @PartitionKey
     @Column(name = "user_id", nullable = false, columnDefinition = "uuid")
     private UUID userId;
 
@@ -34,6 +38,11 @@ public class Note {
     @Column(columnDefinition = "TEXT")
     private String text;
 
+    // Bumped on every change to text; base version for PATCH /api/notes/{id}/text
+    @Column(name = "text_version", nullable = false)
+    @Builder.Default
+    private Long textVersion = 0L;
+
     @Column(nullable = false)
     @Builder.Default
     private Boolean pinned = false;
@@ -52,11 +61,15 @@ public class Note {
     @JoinColumn(name = "geofence")
     private Geofence geofence;
 
-    // Many-to-Many with Tags via note_tags join table
+    // Many-to-Many with Tags via note_tags join table. The join table carries the owner too:
+    // it is partitioned by user_id, so every join names it and prunes to one partition.
     @ManyToMany(cascade = {CascadeType.PERSIST, CascadeType.MERGE}, fetch = FetchType.LAZY)
     @JoinTable(
         name = "note_tags",
-        joinColumns = @JoinColumn(name = "note_id"),
+        joinColumns = {
+            @JoinColumn(name = "note_id", referencedColumnName = "id"),
+            @JoinColumn(name = "user_id", referencedColumnName = "user_id")
+        },
         inverseJoinColumns = @JoinColumn(name = "tag_id")
     )
     @Builder.Default
@@ -0,0 +1,58 @@
+package com.csci310.anchornotes.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * One stored version of a note's text. {@code revision} equals the note's text version at the
+ * time. The payload is either a full snapshot or a delta against revision - 1 (see TextDelta).
+ */
+@Entity
+@Table(name = "note_revisions")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class NoteRevision {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "note_id", nullable = false)
+    private Long noteId;
+
+    @Column(name = "user_id", nullable = false, columnDefinition = "uuid")
+    private UUID userId;
+
+    @Column(nullable = false)
+    private Long revision;
+
+    @Column(nullable = false)
+    private Boolean snapshot;
+
+    @Column(length = 500)
+    private String title;
+
+    @Column(nullable = false, columnDefinition = "bytea")
+    private byte[] payload;
+
+    @Column(name = "text_length", nullable = false)
+    private Integer textLength;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        if (createdAt == null) {
+            createdAt = Instant.now();
+        }
+    }
+}
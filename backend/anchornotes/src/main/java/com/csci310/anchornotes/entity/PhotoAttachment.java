@@ -33,9 +33,17 @@ public class PhotoAttachment {
     @Column(name = "duration_sec")
     private Integer durationSec;
 
+    // SHA-256 of the file in attachment_blobs; null for uploads that are not content-addressed
+    @Column(name = "blob_sha256")
+    private String blobSha256;
+
     @Column(name = "created_at", updatable = false)
     private Instant createdAt;
 
+    // longest-edge sizes with a thumbnail, e.g. "160,480"; null until the thumbnail pipeline ran
+    @Column(name = "thumbnail_sizes")
+    private String thumbnailSizes;
+
     @Transient
     @Builder.Default
     private AttachmentStatus status = AttachmentStatus.PENDING;
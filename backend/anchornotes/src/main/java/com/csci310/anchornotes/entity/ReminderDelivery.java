@@ -0,0 +1,49 @@
+package com.csci310.anchornotes.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Delivery record for a note's time reminder, keyed by (note, reminder time) so moving the
+ * reminder makes the note deliverable again. Until {@code deliveredAt} is set the row is a
+ * claim: the replica in {@code claimedBy} is delivering it until {@code claimedUntil}.
+ */
+@Entity
+@Table(name = "reminder_deliveries")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReminderDelivery {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "note_id", nullable = false)
+    private Long noteId;
+
+    @Column(name = "user_id", nullable = false, columnDefinition = "uuid")
+    private UUID userId;
+
+    @Column(name = "reminder_time", nullable = false)
+    private Instant reminderTime;
+
+    @Column(name = "delivered_at")
+    private Instant deliveredAt;
+
+    @Column(nullable = false)
+    private Integer attempts;
+
+    @Column(name = "claimed_by")
+    private String claimedBy;
+
+    @Column(name = "claimed_until")
+    private Instant claimedUntil;
+}
@@ -0,0 +1,6 @@
+package com.csci310.anchornotes.entity;
+
+public enum UploadKind {
+    PHOTO,
+    AUDIO
+}
@@ -0,0 +1,82 @@
+package com.csci310.anchornotes.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A resumable attachment upload. The chunks live in upload_chunks and are written, together
+ * with receivedBytes, by native statements in {@code UploadSessionRepository}.
+ */
+@Entity
+@Table(name = "upload_sessions")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UploadSession {
+
+    @Id
+    @Column(columnDefinition = "uuid")
+    private UUID id;
+
+    @Column(name = "user_id", nullable = false, columnDefinition = "uuid")
+    private UUID userId;
+
+    @Column(name = "note_id", nullable = false)
+    private Long noteId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private UploadKind kind;
+
+    @Column(name = "file_name")
+    private String fileName;
+
+    @Column(name = "media_type")
+    private String mediaType;
+
+    @Column(name = "size_bytes", nullable = false)
+    private long sizeBytes;
+
+    @Column(name = "received_bytes", nullable = false)
+    private long receivedBytes;
+
+    // expected SHA-256 of the whole file, checked on completion when the client sent one
+    @Column(name = "sha256")
+    private String sha256;
+
+    @Column(name = "duration_sec")
+    private Integer durationSec;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private UploadState state;
+
+    // the attempt completing it while COMPLETING; a takeover replaces it
+    @Column(name = "completion_id", columnDefinition = "uuid")
+    private UUID completionId;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    @PrePersist
+    protected void onCreate() {
+        Instant now = Instant.now();
+        if (createdAt == null) {
+            createdAt = now;
+        }
+        updatedAt = now;
+    }
+}
@@ -0,0 +1,7 @@
+package com.csci310.anchornotes.entity;
+
+public enum UploadState {
+    OPEN,
+    COMPLETING,
+    COMPLETED
+}
@@ -0,0 +1,56 @@
+package com.csci310.anchornotes.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Per-user counters kept current by database triggers on notes, tags and note_tags
+ * (see V4__user_note_stats.sql). Read-only from the application.
+ */
+@Entity
+@Immutable
+@Table(name = "user_note_stats")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UserNoteStats {
+
+    @Id
+    @Column(name = "user_id", columnDefinition = "uuid")
+    private UUID userId;
+
+    @Column(name = "total_notes", nullable = false)
+    private long totalNotes;
+
+    @Column(name = "pinned_notes", nullable = false)
+    private long pinnedNotes;
+
+    @Column(name = "time_reminders", nullable = false)
+    private long timeReminders;
+
+    @Column(name = "geofence_notes", nullable = false)
+    private long geofenceNotes;
+
+    @Column(name = "photo_notes", nullable = false)
+    private long photoNotes;
+
+    @Column(name = "audio_notes", nullable = false)
+    private long audioNotes;
+
+    @Column(name = "total_tags", nullable = false)
+    private long totalTags;
+
+    @Column(name = "tag_assignments", nullable = false)
+    private long tagAssignments;
+
+    @Column(name = "updated_at")
+    private Instant updatedAt;
+}
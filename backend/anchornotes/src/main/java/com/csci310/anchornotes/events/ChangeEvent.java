@@ -0,0 +1,37 @@
+package com.csci310.anchornotes.events;
+
+import java.util.Locale;
+
+/**
+ * A committed change to one of a user's entities. Services publish it through Spring's
+ * {@code ApplicationEventPublisher}; listeners use {@code @TransactionalEventListener}
+ * so nothing is delivered for a transaction that rolls back.
+ */
+public record ChangeEvent(String userId, Entity entity, Action action, String entityId) {
+
+    public enum Entity { NOTE, TAG, TEMPLATE, GEOFENCE }
+
+    public enum Action { CREATED, UPDATED, DELETED }
+
+    public static ChangeEvent note(String userId, Long noteId, Action action) {
+        return new ChangeEvent(userId, Entity.NOTE, action, String.valueOf(noteId));
+    }
+
+    public static ChangeEvent tag(String userId, Long tagId, Action action) {
+        return new ChangeEvent(userId, Entity.TAG, action, String.valueOf(tagId));
+    }
+
+    public static ChangeEvent template(String userId, Long templateId, Action action) {
+        return new ChangeEvent(userId, Entity.TEMPLATE, action, String.valueOf(templateId));
+    }
+
+    /** Geofences are registered per note, so the id is the note's (see GeofenceService). */
+    public static ChangeEvent geofence(String userId, Long noteId, Action action) {
+        return new ChangeEvent(userId, Entity.GEOFENCE, action, String.valueOf(noteId));
+    }
+
+    /** Event name on the wire, e.g. {@code note.updated}. */
+    public String type() {
+        return entity.name().toLowerCase(Locale.ROOT) + "." + action.name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,343 @@
+package com.csci310.anchornotes.events;
+
+import com.csci310.anchornotes.config.EventStreamProperties;
+import com.csci310.anchornotes.dto.event.ChangeEventResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fans committed {@link ChangeEvent}s out to each user's open /api/events streams.
+ *
+ * Every user has a small ring of recent events so a client that reconnects with Last-Event-ID
+ * gets exactly what it missed. If that position has already been evicted (or comes from an
+ * earlier process), the client is sent a single {@code resync} event and should reload.
+ *
+ * Each connection owns a bounded queue drained by its own virtual thread, so an idle stream
+ * costs a parked virtual thread and no request thread, and a slow client can only fall behind
+ * by {@code connectionBufferSize} events before it is told to resync rather than buffering
+ * without limit. Event ids are process-local; a client moved to another instance resyncs.
+ */
+@Component
+@Slf4j
+public class EventStreamBroker {
+
+    static final String RESYNC = "resync";
+
+    private final EventStreamProperties properties;
+    private final ObjectMapper objectMapper;
+    private final Map<String, UserStream> streams = new ConcurrentHashMap<>();
+
+    // Ids start from wall-clock time so they keep increasing across restarts; a Last-Event-ID
+    // from an earlier process is always below every live replay window and triggers a resync.
+    private final AtomicLong sequence = new AtomicLong(System.currentTimeMillis() * 1000);
+
+    private final ThreadFactory writerThreads = Thread.ofVirtual().name("sse-writer-", 0).factory();
+    private final ScheduledExecutorService sweeper =
+            Executors.newSingleThreadScheduledExecutor(Thread.ofVirtual().name("sse-sweeper").factory());
+
+    private final AtomicInteger openConnections = new AtomicInteger();
+    private final Counter published;
+    private final Counter overflowResyncs;
+    private final Counter staleResyncs;
+
+    public EventStreamBroker(EventStreamProperties properties, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+
+        Gauge.builder("app.events.connections", openConnections, AtomicInteger::get)
+                .description("Open /api/events streams")
+                .register(meterRegistry);
+        this.published = Counter.builder("app.events.published")
+                .description("Change events published to user streams")
+                .register(meterRegistry);
+        this.overflowResyncs = Counter.builder("app.events.resyncs")
+                .tag("reason", "overflow")
+                .description("Streams told to reload instead of receiving events")
+                .register(meterRegistry);
+        this.staleResyncs = Counter.builder("app.events.resyncs")
+                .tag("reason", "stale")
+                .description("Streams told to reload instead of receiving events")
+                .register(meterRegistry);
+
+        long sweepMillis = Math.max(1_000, properties.getReplayRetention().toMillis() / 2);
+        sweeper.scheduleWithFixedDelay(this::sweep, sweepMillis, sweepMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Runs after the publishing transaction commits (or immediately when there is none).
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onChange(ChangeEvent event) {
+        String data;
+        try {
+            data = objectMapper.writeValueAsString(ChangeEventResponse.builder()
+                    .type(event.type())
+                    .entity(event.entity().name().toLowerCase(Locale.ROOT))
+                    .entityId(event.entityId())
+                    .at(Instant.now())
+                    .build());
+        } catch (JsonProcessingException e) {
+            log.error("Could not serialize change event {}", event, e);
+            return;
+        }
+
+        while (true) {
+            UserStream stream = streams.computeIfAbsent(event.userId(), id -> new UserStream(sequence.get()));
+            stream.lock.lock();
+            try {
+                if (stream.retired) {
+                    continue;
+                }
+                stream.append(new StoredEvent(sequence.incrementAndGet(), event.type(), data));
+                published.increment();
+                return;
+            } finally {
+                stream.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Open a stream for the user, first replaying anything after {@code lastEventId}.
+     */
+    public SseEmitter subscribe(String userId, Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(properties.getConnectionTimeout().toMillis());
+        Connection connection = new Connection(emitter);
+        Connection evicted = null;
+
+        while (true) {
+            UserStream stream = streams.computeIfAbsent(userId, id -> new UserStream(sequence.get()));
+            stream.lock.lock();
+            try {
+                if (stream.retired) {
+                    continue;
+                }
+                connection.stream = stream;
+                if (lastEventId != null) {
+                    if (lastEventId < stream.lowWatermark || lastEventId > sequence.get()) {
+                        connection.requestResync();
+                        staleResyncs.increment();
+                    } else {
+                        for (StoredEvent event : stream.replay) {
+                            if (event.id() > lastEventId) {
+                                connection.offer(event);
+                            }
+                        }
+                    }
+                }
+                if (stream.connections.size() >= Math.max(1, properties.getMaxConnectionsPerUser())) {
+                    evicted = stream.connections.get(0);
+                }
+                stream.connections.add(connection);
+                break;
+            } finally {
+                stream.lock.unlock();
+            }
+        }
+
+        if (evicted != null) {
+            log.info("Closing oldest event stream for user {} (limit {})", userId, properties.getMaxConnectionsPerUser());
+            evicted.close();
+        }
+
+        emitter.onCompletion(connection::close);
+        emitter.onTimeout(connection::close);
+        emitter.onError(e -> connection.close());
+        openConnections.incrementAndGet();
+        connection.writer = writerThreads.newThread(connection);
+        connection.writer.start();
+
+        log.debug("Event stream opened for user {} (resume after {})", userId, lastEventId);
+        return emitter;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        sweeper.shutdownNow();
+        for (UserStream stream : streams.values()) {
+            List<Connection> open;
+            stream.lock.lock();
+            try {
+                open = new ArrayList<>(stream.connections);
+            } finally {
+                stream.lock.unlock();
+            }
+            open.forEach(Connection::close);
+        }
+    }
+
+    /**
+     * Drop replay buffers of users with no open stream and no events for the retention period.
+     */
+    private void sweep() {
+        long cutoff = System.nanoTime() - properties.getReplayRetention().toNanos();
+        streams.forEach((userId, stream) -> {
+            stream.lock.lock();
+            try {
+                if (stream.connections.isEmpty() && stream.lastActivity - cutoff < 0) {
+                    stream.retired = true;
+                    streams.remove(userId, stream);
+                }
+            } finally {
+                stream.lock.unlock();
+            }
+        });
+    }
+
+    private record StoredEvent(long id, String type, String data) {
+    }
+
+    private static final StoredEvent RESYNC_MARKER = new StoredEvent(-1, RESYNC, "{}");
+
+    private final class UserStream {
+        final ReentrantLock lock = new ReentrantLock();
+        final ArrayDeque<StoredEvent> replay = new ArrayDeque<>();
+        final List<Connection> connections = new ArrayList<>(1);
+        /** Highest id that can no longer be replayed for this user. */
+        long lowWatermark;
+        long lastActivity = System.nanoTime();
+        boolean retired;
+
+        UserStream(long lowWatermark) {
+            this.lowWatermark = lowWatermark;
+        }
+
+        // lock held
+        void append(StoredEvent event) {
+            replay.addLast(event);
+            while (replay.size() > Math.max(1, properties.getReplayBufferSize())) {
+                lowWatermark = replay.removeFirst().id();
+            }
+            lastActivity = System.nanoTime();
+            for (Connection connection : connections) {
+                connection.offer(event);
+            }
+        }
+    }
+
+    private final class Connection implements Runnable {
+        final SseEmitter emitter;
+        final ArrayBlockingQueue<StoredEvent> queue;
+        final AtomicBoolean closed = new AtomicBoolean();
+        UserStream stream;
+        Thread writer;
+        // set under stream.lock, read without it on the writer's fast path
+        volatile boolean resyncPending;
+
+        Connection(SseEmitter emitter) {
+            this.emitter = emitter;
+            this.queue = new ArrayBlockingQueue<>(Math.max(1, properties.getConnectionBufferSize()));
+        }
+
+        // stream.lock held
+        void offer(StoredEvent event) {
+            if (resyncPending) {
+                return;
+            }
+            if (!queue.offer(event)) {
+                requestResync();
+                overflowResyncs.increment();
+                log.warn("Event stream fell {} events behind; sending resync", properties.getConnectionBufferSize());
+            }
+        }
+
+        // stream.lock held; the marker wakes a writer parked in poll
+        void requestResync() {
+            resyncPending = true;
+            queue.clear();
+            queue.offer(RESYNC_MARKER);
+        }
+
+        @Override
+        public void run() {
+            long heartbeatMillis = properties.getHeartbeatInterval().toMillis();
+            try {
+                emitter.send(SseEmitter.event().comment("connected"));
+                while (!closed.get()) {
+                    StoredEvent event = queue.poll(heartbeatMillis, TimeUnit.MILLISECONDS);
+                    if (resyncPending) {
+                        // anything still queued is covered by the reload the client is about to do
+                        emitter.send(SseEmitter.event().id(String.valueOf(takeResync())).name(RESYNC).data("{}"));
+                    } else if (event != null && event != RESYNC_MARKER) {
+                        emitter.send(SseEmitter.event()
+                                .id(String.valueOf(event.id()))
+                                .name(event.type())
+                                .data(event.data(), MediaType.APPLICATION_JSON));
+                    } else if (event == null) {
+                        emitter.send(SseEmitter.event().comment("keep-alive"));
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Event stream closed by client: {}", e.getMessage());
+            } finally {
+                close();
+            }
+        }
+
+        /**
+         * Clear the queue and return the id the client should resume from after reloading:
+         * every event for this user up to now is covered by the reload.
+         */
+        private long takeResync() {
+            stream.lock.lock();
+            try {
+                resyncPending = false;
+                queue.clear();
+                return sequence.get();
+            } finally {
+                stream.lock.unlock();
+            }
+        }
+
+        void close() {
+            if (!closed.compareAndSet(false, true)) {
+                return;
+            }
+            stream.lock.lock();
+            try {
+                stream.connections.remove(this);
+                stream.lastActivity = System.nanoTime();
+            } finally {
+                stream.lock.unlock();
+            }
+            openConnections.decrementAndGet();
+            if (writer != null && writer != Thread.currentThread()) {
+                writer.interrupt();
+            }
+            try {
+                emitter.complete();
+            } catch (RuntimeException e) {
+                log.debug("Event stream already completed: {}", e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.csci310.anchornotes.exception;
+
+import lombok.Getter;
+
+@Getter
+public class ConflictException extends RuntimeException {
+    /** Version the client should rebase onto, if the conflict is about a stale version. */
+    private final Long currentVersion;
+
+    public ConflictException(String message) {
+        this(message, null);
+    }
+
+    public ConflictException(String message, Long currentVersion) {
+        super(message);
+        this.currentVersion = currentVersion;
+    }
+}
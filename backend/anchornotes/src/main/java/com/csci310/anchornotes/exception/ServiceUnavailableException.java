@@ -0,0 +1,7 @@
+package com.csci310.anchornotes.exception;
+
+public class ServiceUnavailableException extends RuntimeException {
+    public ServiceUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,483 @@
+package com.csci310.anchornotes.export;
+
+import com.csci310.anchornotes.config.ExportProperties;
+import com.csci310.anchornotes.entity.AudioAttachment;
+import com.csci310.anchornotes.entity.Geofence;
+import com.csci310.anchornotes.entity.PhotoAttachment;
+import com.csci310.anchornotes.entity.Tag;
+import com.csci310.anchornotes.exception.ServiceUnavailableException;
+import com.csci310.anchornotes.repository.NoteRepository;
+import com.csci310.anchornotes.repository.TemplateRepository;
+import com.csci310.anchornotes.service.ExportService;
+import com.csci310.anchornotes.service.SupabaseStorageService;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToLongFunction;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Streams everything a user owns as NDJSON, or as a ZIP holding that NDJSON plus the bytes of
+ * every attachment.
+ *
+ * Rows are read one keyset page at a time through {@link ExportService}, and each page is
+ * written and flushed before the next is read. Writes block while the client's socket buffer
+ * is full, which is the backpressure: a slow client slows the reads down instead of rows piling
+ * up in memory. An export holds one page of rows plus fixed JSON and copy buffers, whatever the
+ * size of the account; attachment bytes are copied from storage as they are read.
+ *
+ * The first line is an {@code export} header and the last an {@code end} record with counts
+ * per type, so a stream without the end record was cut off. In a ZIP, an attachment that
+ * cannot be read from storage gets a small {@code .missing} entry with the reason instead.
+ */
+@Component
+@Slf4j
+public class AccountExporter {
+
+    public static final int FORMAT_VERSION = 1;
+    public static final String NDJSON_ENTRY = "export.ndjson";
+
+    private static final String ATTACHMENT_BUCKET = "attachment";
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    private final ExportService exportService;
+    private final SupabaseStorageService storageService;
+    private final ExportProperties properties;
+    private final JsonFactory jsonFactory;
+    private final MeterRegistry meterRegistry;
+    private final Semaphore slots;
+    private final AtomicInteger active = new AtomicInteger();
+
+    public AccountExporter(ExportService exportService,
+                           SupabaseStorageService storageService,
+                           ExportProperties properties,
+                           ObjectMapper objectMapper,
+                           MeterRegistry meterRegistry) {
+        this.exportService = exportService;
+        this.storageService = storageService;
+        this.properties = properties;
+        this.jsonFactory = objectMapper.getFactory();
+        this.meterRegistry = meterRegistry;
+        this.slots = new Semaphore(Math.max(1, properties.getMaxConcurrentExports()));
+
+        Gauge.builder("app.export.active", active, AtomicInteger::get)
+                .description("Account exports streaming on this replica")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Take one of the export slots, before the response is committed so a busy replica can
+     * still answer 503. Close the permit once the export has finished.
+     */
+    public Permit reserve() {
+        if (!slots.tryAcquire()) {
+            throw new ServiceUnavailableException("Too many exports running, please retry shortly");
+        }
+        return new Permit();
+    }
+
+    public void export(String userId, ExportFormat format, OutputStream out) throws IOException {
+        CountingOutputStream counted = new CountingOutputStream(out);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        active.incrementAndGet();
+        String result = "success";
+        try {
+            if (format == ExportFormat.ZIP) {
+                writeZip(userId, counted);
+            } else {
+                writeNdjson(userId, false, counted);
+            }
+        } catch (IOException e) {
+            // nearly always the client going away mid-download
+            result = "aborted";
+            throw e;
+        } catch (RuntimeException e) {
+            result = "failure";
+            throw e;
+        } finally {
+            active.decrementAndGet();
+            sample.stop(Timer.builder("app.export.duration")
+                    .tag("format", format.name().toLowerCase(Locale.ROOT))
+                    .tag("result", result)
+                    .description("Time to stream one account export")
+                    .register(meterRegistry));
+            DistributionSummary.builder("app.export.bytes")
+                    .tag("format", format.name().toLowerCase(Locale.ROOT))
+                    .baseUnit("bytes")
+                    .description("Size of streamed account exports")
+                    .register(meterRegistry)
+                    .record(counted.count);
+            log.info("Export {} for user {}: {} bytes", result, userId, counted.count);
+        }
+    }
+
+    private void writeZip(String userId, OutputStream out) throws IOException {
+        ZipOutputStream zip = new ZipOutputStream(out);
+        zip.putNextEntry(new ZipEntry(NDJSON_ENTRY));
+        writeNdjson(userId, true, zip);
+        zip.closeEntry();
+
+        // photos and audio are already compressed; storing them saves CPU for nothing lost
+        zip.setLevel(Deflater.NO_COMPRESSION);
+        byte[] buffer = new byte[COPY_BUFFER_SIZE];
+        forEachPage((after, limit) -> exportService.findPhotoPage(userId, after, limit), PhotoAttachment::getId,
+                photo -> copyAttachment(zip, "photos", photo.getId(), photo.getMediaUrl(), buffer));
+        forEachPage((after, limit) -> exportService.findAudioPage(userId, after, limit), AudioAttachment::getId,
+                audio -> copyAttachment(zip, "audio", audio.getId(), audio.getMediaUrl(), buffer));
+
+        // finish rather than close: the servlet container owns the response stream
+        zip.finish();
+        zip.flush();
+    }
+
+    private void writeNdjson(String userId, boolean zip, OutputStream out) throws IOException {
+        JsonGenerator json = jsonFactory.createGenerator(out, JsonEncoding.UTF8);
+        json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        // lines are ended explicitly below, so no separator between root values
+        json.setRootValueSeparator(null);
+
+        json.writeStartObject();
+        field(json, "type", "export");
+        field(json, "version", FORMAT_VERSION);
+        field(json, "userId", userId);
+        field(json, "exportedAt", Instant.now());
+        json.writeEndObject();
+        json.writeRaw('\n');
+
+        Map<String, Long> counts = new LinkedHashMap<>();
+        counts.put("tag", writeRecords(json, "tag",
+                (after, limit) -> exportService.findTagPage(userId, after, limit), Tag::getId, this::writeTag));
+        counts.put("geofence", writeRecords(json, "geofence",
+                (after, limit) -> exportService.findGeofencePage(userId, after, limit), Geofence::getId, this::writeGeofence));
+        counts.put("photo", writeRecords(json, "photo",
+                (after, limit) -> exportService.findPhotoPage(userId, after, limit), PhotoAttachment::getId,
+                (g, photo) -> writeAttachment(g, photo.getId(), photo.getMediaUrl(), photo.getMediaType(),
+                        photo.getCreatedAt(), zip ? "photos" : null)));
+        counts.put("audio", writeRecords(json, "audio",
+                (after, limit) -> exportService.findAudioPage(userId, after, limit), AudioAttachment::getId,
+                (g, audio) -> writeAttachment(g, audio.getId(), audio.getMediaUrl(), audio.getMediaType(),
+                        audio.getCreatedAt(), zip ? "audio" : null)));
+        counts.put("template", writeRecords(json, "template",
+                (after, limit) -> exportService.findTemplatePage(userId, after, limit),
+                TemplateRepository.TemplateExportRow::getId, this::writeTemplate));
+        counts.put("note", writeRecords(json, "note",
+                (after, limit) -> exportService.findNotePage(userId, after, limit),
+                NoteRepository.NoteExportRow::getId, this::writeNote));
+
+        json.writeStartObject();
+        field(json, "type", "end");
+        json.writeObjectFieldStart("counts");
+        for (Map.Entry<String, Long> count : counts.entrySet()) {
+            field(json, count.getKey(), count.getValue());
+        }
+        json.writeEndObject();
+        json.writeEndObject();
+        json.writeRaw('\n');
+        json.close();
+    }
+
+    private <T> long writeRecords(JsonGenerator json, String type, PageReader<T> reader, ToLongFunction<T> id,
+                                  RecordWriter<T> writer) throws IOException {
+        return forEachPage(reader, id, row -> {
+            json.writeStartObject();
+            field(json, "type", type);
+            writer.write(json, row);
+            json.writeEndObject();
+            json.writeRaw('\n');
+        }, json::flush);
+    }
+
+    private <T> long forEachPage(PageReader<T> reader, ToLongFunction<T> id, RowHandler<T> handler) throws IOException {
+        return forEachPage(reader, id, handler, () -> { });
+    }
+
+    /**
+     * Hand every row to the handler, one keyset page at a time. {@code afterPage} runs once a
+     * page has been handled, before the next one is read.
+     */
+    private <T> long forEachPage(PageReader<T> reader, ToLongFunction<T> id, RowHandler<T> handler,
+                                 PageCallback afterPage) throws IOException {
+        int pageSize = Math.max(1, properties.getPageSize());
+        long afterId = 0;
+        long total = 0;
+        while (true) {
+            List<T> page = readPage(reader, afterId, pageSize);
+            for (T row : page) {
+                handler.handle(row);
+            }
+            total += page.size();
+            afterPage.run();
+            if (page.size() < pageSize) {
+                return total;
+            }
+            afterId = id.applyAsLong(page.get(page.size() - 1));
+        }
+    }
+
+    private <T> List<T> readPage(PageReader<T> reader, long afterId, int pageSize) throws IOException {
+        int attempts = Math.max(1, properties.getPageAttempts());
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return reader.read(afterId, pageSize);
+            } catch (ServiceUnavailableException e) {
+                // admission timed out behind other bulk work; the export is too far in to answer 503
+                if (attempt >= attempts) {
+                    throw e;
+                }
+                try {
+                    Thread.sleep(properties.getPageRetryBackoff().toMillis());
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Export interrupted");
+                }
+            }
+        }
+    }
+
+    private void copyAttachment(ZipOutputStream zip, String folder, Long id, String mediaUrl, byte[] buffer)
+            throws IOException {
+        if (mediaUrl == null) {
+            return;
+        }
+        String path = attachmentPath(folder, id, mediaUrl);
+        InputStream in;
+        try {
+            in = storageService.openFile(ATTACHMENT_BUCKET, mediaUrl, properties.getStorageTimeout());
+        } catch (IOException e) {
+            log.warn("Export skipped {}: {}", path, e.getMessage());
+            writeMissing(zip, path, e.getMessage());
+            return;
+        }
+        String error = null;
+        try {
+            zip.putNextEntry(new ZipEntry(path));
+            while (true) {
+                int read;
+                try {
+                    read = in.read(buffer);
+                } catch (IOException e) {
+                    // a storage failure, unlike a failed write, leaves the client connected
+                    error = "incomplete: " + e.getMessage();
+                    break;
+                }
+                if (read < 0) {
+                    break;
+                }
+                zip.write(buffer, 0, read);
+            }
+            zip.closeEntry();
+        } finally {
+            closeQuietly(in);
+        }
+        if (error != null) {
+            log.warn("Export truncated {}: {}", path, error);
+            writeMissing(zip, path, error);
+        }
+    }
+
+    private static void writeMissing(ZipOutputStream zip, String path, String reason) throws IOException {
+        zip.putNextEntry(new ZipEntry(path + ".missing"));
+        zip.write(String.valueOf(reason).getBytes(StandardCharsets.UTF_8));
+        zip.closeEntry();
+    }
+
+    /**
+     * ZIP path of an attachment's bytes: {@code attachments/<folder>/<id><ext>}, keeping the
+     * extension of the stored file name when it has a plausible one.
+     */
+    static String attachmentPath(String folder, Long id, String mediaUrl) {
+        String name = mediaUrl.substring(mediaUrl.lastIndexOf('/') + 1);
+        int query = name.indexOf('?');
+        if (query >= 0) {
+            name = name.substring(0, query);
+        }
+        int dot = name.lastIndexOf('.');
+        String extension = "";
+        if (dot >= 0 && name.length() - dot <= 6) {
+            String candidate = name.substring(dot + 1).toLowerCase(Locale.ROOT);
+            if (!candidate.isEmpty() && candidate.chars().allMatch(c -> (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9'))) {
+                extension = "." + candidate;
+            }
+        }
+        return "attachments/" + folder + "/" + id + extension;
+    }
+
+    private void writeTag(JsonGenerator json, Tag tag) throws IOException {
+        field(json, "id", tag.getId());
+        field(json, "name", tag.getName());
+        field(json, "color", tag.getColor());
+        field(json, "createdAt", tag.getCreatedAt());
+    }
+
+    private void writeGeofence(JsonGenerator json, Geofence geofence) throws IOException {
+        field(json, "id", geofence.getId());
+        field(json, "latitude", geofence.getLatitude());
+        field(json, "longitude", geofence.getLongitude());
+        field(json, "radius", geofence.getRadius());
+        field(json, "addressName", geofence.getAddressName());
+        field(json, "createdAt", geofence.getCreatedAt());
+    }
+
+    private void writeAttachment(JsonGenerator json, Long id, String mediaUrl, String mediaType, Instant createdAt,
+                                 String zipFolder) throws IOException {
+        field(json, "id", id);
+        field(json, "url", mediaUrl);
+        field(json, "mediaType", mediaType);
+        field(json, "createdAt", createdAt);
+        if (zipFolder != null && mediaUrl != null) {
+            field(json, "file", attachmentPath(zipFolder, id, mediaUrl));
+        }
+    }
+
+    private void writeTemplate(JsonGenerator json, TemplateRepository.TemplateExportRow template) throws IOException {
+        field(json, "id", template.getId());
+        field(json, "name", template.getName());
+        field(json, "text", template.getText());
+        field(json, "pinned", template.getPinned());
+        field(json, "backgroundColor", template.getBackgroundColor());
+        field(json, "createdAt", template.getCreatedAt());
+        field(json, "geofenceId", template.getGeofenceId());
+        field(json, "imageId", template.getImageId());
+        field(json, "audioId", template.getAudioId());
+        idArray(json, "tagIds", template.getTagIds());
+    }
+
+    private void writeNote(JsonGenerator json, NoteRepository.NoteExportRow note) throws IOException {
+        field(json, "id", note.getId());
+        field(json, "title", note.getTitle());
+        field(json, "text", note.getText());
+        field(json, "pinned", note.getPinned());
+        field(json, "backgroundColor", note.getBackgroundColor());
+        field(json, "createdAt", note.getCreatedAt());
+        field(json, "lastEdited", note.getLastEdited());
+        field(json, "reminderTime", note.getReminderTime());
+        field(json, "geofenceId", note.getGeofenceId());
+        field(json, "imageId", note.getImageId());
+        field(json, "audioId", note.getAudioId());
+        idArray(json, "tagIds", note.getTagIds());
+    }
+
+    private static void field(JsonGenerator json, String name, Object value) throws IOException {
+        json.writeFieldName(name);
+        if (value == null) {
+            json.writeNull();
+        } else if (value instanceof Long number) {
+            json.writeNumber(number);
+        } else if (value instanceof Integer number) {
+            json.writeNumber(number);
+        } else if (value instanceof Double number) {
+            json.writeNumber(number);
+        } else if (value instanceof Boolean bool) {
+            json.writeBoolean(bool);
+        } else {
+            // strings, and Instants as ISO-8601
+            json.writeString(value.toString());
+        }
+    }
+
+    // ids arrive as the comma-separated string_agg of the export queries
+    private static void idArray(JsonGenerator json, String name, String ids) throws IOException {
+        json.writeArrayFieldStart(name);
+        if (ids != null && !ids.isEmpty()) {
+            int start = 0;
+            while (start < ids.length()) {
+                int end = ids.indexOf(',', start);
+                if (end < 0) {
+                    end = ids.length();
+                }
+                json.writeNumber(Long.parseLong(ids, start, end, 10));
+                start = end + 1;
+            }
+        }
+        json.writeEndArray();
+    }
+
+    private static void closeQuietly(InputStream in) {
+        try {
+            in.close();
+        } catch (IOException e) {
+            log.debug("Could not close storage stream: {}", e.getMessage());
+        }
+    }
+
+    /** An export slot from {@link #reserve()}; closing it more than once is harmless. */
+    public final class Permit implements AutoCloseable {
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit() {
+        }
+
+        @Override
+        public void close() {
+            if (released.compareAndSet(false, true)) {
+                slots.release();
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface PageReader<T> {
+        List<T> read(long afterId, int limit);
+    }
+
+    @FunctionalInterface
+    private interface RecordWriter<T> {
+        void write(JsonGenerator json, T row) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface RowHandler<T> {
+        void handle(T row) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface PageCallback {
+        void run() throws IOException;
+    }
+
+    private static final class CountingOutputStream extends FilterOutputStream {
+
+        long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.csci310.anchornotes.export;
+
+import com.csci310.anchornotes.exception.BadRequestException;
+import org.springframework.http.MediaType;
+
+import java.util.Locale;
+
+public enum ExportFormat {
+
+    /** One JSON record per line. */
+    NDJSON(MediaType.parseMediaType("application/x-ndjson"), ".ndjson"),
+
+    /** export.ndjson plus the bytes of every attachment under attachments/. */
+    ZIP(MediaType.parseMediaType("application/zip"), ".zip");
+
+    private final MediaType mediaType;
+    private final String extension;
+
+    ExportFormat(MediaType mediaType, String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+
+    public MediaType mediaType() {
+        return mediaType;
+    }
+
+    public String extension() {
+        return extension;
+    }
+
+    public static ExportFormat from(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Unknown export format: " + value + " (use ndjson or zip)");
+        }
+    }
+}
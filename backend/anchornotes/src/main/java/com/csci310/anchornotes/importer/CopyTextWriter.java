@@ -0,0 +1,63 @@
+package com.csci310.anchornotes.importer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Writes rows in the text format of Postgres COPY: tab-separated columns, {@code \N} for
+ * null, and backslash escapes for backslash, tab, newline and carriage return. NUL characters
+ * cannot be stored in text columns and are dropped.
+ */
+final class CopyTextWriter implements Closeable {
+
+    private final Writer out;
+    private boolean rowStarted;
+    private long rows;
+
+    CopyTextWriter(Path file) throws IOException {
+        this.out = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+    }
+
+    CopyTextWriter value(Object value) throws IOException {
+        if (rowStarted) {
+            out.write('\t');
+        }
+        rowStarted = true;
+        if (value == null) {
+            out.write("\\N");
+            return this;
+        }
+        String text = value.toString();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '\\' -> out.write("\\\\");
+                case '\t' -> out.write("\\t");
+                case '\n' -> out.write("\\n");
+                case '\r' -> out.write("\\r");
+                case '\0' -> { }
+                default -> out.write(c);
+            }
+        }
+        return this;
+    }
+
+    void endRow() throws IOException {
+        out.write('\n');
+        rowStarted = false;
+        rows++;
+    }
+
+    long rows() {
+        return rows;
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
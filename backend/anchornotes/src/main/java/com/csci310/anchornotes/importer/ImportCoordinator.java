@@ -0,0 +1,126 @@
+package com.csci310.anchornotes.importer;
+
+import com.csci310.anchornotes.config.ImportProperties;
+import com.csci310.anchornotes.dto.importjob.ImportJobResponse;
+import com.csci310.anchornotes.exception.ServiceUnavailableException;
+import com.csci310.anchornotes.service.ImportService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs bulk imports: the upload is validated and spooled on the request thread, then merged
+ * in the background by a small pool, so a slow client never holds a database connection and
+ * only a few merges compete with interactive traffic at once.
+ *
+ * Each import holds a slot from the moment its upload starts until its merge ends; with every
+ * slot taken new uploads get 503 before a byte is read.
+ */
+@Component
+@Slf4j
+public class ImportCoordinator {
+
+    private final ImportSpooler spooler;
+    private final ImportService importService;
+    private final Semaphore slots;
+    private final ExecutorService merges;
+
+    private final Timer completed;
+    private final Timer failed;
+    private final Counter notesImported;
+
+    public ImportCoordinator(ImportSpooler spooler,
+                             ImportService importService,
+                             ImportProperties properties,
+                             MeterRegistry meterRegistry) {
+        this.spooler = spooler;
+        this.importService = importService;
+        int concurrent = Math.max(1, properties.getMaxConcurrentImports());
+        int capacity = concurrent + Math.max(0, properties.getMaxQueuedImports());
+        this.slots = new Semaphore(capacity);
+        this.merges = Executors.newFixedThreadPool(concurrent, Thread.ofVirtual().name("import-", 0).factory());
+
+        Gauge.builder("app.import.active", slots, s -> capacity - s.availablePermits())
+                .description("Imports uploading, queued or merging on this replica")
+                .register(meterRegistry);
+        this.completed = duration(meterRegistry, "completed");
+        this.failed = duration(meterRegistry, "failed");
+        this.notesImported = Counter.builder("app.import.notes")
+                .description("Notes validated and queued for merging")
+                .register(meterRegistry);
+    }
+
+    private static Timer duration(MeterRegistry meterRegistry, String result) {
+        return Timer.builder("app.import.duration")
+                .tag("result", result)
+                .description("Time from upload to finished merge")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Validate and spool an upload, record its job and queue the merge.
+     */
+    public ImportJobResponse start(String userId, InputStream body) throws IOException {
+        if (!slots.tryAcquire()) {
+            throw new ServiceUnavailableException("Too many imports in progress, please retry shortly");
+        }
+        long started = System.nanoTime();
+        StagedImport staged = null;
+        try {
+            staged = spooler.spool(body);
+            ImportJobResponse job = importService.createJob(userId, staged);
+            notesImported.increment(staged.notes());
+            StagedImport queued = staged;
+            merges.execute(() -> run(userId, job.getId(), queued, started));
+            return job;
+        } catch (IOException | RuntimeException e) {
+            if (staged != null) {
+                staged.delete();
+            }
+            slots.release();
+            throw e;
+        }
+    }
+
+    public ImportJobResponse status(String userId, UUID jobId) {
+        return importService.getJob(userId, jobId);
+    }
+
+    private void run(String userId, UUID jobId, StagedImport staged, long started) {
+        try {
+            importService.markLoading(userId, jobId);
+            importService.load(userId, jobId, staged);
+            completed.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        } catch (RuntimeException e) {
+            failed.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            log.error("Import {} failed for user {}", jobId, userId, e);
+            try {
+                importService.fail(userId, jobId, "merge failed: " + e.getMessage());
+            } catch (RuntimeException failure) {
+                // the job is reported as failed once it goes stale
+                log.warn("Could not mark import {} failed: {}", jobId, failure.getMessage());
+            }
+        } finally {
+            staged.delete();
+            slots.release();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        merges.shutdownNow();
+        merges.awaitTermination(5, TimeUnit.SECONDS);
+    }
+}
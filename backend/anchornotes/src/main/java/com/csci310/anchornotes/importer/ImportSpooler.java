@@ -0,0 +1,431 @@
+package com.csci310.anchornotes.importer;
+
+import com.csci310.anchornotes.config.ImportProperties;
+import com.csci310.anchornotes.exception.BadRequestException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Reads an NDJSON upload, validates every record and writes the accepted ones to COPY files,
+ * so the database only ever sees clean rows and the upload itself never holds a connection.
+ *
+ * Accepts the /api/export format ({@code tag}, {@code geofence} and {@code note} records whose
+ * notes refer to tags and geofences by their exported ids) and plain note lines from other
+ * apps, where {@code type} may be left out and tags are given by name. Templates and
+ * attachments are counted as skipped. A bad line is rejected on its own; only an upload over
+ * the size or note limits fails as a whole.
+ */
+@Component
+@RequiredArgsConstructor
+public class ImportSpooler {
+
+    private static final int MAX_TITLE_LENGTH = 500;
+    private static final int MAX_TAG_NAME_LENGTH = 255;
+    private static final int MAX_SHORT_TEXT_LENGTH = 255;
+    private static final Pattern COLOR = Pattern.compile("^#([A-Fa-f0-9]{6}|[A-Fa-f0-9]{3})$");
+
+    private final ImportProperties properties;
+    private final ObjectMapper objectMapper;
+
+    public StagedImport spool(InputStream body) throws IOException {
+        String root = properties.getSpoolDirectory();
+        Path directory = root == null || root.isBlank()
+                ? Files.createTempDirectory("anchornotes-import-")
+                : Files.createTempDirectory(Files.createDirectories(Path.of(root)), "anchornotes-import-");
+        try (Staging staging = new Staging(directory)) {
+            LineReader lines = new LineReader(new InputStreamReader(
+                    new LimitedInputStream(body, properties.getMaxBytes()), StandardCharsets.UTF_8),
+                    properties.getMaxLineLength());
+            String line;
+            while ((line = lines.next()) != null) {
+                staging.linesRead++;
+                if (lines.tooLong) {
+                    staging.reject("longer than " + properties.getMaxLineLength() + " characters");
+                } else if (!line.isBlank()) {
+                    staging.read(line);
+                }
+            }
+            return staging.finish();
+        } catch (IOException | RuntimeException e) {
+            new StagedImport(directory, 0, 0, 0, 0, 0, 0, 0, List.of()).delete();
+            throw e;
+        }
+    }
+
+    private final class Staging implements AutoCloseable {
+
+        private final Path directory;
+        private final CopyTextWriter tags;
+        private final CopyTextWriter geofences;
+        private final CopyTextWriter notes;
+        private final CopyTextWriter noteTags;
+
+        // exported ids of the records seen so far, for notes that refer to them
+        private final Map<Long, String> tagNames = new HashMap<>();
+        private final Set<Long> geofenceIds = new HashSet<>();
+
+        private final List<String> errors = new ArrayList<>();
+        private long linesRead;
+        private long rejected;
+        private long skipped;
+        private boolean sawHeader;
+        private boolean sawEnd;
+
+        Staging(Path directory) throws IOException {
+            this.directory = directory;
+            this.tags = new CopyTextWriter(directory.resolve(StagedImport.TAGS));
+            this.geofences = new CopyTextWriter(directory.resolve(StagedImport.GEOFENCES));
+            this.notes = new CopyTextWriter(directory.resolve(StagedImport.NOTES));
+            this.noteTags = new CopyTextWriter(directory.resolve(StagedImport.NOTE_TAGS));
+        }
+
+        void read(String line) throws IOException {
+            JsonNode record;
+            try {
+                record = objectMapper.readTree(line);
+            } catch (JsonProcessingException e) {
+                reject("not valid JSON");
+                return;
+            }
+            if (record == null || !record.isObject()) {
+                reject("not a JSON object");
+                return;
+            }
+            String type = record.path("type").asText("note");
+            try {
+                switch (type) {
+                    case "note" -> note(record);
+                    case "tag" -> tag(record);
+                    case "geofence" -> geofence(record);
+                    case "template", "photo", "audio" -> skipped++;
+                    case "export" -> sawHeader = true;
+                    case "end" -> sawEnd = true;
+                    default -> throw new InvalidRecord("unknown type '" + type + "'");
+                }
+            } catch (InvalidRecord e) {
+                reject(e.getMessage());
+            }
+        }
+
+        private void tag(JsonNode record) throws IOException, InvalidRecord {
+            String name = tagName(record.get("name"));
+            String color = text(record, "color", MAX_SHORT_TEXT_LENGTH);
+            if (color != null && !COLOR.matcher(color).matches()) {
+                throw new InvalidRecord("color must be a hex color such as #8B5CF6");
+            }
+            Long id = number(record, "id");
+            if (tags.rows() >= properties.getMaxTags()) {
+                throw new BadRequestException("Import has more than " + properties.getMaxTags() + " tags");
+            }
+            if (id != null) {
+                tagNames.put(id, name);
+            }
+            tags.value(name).value(color).endRow();
+        }
+
+        private void geofence(JsonNode record) throws IOException, InvalidRecord {
+            Long id = number(record, "id");
+            if (id != null && id < 0) {
+                throw new InvalidRecord("id must not be negative");
+            }
+            if (id != null && geofenceIds.contains(id)) {
+                throw new InvalidRecord("duplicate geofence id " + id);
+            }
+            writeGeofence(id, record);
+            if (id != null) {
+                geofenceIds.add(id);
+            }
+        }
+
+        private void note(JsonNode record) throws IOException, InvalidRecord {
+            String title = text(record, "title", MAX_TITLE_LENGTH);
+            String text = text(record, "text", Integer.MAX_VALUE);
+            boolean pinned = record.path("pinned").asBoolean(false);
+            String backgroundColor = text(record, "backgroundColor", MAX_SHORT_TEXT_LENGTH);
+            Instant createdAt = instant(record, "createdAt");
+            Instant lastEdited = instant(record, "lastEdited");
+            Instant reminderTime = instant(record, "reminderTime");
+
+            Long geofenceId = number(record, "geofenceId");
+            if (geofenceId != null && !geofenceIds.contains(geofenceId)) {
+                throw new InvalidRecord("geofenceId " + geofenceId + " has no geofence record before it");
+            }
+            JsonNode inlineGeofence = record.get("geofence");
+            if (inlineGeofence != null && !inlineGeofence.isNull() && !inlineGeofence.isObject()) {
+                throw new InvalidRecord("geofence must be an object");
+            }
+
+            Set<String> names = new LinkedHashSet<>();
+            JsonNode tagList = record.get("tags");
+            if (tagList != null && !tagList.isNull()) {
+                if (!tagList.isArray()) {
+                    throw new InvalidRecord("tags must be an array of names");
+                }
+                for (JsonNode name : tagList) {
+                    names.add(tagName(name));
+                }
+            }
+            JsonNode tagIds = record.get("tagIds");
+            if (tagIds != null && !tagIds.isNull()) {
+                if (!tagIds.isArray()) {
+                    throw new InvalidRecord("tagIds must be an array");
+                }
+                for (JsonNode tagId : tagIds) {
+                    String name = tagId.canConvertToLong() ? tagNames.get(tagId.asLong()) : null;
+                    if (name == null) {
+                        throw new InvalidRecord("tagIds " + tagId + " has no tag record before it");
+                    }
+                    names.add(name);
+                }
+            }
+
+            long seq = notes.rows() + 1;
+            if (seq > properties.getMaxNotes()) {
+                throw new BadRequestException("Import has more than " + properties.getMaxNotes() + " notes");
+            }
+            Long geofenceRef = geofenceId;
+            if (inlineGeofence != null && inlineGeofence.isObject()) {
+                // plain notes carry their geofence inline; it gets a source id no export uses
+                geofenceRef = -seq;
+                writeGeofence(geofenceRef, inlineGeofence);
+            }
+            notes.value(seq).value(title).value(text).value(pinned).value(backgroundColor)
+                    .value(createdAt).value(lastEdited).value(reminderTime).value(geofenceRef).endRow();
+            for (String name : names) {
+                noteTags.value(seq).value(name).endRow();
+            }
+        }
+
+        private void writeGeofence(Long sourceId, JsonNode record) throws IOException, InvalidRecord {
+            double latitude = coordinate(record, "latitude", 90);
+            double longitude = coordinate(record, "longitude", 180);
+            Long radius = number(record, "radius");
+            if (radius == null || radius <= 0 || radius > Integer.MAX_VALUE) {
+                throw new InvalidRecord("radius must be a positive number of meters");
+            }
+            String addressName = text(record, "addressName", MAX_SHORT_TEXT_LENGTH);
+            Instant createdAt = instant(record, "createdAt");
+            if (geofences.rows() >= properties.getMaxNotes()) {
+                throw new BadRequestException("Import has more than " + properties.getMaxNotes() + " geofences");
+            }
+            geofences.value(sourceId).value(latitude).value(longitude).value(radius).value(addressName)
+                    .value(createdAt).endRow();
+        }
+
+        void reject(String reason) {
+            rejected++;
+            if (errors.size() < properties.getMaxReportedErrors()) {
+                errors.add("line " + linesRead + ": " + reason);
+            }
+        }
+
+        StagedImport finish() throws IOException {
+            close();
+            List<String> reported = new ArrayList<>(errors);
+            if (sawHeader && !sawEnd) {
+                reported.add("no end record: the export looks truncated");
+            }
+            return new StagedImport(directory, linesRead, rejected, skipped, tags.rows(), geofences.rows(),
+                    notes.rows(), noteTags.rows(), List.copyOf(reported));
+        }
+
+        @Override
+        public void close() throws IOException {
+            tags.close();
+            geofences.close();
+            notes.close();
+            noteTags.close();
+        }
+    }
+
+    private static String tagName(JsonNode value) throws InvalidRecord {
+        if (value == null || !value.isTextual() || value.asText().isBlank()) {
+            throw new InvalidRecord("tag names must be non-empty strings");
+        }
+        String name = value.asText().trim();
+        if (name.length() > MAX_TAG_NAME_LENGTH) {
+            throw new InvalidRecord("tag name longer than " + MAX_TAG_NAME_LENGTH + " characters");
+        }
+        return name;
+    }
+
+    private static String text(JsonNode record, String field, int maxLength) throws InvalidRecord {
+        JsonNode value = record.get(field);
+        if (value == null || value.isNull()) {
+            return null;
+        }
+        if (!value.isTextual()) {
+            throw new InvalidRecord(field + " must be a string");
+        }
+        String text = value.asText();
+        if (text.length() > maxLength) {
+            throw new InvalidRecord(field + " longer than " + maxLength + " characters");
+        }
+        return text;
+    }
+
+    private static Long number(JsonNode record, String field) throws InvalidRecord {
+        JsonNode value = record.get(field);
+        if (value == null || value.isNull()) {
+            return null;
+        }
+        if (!value.isIntegralNumber() || !value.canConvertToLong()) {
+            throw new InvalidRecord(field + " must be a whole number");
+        }
+        return value.asLong();
+    }
+
+    private static double coordinate(JsonNode record, String field, double limit) throws InvalidRecord {
+        JsonNode value = record.get(field);
+        if (value == null || !value.isNumber() || Math.abs(value.asDouble()) > limit) {
+            throw new InvalidRecord(field + " must be a number between -" + (int) limit + " and " + (int) limit);
+        }
+        return value.asDouble();
+    }
+
+    private static Instant instant(JsonNode record, String field) throws InvalidRecord {
+        String text = text(record, field, MAX_SHORT_TEXT_LENGTH);
+        if (text == null) {
+            return null;
+        }
+        try {
+            return Instant.parse(text);
+        } catch (DateTimeException e) {
+            throw new InvalidRecord(field + " must be an ISO-8601 instant such as 2025-01-31T09:00:00Z");
+        }
+    }
+
+    /** A record that cannot be imported; rejects its line only. */
+    private static final class InvalidRecord extends Exception {
+        InvalidRecord(String message) {
+            super(message, null, false, false);
+        }
+    }
+
+    /**
+     * Splits on '\n' (dropping a trailing '\r') without ever buffering more than
+     * {@code maxLength} characters of one line; a longer line is returned empty with
+     * {@code tooLong} set.
+     */
+    private static final class LineReader {
+
+        private final Reader in;
+        private final int maxLength;
+        private final char[] buffer = new char[8192];
+        private final StringBuilder line = new StringBuilder();
+        private int position;
+        private int limit;
+        boolean tooLong;
+
+        LineReader(Reader in, int maxLength) {
+            this.in = in;
+            this.maxLength = maxLength;
+        }
+
+        String next() throws IOException {
+            line.setLength(0);
+            tooLong = false;
+            boolean any = false;
+            while (true) {
+                if (position == limit) {
+                    limit = Math.max(0, in.read(buffer));
+                    position = 0;
+                    if (limit == 0) {
+                        return any ? finish() : null;
+                    }
+                }
+                any = true;
+                int start = position;
+                while (position < limit && buffer[position] != '\n') {
+                    position++;
+                }
+                append(start, position - start);
+                if (position < limit) {
+                    position++;
+                    return finish();
+                }
+            }
+        }
+
+        private void append(int start, int length) {
+            if (tooLong) {
+                return;
+            }
+            if (line.length() + length > maxLength + 1) {
+                tooLong = true;
+                line.setLength(0);
+            } else {
+                line.append(buffer, start, length);
+            }
+        }
+
+        private String finish() {
+            int length = line.length();
+            if (length > 0 && line.charAt(length - 1) == '\r') {
+                line.setLength(length - 1);
+            }
+            if (line.length() > maxLength) {
+                tooLong = true;
+            }
+            return tooLong ? "" : line.toString();
+        }
+    }
+
+    private static final class LimitedInputStream extends FilterInputStream {
+
+        private final long maxBytes;
+        private long read;
+
+        LimitedInputStream(InputStream in, long maxBytes) {
+            super(in);
+            this.maxBytes = maxBytes;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count(n);
+            }
+            return n;
+        }
+
+        private void count(int n) {
+            read += n;
+            if (read > maxBytes) {
+                throw new BadRequestException("Import is larger than " + maxBytes + " bytes");
+            }
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.csci310.anchornotes.importer;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * A validated upload: one COPY text file per staging table in {@code directory}, plus what
+ * was read and rejected on the way.
+ */
+@Slf4j
+public record StagedImport(Path directory,
+                           long linesRead,
+                           long rejected,
+                           long skipped,
+                           long tags,
+                           long geofences,
+                           long notes,
+                           long noteTags,
+                           List<String> errors) {
+
+    /** Columns: name, color. */
+    public static final String TAGS = "tags.copy";
+
+    /** Columns: source_id, latitude, longitude, radius, address_name, created_at. */
+    public static final String GEOFENCES = "geofences.copy";
+
+    /**
+     * Columns: seq, title, text, pinned, background_color, created_at, last_edited,
+     * reminder_time, geofence_ref (a geofence source_id).
+     */
+    public static final String NOTES = "notes.copy";
+
+    /** Columns: note_seq, name. */
+    public static final String NOTE_TAGS = "note_tags.copy";
+
+    public Path file(String name) {
+        return directory.resolve(name);
+    }
+
+    public void delete() {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        } catch (IOException e) {
+            log.warn("Could not delete import spool {}: {}", directory, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.csci310.anchornotes.jobs;
+
+import java.time.Duration;
+
+/**
+ * Background work that should run once per {@link #interval()} across the whole cluster.
+ *
+ * Declare an implementation as a bean and {@link JobCoordinator} runs it. A job with more
+ * than one partition has each partition claimed and run independently, so replicas share
+ * the work; the job decides what a partition covers (e.g. {@code id % partitions}).
+ */
+public interface ClusterJob {
+
+    /** Stable name; the key for its rows in job_leases and the metrics tag. */
+    String name();
+
+    Duration interval();
+
+    default int partitions() {
+        return 1;
+    }
+
+    /**
+     * Run one partition. Should stop promptly when interrupted: that means the lease was
+     * lost or the replica is shutting down, and another replica will run it again.
+     */
+    void run(int partition, int partitions) throws Exception;
+}
@@ -0,0 +1,29 @@
+package com.csci310.anchornotes.jobs;
+
+import com.csci310.anchornotes.config.JobProperties;
+import lombok.Getter;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * Name this replica uses as the owner of job leases and reminder claims.
+ *
+ * The random suffix is per process: a restarted replica must not be mistaken for the one
+ * that held a lease before the crash, or it would renew leases it never ran.
+ */
+@Component
+@Getter
+public class ClusterNode {
+
+    private final String id;
+
+    public ClusterNode(JobProperties properties) {
+        String base = properties.getNodeId();
+        if (base == null || base.isBlank()) {
+            String host = System.getenv("HOSTNAME");
+            base = (host == null || host.isBlank() ? "node" : host) + "-" + ProcessHandle.current().pid();
+        }
+        this.id = base + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
@@ -0,0 +1,241 @@
+package com.csci310.anchornotes.jobs;
+
+import com.csci310.anchornotes.config.JobProperties;
+import com.csci310.anchornotes.repository.JobLeaseRepository;
+import com.csci310.anchornotes.service.JobLeaseService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs every {@link ClusterJob} bean so each partition runs once per interval across all
+ * replicas.
+ *
+ * Each replica polls job_leases, claiming due partitions with {@code FOR UPDATE SKIP LOCKED}
+ * (a few per job per poll, so partitions spread across replicas) and renewing the leases of
+ * the ones it is running. A finished run releases its lease and sets the next due time one
+ * interval after it started. A replica that crashes simply stops renewing; once the lease
+ * expires the partition is claimable again and is re-run from the start. A replica that
+ * finds it has lost a lease (e.g. after a long GC pause) interrupts that run.
+ */
+@Component
+@Slf4j
+public class JobCoordinator {
+
+    private final List<ClusterJob> jobs;
+    private final JobLeaseService leaseService;
+    private final JobProperties properties;
+    private final String owner;
+    private final MeterRegistry meterRegistry;
+
+    private final ScheduledExecutorService poller = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("job-poller").daemon().factory());
+    private final ExecutorService runners = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("job-runner-", 0).factory());
+    private final Semaphore slots;
+
+    private final Set<String> registered = ConcurrentHashMap.newKeySet();
+    // "job:partition" -> running task, matching the keys renewAll returns
+    private final Map<String, Future<?>> running = new ConcurrentHashMap<>();
+    private final Map<String, JobMetrics> metrics = new ConcurrentHashMap<>();
+
+    public JobCoordinator(ObjectProvider<ClusterJob> jobs,
+                          JobLeaseService leaseService,
+                          JobProperties properties,
+                          ClusterNode node,
+                          MeterRegistry meterRegistry) {
+        this.jobs = jobs.orderedStream().toList();
+        this.leaseService = leaseService;
+        this.properties = properties;
+        this.owner = node.getId();
+        this.meterRegistry = meterRegistry;
+        this.slots = new Semaphore(Math.max(1, properties.getMaxConcurrentRuns()));
+        this.jobs.forEach(job -> metrics(job.name()));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!properties.isEnabled() || jobs.isEmpty()) {
+            log.info("Cluster jobs not started on this replica (enabled={}, jobs={})", properties.isEnabled(), jobs.size());
+            return;
+        }
+        long pollMillis = properties.getPollInterval().toMillis();
+        poller.scheduleWithFixedDelay(this::poll, 0, pollMillis, TimeUnit.MILLISECONDS);
+        log.info("Cluster jobs started as {}: {}", owner, jobs.stream().map(ClusterJob::name).toList());
+    }
+
+    void poll() {
+        try {
+            renew();
+        } catch (RuntimeException e) {
+            log.warn("Could not renew job leases: {}", e.getMessage());
+        }
+        for (ClusterJob job : jobs) {
+            try {
+                claimAndRun(job);
+            } catch (RuntimeException e) {
+                log.warn("Could not claim job {}, retrying next poll: {}", job.name(), e.getMessage());
+            }
+        }
+    }
+
+    private void renew() {
+        if (running.isEmpty()) {
+            return;
+        }
+        Set<String> held = new HashSet<>(leaseService.renewAll(owner, properties.getLeaseDuration()));
+        running.forEach((key, task) -> {
+            if (!held.contains(key) && !task.isDone()) {
+                log.warn("Lease on {} lost, interrupting run", key);
+                metrics(key.substring(0, key.lastIndexOf(':'))).leaseLost.increment();
+                task.cancel(true);
+            }
+        });
+    }
+
+    private void claimAndRun(ClusterJob job) {
+        if (!registered.contains(job.name())) {
+            leaseService.register(job.name(), Math.max(1, job.partitions()));
+            registered.add(job.name());
+        }
+        int limit = Math.min(Math.max(1, properties.getMaxClaimsPerPoll()), slots.availablePermits());
+        if (limit == 0) {
+            return;
+        }
+        List<JobLeaseRepository.ClaimedPartition> claimed =
+                leaseService.claimDue(job.name(), owner, limit, properties.getLeaseDuration());
+        for (JobLeaseRepository.ClaimedPartition partition : claimed) {
+            if (partition.getPreviousOwner() != null) {
+                // the lease expired while held: the previous owner crashed or stalled
+                log.warn("Took over {}:{} from {}", job.name(), partition.getPartition(), partition.getPreviousOwner());
+                metrics(job.name()).takeovers.increment();
+            }
+            String key = job.name() + ":" + partition.getPartition();
+            slots.acquireUninterruptibly();
+            // registered before it starts, so the run's own removal can never come first
+            FutureTask<Void> task = new FutureTask<>(() -> run(job, partition.getPartition(), key), null);
+            running.put(key, task);
+            runners.execute(task);
+        }
+    }
+
+    private void run(ClusterJob job, int partition, String key) {
+        JobMetrics jobMetrics = metrics(job.name());
+        jobMetrics.active.incrementAndGet();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String error = null;
+        boolean interrupted = false;
+        try {
+            job.run(partition, Math.max(1, job.partitions()));
+            jobMetrics.succeeded.increment();
+        } catch (Exception e) {
+            interrupted = e instanceof InterruptedException || Thread.currentThread().isInterrupted();
+            error = e.getClass().getSimpleName() + ": " + e.getMessage();
+            jobMetrics.failed.increment();
+            if (!interrupted) {
+                log.error("Job {} partition {} failed", job.name(), partition, e);
+            }
+        } finally {
+            sample.stop(jobMetrics.duration);
+            jobMetrics.active.decrementAndGet();
+            running.remove(key);
+            slots.release();
+        }
+        // An interrupted run (lost lease or shutdown) is not marked as run: the partition
+        // stays due and is picked up again once the lease is released or expires.
+        if (!interrupted) {
+            release(job, partition, error);
+        }
+    }
+
+    private void release(ClusterJob job, int partition, String error) {
+        try {
+            if (!leaseService.complete(job.name(), partition, owner, job.interval(), error)) {
+                log.warn("Job {} partition {} finished after its lease was lost", job.name(), partition);
+            }
+        } catch (RuntimeException e) {
+            // the lease expires on its own; the partition just runs again a little early
+            log.warn("Could not release {}:{}: {}", job.name(), partition, e.getMessage());
+        }
+    }
+
+    private JobMetrics metrics(String jobName) {
+        return metrics.computeIfAbsent(jobName, JobMetrics::new);
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        poller.shutdownNow();
+        runners.shutdownNow();
+        runners.awaitTermination(5, TimeUnit.SECONDS);
+        try {
+            // hand anything still held to the other replicas right away
+            int released = leaseService.releaseAll(owner);
+            if (released > 0) {
+                log.info("Released {} job leases on shutdown", released);
+            }
+        } catch (RuntimeException e) {
+            log.debug("Could not release job leases on shutdown: {}", e.getMessage());
+        }
+    }
+
+    private final class JobMetrics {
+        final AtomicInteger active = new AtomicInteger();
+        final Counter succeeded;
+        final Counter failed;
+        final Counter leaseLost;
+        final Counter takeovers;
+        final Timer duration;
+
+        JobMetrics(String jobName) {
+            Gauge.builder("app.jobs.active", active, AtomicInteger::get)
+                    .tag("job", jobName)
+                    .description("Partitions of the job running on this replica")
+                    .register(meterRegistry);
+            this.succeeded = runs(jobName, "success");
+            this.failed = runs(jobName, "failure");
+            this.leaseLost = Counter.builder("app.jobs.leases.lost")
+                    .tag("job", jobName)
+                    .description("Runs interrupted because their lease expired or was taken")
+                    .register(meterRegistry);
+            this.takeovers = Counter.builder("app.jobs.leases.takeovers")
+                    .tag("job", jobName)
+                    .description("Partitions claimed from a replica whose lease had expired")
+                    .register(meterRegistry);
+            this.duration = Timer.builder("app.jobs.duration")
+                    .tag("job", jobName)
+                    .description("Time to run one job partition")
+                    .publishPercentiles(0.5, 0.99)
+                    .register(meterRegistry);
+        }
+
+        private Counter runs(String jobName, String result) {
+            return Counter.builder("app.jobs.runs")
+                    .tag("job", jobName)
+                    .tag("result", result)
+                    .description("Job partition runs by outcome")
+                    .register(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.csci310.anchornotes.media;
+
+import org.springframework.http.HttpRange;
+
+import java.util.List;
+
+/**
+ * The part of a file a GET asks for, after Range and If-Range. Only single ranges are
+ * served as 206; a request for several (which players do not send) gets the whole file, as
+ * the RFC allows, and so does a Range header that cannot be parsed.
+ *
+ * @param start first byte, inclusive
+ * @param end last byte, inclusive
+ */
+public record ByteRange(long start, long end) {
+
+    /** The range asks only for bytes past the end of the file: answer 416. */
+    public static final ByteRange UNSATISFIABLE = new ByteRange(-1, -1);
+
+    public long length() {
+        return end - start + 1;
+    }
+
+    /**
+     * @param range Range header, or null
+     * @param ifRange If-Range header, or null
+     * @param etag the file's current entity tag
+     * @param size the file's length in bytes
+     * @return the range to send, null to send the whole file, or {@link #UNSATISFIABLE}
+     */
+    public static ByteRange select(String range, String ifRange, String etag, long size) {
+        HttpRange requested = single(range, ifRange, etag);
+        if (requested == null) {
+            return null;
+        }
+        if (size == 0) {
+            return UNSATISFIABLE;
+        }
+        try {
+            long start = requested.getRangeStart(size);
+            long end = requested.getRangeEnd(size);
+            return start <= end ? new ByteRange(start, end) : UNSATISFIABLE;
+        } catch (IllegalArgumentException e) {
+            // first position at or past the end
+            return UNSATISFIABLE;
+        }
+    }
+
+    /**
+     * The Range header to pass on to storage when the file's length is not known here: the
+     * client's own if it is a single range that still applies, otherwise null for the whole file.
+     */
+    public static String forward(String range, String ifRange, String etag) {
+        return single(range, ifRange, etag) != null ? range.trim() : null;
+    }
+
+    /**
+     * @return Content-Range value for this range of a file of the given size
+     */
+    public String contentRange(long size) {
+        return this == UNSATISFIABLE ? "bytes */" + size : "bytes " + start + "-" + end + "/" + size;
+    }
+
+    private static HttpRange single(String range, String ifRange, String etag) {
+        if (range == null || range.isBlank()) {
+            return null;
+        }
+        // If-Range with a date never matches: no Last-Modified is sent, only the entity tag
+        if (ifRange != null && !ifRange.trim().equals(etag)) {
+            return null;
+        }
+        try {
+            List<HttpRange> ranges = HttpRange.parseRanges(range.trim());
+            return ranges.size() == 1 ? ranges.get(0) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.csci310.anchornotes.media;
+
+import com.csci310.anchornotes.blob.Blobs;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Copies of stored files on local disk, bounded by total size and evicted least recently
+ * used first. The index lives in memory only, so whatever an earlier process left in the
+ * directory is deleted when the cache is created.
+ *
+ * A file is written under a temporary name and moved into place, so a reader never sees a
+ * partial copy. An evicted file is deleted only after a grace period: a response may have
+ * been handed its path and not have opened it yet. Thread-safe.
+ */
+@Slf4j
+public class MediaCache {
+
+    private static final String SUFFIX = ".bin";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final Path directory;
+    private final long maxBytes;
+    private final long maxObjectBytes;
+    private final Duration evictionGrace;
+
+    // access order, so iteration starts at the least recently used
+    private final LinkedHashMap<String, Cached> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private final Deque<Evicted> evicted = new ArrayDeque<>();
+    private long bytes;
+
+    /** A file in the cache. */
+    public record Cached(Path path, long size) {
+    }
+
+    private record Evicted(Path path, Instant deleteAfter) {
+    }
+
+    public MediaCache(Path directory, long maxBytes, long maxObjectBytes, Duration evictionGrace) throws IOException {
+        this.directory = Files.createDirectories(directory).toRealPath();
+        this.maxBytes = maxBytes;
+        this.maxObjectBytes = Math.min(maxObjectBytes, maxBytes);
+        this.evictionGrace = evictionGrace;
+        deleteLeftovers();
+    }
+
+    /**
+     * @return the cached copy of a file, marking it recently used, or null if there is none
+     */
+    public synchronized Cached get(String key) {
+        deleteEvicted(Instant.now());
+        return entries.get(key);
+    }
+
+    /** Whether a file of this size would be cached at all. */
+    public boolean accepts(long size) {
+        return size >= 0 && size <= maxObjectBytes;
+    }
+
+    /**
+     * Copy a file into the cache, evicting others to make room. Another copy of the same key
+     * that got there first wins and this one is discarded.
+     *
+     * @param content the whole file; read to the end but not closed
+     * @param size its length, checked against what was read
+     * @return the cached copy, or null if the file is too large to cache
+     */
+    public Cached put(String key, InputStream content, long size) throws IOException {
+        if (!accepts(size)) {
+            return null;
+        }
+        Path target = directory.resolve(fileName(key) + SUFFIX);
+        Path temp = directory.resolve(fileName(key) + "." + UUID.randomUUID() + TEMP_SUFFIX);
+        try {
+            long copied = Files.copy(content, temp);
+            if (copied != size) {
+                throw new IOException("Expected " + size + " bytes for " + key + " but read " + copied);
+            }
+            synchronized (this) {
+                Cached existing = entries.get(key);
+                if (existing != null) {
+                    return existing;
+                }
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                Cached cached = new Cached(target, size);
+                entries.put(key, cached);
+                bytes += size;
+                evictOver(key);
+                return cached;
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /** Bytes held by cached files, not counting evicted ones still waiting to be deleted. */
+    public synchronized long size() {
+        return bytes;
+    }
+
+    public synchronized int count() {
+        return entries.size();
+    }
+
+    /** Delete every cached file, including evicted ones still in their grace period. */
+    public synchronized void clear() {
+        for (Cached cached : entries.values()) {
+            delete(cached.path());
+        }
+        entries.clear();
+        bytes = 0;
+        while (!evicted.isEmpty()) {
+            delete(evicted.poll().path());
+        }
+    }
+
+    private void evictOver(String keep) {
+        Instant deleteAfter = Instant.now().plus(evictionGrace);
+        Iterator<Map.Entry<String, Cached>> eldest = entries.entrySet().iterator();
+        while (bytes > maxBytes && eldest.hasNext()) {
+            Map.Entry<String, Cached> entry = eldest.next();
+            if (entry.getKey().equals(keep)) {
+                continue;
+            }
+            eldest.remove();
+            bytes -= entry.getValue().size();
+            evicted.add(new Evicted(entry.getValue().path(), deleteAfter));
+        }
+        deleteEvicted(Instant.now());
+    }
+
+    private void deleteEvicted(Instant now) {
+        while (!evicted.isEmpty() && !evicted.peek().deleteAfter().isAfter(now)) {
+            delete(evicted.poll().path());
+        }
+    }
+
+    private void deleteLeftovers() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory,
+                "*{" + SUFFIX + "," + TEMP_SUFFIX + "}")) {
+            for (Path file : files) {
+                delete(file);
+            }
+        }
+    }
+
+    private static void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete cached file {}: {}", file, e.getMessage());
+        }
+    }
+
+    // keys are storage paths; hash them so any path maps to one flat, safe file name
+    private static String fileName(String key) {
+        return Blobs.sha256(key);
+    }
+}
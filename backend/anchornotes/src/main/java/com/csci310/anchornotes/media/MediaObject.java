@@ -0,0 +1,11 @@
+package com.csci310.anchornotes.media;
+
+/**
+ * A stored attachment file a user may read.
+ *
+ * @param objectPath bucket and file path in storage
+ * @param contentType MIME type to serve it with, or null
+ * @param etag quoted strong entity tag; stored files are never rewritten, so it never changes
+ */
+public record MediaObject(String objectPath, String contentType, String etag) {
+}
@@ -0,0 +1,266 @@
+package com.csci310.anchornotes.media;
+
+import com.csci310.anchornotes.config.MediaProperties;
+import com.csci310.anchornotes.service.SupabaseStorageService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.http.HttpResponse;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serves attachment files with Range and If-Range, so a player can seek in a long recording
+ * without downloading it from the start.
+ *
+ * Recently played files are kept in a {@link MediaCache} on local disk. A hit is handed to
+ * Tomcat's sendfile, which copies from the page cache to the socket without passing through
+ * the JVM; on a connector without sendfile it is copied through a FileChannel instead. A miss
+ * passes the request's range on to storage and relays the answer as it arrives, then queues
+ * a download of the whole file into the cache on a small bounded pool. When that queue is
+ * full the file is just not cached this time.
+ */
+@Component
+@Slf4j
+public class MediaStreamer {
+
+    // request attributes Tomcat reads after the servlet returns (see org.apache.catalina.Globals)
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    // long enough for Tomcat to open a file it was handed just before the file was evicted
+    private static final Duration EVICTION_GRACE = Duration.ofMinutes(1);
+
+    private static final String CACHE_CONTROL = CacheControl.maxAge(Duration.ofDays(365))
+            .cachePrivate().immutable().getHeaderValue();
+
+    private final MediaProperties properties;
+    private final SupabaseStorageService storageService;
+    private final MediaCache cache;
+    private final ThreadPoolExecutor fillers;
+    // queued or running, so concurrent misses on one file download it once
+    private final Set<String> filling = ConcurrentHashMap.newKeySet();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter filled;
+    private final Counter fillsDropped;
+    private final Counter fillsFailed;
+
+    public MediaStreamer(MediaProperties properties,
+                         SupabaseStorageService storageService,
+                         MeterRegistry meterRegistry) throws IOException {
+        this.properties = properties;
+        this.storageService = storageService;
+        Path directory = properties.getCacheDirectory() != null
+                ? Path.of(properties.getCacheDirectory())
+                : Path.of(System.getProperty("java.io.tmpdir"), "anchornotes-media");
+        this.cache = new MediaCache(directory, properties.getCacheMaxBytes(),
+                properties.getCacheMaxObjectBytes(), EVICTION_GRACE);
+        int threads = Math.max(1, properties.getFillWorkers());
+        this.fillers = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, properties.getFillQueueCapacity())),
+                Thread.ofPlatform().name("media-fill-", 0).daemon().factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("app.media.cache.bytes", cache, MediaCache::size)
+                .description("Bytes of attachment files in this replica's disk cache")
+                .register(meterRegistry);
+        this.hits = requests(meterRegistry, "hit");
+        this.misses = requests(meterRegistry, "miss");
+        this.filled = fills(meterRegistry, "stored");
+        this.fillsDropped = fills(meterRegistry, "dropped");
+        this.fillsFailed = fills(meterRegistry, "failed");
+    }
+
+    private static Counter requests(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("app.media.requests")
+                .tag("result", result)
+                .description("Attachment file requests, by whether the disk cache had the file")
+                .register(meterRegistry);
+    }
+
+    private static Counter fills(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("app.media.cache.fills")
+                .tag("result", result)
+                .description("Downloads of attachment files into the disk cache, by outcome")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Write the file, or the part the request asks for, to the response
+     */
+    public void stream(MediaObject media, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (media.etag().equals(request.getHeader(HttpHeaders.IF_NONE_MATCH))) {
+            fileHeaders(media, response);
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        MediaCache.Cached cached = cache.get(media.objectPath());
+        if (cached != null) {
+            hits.increment();
+            streamCached(media, cached, request, response);
+        } else {
+            misses.increment();
+            streamFromStorage(media, request, response);
+        }
+    }
+
+    private void streamCached(MediaObject media, MediaCache.Cached cached,
+                              HttpServletRequest request, HttpServletResponse response) throws IOException {
+        long size = cached.size();
+        ByteRange range = ByteRange.select(request.getHeader(HttpHeaders.RANGE),
+                request.getHeader(HttpHeaders.IF_RANGE), media.etag(), size);
+        if (range == ByteRange.UNSATISFIABLE) {
+            response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, range.contentRange(size));
+            response.setContentLengthLong(0);
+            return;
+        }
+        fileHeaders(media, response);
+        if (media.contentType() != null) {
+            response.setContentType(media.contentType());
+        }
+        if (range != null) {
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, range.contentRange(size));
+        } else {
+            response.setStatus(HttpServletResponse.SC_OK);
+            range = new ByteRange(0, size - 1);
+        }
+        response.setContentLengthLong(range.length());
+        if (range.length() == 0 || "HEAD".equals(request.getMethod())) {
+            return;
+        }
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            request.setAttribute(SENDFILE_FILENAME, cached.path().toString());
+            request.setAttribute(SENDFILE_START, range.start());
+            request.setAttribute(SENDFILE_END, range.end() + 1);
+            return;
+        }
+        try (FileChannel file = FileChannel.open(cached.path(), StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = range.start();
+            long remaining = range.length();
+            while (remaining > 0) {
+                long sent = file.transferTo(position, remaining, out);
+                if (sent <= 0) {
+                    throw new IOException("Cached file " + cached.path() + " is shorter than " + size + " bytes");
+                }
+                position += sent;
+                remaining -= sent;
+            }
+        }
+    }
+
+    private void streamFromStorage(MediaObject media, HttpServletRequest request,
+                                   HttpServletResponse response) throws IOException {
+        String range = ByteRange.forward(request.getHeader(HttpHeaders.RANGE),
+                request.getHeader(HttpHeaders.IF_RANGE), media.etag());
+        HttpResponse<InputStream> upstream = storageService.fetchObject(media.objectPath(), range,
+                properties.getStorageTimeout());
+        try (InputStream body = upstream.body()) {
+            if (upstream.statusCode() != HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE) {
+                fileHeaders(media, response);
+            }
+            response.setStatus(upstream.statusCode());
+            upstream.headers().firstValue(HttpHeaders.CONTENT_RANGE)
+                    .ifPresent(value -> response.setHeader(HttpHeaders.CONTENT_RANGE, value));
+            upstream.headers().firstValueAsLong(HttpHeaders.CONTENT_LENGTH)
+                    .ifPresent(response::setContentLengthLong);
+            if (media.contentType() != null) {
+                response.setContentType(media.contentType());
+            } else {
+                upstream.headers().firstValue(HttpHeaders.CONTENT_TYPE).ifPresent(response::setContentType);
+            }
+
+            long size = totalSize(upstream);
+            if (cache.accepts(size)) {
+                fill(media.objectPath(), size);
+            }
+            if (upstream.statusCode() != HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE
+                    && !"HEAD".equals(request.getMethod())) {
+                body.transferTo(response.getOutputStream());
+            }
+        }
+    }
+
+    // Set only once the answer is the file, or that the client's copy is current, so an error
+    // from storage is never cached for a year under the file's ETag
+    private static void fileHeaders(MediaObject media, HttpServletResponse response) {
+        response.setHeader(HttpHeaders.ETAG, media.etag());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+    }
+
+    // the whole file's length: after the slash of Content-Range, or Content-Length of a 200
+    private static long totalSize(HttpResponse<InputStream> upstream) {
+        String contentRange = upstream.headers().firstValue(HttpHeaders.CONTENT_RANGE).orElse(null);
+        if (contentRange != null) {
+            int slash = contentRange.lastIndexOf('/');
+            try {
+                return slash < 0 ? -1 : Long.parseLong(contentRange.substring(slash + 1).trim());
+            } catch (NumberFormatException e) {
+                // "*": length unknown
+                return -1;
+            }
+        }
+        return upstream.statusCode() == HttpServletResponse.SC_OK
+                ? upstream.headers().firstValueAsLong(HttpHeaders.CONTENT_LENGTH).orElse(-1)
+                : -1;
+    }
+
+    private void fill(String objectPath, long size) {
+        if (!filling.add(objectPath)) {
+            return;
+        }
+        try {
+            fillers.execute(() -> {
+                try (InputStream in = storageService.fetchObject(objectPath, null, properties.getStorageTimeout()).body()) {
+                    cache.put(objectPath, in, size);
+                    filled.increment();
+                } catch (IOException | RuntimeException e) {
+                    fillsFailed.increment();
+                    log.warn("Could not cache {}: {}", objectPath, e.getMessage());
+                } finally {
+                    filling.remove(objectPath);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            filling.remove(objectPath);
+            fillsDropped.increment();
+            log.debug("Media cache queue full, not caching {}", objectPath);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        fillers.shutdownNow();
+        fillers.awaitTermination(5, TimeUnit.SECONDS);
+        cache.clear();
+    }
+}
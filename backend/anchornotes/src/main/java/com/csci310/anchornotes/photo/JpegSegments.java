@@ -0,0 +1,213 @@
+package com.csci310.anchornotes.photo;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Reads and rewrites the marker segments at the head of a JPEG file, up to the start of the
+ * compressed image data, without decoding anything.
+ */
+public final class JpegSegments {
+
+    /** EXIF orientation of an upright image. */
+    public static final int UPRIGHT = 1;
+
+    private static final int SOI = 0xD8;
+    private static final int EOI = 0xD9;
+    private static final int SOS = 0xDA;
+    private static final int APP0 = 0xE0;
+    private static final int APP1 = 0xE1;
+    private static final int APP2 = 0xE2;
+    private static final int APP14 = 0xEE;
+    private static final int APP15 = 0xEF;
+    private static final int COM = 0xFE;
+
+    private static final byte[] EXIF_HEADER = "Exif\0\0".getBytes(StandardCharsets.ISO_8859_1);
+    private static final byte[] ICC_HEADER = "ICC_PROFILE\0".getBytes(StandardCharsets.ISO_8859_1);
+    private static final int ORIENTATION_TAG = 0x0112;
+    private static final int SHORT = 3;
+
+    private JpegSegments() {
+    }
+
+    /** Whether the bytes start like a JPEG file. */
+    public static boolean isJpeg(byte[] head) {
+        return head.length >= 3 && (head[0] & 0xFF) == 0xFF && (head[1] & 0xFF) == SOI && (head[2] & 0xFF) == 0xFF;
+    }
+
+    /**
+     * The EXIF orientation (1 to 8) of a JPEG file; {@link #UPRIGHT} when it has none or the
+     * EXIF data cannot be read. Reads only up to the image data; does not close the stream.
+     */
+    public static int orientation(InputStream in) throws IOException {
+        if (!startOfImage(in)) {
+            return UPRIGHT;
+        }
+        int marker;
+        while ((marker = nextMarker(in)) != SOS && marker != EOI) {
+            if (standalone(marker)) {
+                continue;
+            }
+            byte[] payload = payload(in);
+            if (marker == APP1 && startsWith(payload, EXIF_HEADER)) {
+                return exifOrientation(payload);
+            }
+        }
+        return UPRIGHT;
+    }
+
+    /**
+     * Copy a JPEG file leaving out its metadata: EXIF and XMP, IPTC, comments and vendor
+     * segments. The JFIF header, the ICC colour profile and the Adobe segment are kept, since
+     * decoders need them to show the right colours. When the orientation is not upright, an
+     * EXIF segment holding only it is written in place of the old ones. The image data is
+     * copied as is, so nothing is re-encoded. Does not close either stream.
+     *
+     * @throws IOException if the input is not a JPEG file or ends early
+     */
+    public static void copyWithoutMetadata(InputStream in, OutputStream out, int orientation) throws IOException {
+        if (!startOfImage(in)) {
+            throw new IOException("Not a JPEG file");
+        }
+        out.write(0xFF);
+        out.write(SOI);
+        boolean orientationWritten = orientation == UPRIGHT || orientation < 1 || orientation > 8;
+        int marker;
+        while (true) {
+            marker = nextMarker(in);
+            if (standalone(marker)) {
+                out.write(0xFF);
+                out.write(marker);
+                continue;
+            }
+            if (marker != APP0 && !orientationWritten) {
+                // EXIF goes right after the JFIF header, ahead of everything else
+                writeOrientation(out, orientation);
+                orientationWritten = true;
+            }
+            if (marker == SOS || marker == EOI) {
+                out.write(0xFF);
+                out.write(marker);
+                if (marker == SOS) {
+                    in.transferTo(out);
+                }
+                return;
+            }
+            byte[] payload = payload(in);
+            if (keep(marker, payload)) {
+                out.write(0xFF);
+                out.write(marker);
+                out.write((payload.length + 2) >> 8);
+                out.write((payload.length + 2) & 0xFF);
+                out.write(payload);
+            }
+        }
+    }
+
+    private static boolean keep(int marker, byte[] payload) {
+        if (marker == APP0 || marker == APP14) {
+            return true;
+        }
+        if (marker == APP2) {
+            return startsWith(payload, ICC_HEADER);
+        }
+        // APP1 to APP15 and comments are metadata; everything else describes the image
+        return !(marker >= APP1 && marker <= APP15) && marker != COM;
+    }
+
+    private static void writeOrientation(OutputStream out, int orientation) throws IOException {
+        // big-endian TIFF header, then IFD0 with one SHORT entry and no next IFD
+        ByteBuffer tiff = ByteBuffer.allocate(8 + 2 + 12 + 4).order(ByteOrder.BIG_ENDIAN);
+        tiff.put((byte) 'M').put((byte) 'M').putShort((short) 42).putInt(8);
+        tiff.putShort((short) 1);
+        tiff.putShort((short) ORIENTATION_TAG).putShort((short) SHORT).putInt(1).putShort((short) orientation).putShort((short) 0);
+        tiff.putInt(0);
+        int length = 2 + EXIF_HEADER.length + tiff.capacity();
+        out.write(0xFF);
+        out.write(APP1);
+        out.write(length >> 8);
+        out.write(length & 0xFF);
+        out.write(EXIF_HEADER);
+        out.write(tiff.array());
+    }
+
+    private static int exifOrientation(byte[] payload) {
+        ByteBuffer tiff = ByteBuffer.wrap(payload, EXIF_HEADER.length, payload.length - EXIF_HEADER.length).slice();
+        if (tiff.remaining() < 8) {
+            return UPRIGHT;
+        }
+        if (tiff.get(0) == 'I' && tiff.get(1) == 'I') {
+            tiff.order(ByteOrder.LITTLE_ENDIAN);
+        } else if (tiff.get(0) != 'M' || tiff.get(1) != 'M') {
+            return UPRIGHT;
+        }
+        long ifd = Integer.toUnsignedLong(tiff.getInt(4));
+        if (ifd + 2 > tiff.limit()) {
+            return UPRIGHT;
+        }
+        int entries = Short.toUnsignedInt(tiff.getShort((int) ifd));
+        for (int i = 0; i < entries; i++) {
+            int entry = (int) ifd + 2 + i * 12;
+            if (entry + 12 > tiff.limit()) {
+                return UPRIGHT;
+            }
+            if (Short.toUnsignedInt(tiff.getShort(entry)) == ORIENTATION_TAG
+                    && Short.toUnsignedInt(tiff.getShort(entry + 2)) == SHORT) {
+                int value = Short.toUnsignedInt(tiff.getShort(entry + 8));
+                return value >= 1 && value <= 8 ? value : UPRIGHT;
+            }
+        }
+        return UPRIGHT;
+    }
+
+    private static boolean startOfImage(InputStream in) throws IOException {
+        return in.read() == 0xFF && in.read() == SOI;
+    }
+
+    // the next marker byte, skipping the fill bytes allowed before it
+    private static int nextMarker(InputStream in) throws IOException {
+        int b = in.read();
+        if (b != 0xFF) {
+            throw b < 0 ? new EOFException("JPEG ends before the image data") : new IOException("Expected a JPEG marker");
+        }
+        while ((b = in.read()) == 0xFF) {
+            // fill
+        }
+        if (b < 0) {
+            throw new EOFException("JPEG ends before the image data");
+        }
+        return b;
+    }
+
+    // markers with no length or payload: TEM and RST0 to RST7
+    private static boolean standalone(int marker) {
+        return marker == 0x01 || (marker >= 0xD0 && marker <= 0xD7);
+    }
+
+    private static byte[] payload(InputStream in) throws IOException {
+        int high = in.read();
+        int low = in.read();
+        if (low < 0) {
+            throw new EOFException("JPEG ends inside a segment header");
+        }
+        int length = (high << 8 | low) - 2;
+        if (length < 0) {
+            throw new IOException("Bad JPEG segment length");
+        }
+        byte[] payload = in.readNBytes(length);
+        if (payload.length < length) {
+            throw new EOFException("JPEG ends inside a segment");
+        }
+        return payload;
+    }
+
+    private static boolean startsWith(byte[] payload, byte[] prefix) {
+        return payload.length >= prefix.length && Arrays.equals(payload, 0, prefix.length, prefix, 0, prefix.length);
+    }
+}
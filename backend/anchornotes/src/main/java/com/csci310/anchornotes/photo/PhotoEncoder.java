@@ -0,0 +1,97 @@
+package com.csci310.anchornotes.photo;
+
+import com.csci310.anchornotes.thumbnail.ThumbnailGenerator;
+import com.csci310.anchornotes.thumbnail.ThumbnailGenerator.UnsupportedImageException;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+
+/**
+ * Re-encodes a photo as a JPEG whose longest edge is at most a given size. The output has no
+ * metadata beyond the JFIF header; {@link JpegSegments} puts the orientation back.
+ *
+ * As with thumbnails, a photo at least twice the size is decoded with source subsampling so
+ * it never sits in memory at full resolution. Thread-safe; ImageIO readers and writers are
+ * per call.
+ */
+public class PhotoEncoder {
+
+    private final int maxDimension;
+    private final float quality;
+    private final long maxPixels;
+
+    public PhotoEncoder(int maxDimension, float quality, long maxPixels) {
+        if (maxDimension <= 0) {
+            throw new IllegalArgumentException("Maximum photo dimension must be positive: " + maxDimension);
+        }
+        this.maxDimension = maxDimension;
+        this.quality = quality;
+        this.maxPixels = maxPixels;
+    }
+
+    /**
+     * @return JPEG bytes
+     * @throws UnsupportedImageException if the file is not an image ImageIO can decode, or too large
+     */
+    public byte[] encode(InputStream source) throws IOException {
+        BufferedImage image = ThumbnailGenerator.toRgb(decode(source));
+        return write(ThumbnailGenerator.scale(image, maxDimension));
+    }
+
+    private BufferedImage decode(InputStream source) throws IOException {
+        try (ImageInputStream input = new MemoryCacheImageInputStream(source)) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                throw new UnsupportedImageException("not an image format the server can decode");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > maxPixels) {
+                    throw new UnsupportedImageException(width + "x" + height + " is more than " + maxPixels + " pixels");
+                }
+                int factor = Math.max(1, Math.max(width, height) / maxDimension);
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(factor, factor, 0, 0);
+                return reader.read(0, param);
+            } catch (UnsupportedImageException e) {
+                throw e;
+            } catch (IOException | RuntimeException e) {
+                throw new UnsupportedImageException("could not decode: " + e.getMessage());
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private byte[] write(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (MemoryCacheImageOutputStream output = new MemoryCacheImageOutputStream(bytes)) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality);
+            // progressive files are smaller and show a preview while loading on the client
+            param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+            writer.setOutput(output);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return bytes.toByteArray();
+    }
+}
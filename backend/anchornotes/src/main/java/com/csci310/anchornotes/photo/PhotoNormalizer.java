@@ -0,0 +1,194 @@
+package com.csci310.anchornotes.photo;
+
+import com.csci310.anchornotes.blob.BlobSource;
+import com.csci310.anchornotes.config.PhotoProperties;
+import com.csci310.anchornotes.thumbnail.ThumbnailGenerator.UnsupportedImageException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Shrinks uploaded JPEG photos before they are stored: caps the longest edge, re-encodes at
+ * the configured quality and drops all metadata except the EXIF orientation, so location and
+ * camera details never reach storage.
+ *
+ * Re-encoding runs on a fixed pool with a bounded queue, and the upload waits for it. When the
+ * queue is full or the wait times out, and whenever re-encoding would not make the file
+ * smaller, the metadata is still stripped by copying the file's segments, which costs next to
+ * nothing. Other formats, and files too large to decode, are stored as uploaded.
+ */
+@Component
+@Slf4j
+public class PhotoNormalizer {
+
+    private static final String JPEG = "image/jpeg";
+
+    private final PhotoProperties properties;
+    private final PhotoEncoder encoder;
+    private final ThreadPoolExecutor workers;
+
+    private final Counter recompressed;
+    private final Counter stripped;
+    private final Counter dropped;
+    private final Counter skipped;
+    private final Counter failed;
+    private final Counter bytesSaved;
+    private final Timer duration;
+
+    public PhotoNormalizer(PhotoProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.encoder = new PhotoEncoder(properties.getMaxDimension(), properties.getQuality(),
+                properties.getMaxSourcePixels());
+        int threads = Math.max(1, properties.getWorkers());
+        this.workers = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, properties.getQueueCapacity())),
+                Thread.ofPlatform().name("photo-normalize-", 0).daemon().factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("app.photos.queued", workers, executor -> executor.getQueue().size())
+                .description("Uploaded photos waiting to be re-encoded")
+                .register(meterRegistry);
+        this.recompressed = result(meterRegistry, "recompressed");
+        this.stripped = result(meterRegistry, "stripped");
+        this.dropped = result(meterRegistry, "dropped");
+        this.skipped = result(meterRegistry, "skipped");
+        this.failed = result(meterRegistry, "failed");
+        this.bytesSaved = Counter.builder("app.photos.bytes.saved")
+                .baseUnit("bytes")
+                .description("Bytes not stored thanks to photo normalization")
+                .register(meterRegistry);
+        this.duration = Timer.builder("app.photos.normalize.duration")
+                .description("Normalization of one uploaded photo, including the wait for a worker")
+                .register(meterRegistry);
+    }
+
+    private static Counter result(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("app.photos.normalized")
+                .tag("result", result)
+                .description("Uploaded photos by what normalization did to them")
+                .register(meterRegistry);
+    }
+
+    /** Whether the upload should also be stored as it is. */
+    public boolean keepsOriginal() {
+        return properties.isKeepOriginal();
+    }
+
+    /**
+     * @return the file to store instead of the upload, or the upload itself when it is stored as is
+     */
+    public BlobSource normalize(BlobSource source) throws IOException {
+        if (!properties.isNormalize() || source.size() > properties.getMaxSourceBytes() || !isJpeg(source)) {
+            skipped.increment();
+            return source;
+        }
+        Timer.Sample sample = Timer.start();
+        try {
+            int orientation;
+            try (InputStream in = source.content().getInputStream()) {
+                orientation = JpegSegments.orientation(in);
+            }
+
+            byte[] normalized = null;
+            Counter outcome = recompressed;
+            try {
+                normalized = withoutMetadata(new ByteArrayInputStream(reencode(source)), orientation);
+            } catch (UnsupportedImageException e) {
+                log.debug("Photo {} is not re-encoded: {}", source.fileName(), e.getMessage());
+            } catch (RejectedExecutionException | TimeoutException e) {
+                outcome = dropped;
+            }
+            if (normalized == null || normalized.length >= source.size()) {
+                try (InputStream in = source.content().getInputStream()) {
+                    normalized = withoutMetadata(in, orientation);
+                }
+                outcome = outcome == dropped ? dropped : stripped;
+            }
+
+            outcome.increment();
+            bytesSaved.increment(Math.max(0, source.size() - normalized.length));
+            log.info("Photo {} normalized from {} to {} bytes", source.fileName(), source.size(), normalized.length);
+            return new BlobSource(new ByteArrayResource(normalized), normalized.length, jpegName(source.fileName()), JPEG);
+        } catch (InterruptedIOException e) {
+            throw e;
+        } catch (IOException | RuntimeException e) {
+            failed.increment();
+            log.warn("Could not normalize photo {}, storing it as uploaded: {}", source.fileName(), e.getMessage());
+            return source;
+        } finally {
+            sample.stop(duration);
+        }
+    }
+
+    private byte[] reencode(BlobSource source) throws IOException, TimeoutException {
+        Future<byte[]> result = workers.submit(() -> {
+            try (InputStream in = source.content().getInputStream()) {
+                return encoder.encode(in);
+            }
+        });
+        try {
+            return result.get(properties.getTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            result.cancel(true);
+            throw e;
+        } catch (InterruptedException e) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while normalizing a photo");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            throw new IllegalStateException("Re-encoding failed", e.getCause());
+        }
+    }
+
+    private static byte[] withoutMetadata(InputStream in, int orientation) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        JpegSegments.copyWithoutMetadata(in, out, orientation);
+        return out.toByteArray();
+    }
+
+    private static boolean isJpeg(BlobSource source) throws IOException {
+        try (InputStream in = source.content().getInputStream()) {
+            return JpegSegments.isJpeg(in.readNBytes(3));
+        }
+    }
+
+    private static String jpegName(String fileName) {
+        if (fileName == null || fileName.isBlank()) {
+            return "photo.jpg";
+        }
+        String lower = fileName.toLowerCase(Locale.ROOT);
+        if (lower.endsWith(".jpg") || lower.endsWith(".jpeg")) {
+            return fileName;
+        }
+        int dot = fileName.lastIndexOf('.');
+        return (dot > 0 ? fileName.substring(0, dot) : fileName) + ".jpg";
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        workers.shutdownNow();
+        workers.awaitTermination(5, TimeUnit.SECONDS);
+    }
+}
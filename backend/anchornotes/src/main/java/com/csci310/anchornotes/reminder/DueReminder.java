@@ -0,0 +1,13 @@
+package com.csci310.anchornotes.reminder;
+
+import java.time.Instant;
+
+/**
+ * A time reminder handed to a {@link ReminderNotifier}. {@code attempt} starts at 1.
+ */
+public record DueReminder(Long noteId, String userId, Instant reminderTime, int attempt) {
+
+    DueReminder nextAttempt() {
+        return new DueReminder(noteId, userId, reminderTime, attempt + 1);
+    }
+}
@@ -0,0 +1,20 @@
+package com.csci310.anchornotes.reminder;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Default notifier: writes due reminders to the application log.
+ */
+@Component
+@ConditionalOnProperty(name = "app.reminders.notifier", havingValue = "log", matchIfMissing = true)
+@Slf4j
+public class LoggingReminderNotifier implements ReminderNotifier {
+
+    @Override
+    public void notify(DueReminder reminder) {
+        log.info("Reminder due for note {} (user {}) at {}, attempt {}",
+                reminder.noteId(), reminder.userId(), reminder.reminderTime(), reminder.attempt());
+    }
+}
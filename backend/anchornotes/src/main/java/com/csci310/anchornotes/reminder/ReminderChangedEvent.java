@@ -0,0 +1,10 @@
+package com.csci310.anchornotes.reminder;
+
+import java.time.Instant;
+
+/**
+ * A note's time reminder was set, moved or removed ({@code reminderTime} null).
+ * Published by NoteService; the scheduler picks it up after commit.
+ */
+public record ReminderChangedEvent(String userId, Long noteId, Instant reminderTime) {
+}
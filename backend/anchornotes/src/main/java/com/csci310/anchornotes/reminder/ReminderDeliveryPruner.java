@@ -0,0 +1,69 @@
+package com.csci310.anchornotes.reminder;
+
+import com.csci310.anchornotes.config.ReminderProperties;
+import com.csci310.anchornotes.datasource.RoutingContext;
+import com.csci310.anchornotes.datasource.ShardRouter;
+import com.csci310.anchornotes.jobs.ClusterJob;
+import com.csci310.anchornotes.service.ReminderDeliveryService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Deletes reminder delivery records older than {@code deliveryRetention}, once an hour
+ * across the cluster (on every shard when sharded).
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.reminders", name = "enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class ReminderDeliveryPruner implements ClusterJob {
+
+    private final ReminderProperties properties;
+    private final ReminderDeliveryService deliveryService;
+    private final List<String> shards;
+
+    public ReminderDeliveryPruner(ReminderProperties properties,
+                                  ReminderDeliveryService deliveryService,
+                                  ObjectProvider<ShardRouter> shardRouter) {
+        this.properties = properties;
+        this.deliveryService = deliveryService;
+        ShardRouter router = shardRouter.getIfAvailable();
+        this.shards = router != null ? router.shards() : null;
+    }
+
+    @Override
+    public String name() {
+        return "reminders.prune-deliveries";
+    }
+
+    @Override
+    public Duration interval() {
+        return Duration.ofHours(1);
+    }
+
+    @Override
+    public void run(int partition, int partitions) {
+        Duration retention = properties.getDeliveryRetention().compareTo(properties.getCatchUpWindow()) > 0
+                ? properties.getDeliveryRetention()
+                : properties.getCatchUpWindow().multipliedBy(2);
+        Instant cutoff = Instant.now().minus(retention);
+        int deleted = 0;
+        if (shards == null) {
+            deleted = deliveryService.deleteOlderThan(cutoff);
+        } else {
+            for (String shard : shards) {
+                try (RoutingContext.Scope ignored = RoutingContext.bindShard(shard)) {
+                    deleted += deliveryService.deleteOlderThan(cutoff);
+                }
+            }
+        }
+        if (deleted > 0) {
+            log.info("Pruned {} reminder delivery records older than {}", deleted, retention);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.csci310.anchornotes.reminder;
+
+/**
+ * Delivers a due reminder. Throwing marks the attempt failed and it is retried, so
+ * implementations must tolerate receiving the same reminder more than once.
+ */
+public interface ReminderNotifier {
+
+    void notify(DueReminder reminder) throws Exception;
+}
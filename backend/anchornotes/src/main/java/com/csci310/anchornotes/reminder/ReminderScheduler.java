@@ -0,0 +1,323 @@
+package com.csci310.anchornotes.reminder;
+
+import com.csci310.anchornotes.config.ReminderProperties;
+import com.csci310.anchornotes.datasource.RoutingContext;
+import com.csci310.anchornotes.datasource.ShardRouter;
+import com.csci310.anchornotes.jobs.ClusterJob;
+import com.csci310.anchornotes.jobs.ClusterNode;
+import com.csci310.anchornotes.repository.ReminderDeliveryRepository;
+import com.csci310.anchornotes.service.ReminderDeliveryService;
+import com.csci310.anchornotes.util.HierarchicalTimingWheel;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fires note time reminders from the server instead of waiting for a client to ask.
+ *
+ * Reminders due within {@code loadWindow} live in a {@link HierarchicalTimingWheel} (O(1)
+ * schedule and cancel). Loading the window is a {@link ClusterJob} partitioned by note id, so
+ * each partition is reloaded every {@code reloadInterval} by one replica; in between,
+ * {@link ReminderChangedEvent}s from note writes move or cancel entries on the replica that
+ * handled the write. Due reminders go to the {@link ReminderNotifier} on a small pool.
+ *
+ * More than one replica may hold the same reminder (a write here, a load there), so each
+ * delivery first claims its reminder_deliveries row; only the claimant notifies. Delivery is
+ * at-least-once: the row is marked delivered only after the notifier returns, failed attempts
+ * are retried with backoff, and an expired claim or anything still undelivered within
+ * {@code catchUpWindow} is picked up again by the next load, including after a restart.
+ *
+ * With sharding, each load reads the partition from every shard and each delivery is
+ * routed to the shard of the reminder's user.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.reminders", name = "enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class ReminderScheduler implements ClusterJob {
+
+    private static final int WHEEL_BITS = 6;
+    private static final int WHEEL_LEVELS = 4;
+
+    private final ReminderProperties properties;
+    private final ReminderDeliveryService deliveryService;
+    private final ReminderNotifier notifier;
+    private final ShardRouter shardRouter;
+    private final String owner;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final HierarchicalTimingWheel<DueReminder> wheel;
+    // guarded by lock: the wheel entry currently holding each note's reminder
+    private final Map<Long, HierarchicalTimingWheel.Timeout<DueReminder>> scheduled = new HashMap<>();
+    // handed to the notifier and not finished yet; a reload must not schedule these again
+    private final Map<Long, Instant> inFlight = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("reminder-ticker").daemon().factory());
+    private final ExecutorService deliveries;
+
+    private final Counter delivered;
+    private final Counter retried;
+    private final Counter failed;
+    private final Counter skipped;
+    private final Timer lag;
+
+    public ReminderScheduler(ReminderProperties properties,
+                             ReminderDeliveryService deliveryService,
+                             ReminderNotifier notifier,
+                             ObjectProvider<ShardRouter> shardRouter,
+                             ClusterNode node,
+                             MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.deliveryService = deliveryService;
+        this.notifier = notifier;
+        this.shardRouter = shardRouter.getIfAvailable();
+        this.owner = node.getId();
+        this.wheel = new HierarchicalTimingWheel<>(properties.getTick().toMillis(), WHEEL_BITS, WHEEL_LEVELS,
+                System.currentTimeMillis());
+        this.deliveries = Executors.newFixedThreadPool(Math.max(1, properties.getMaxConcurrentDeliveries()),
+                Thread.ofVirtual().name("reminder-delivery-", 0).factory());
+
+        Gauge.builder("app.reminders.pending", wheel, HierarchicalTimingWheel::size)
+                .description("Time reminders waiting in the timing wheel")
+                .register(meterRegistry);
+        this.delivered = result(meterRegistry, "delivered");
+        this.retried = result(meterRegistry, "retried");
+        this.failed = result(meterRegistry, "failed");
+        this.skipped = result(meterRegistry, "skipped");
+        this.lag = Timer.builder("app.reminders.lag")
+                .description("Delay between a reminder's time and its delivery")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+
+    private static Counter result(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("app.reminders.fired")
+                .tag("result", result)
+                .description("Reminder delivery attempts by outcome")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        long tickMillis = wheel.getTickMillis();
+        ticker.scheduleAtFixedRate(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+        log.info("Reminder scheduler started (tick {} ms, window {}, notifier {})",
+                tickMillis, properties.getLoadWindow(), notifier.getClass().getSimpleName());
+    }
+
+    @Override
+    public String name() {
+        return "reminders.load";
+    }
+
+    @Override
+    public Duration interval() {
+        return properties.getReloadInterval();
+    }
+
+    @Override
+    public int partitions() {
+        return properties.getPartitions();
+    }
+
+    @Override
+    public void run(int partition, int partitions) {
+        load(partition, partitions);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReminderChanged(ReminderChangedEvent event) {
+        Instant now = Instant.now();
+        Instant time = event.reminderTime();
+        lock.lock();
+        try {
+            HierarchicalTimingWheel.Timeout<DueReminder> existing = scheduled.get(event.noteId());
+            if (existing != null && !existing.item().userId().equals(event.userId())) {
+                // only the note's owner can change its reminder; anything else is not about this entry
+                log.debug("Ignoring reminder change for note {} from user {}, not its owner", event.noteId(), event.userId());
+                return;
+            }
+            if (time == null || time.isAfter(now.plus(properties.getLoadWindow()))
+                    || time.isBefore(now.minus(properties.getCatchUpWindow()))) {
+                // removed, or outside the window: a later reload schedules it if it comes into range
+                wheel.cancel(scheduled.remove(event.noteId()));
+            } else {
+                scheduleLocked(event.noteId(), event.userId(), time);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Load every undelivered reminder of one partition in [now - catchUpWindow, now + loadWindow).
+     * A failure propagates so the job records it; the current schedule is kept.
+     */
+    void load(int partition, int partitions) {
+        Instant now = Instant.now();
+        Instant from = now.minus(properties.getCatchUpWindow());
+        Instant to = now.plus(properties.getLoadWindow());
+
+        List<ReminderDeliveryRepository.PendingReminder> pending = findUndelivered(from, to, partition, partitions);
+
+        int added = 0;
+        lock.lock();
+        try {
+            for (ReminderDeliveryRepository.PendingReminder reminder : pending) {
+                if (scheduleLocked(reminder.getNoteId(), reminder.getUserId().toString(), reminder.getReminderTime())) {
+                    added++;
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        log.info("Reminder partition {}/{} loaded: {} undelivered, {} newly scheduled, {} pending",
+                partition, partitions, pending.size(), added, wheel.size());
+    }
+
+    private List<ReminderDeliveryRepository.PendingReminder> findUndelivered(Instant from, Instant to,
+                                                                              int partition, int partitions) {
+        if (shardRouter == null) {
+            return deliveryService.findUndelivered(from, to, partition, partitions);
+        }
+        List<ReminderDeliveryRepository.PendingReminder> pending = new ArrayList<>();
+        for (String shard : shardRouter.shards()) {
+            try (RoutingContext.Scope ignored = RoutingContext.bindShard(shard)) {
+                pending.addAll(deliveryService.findUndelivered(from, to, partition, partitions));
+            }
+        }
+        return pending;
+    }
+
+    void tick() {
+        List<DueReminder> due = new ArrayList<>();
+        lock.lock();
+        try {
+            wheel.advanceTo(System.currentTimeMillis(), reminder -> {
+                scheduled.remove(reminder.noteId());
+                inFlight.put(reminder.noteId(), reminder.reminderTime());
+                due.add(reminder);
+            });
+        } catch (RuntimeException e) {
+            log.error("Reminder tick failed", e);
+        } finally {
+            lock.unlock();
+        }
+        for (DueReminder reminder : due) {
+            deliveries.execute(() -> {
+                // claims live on the shard of the reminder's user
+                try (RoutingContext.Scope ignored = RoutingContext.bindUser(reminder.userId())) {
+                    deliver(reminder);
+                }
+            });
+        }
+    }
+
+    private void deliver(DueReminder reminder) {
+        boolean claimed = false;
+        try {
+            claimed = deliveryService.claim(reminder, owner, properties.getClaimTimeout());
+            if (!claimed) {
+                // moved, cleared, already delivered, or being delivered by another replica
+                skipped.increment();
+                return;
+            }
+            notifier.notify(reminder);
+            lag.record(Duration.between(reminder.reminderTime(), Instant.now()));
+            delivered.increment();
+            try {
+                deliveryService.markDelivered(reminder, owner);
+            } catch (RuntimeException e) {
+                log.warn("Reminder for note {} delivered but not recorded; it may be delivered again: {}",
+                        reminder.noteId(), e.getMessage());
+            }
+        } catch (Exception e) {
+            if (claimed) {
+                releaseClaim(reminder);
+            }
+            retryOrGiveUp(reminder, e);
+        } finally {
+            inFlight.remove(reminder.noteId(), reminder.reminderTime());
+        }
+    }
+
+    private void releaseClaim(DueReminder reminder) {
+        try {
+            deliveryService.releaseClaim(reminder, owner);
+        } catch (RuntimeException e) {
+            // the claim expires after claimTimeout instead
+            log.debug("Could not release claim on note {}: {}", reminder.noteId(), e.getMessage());
+        }
+    }
+
+    private void retryOrGiveUp(DueReminder reminder, Exception cause) {
+        if (reminder.attempt() >= properties.getMaxAttempts()) {
+            failed.increment();
+            log.error("Reminder for note {} failed {} times, leaving it for the next load: {}",
+                    reminder.noteId(), reminder.attempt(), cause.getMessage());
+            return;
+        }
+        long backoffMillis = properties.getRetryBackoff().toMillis() << Math.min(reminder.attempt() - 1, 16);
+        retried.increment();
+        log.warn("Reminder for note {} attempt {} failed, retrying in {} ms: {}",
+                reminder.noteId(), reminder.attempt(), backoffMillis, cause.getMessage());
+        lock.lock();
+        try {
+            // a newer schedule for the note (moved reminder) wins over the retry
+            if (!scheduled.containsKey(reminder.noteId())) {
+                scheduled.put(reminder.noteId(),
+                        wheel.schedule(System.currentTimeMillis() + backoffMillis, reminder.nextAttempt()));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // lock held; returns true if the wheel changed
+    private boolean scheduleLocked(Long noteId, String userId, Instant reminderTime) {
+        if (reminderTime.equals(inFlight.get(noteId))) {
+            return false;
+        }
+        HierarchicalTimingWheel.Timeout<DueReminder> existing = scheduled.get(noteId);
+        if (existing != null) {
+            if (existing.item().reminderTime().equals(reminderTime)) {
+                return false;
+            }
+            wheel.cancel(existing);
+        }
+        scheduled.put(noteId, wheel.schedule(reminderTime.toEpochMilli(), new DueReminder(noteId, userId, reminderTime, 1)));
+        return true;
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        ticker.shutdownNow();
+        deliveries.shutdown();
+        if (!deliveries.awaitTermination(5, TimeUnit.SECONDS)) {
+            // undelivered ones have no delivery row and are loaded again on the next start
+            deliveries.shutdownNow();
+        }
+    }
+}
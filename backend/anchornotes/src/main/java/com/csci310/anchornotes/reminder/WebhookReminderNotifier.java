@@ -0,0 +1,48 @@
+package com.csci310.anchornotes.reminder;
+
+import com.csci310.anchornotes.config.ReminderProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * POSTs each due reminder as JSON to {@code app.reminders.webhook.url}. Any non-2xx answer
+ * or I/O error fails the attempt so it is retried.
+ */
+@Component
+@ConditionalOnProperty(name = "app.reminders.notifier", havingValue = "webhook")
+@Slf4j
+public class WebhookReminderNotifier implements ReminderNotifier {
+
+    private final String url;
+    private final RestTemplate restTemplate;
+
+    public WebhookReminderNotifier(ReminderProperties properties) {
+        this.url = properties.getWebhook().getUrl();
+        if (!StringUtils.hasText(url)) {
+            throw new IllegalStateException("app.reminders.webhook.url must be set when app.reminders.notifier=webhook");
+        }
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(properties.getWebhook().getTimeout());
+        requestFactory.setReadTimeout(properties.getWebhook().getTimeout());
+        this.restTemplate = new RestTemplate(requestFactory);
+    }
+
+    @Override
+    public void notify(DueReminder reminder) {
+        restTemplate.postForEntity(url, Map.of(
+                "noteId", reminder.noteId().toString(),
+                "userId", reminder.userId(),
+                "reminderTime", reminder.reminderTime().toString(),
+                "firedAt", Instant.now().toString(),
+                "attempt", reminder.attempt()
+        ), Void.class);
+        log.debug("Reminder for note {} posted to webhook", reminder.noteId());
+    }
+}
@@ -0,0 +1,68 @@
+package com.csci310.anchornotes.repository;
+
+import com.csci310.anchornotes.entity.AttachmentBlob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface AttachmentBlobRepository extends JpaRepository<AttachmentBlob, AttachmentBlob.Key> {
+
+    Optional<AttachmentBlob> findByUserIdAndSha256(UUID userId, String sha256);
+
+    // Lock the blob until the attachment referencing it commits, so the collector cannot delete
+    // it in between; waits for a collector that is deleting it and then finds nothing
+    @Query(value = "SELECT * FROM attachment_blobs WHERE user_id = :userId AND sha256 = :sha256 FOR SHARE",
+           nativeQuery = true)
+    Optional<AttachmentBlob> findForShare(@Param("userId") UUID userId, @Param("sha256") String sha256);
+
+    // Restarts the release grace of an unreferenced blob about to be attached again; waits for a
+    // collector that is deleting it and then finds nothing
+    @Modifying
+    @Query(value = "UPDATE attachment_blobs SET released_at = CASE WHEN ref_count = 0 THEN NOW() ELSE released_at END " +
+           "WHERE user_id = :userId AND sha256 = :sha256",
+           nativeQuery = true)
+    int touch(@Param("userId") UUID userId, @Param("sha256") String sha256);
+
+    // Unreferenced until an attachment row points at it; a concurrent upload of the same file wins
+    @Modifying
+    @Query(value = "INSERT INTO attachment_blobs (user_id, sha256, file_path, media_type, size_bytes) " +
+           "VALUES (:userId, :sha256, :filePath, :mediaType, :sizeBytes) " +
+           "ON CONFLICT (user_id, sha256) DO NOTHING",
+           nativeQuery = true)
+    int insertIfAbsent(@Param("userId") UUID userId,
+                       @Param("sha256") String sha256,
+                       @Param("filePath") String filePath,
+                       @Param("mediaType") String mediaType,
+                       @Param("sizeBytes") long sizeBytes);
+
+    // Collector - blobs nothing has referenced since before the cutoff, oldest first
+    @Query(value = "SELECT user_id AS \"userId\", sha256 AS \"sha256\", file_path AS \"filePath\", " +
+           "media_type AS \"mediaType\" FROM attachment_blobs " +
+           "WHERE ref_count = 0 AND released_at < :releasedBefore ORDER BY released_at LIMIT :limit",
+           nativeQuery = true)
+    List<ReleasedBlob> findReleased(@Param("releasedBefore") Instant releasedBefore, @Param("limit") int limit);
+
+    // 0 if the blob was referenced again (or deleted) since it was listed
+    @Modifying
+    @Query(value = "DELETE FROM attachment_blobs WHERE user_id = :userId AND sha256 = :sha256 " +
+           "AND ref_count = 0 AND released_at < :releasedBefore",
+           nativeQuery = true)
+    int deleteReleased(@Param("userId") UUID userId,
+                       @Param("sha256") String sha256,
+                       @Param("releasedBefore") Instant releasedBefore);
+
+    interface ReleasedBlob {
+        UUID getUserId();
+        String getSha256();
+        String getFilePath();
+        String getMediaType();
+    }
+}
@@ -1,9 +1,11 @@
 package com.csci310.anchornotes.repository;
 
 import com.csci310.anchornotes.entity.AudioAttachment;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -13,4 +15,7 @@ public interface AudioAttachmentRepository extends JpaRepository<AudioAttachment
     Optional<AudioAttachment> findByIdAndUserId(Long id, UUID userId);
 
     void deleteByIdAndUserId(Long id, UUID userId);
+
+    // Export - keyset page of the user's rows after the given id
+    List<AudioAttachment> findByUserIdAndIdGreaterThanOrderByIdAsc(UUID userId, Long afterId, Limit limit);
 }
@@ -1,6 +1,7 @@
 package com.csci310.anchornotes.repository;
 
 import com.csci310.anchornotes.entity.Geofence;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -19,4 +20,7 @@ public interface GeofenceRepository extends JpaRepository<Geofence, Long> {
     Optional<Geofence> findByIdAndUserId(Long id, UUID userId);
 
     List<Geofence> findByUserId(UUID userId);
+
+    // Export - keyset page of the user's rows after the given id
+    List<Geofence> findByUserIdAndIdGreaterThanOrderByIdAsc(UUID userId, Long afterId, Limit limit);
 }
@@ -0,0 +1,22 @@
+package com.csci310.anchornotes.repository;
+
+import com.csci310.anchornotes.entity.ImportJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface ImportJobRepository extends JpaRepository<ImportJob, UUID> {
+
+    Optional<ImportJob> findByIdAndUserId(UUID id, UUID userId);
+
+    @Modifying
+    @Query("DELETE FROM ImportJob j WHERE j.userId = :userId AND j.createdAt < :cutoff")
+    int deleteByUserIdAndCreatedBefore(@Param("userId") UUID userId, @Param("cutoff") Instant cutoff);
+}
@@ -0,0 +1,83 @@
+package com.csci310.anchornotes.repository;
+
+import com.csci310.anchornotes.entity.JobLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * All times come from the database clock, so replicas with skewed clocks still agree on
+ * who holds a lease and when a partition is due.
+ */
+@Repository
+public interface JobLeaseRepository extends JpaRepository<JobLease, JobLease.Key> {
+
+    @Modifying
+    @Query(value = "INSERT INTO job_leases (job_name, partition_no) " +
+           "SELECT :jobName, p FROM generate_series(0, :partitions - 1) p " +
+           "ON CONFLICT (job_name, partition_no) DO NOTHING",
+           nativeQuery = true)
+    int insertMissingPartitions(@Param("jobName") String jobName, @Param("partitions") int partitions);
+
+    // Partitions left over from a larger partition count; only once nobody holds them
+    @Modifying
+    @Query(value = "DELETE FROM job_leases WHERE job_name = :jobName AND partition_no >= :partitions " +
+           "AND lease_until <= NOW()",
+           nativeQuery = true)
+    int deleteExtraPartitions(@Param("jobName") String jobName, @Param("partitions") int partitions);
+
+    // Claim up to :limit due, unleased partitions. SKIP LOCKED lets replicas polling at the same
+    // moment claim disjoint rows instead of queueing on each other's row locks.
+    @Query(value = "WITH due AS (" +
+           "  SELECT job_name, partition_no, owner FROM job_leases " +
+           "  WHERE job_name = :jobName AND next_run_at <= NOW() AND lease_until <= NOW() " +
+           "  ORDER BY next_run_at LIMIT :limit FOR UPDATE SKIP LOCKED" +
+           "), claimed AS (" +
+           "  UPDATE job_leases l SET owner = :owner, " +
+           "    lease_until = NOW() + :leaseMillis * INTERVAL '1 millisecond', last_started_at = NOW() " +
+           "  FROM due WHERE l.job_name = due.job_name AND l.partition_no = due.partition_no " +
+           "  RETURNING l.partition_no AS partition, due.owner AS \"previousOwner\"" +
+           ") SELECT partition, \"previousOwner\" FROM claimed",
+           nativeQuery = true)
+    List<ClaimedPartition> claimDue(@Param("jobName") String jobName,
+                                    @Param("owner") String owner,
+                                    @Param("limit") int limit,
+                                    @Param("leaseMillis") long leaseMillis);
+
+    // Extend every lease this owner still holds; returns the ones it kept as "job:partition"
+    @Query(value = "WITH renewed AS (" +
+           "  UPDATE job_leases SET lease_until = NOW() + :leaseMillis * INTERVAL '1 millisecond' " +
+           "  WHERE owner = :owner AND lease_until > NOW() " +
+           "  RETURNING job_name || ':' || partition_no AS lease" +
+           ") SELECT lease FROM renewed",
+           nativeQuery = true)
+    List<String> renewAll(@Param("owner") String owner, @Param("leaseMillis") long leaseMillis);
+
+    // Release after a run; the next run is due one interval after this one started
+    @Modifying
+    @Query(value = "UPDATE job_leases SET owner = NULL, lease_until = NOW(), " +
+           "next_run_at = last_started_at + :intervalMillis * INTERVAL '1 millisecond', " +
+           "last_finished_at = NOW(), last_error = CAST(:error AS TEXT) " +
+           "WHERE job_name = :jobName AND partition_no = :partition AND owner = :owner",
+           nativeQuery = true)
+    int complete(@Param("jobName") String jobName,
+                 @Param("partition") int partition,
+                 @Param("owner") String owner,
+                 @Param("intervalMillis") long intervalMillis,
+                 @Param("error") String error);
+
+    // Give up everything held without marking it run, so another replica picks it up now
+    @Modifying
+    @Query(value = "UPDATE job_leases SET owner = NULL, lease_until = NOW() WHERE owner = :owner",
+           nativeQuery = true)
+    int releaseAll(@Param("owner") String owner);
+
+    interface ClaimedPartition {
+        Integer getPartition();
+        String getPreviousOwner();
+    }
+}
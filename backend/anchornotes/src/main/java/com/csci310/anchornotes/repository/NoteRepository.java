@@ -5,11 +5,13 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -72,7 +74,7 @@ public interface NoteRepository extends JpaRepository<Note, Long> {
     );
 
     // Filter notes - apply filters to a set of note IDs
-    @Query(value = "SELECT DISTINCT n.* FROM notes n LEFT JOIN note_tags nt ON n.id = nt.note_id " +
+    @Query(value = "SELECT DISTINCT n.* FROM notes n LEFT JOIN note_tags nt ON nt.note_id = n.id AND nt.user_id = n.user_id " +
            "WHERE n.user_id = :userId " +
            "AND (CAST(:hasTagFilter AS BOOLEAN) = false OR nt.tag_id = ANY(CAST(:tagIds AS BIGINT[]))) " +
            "AND (:hasPhoto IS NULL OR (:hasPhoto = true AND n.image_file IS NOT NULL) OR (:hasPhoto = false AND n.image_file IS NULL)) " +
@@ -82,7 +84,7 @@ public interface NoteRepository extends JpaRepository<Note, Long> {
            "AND (CAST(:editedEnd AS TIMESTAMP) IS NULL OR n.last_edited <= CAST(:editedEnd AS TIMESTAMP)) " +
            "ORDER BY n.last_edited DESC " +
            "/*#pageable*/",
-           countQuery = "SELECT COUNT(DISTINCT n.id) FROM notes n LEFT JOIN note_tags nt ON n.id = nt.note_id " +
+           countQuery = "SELECT COUNT(DISTINCT n.id) FROM notes n LEFT JOIN note_tags nt ON nt.note_id = n.id AND nt.user_id = n.user_id " +
                        "WHERE n.user_id = :userId " +
                        "AND (CAST(:hasTagFilter AS BOOLEAN) = false OR nt.tag_id = ANY(CAST(:tagIds AS BIGINT[]))) " +
                        "AND (:hasPhoto IS NULL OR (:hasPhoto = true AND n.image_file IS NOT NULL) OR (:hasPhoto = false AND n.image_file IS NULL)) " +
@@ -103,5 +105,162 @@ public interface NoteRepository extends JpaRepository<Note, Long> {
         Pageable pageable
     );
 
-    void deleteByIdAndUserId(Long id, UUID userId);
+    // Facet counts for the filter screen. One scan of the user's notes in the edited range; each
+    // facet is counted against every other active filter but not its own, so it shows what the
+    // result would be if that option were chosen. Every user tag gets a row, including zeros.
+    @Query(value = "WITH base AS (" +
+           "  SELECT n.id, " +
+           "         n.image_file IS NOT NULL AS has_photo, " +
+           "         n.audio_file IS NOT NULL AS has_audio, " +
+           "         n.geofence IS NOT NULL AS has_location, " +
+           "         (CAST(:hasTagFilter AS BOOLEAN) = false OR EXISTS (SELECT 1 FROM note_tags x " +
+           "              WHERE x.note_id = n.id AND x.user_id = n.user_id AND x.tag_id = ANY(CAST(:tagIds AS BIGINT[])))) AS tag_ok, " +
+           "         (CAST(:hasPhoto AS BOOLEAN) IS NULL OR (n.image_file IS NOT NULL) = CAST(:hasPhoto AS BOOLEAN)) AS photo_ok, " +
+           "         (CAST(:hasAudio AS BOOLEAN) IS NULL OR (n.audio_file IS NOT NULL) = CAST(:hasAudio AS BOOLEAN)) AS audio_ok, " +
+           "         (CAST(:hasLocation AS BOOLEAN) IS NULL OR (n.geofence IS NOT NULL) = CAST(:hasLocation AS BOOLEAN)) AS location_ok " +
+           "  FROM notes n " +
+           "  WHERE n.user_id = :userId " +
+           "  AND (CAST(:editedStart AS TIMESTAMP) IS NULL OR n.last_edited >= CAST(:editedStart AS TIMESTAMP)) " +
+           "  AND (CAST(:editedEnd AS TIMESTAMP) IS NULL OR n.last_edited <= CAST(:editedEnd AS TIMESTAMP))" +
+           "), flags AS (" +
+           "  SELECT COUNT(*) FILTER (WHERE tag_ok AND photo_ok AND audio_ok AND location_ok) AS total, " +
+           "         COUNT(*) FILTER (WHERE tag_ok AND audio_ok AND location_ok AND has_photo) AS photo_yes, " +
+           "         COUNT(*) FILTER (WHERE tag_ok AND audio_ok AND location_ok AND NOT has_photo) AS photo_no, " +
+           "         COUNT(*) FILTER (WHERE tag_ok AND photo_ok AND location_ok AND has_audio) AS audio_yes, " +
+           "         COUNT(*) FILTER (WHERE tag_ok AND photo_ok AND location_ok AND NOT has_audio) AS audio_no, " +
+           "         COUNT(*) FILTER (WHERE tag_ok AND photo_ok AND audio_ok AND has_location) AS location_yes, " +
+           "         COUNT(*) FILTER (WHERE tag_ok AND photo_ok AND audio_ok AND NOT has_location) AS location_no " +
+           "  FROM base" +
+           ") " +
+           "SELECT f.facet AS facet, f.value AS value, f.cnt AS count FROM flags, LATERAL (VALUES " +
+           "  ('total', CAST(NULL AS BIGINT), total), " +
+           "  ('hasPhoto', 1, photo_yes), ('hasPhoto', 0, photo_no), " +
+           "  ('hasAudio', 1, audio_yes), ('hasAudio', 0, audio_no), " +
+           "  ('hasLocation', 1, location_yes), ('hasLocation', 0, location_no)) AS f(facet, value, cnt) " +
+           "UNION ALL " +
+           "SELECT 'tag', t.id, COUNT(b.id) FROM tags t " +
+           "LEFT JOIN note_tags nt ON nt.tag_id = t.id AND nt.user_id = t.user_id " +
+           "LEFT JOIN base b ON b.id = nt.note_id AND b.photo_ok AND b.audio_ok AND b.location_ok " +
+           "WHERE t.user_id = :userId " +
+           "GROUP BY t.id",
+           nativeQuery = true)
+    List<FacetCount> countFacets(
+        @Param("userId") UUID userId,
+        @Param("hasTagFilter") boolean hasTagFilter,
+        @Param("tagIds") String tagIds,
+        @Param("hasPhoto") Boolean hasPhoto,
+        @Param("hasAudio") Boolean hasAudio,
+        @Param("hasLocation") Boolean hasLocation,
+        @Param("editedStart") Instant editedStart,
+        @Param("editedEnd") Instant editedEnd
+    );
+
+    // Bulk delete - join rows first, then the notes, each as one statement scoped to the user
+    @Modifying
+    @Query(value = "DELETE FROM note_tags WHERE user_id = :userId AND note_id IN (:ids)",
+           nativeQuery = true)
+    int deleteTagLinksForNotes(@Param("ids") Collection<Long> ids, @Param("userId") UUID userId);
+
+    // Returns the ids it deleted, so change events go out only for those; not @Modifying
+    // because the RETURNING rows are read as a result set
+    @Query(value = "DELETE FROM notes WHERE id IN (:ids) AND user_id = :userId RETURNING id",
+           nativeQuery = true)
+    List<Long> deleteByIdsAndUserId(@Param("ids") Collection<Long> ids, @Param("userId") UUID userId);
+
+    // Single-column fast paths - one UPDATE, no entity load or dirty check
+    @Modifying
+    @Query("UPDATE Note n SET n.pinned = :pinned, n.lastEdited = :lastEdited " +
+           "WHERE n.id = :id AND n.userId = :userId")
+    int updatePinned(
+        @Param("id") Long id,
+        @Param("userId") UUID userId,
+        @Param("pinned") Boolean pinned,
+        @Param("lastEdited") Instant lastEdited
+    );
+
+    @Modifying
+    @Query("UPDATE Note n SET n.reminderTime = :reminderTime, n.lastEdited = :lastEdited " +
+           "WHERE n.id = :id AND n.userId = :userId")
+    int updateReminderTime(
+        @Param("id") Long id,
+        @Param("userId") UUID userId,
+        @Param("reminderTime") Instant reminderTime,
+        @Param("lastEdited") Instant lastEdited
+    );
+
+    @Modifying
+    @Query("UPDATE Note n SET n.reminderTime = null, n.geofence = null, n.lastEdited = :lastEdited " +
+           "WHERE n.id = :id AND n.userId = :userId")
+    int clearReminders(
+        @Param("id") Long id,
+        @Param("userId") UUID userId,
+        @Param("lastEdited") Instant lastEdited
+    );
+
+    @Modifying
+    @Query("UPDATE Note n SET n.backgroundColor = :backgroundColor, n.lastEdited = :lastEdited " +
+           "WHERE n.id = :id AND n.userId = :userId")
+    int updateBackgroundColor(
+        @Param("id") Long id,
+        @Param("userId") UUID userId,
+        @Param("backgroundColor") String backgroundColor,
+        @Param("lastEdited") Instant lastEdited
+    );
+
+    // Text patching - read only the body and its version, then write back only if the version is unchanged
+    @Query("SELECT n.title AS title, n.text AS text, n.textVersion AS textVersion FROM Note n " +
+           "WHERE n.id = :id AND n.userId = :userId")
+    Optional<NoteText> findTextByIdAndUserId(@Param("id") Long id, @Param("userId") UUID userId);
+
+    @Modifying
+    @Query("UPDATE Note n SET n.text = :text, n.textVersion = n.textVersion + 1, n.lastEdited = :lastEdited " +
+           "WHERE n.id = :id AND n.userId = :userId AND n.textVersion = :baseVersion")
+    int updateTextIfVersion(
+        @Param("id") Long id,
+        @Param("userId") UUID userId,
+        @Param("baseVersion") Long baseVersion,
+        @Param("text") String text,
+        @Param("lastEdited") Instant lastEdited
+    );
+
+    // Export - keyset page of the user's notes with foreign keys and tag ids, so no entity
+    // or lazy association is loaded; (user_id, id) keeps every page an index range scan
+    @Query(value = "SELECT n.id AS \"id\", n.title AS \"title\", n.text AS \"text\", n.pinned AS \"pinned\", " +
+           "n.background_color AS \"backgroundColor\", n.created_at AS \"createdAt\", n.last_edited AS \"lastEdited\", " +
+           "n.reminder_time AS \"reminderTime\", n.geofence AS \"geofenceId\", n.image_file AS \"imageId\", " +
+           "n.audio_file AS \"audioId\", " +
+           "(SELECT string_agg(CAST(nt.tag_id AS TEXT), ',' ORDER BY nt.tag_id) FROM note_tags nt " +
+           " WHERE nt.user_id = n.user_id AND nt.note_id = n.id) AS \"tagIds\" " +
+           "FROM notes n WHERE n.user_id = :userId AND n.id > :afterId ORDER BY n.id LIMIT :limit",
+           nativeQuery = true)
+    List<NoteExportRow> findExportPage(@Param("userId") UUID userId, @Param("afterId") long afterId, @Param("limit") int limit);
+
+    interface NoteText {
+        String getTitle();
+        String getText();
+        Long getTextVersion();
+    }
+
+    /** One row of {@link #findExportPage}; tagIds is a comma-separated list or null. */
+    interface NoteExportRow {
+        Long getId();
+        String getTitle();
+        String getText();
+        Boolean getPinned();
+        String getBackgroundColor();
+        Instant getCreatedAt();
+        Instant getLastEdited();
+        Instant getReminderTime();
+        Long getGeofenceId();
+        Long getImageId();
+        Long getAudioId();
+        String getTagIds();
+    }
+
+    /** One row of {@link #countFacets}: facet is total, hasPhoto, hasAudio, hasLocation or tag. */
+    interface FacetCount {
+        String getFacet();
+        Long getValue();
+        Long getCount();
+    }
 }
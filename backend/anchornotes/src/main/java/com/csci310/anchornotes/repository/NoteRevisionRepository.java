@@ -0,0 +1,54 @@
+package com.csci310.anchornotes.repository;
+
+import com.csci310.anchornotes.entity.NoteRevision;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface NoteRevisionRepository extends JpaRepository<NoteRevision, Long> {
+
+    // Listing - metadata only, payloads stay in the database
+    @Query("SELECT r.revision AS revision, r.snapshot AS snapshot, r.title AS title, " +
+           "r.textLength AS textLength, r.createdAt AS createdAt FROM NoteRevision r " +
+           "WHERE r.noteId = :noteId AND r.userId = :userId ORDER BY r.revision DESC")
+    List<RevisionSummary> findSummaries(@Param("noteId") Long noteId, @Param("userId") UUID userId);
+
+    @Query("SELECT MAX(r.revision) FROM NoteRevision r WHERE r.noteId = :noteId")
+    Optional<Long> findLatestRevision(@Param("noteId") Long noteId);
+
+    Optional<NoteRevision> findTopByNoteIdAndUserIdAndSnapshotTrueAndRevisionLessThanEqualOrderByRevisionDesc(
+        Long noteId, UUID userId, Long revision);
+
+    // The snapshot plus every delta up to the target, in apply order
+    @Query("SELECT r FROM NoteRevision r WHERE r.noteId = :noteId " +
+           "AND r.revision > :fromRevision AND r.revision <= :toRevision ORDER BY r.revision ASC")
+    List<NoteRevision> findChain(
+        @Param("noteId") Long noteId,
+        @Param("fromRevision") Long fromRevision,
+        @Param("toRevision") Long toRevision
+    );
+
+    // Retention - drop everything older than the newest snapshot at or below the cutoff,
+    // so every remaining delta still has its snapshot
+    @Modifying
+    @Query("DELETE FROM NoteRevision r WHERE r.noteId = :noteId AND r.revision < " +
+           "(SELECT MAX(s.revision) FROM NoteRevision s WHERE s.noteId = :noteId " +
+           " AND s.snapshot = true AND s.revision <= :cutoff)")
+    int deleteBeforeSnapshotAtOrBelow(@Param("noteId") Long noteId, @Param("cutoff") Long cutoff);
+
+    interface RevisionSummary {
+        Long getRevision();
+        Boolean getSnapshot();
+        String getTitle();
+        Integer getTextLength();
+        Instant getCreatedAt();
+    }
+}
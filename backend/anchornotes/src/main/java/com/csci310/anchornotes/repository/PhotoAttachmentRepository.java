@@ -1,9 +1,15 @@
 package com.csci310.anchornotes.repository;
 
 import com.csci310.anchornotes.entity.PhotoAttachment;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -11,4 +17,30 @@ import java.util.UUID;
 public interface PhotoAttachmentRepository extends JpaRepository<PhotoAttachment, Long> {
 
     Optional<PhotoAttachment> findByIdAndUserId(Long id, UUID userId);
+
+    // Blobs - another photo of the same file whose thumbnails can be reused
+    Optional<PhotoAttachment> findFirstByUserIdAndBlobSha256AndThumbnailSizesIsNotNull(UUID userId, String blobSha256);
+
+    // Export - keyset page of the user's rows after the given id
+    List<PhotoAttachment> findByUserIdAndIdGreaterThanOrderByIdAsc(UUID userId, Long afterId, Limit limit);
+
+    // Thumbnails - record what the pipeline produced; 0 if the photo was deleted meanwhile
+    @Modifying
+    @Query("UPDATE PhotoAttachment p SET p.thumbnailSizes = :sizes WHERE p.id = :id AND p.userId = :userId")
+    int updateThumbnailSizes(@Param("id") Long id, @Param("userId") UUID userId, @Param("sizes") String sizes);
+
+    // Thumbnails - photos on notes that the pipeline has not processed, oldest first
+    @Query(value = "SELECT p.id AS \"id\", p.user_id AS \"userId\", p.media_url AS \"mediaUrl\", n.id AS \"noteId\" " +
+           "FROM photo_attachment p JOIN notes n ON n.image_file = p.id AND n.user_id = p.user_id " +
+           "WHERE p.thumbnail_sizes IS NULL AND p.created_at < :createdBefore " +
+           "ORDER BY p.id LIMIT :limit",
+           nativeQuery = true)
+    List<MissingThumbnails> findMissingThumbnails(@Param("createdBefore") Instant createdBefore, @Param("limit") int limit);
+
+    interface MissingThumbnails {
+        Long getId();
+        UUID getUserId();
+        String getMediaUrl();
+        Long getNoteId();
+    }
 }
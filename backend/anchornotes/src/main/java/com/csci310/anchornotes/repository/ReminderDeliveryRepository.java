@@ -0,0 +1,73 @@
+package com.csci310.anchornotes.repository;
+
+import com.csci310.anchornotes.entity.ReminderDelivery;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface ReminderDeliveryRepository extends JpaRepository<ReminderDelivery, Long> {
+
+    // Time reminders in [from, to) that have not been delivered yet, for one note id partition
+    @Query(value = "SELECT n.id AS \"noteId\", n.user_id AS \"userId\", n.reminder_time AS \"reminderTime\" FROM notes n " +
+           "WHERE n.reminder_time >= :from AND n.reminder_time < :to AND n.id % :partitions = :partition " +
+           "AND NOT EXISTS (SELECT 1 FROM reminder_deliveries d " +
+           "                WHERE d.note_id = n.id AND d.reminder_time = n.reminder_time " +
+           "                AND d.delivered_at IS NOT NULL)",
+           nativeQuery = true)
+    List<PendingReminder> findUndelivered(@Param("from") Instant from,
+                                          @Param("to") Instant to,
+                                          @Param("partition") int partition,
+                                          @Param("partitions") int partitions);
+
+    // Take the reminder for delivery if the note is still set to this time, it has not been
+    // delivered and no other replica holds an unexpired claim on it. Returns 1 when claimed.
+    @Modifying
+    @Query(value = "INSERT INTO reminder_deliveries (note_id, user_id, reminder_time, attempts, claimed_by, claimed_until) " +
+           "SELECT n.id, n.user_id, n.reminder_time, 1, :owner, NOW() + :claimMillis * INTERVAL '1 millisecond' " +
+           "FROM notes n WHERE n.id = :noteId AND n.user_id = :userId AND n.reminder_time = :reminderTime " +
+           "ON CONFLICT (note_id, reminder_time) DO UPDATE SET claimed_by = EXCLUDED.claimed_by, " +
+           "claimed_until = EXCLUDED.claimed_until, attempts = reminder_deliveries.attempts + 1 " +
+           "WHERE reminder_deliveries.delivered_at IS NULL AND reminder_deliveries.claimed_until <= NOW()",
+           nativeQuery = true)
+    int claim(@Param("noteId") Long noteId,
+              @Param("userId") UUID userId,
+              @Param("reminderTime") Instant reminderTime,
+              @Param("owner") String owner,
+              @Param("claimMillis") long claimMillis);
+
+    @Modifying
+    @Query(value = "UPDATE reminder_deliveries SET delivered_at = NOW(), claimed_until = NULL " +
+           "WHERE note_id = :noteId AND reminder_time = :reminderTime AND claimed_by = :owner " +
+           "AND delivered_at IS NULL",
+           nativeQuery = true)
+    int markDelivered(@Param("noteId") Long noteId,
+                      @Param("reminderTime") Instant reminderTime,
+                      @Param("owner") String owner);
+
+    // After a failed attempt, so the retry (here or on another replica) can claim it at once
+    @Modifying
+    @Query(value = "UPDATE reminder_deliveries SET claimed_until = NOW() " +
+           "WHERE note_id = :noteId AND reminder_time = :reminderTime AND claimed_by = :owner " +
+           "AND delivered_at IS NULL",
+           nativeQuery = true)
+    int releaseClaim(@Param("noteId") Long noteId,
+                     @Param("reminderTime") Instant reminderTime,
+                     @Param("owner") String owner);
+
+    @Modifying
+    @Query(value = "DELETE FROM reminder_deliveries WHERE reminder_time < :cutoff", nativeQuery = true)
+    int deleteOlderThan(@Param("cutoff") Instant cutoff);
+
+    interface PendingReminder {
+        Long getNoteId();
+        UUID getUserId();
+        Instant getReminderTime();
+    }
+}
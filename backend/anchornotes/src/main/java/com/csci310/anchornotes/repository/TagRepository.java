@@ -1,9 +1,14 @@
 package com.csci310.anchornotes.repository;
 
 import com.csci310.anchornotes.entity.Tag;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -15,7 +20,26 @@ public interface TagRepository extends JpaRepository<Tag, Long> {
 
     Optional<Tag> findByIdAndUserId(Long id, UUID userId);
 
-    void deleteByIdAndUserId(Long id, UUID userId);
+    // Bulk delete - detach from notes and templates, then delete, each as one statement scoped to the user
+    @Modifying
+    @Query(value = "DELETE FROM note_tags WHERE user_id = :userId AND tag_id IN (:ids)",
+           nativeQuery = true)
+    int deleteNoteLinksForTags(@Param("ids") Collection<Long> ids, @Param("userId") UUID userId);
+
+    @Modifying
+    @Query(value = "DELETE FROM template_tags WHERE tag_id IN " +
+           "(SELECT id FROM tags WHERE id IN (:ids) AND user_id = :userId)",
+           nativeQuery = true)
+    int deleteTemplateLinksForTags(@Param("ids") Collection<Long> ids, @Param("userId") UUID userId);
+
+    // Returns the ids it deleted, so change events go out only for those; not @Modifying
+    // because the RETURNING rows are read as a result set
+    @Query(value = "DELETE FROM tags WHERE id IN (:ids) AND user_id = :userId RETURNING id",
+           nativeQuery = true)
+    List<Long> deleteByIdsAndUserId(@Param("ids") Collection<Long> ids, @Param("userId") UUID userId);
 
     boolean existsByUserIdAndName(UUID userId, String name);
+
+    // Export - keyset page of the user's rows after the given id
+    List<Tag> findByUserIdAndIdGreaterThanOrderByIdAsc(UUID userId, Long afterId, Limit limit);
 }
@@ -3,8 +3,13 @@ package com.csci310.anchornotes.repository;
 import com.csci310.anchornotes.entity.Template;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -18,5 +23,40 @@ public interface TemplateRepository extends JpaRepository<Template, Long> {
     @EntityGraph(attributePaths = {"tags", "geofence", "image", "audio"})
     Optional<Template> findByIdAndUserId(Long id, UUID userId);
 
-    void deleteByIdAndUserId(Long id, UUID userId);
+    // Export - keyset page of the user's templates with foreign keys and tag ids
+    @Query(value = "SELECT t.id AS \"id\", t.name AS \"name\", t.text AS \"text\", t.pinned AS \"pinned\", " +
+           "t.background_color AS \"backgroundColor\", t.created_at AS \"createdAt\", t.geofence AS \"geofenceId\", " +
+           "t.image_file AS \"imageId\", t.audio_file AS \"audioId\", " +
+           "(SELECT string_agg(CAST(tt.tag_id AS TEXT), ',' ORDER BY tt.tag_id) FROM template_tags tt " +
+           " WHERE tt.template_id = t.id) AS \"tagIds\" " +
+           "FROM templates t WHERE t.user_id = :userId AND t.id > :afterId ORDER BY t.id LIMIT :limit",
+           nativeQuery = true)
+    List<TemplateExportRow> findExportPage(@Param("userId") UUID userId, @Param("afterId") long afterId, @Param("limit") int limit);
+
+    // Bulk delete - join rows first, then the templates, each as one statement scoped to the user
+    @Modifying
+    @Query(value = "DELETE FROM template_tags WHERE template_id IN " +
+           "(SELECT id FROM templates WHERE id IN (:ids) AND user_id = :userId)",
+           nativeQuery = true)
+    int deleteTagLinksForTemplates(@Param("ids") Collection<Long> ids, @Param("userId") UUID userId);
+
+    // Returns the ids it deleted, so change events go out only for those; not @Modifying
+    // because the RETURNING rows are read as a result set
+    @Query(value = "DELETE FROM templates WHERE id IN (:ids) AND user_id = :userId RETURNING id",
+           nativeQuery = true)
+    List<Long> deleteByIdsAndUserId(@Param("ids") Collection<Long> ids, @Param("userId") UUID userId);
+
+    /** One row of {@link #findExportPage}; tagIds is a comma-separated list or null. */
+    interface TemplateExportRow {
+        Long getId();
+        String getName();
+        String getText();
+        Boolean getPinned();
+        String getBackgroundColor();
+        Instant getCreatedAt();
+        Long getGeofenceId();
+        Long getImageId();
+        Long getAudioId();
+        String getTagIds();
+    }
 }
@@ -0,0 +1,84 @@
+package com.csci310.anchornotes.repository;
+
+import com.csci310.anchornotes.entity.UploadSession;
+import com.csci310.anchornotes.entity.UploadState;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface UploadSessionRepository extends JpaRepository<UploadSession, UUID> {
+
+    Optional<UploadSession> findByIdAndUserId(UUID id, UUID userId);
+
+    long countByUserIdAndState(UUID userId, UploadState state);
+
+    // Advance the offset if the chunk starts exactly where the session is; 0 if it does not
+    // (a retry of a chunk already stored, a gap, or a concurrent request got there first)
+    @Modifying
+    @Query(value = "UPDATE upload_sessions SET received_bytes = received_bytes + :length, " +
+           "updated_at = NOW(), expires_at = :expiresAt " +
+           "WHERE id = :id AND user_id = :userId AND state = 'OPEN' AND received_bytes = :offset " +
+           "AND received_bytes + :length <= size_bytes",
+           nativeQuery = true)
+    int advance(@Param("id") UUID id,
+                @Param("userId") UUID userId,
+                @Param("offset") long offset,
+                @Param("length") long length,
+                @Param("expiresAt") Instant expiresAt);
+
+    @Modifying
+    @Query(value = "INSERT INTO upload_chunks (session_id, user_id, start_offset, data) " +
+           "VALUES (:id, :userId, :offset, :data)",
+           nativeQuery = true)
+    int insertChunk(@Param("id") UUID id,
+                    @Param("userId") UUID userId,
+                    @Param("offset") long offset,
+                    @Param("data") byte[] data);
+
+    @Query(value = "SELECT data FROM upload_chunks WHERE session_id = :id AND user_id = :userId " +
+           "AND start_offset = :offset",
+           nativeQuery = true)
+    Optional<byte[]> findChunk(@Param("id") UUID id, @Param("userId") UUID userId, @Param("offset") long offset);
+
+    // Take a fully received session for completion, or take over one whose completion stalled
+    // before staleBefore; 0 if it is not complete, or another attempt is still completing it
+    @Modifying
+    @Query(value = "UPDATE upload_sessions SET state = 'COMPLETING', completion_id = :completionId, " +
+           "updated_at = NOW(), expires_at = :expiresAt " +
+           "WHERE id = :id AND user_id = :userId AND received_bytes = size_bytes " +
+           "AND (state = 'OPEN' OR (state = 'COMPLETING' AND updated_at < :staleBefore))",
+           nativeQuery = true)
+    int beginCompletion(@Param("id") UUID id,
+                        @Param("userId") UUID userId,
+                        @Param("completionId") UUID completionId,
+                        @Param("staleBefore") Instant staleBefore,
+                        @Param("expiresAt") Instant expiresAt);
+
+    // 0 if the session was taken over by another attempt (or is no longer completing)
+    @Modifying
+    @Query(value = "UPDATE upload_sessions SET state = :state, completion_id = NULL, updated_at = NOW() " +
+           "WHERE id = :id AND user_id = :userId AND state = 'COMPLETING' AND completion_id = :completionId",
+           nativeQuery = true)
+    int endCompletion(@Param("id") UUID id,
+                      @Param("userId") UUID userId,
+                      @Param("completionId") UUID completionId,
+                      @Param("state") String state);
+
+    @Modifying
+    @Query(value = "DELETE FROM upload_chunks WHERE session_id = :id AND user_id = :userId", nativeQuery = true)
+    int deleteChunks(@Param("id") UUID id, @Param("userId") UUID userId);
+
+    // Expiry - oldest first; chunks go with their session (ON DELETE CASCADE)
+    @Modifying
+    @Query(value = "DELETE FROM upload_sessions WHERE id IN (" +
+           "SELECT id FROM upload_sessions WHERE expires_at < :now ORDER BY expires_at LIMIT :limit)",
+           nativeQuery = true)
+    int deleteExpired(@Param("now") Instant now, @Param("limit") int limit);
+}
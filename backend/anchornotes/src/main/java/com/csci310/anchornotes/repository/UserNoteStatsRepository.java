@@ -0,0 +1,11 @@
+package com.csci310.anchornotes.repository;
+
+import com.csci310.anchornotes.entity.UserNoteStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.UUID;
+
+@Repository
+public interface UserNoteStatsRepository extends JpaRepository<UserNoteStats, UUID> {
+}
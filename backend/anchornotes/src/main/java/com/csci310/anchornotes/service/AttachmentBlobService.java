@@ -0,0 +1,62 @@
+package com.csci310.anchornotes.service;
+
+import com.csci310.anchornotes.blob.Blobs;
+import com.csci310.anchornotes.concurrency.DbPriority;
+import com.csci310.anchornotes.concurrency.PriorityClass;
+import com.csci310.anchornotes.config.ThumbnailProperties;
+import com.csci310.anchornotes.repository.AttachmentBlobRepository;
+import com.csci310.anchornotes.thumbnail.Thumbnails;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Database side of the blob collector. Runs as bulk work so deleting old files never takes a
+ * connection ahead of user requests.
+ */
+@Service
+@DbPriority(PriorityClass.BULK)
+@RequiredArgsConstructor
+@Slf4j
+public class AttachmentBlobService {
+
+    private final AttachmentBlobRepository blobRepository;
+    private final SupabaseStorageService storageService;
+    private final ThumbnailProperties thumbnailProperties;
+
+    @Transactional(readOnly = true)
+    public List<AttachmentBlobRepository.ReleasedBlob> findReleased(Instant releasedBefore, int limit) {
+        return blobRepository.findReleased(releasedBefore, limit);
+    }
+
+    /**
+     * Delete a blob and its files if still nothing references it. The row stays locked until
+     * the files are gone, so an upload of the same content waits and then stores it afresh.
+     * If storage refuses the delete the row is kept and the next run tries again. False if it
+     * was referenced again meanwhile.
+     */
+    @Transactional(rollbackFor = IOException.class)
+    public boolean collect(String userId, AttachmentBlobRepository.ReleasedBlob blob, Instant releasedBefore) throws IOException {
+        if (blobRepository.deleteReleased(UUID.fromString(userId), blob.getSha256(), releasedBefore) == 0) {
+            return false;
+        }
+        List<String> files = new ArrayList<>();
+        files.add(blob.getFilePath());
+        if (blob.getMediaType() != null && blob.getMediaType().startsWith("image/")) {
+            files.add(Blobs.originalPath(blob.getFilePath()));
+            for (int size : thumbnailProperties.getSizes()) {
+                files.add(Thumbnails.path(blob.getFilePath(), size));
+            }
+        }
+        storageService.deleteFiles(Blobs.BUCKET, files);
+        log.debug("Deleted unreferenced blob {} of user {}", blob.getSha256(), userId);
+        return true;
+    }
+}
@@ -1,28 +1,42 @@
 package com.csci310.anchornotes.service;
 
+import com.csci310.anchornotes.blob.Blobs;
+import com.csci310.anchornotes.concurrency.DbPriority;
+import com.csci310.anchornotes.concurrency.PriorityClass;
+import com.csci310.anchornotes.dto.attachment.BlobResponse;
 import com.csci310.anchornotes.dto.attachment.CompleteUploadRequest;
 import com.csci310.anchornotes.dto.attachment.UploadRequest;
 import com.csci310.anchornotes.dto.attachment.UploadResponse;
 import com.csci310.anchornotes.dto.note.NoteResponse;
+import com.csci310.anchornotes.entity.AttachmentBlob;
 import com.csci310.anchornotes.entity.AttachmentStatus;
 import com.csci310.anchornotes.entity.AudioAttachment;
 import com.csci310.anchornotes.entity.Note;
 import com.csci310.anchornotes.entity.PhotoAttachment;
+import com.csci310.anchornotes.events.ChangeEvent;
+import com.csci310.anchornotes.exception.BadRequestException;
 import com.csci310.anchornotes.exception.ResourceNotFoundException;
+import com.csci310.anchornotes.media.MediaObject;
+import com.csci310.anchornotes.repository.AttachmentBlobRepository;
 import com.csci310.anchornotes.repository.AudioAttachmentRepository;
 import com.csci310.anchornotes.repository.NoteRepository;
 import com.csci310.anchornotes.repository.PhotoAttachmentRepository;
+import com.csci310.anchornotes.thumbnail.PhotoUploadedEvent;
+import com.csci310.anchornotes.thumbnail.Thumbnails;
 import com.csci310.anchornotes.util.EntityMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 
 @Service
+@DbPriority(PriorityClass.INTERACTIVE)
 @RequiredArgsConstructor
 @Slf4j
 public class AttachmentService {
@@ -30,8 +44,10 @@ public class AttachmentService {
     private final PhotoAttachmentRepository attachmentRepository;
     private final AudioAttachmentRepository audioAttachmentRepository;
     private final NoteRepository noteRepository;
+    private final AttachmentBlobRepository blobRepository;
     private final SupabaseStorageService storageService;
     private final EntityMapper entityMapper;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Initiate photo upload
@@ -96,6 +112,8 @@ public class AttachmentService {
         note.setImage(attachment);
 
         Note updated = noteRepository.save(note);
+        eventPublisher.publishEvent(ChangeEvent.note(userId, noteId, ChangeEvent.Action.UPDATED));
+        eventPublisher.publishEvent(new PhotoUploadedEvent(userId, noteId, attachmentId, publicUrl));
         log.info("Photo upload completed for note {}", noteId);
 
         return entityMapper.toNoteResponse(updated);
@@ -169,6 +187,7 @@ public class AttachmentService {
         note.setAudio(attachment);
 
         Note updated = noteRepository.save(note);
+        eventPublisher.publishEvent(ChangeEvent.note(userId, noteId, ChangeEvent.Action.UPDATED));
         log.info("Audio upload completed for note {}", noteId);
 
         return entityMapper.toNoteResponse(updated);
@@ -177,8 +196,8 @@ public class AttachmentService {
     /**
      * Delete photo attachment
      */
-    @Transactional
-    public void deletePhoto(String userId, Long noteId, Long attachmentId) {
+    @Transactional(rollbackFor = IOException.class)
+    public void deletePhoto(String userId, Long noteId, Long attachmentId) throws IOException {
         log.info("Deleting photo {} from note {} for user: {}", attachmentId, noteId, userId);
 
         UUID userUuid = UUID.fromString(userId);
@@ -194,20 +213,28 @@ public class AttachmentService {
             noteRepository.save(note);
         }
 
-        // Delete from storage
-        storageService.deleteFile("Photo", attachment.getMediaUrl());
+        // Delete from storage; a content-addressed file is deleted by the blob collector once unused
+        if (attachment.getBlobSha256() == null) {
+            List<String> files = new ArrayList<>();
+            files.add(attachment.getMediaUrl());
+            for (int size : Thumbnails.parseSizes(attachment.getThumbnailSizes())) {
+                files.add(Thumbnails.path(attachment.getMediaUrl(), size));
+            }
+            storageService.deleteFiles("Photo", files);
+        }
 
         // Delete record
         attachmentRepository.delete(attachment);
 
+        eventPublisher.publishEvent(ChangeEvent.note(userId, noteId, ChangeEvent.Action.UPDATED));
         log.info("Photo attachment {} deleted successfully", attachmentId);
     }
 
     /**
      * Delete audio attachment
      */
-    @Transactional
-    public void deleteAudio(String userId, Long noteId, Long attachmentId) {
+    @Transactional(rollbackFor = IOException.class)
+    public void deleteAudio(String userId, Long noteId, Long attachmentId) throws IOException {
         log.info("Deleting audio {} from note {} for user: {}", attachmentId, noteId, userId);
 
         UUID userUuid = UUID.fromString(userId);
@@ -223,69 +250,158 @@ public class AttachmentService {
             noteRepository.save(note);
         }
 
-        // Delete from storage
-        storageService.deleteFile("attachment", attachment.getMediaUrl());
+        // Delete from storage; a content-addressed file is deleted by the blob collector once unused
+        if (attachment.getBlobSha256() == null) {
+            storageService.deleteFile("attachment", attachment.getMediaUrl());
+        }
 
         // Delete record
         audioAttachmentRepository.delete(attachment);
 
+        eventPublisher.publishEvent(ChangeEvent.note(userId, noteId, ChangeEvent.Action.UPDATED));
         log.info("Audio attachment {} deleted successfully", attachmentId);
     }
 
     /**
-     * Upload photo directly (single-step upload through backend)
+     * Whether the user already has a file with this SHA-256 stored, so the client can attach
+     * it by hash instead of uploading it
+     */
+    @Transactional(readOnly = true)
+    public BlobResponse findBlob(String userId, String sha256) {
+        String hash = requireSha256(sha256);
+        AttachmentBlob blob = blobRepository.findByUserIdAndSha256(UUID.fromString(userId), hash)
+                .orElseThrow(() -> new ResourceNotFoundException("Attachment file", "sha256", hash));
+        return BlobResponse.builder()
+                .sha256(blob.getSha256())
+                .mediaType(blob.getMediaType())
+                .sizeBytes(blob.getSizeBytes())
+                .build();
+    }
+
+    /**
+     * Attach a photo the user has already uploaded, by the SHA-256 of its content
      */
     @Transactional
-    public NoteResponse uploadPhoto(String userId, Long noteId, MultipartFile file) throws IOException {
-        log.info("Uploading photo for note {} and user: {}", noteId, userId);
+    public NoteResponse attachPhotoBlob(String userId, Long noteId, String sha256) {
+        log.info("Attaching stored photo {} to note {} for user: {}", sha256, noteId, userId);
 
-        // Verify note exists
         UUID userUuid = UUID.fromString(userId);
         Note note = noteRepository.findByIdAndUserId(noteId, userUuid)
                 .orElseThrow(() -> new ResourceNotFoundException("Note not found"));
 
-        // Upload file to Supabase
-        SupabaseStorageService.FileUploadResponse uploadResponse = storageService.uploadFile("attachment", file);
+        Note updated = attachPhoto(userId, note, lockBlob(userUuid, sha256));
+        return entityMapper.toNoteResponse(updated);
+    }
 
-        // Create attachment record
-        PhotoAttachment attachment = PhotoAttachment.builder()
-                .userId(userUuid)
-                .mediaUrl(uploadResponse.getPublicUrl())
-                .mediaType(file.getContentType())
-                .status(AttachmentStatus.COMPLETED)
-                .build();
+    /**
+     * Attach an audio file the user has already uploaded, by the SHA-256 of its content
+     */
+    @Transactional
+    public NoteResponse attachAudioBlob(String userId, Long noteId, String sha256, Integer durationSec) {
+        log.info("Attaching stored audio {} to note {} for user: {}", sha256, noteId, userId);
 
-        PhotoAttachment saved = attachmentRepository.save(attachment);
+        UUID userUuid = UUID.fromString(userId);
+        Note note = noteRepository.findByIdAndUserId(noteId, userUuid)
+                .orElseThrow(() -> new ResourceNotFoundException("Note not found"));
 
-        // Link to note
-        note.setImage(saved);
-        Note updated = noteRepository.save(note);
+        Note updated = attachAudio(userId, note, lockBlob(userUuid, sha256), durationSec);
+        return entityMapper.toNoteResponse(updated);
+    }
 
-        log.info("Photo uploaded and attached to note {}", noteId);
+    /**
+     * Where a photo's file is stored, for streaming it to its owner
+     */
+    @Transactional(readOnly = true)
+    public MediaObject findPhotoMedia(String userId, Long attachmentId) {
+        PhotoAttachment attachment = attachmentRepository.findByIdAndUserId(attachmentId, UUID.fromString(userId))
+                .filter(photo -> photo.getStatus() == AttachmentStatus.COMPLETED)
+                .orElseThrow(() -> new ResourceNotFoundException("Attachment not found"));
+        return mediaObject(attachment.getMediaUrl(), attachment.getMediaType(), attachment.getBlobSha256());
+    }
 
-        return entityMapper.toNoteResponse(updated);
+    /**
+     * Where an audio file is stored, for streaming it to its owner
+     */
+    @Transactional(readOnly = true)
+    public MediaObject findAudioMedia(String userId, Long attachmentId) {
+        AudioAttachment attachment = audioAttachmentRepository.findByIdAndUserId(attachmentId, UUID.fromString(userId))
+                .filter(audio -> audio.getStatus() == AttachmentStatus.COMPLETED)
+                .orElseThrow(() -> new ResourceNotFoundException("Attachment not found"));
+        return mediaObject(attachment.getMediaUrl(), attachment.getMediaType(), attachment.getBlobSha256());
+    }
+
+    // Files are never rewritten in place, so the content hash (or for older uploads, the
+    // unique path) identifies the bytes for good
+    private MediaObject mediaObject(String mediaUrl, String mediaType, String blobSha256) {
+        String objectPath = storageService.objectPath(Blobs.BUCKET, mediaUrl);
+        String tag = blobSha256 != null ? blobSha256 : Blobs.sha256(objectPath);
+        return new MediaObject(objectPath, mediaType, "\"" + tag + "\"");
     }
 
     /**
-     * Upload audio directly (single-step upload through backend)
+     * Whether the user already has a file with this SHA-256 stored, so an upload of it can be
+     * skipped. An unreferenced one is held back from the collector for another release grace,
+     * so it is still there when it is attached.
      */
     @Transactional
-    public NoteResponse uploadAudio(String userId, Long noteId, MultipartFile file, Integer durationSec) throws IOException {
-        log.info("Uploading audio for note {} and user: {}", noteId, userId);
+    public boolean reserveBlob(String userId, String sha256) {
+        return blobRepository.touch(UUID.fromString(userId), sha256) > 0;
+    }
 
-        // Verify note exists
-        UUID userUuid = UUID.fromString(userId);
-        Note note = noteRepository.findByIdAndUserId(noteId, userUuid)
-                .orElseThrow(() -> new ResourceNotFoundException("Note not found"));
+    /**
+     * Record a file just sent to storage. It stays unreferenced until an attachment points at
+     * it, so if attaching never happens the collector deletes it after the release grace.
+     */
+    @Transactional
+    public void recordBlob(String userId, String sha256, String filePath, String mediaType, long sizeBytes) {
+        blobRepository.insertIfAbsent(UUID.fromString(userId), sha256, filePath, mediaType, sizeBytes);
+    }
 
-        // Upload file to Supabase
-        SupabaseStorageService.FileUploadResponse uploadResponse = storageService.uploadFile("attachment", file);
+    private AttachmentBlob lockBlob(UUID userId, String sha256) {
+        String hash = requireSha256(sha256);
+        return blobRepository.findForShare(userId, hash)
+                .orElseThrow(() -> new ResourceNotFoundException("Attachment file", "sha256", hash));
+    }
 
-        // Create attachment record
+    private static String requireSha256(String sha256) {
+        String hash = Blobs.normalize(sha256);
+        if (hash == null) {
+            throw new BadRequestException("Not a hex SHA-256: " + sha256);
+        }
+        return hash;
+    }
+
+    private Note attachPhoto(String userId, Note note, AttachmentBlob blob) {
+        PhotoAttachment attachment = PhotoAttachment.builder()
+                .userId(blob.getUserId())
+                .blobSha256(blob.getSha256())
+                .mediaUrl(storageService.getPublicUrl(Blobs.BUCKET, blob.getFilePath()))
+                .mediaType(blob.getMediaType())
+                .status(AttachmentStatus.COMPLETED)
+                .build();
+        // thumbnails live next to the file, so another photo of it already made them
+        attachmentRepository.findFirstByUserIdAndBlobSha256AndThumbnailSizesIsNotNull(blob.getUserId(), blob.getSha256())
+                .ifPresent(other -> attachment.setThumbnailSizes(other.getThumbnailSizes()));
+
+        PhotoAttachment saved = attachmentRepository.save(attachment);
+
+        // Link to note
+        note.setImage(saved);
+        Note updated = noteRepository.save(note);
+
+        eventPublisher.publishEvent(ChangeEvent.note(userId, note.getId(), ChangeEvent.Action.UPDATED));
+        if (saved.getThumbnailSizes() == null) {
+            eventPublisher.publishEvent(new PhotoUploadedEvent(userId, note.getId(), saved.getId(), saved.getMediaUrl()));
+        }
+        return updated;
+    }
+
+    private Note attachAudio(String userId, Note note, AttachmentBlob blob, Integer durationSec) {
         AudioAttachment attachment = AudioAttachment.builder()
-                .userId(userUuid)
-                .mediaUrl(uploadResponse.getPublicUrl())
-                .mediaType(file.getContentType())
+                .userId(blob.getUserId())
+                .blobSha256(blob.getSha256())
+                .mediaUrl(storageService.getPublicUrl(Blobs.BUCKET, blob.getFilePath()))
+                .mediaType(blob.getMediaType())
                 .durationSec(durationSec)
                 .status(AttachmentStatus.COMPLETED)
                 .build();
@@ -296,8 +412,7 @@ public class AttachmentService {
         note.setAudio(saved);
         Note updated = noteRepository.save(note);
 
-        log.info("Audio uploaded and attached to note {}", noteId);
-
-        return entityMapper.toNoteResponse(updated);
+        eventPublisher.publishEvent(ChangeEvent.note(userId, note.getId(), ChangeEvent.Action.UPDATED));
+        return updated;
     }
 }
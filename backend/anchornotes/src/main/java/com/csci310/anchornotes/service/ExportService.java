@@ -0,0 +1,71 @@
+package com.csci310.anchornotes.service;
+
+import com.csci310.anchornotes.concurrency.DbPriority;
+import com.csci310.anchornotes.concurrency.PriorityClass;
+import com.csci310.anchornotes.entity.AudioAttachment;
+import com.csci310.anchornotes.entity.Geofence;
+import com.csci310.anchornotes.entity.PhotoAttachment;
+import com.csci310.anchornotes.entity.Tag;
+import com.csci310.anchornotes.repository.AudioAttachmentRepository;
+import com.csci310.anchornotes.repository.GeofenceRepository;
+import com.csci310.anchornotes.repository.NoteRepository;
+import com.csci310.anchornotes.repository.PhotoAttachmentRepository;
+import com.csci310.anchornotes.repository.TagRepository;
+import com.csci310.anchornotes.repository.TemplateRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Keyset-paged reads of everything a user owns, for the account export.
+ *
+ * Every page is a separate read-only transaction (and admission permit), so an export never
+ * holds a connection while it waits on the client; a slow download costs the database nothing
+ * between pages. Rows created or deleted while an export runs may or may not be included.
+ */
+@Service
+@DbPriority(PriorityClass.BULK)
+@RequiredArgsConstructor
+public class ExportService {
+
+    private final TagRepository tagRepository;
+    private final GeofenceRepository geofenceRepository;
+    private final PhotoAttachmentRepository photoAttachmentRepository;
+    private final AudioAttachmentRepository audioAttachmentRepository;
+    private final TemplateRepository templateRepository;
+    private final NoteRepository noteRepository;
+
+    @Transactional(readOnly = true)
+    public List<Tag> findTagPage(String userId, long afterId, int limit) {
+        return tagRepository.findByUserIdAndIdGreaterThanOrderByIdAsc(UUID.fromString(userId), afterId, Limit.of(limit));
+    }
+
+    @Transactional(readOnly = true)
+    public List<Geofence> findGeofencePage(String userId, long afterId, int limit) {
+        return geofenceRepository.findByUserIdAndIdGreaterThanOrderByIdAsc(UUID.fromString(userId), afterId, Limit.of(limit));
+    }
+
+    @Transactional(readOnly = true)
+    public List<PhotoAttachment> findPhotoPage(String userId, long afterId, int limit) {
+        return photoAttachmentRepository.findByUserIdAndIdGreaterThanOrderByIdAsc(UUID.fromString(userId), afterId, Limit.of(limit));
+    }
+
+    @Transactional(readOnly = true)
+    public List<AudioAttachment> findAudioPage(String userId, long afterId, int limit) {
+        return audioAttachmentRepository.findByUserIdAndIdGreaterThanOrderByIdAsc(UUID.fromString(userId), afterId, Limit.of(limit));
+    }
+
+    @Transactional(readOnly = true)
+    public List<TemplateRepository.TemplateExportRow> findTemplatePage(String userId, long afterId, int limit) {
+        return templateRepository.findExportPage(UUID.fromString(userId), afterId, limit);
+    }
+
+    @Transactional(readOnly = true)
+    public List<NoteRepository.NoteExportRow> findNotePage(String userId, long afterId, int limit) {
+        return noteRepository.findExportPage(UUID.fromString(userId), afterId, limit);
+    }
+}
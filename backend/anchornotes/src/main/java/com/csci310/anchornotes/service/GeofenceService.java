@@ -1,5 +1,8 @@
 package com.csci310.anchornotes.service;
 
+import com.csci310.anchornotes.concurrency.DbPriority;
+import com.csci310.anchornotes.concurrency.PriorityClass;
+import com.csci310.anchornotes.concurrency.SingleFlight;
 import com.csci310.anchornotes.dto.geofence.GeofenceRegistrationResponse;
 import com.csci310.anchornotes.entity.Note;
 import com.csci310.anchornotes.repository.NoteRepository;
@@ -13,6 +16,7 @@ import java.util.stream.Collectors;
 import java.util.UUID;
 
 @Service
+@DbPriority(PriorityClass.INTERACTIVE)
 @RequiredArgsConstructor
 @Slf4j
 public class GeofenceService {
@@ -23,6 +27,8 @@ public class GeofenceService {
      * List all geofences for device registration
      * Returns all notes with geofences for this user
      */
+    @SingleFlight("geofences")
+    @DbPriority(PriorityClass.BULK)
     @Transactional(readOnly = true)
     public List<GeofenceRegistrationResponse> listGeofencesForRegistration(String userId) {
         log.info("Fetching geofences for registration for user: {}", userId);
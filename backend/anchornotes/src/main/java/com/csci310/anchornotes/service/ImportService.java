@@ -0,0 +1,245 @@
+package com.csci310.anchornotes.service;
+
+import com.csci310.anchornotes.concurrency.DbPriority;
+import com.csci310.anchornotes.concurrency.PriorityClass;
+import com.csci310.anchornotes.config.ImportProperties;
+import com.csci310.anchornotes.dto.importjob.ImportJobResponse;
+import com.csci310.anchornotes.entity.ImportJob;
+import com.csci310.anchornotes.entity.ImportState;
+import com.csci310.anchornotes.exception.ResourceNotFoundException;
+import com.csci310.anchornotes.importer.StagedImport;
+import com.csci310.anchornotes.repository.ImportJobRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Database side of bulk imports: the job rows, and the merge of a staged upload.
+ *
+ * The merge runs in one transaction: the staged files are streamed into temporary tables with
+ * COPY, and a handful of set-based statements move them into tags, geofences, notes and
+ * note_tags. Ids are drawn from the tables' own sequences up front, so the joins between the
+ * staged rows never need a round trip per row. Either everything in the upload lands, together
+ * with the COMPLETED state, or nothing does.
+ *
+ * Imported notes get no revision history and publish no change events; clients refetch once
+ * the job completes.
+ */
+@Service
+@DbPriority(PriorityClass.BULK)
+@RequiredArgsConstructor
+@Slf4j
+public class ImportService {
+
+    private static final String STAGING_TABLES =
+            "CREATE TEMP TABLE import_tags (name TEXT NOT NULL, color TEXT) ON COMMIT DROP; " +
+            "CREATE TEMP TABLE import_geofences (id BIGINT, source_id BIGINT, latitude DOUBLE PRECISION NOT NULL, " +
+            "  longitude DOUBLE PRECISION NOT NULL, radius INT NOT NULL, address_name TEXT, created_at TIMESTAMPTZ) ON COMMIT DROP; " +
+            "CREATE TEMP TABLE import_notes (id BIGINT, seq BIGINT NOT NULL, title VARCHAR(500), text TEXT, " +
+            "  pinned BOOLEAN NOT NULL, background_color TEXT, created_at TIMESTAMPTZ, last_edited TIMESTAMPTZ, " +
+            "  reminder_time TIMESTAMPTZ, geofence_ref BIGINT) ON COMMIT DROP; " +
+            "CREATE TEMP TABLE import_note_tags (note_seq BIGINT NOT NULL, name TEXT NOT NULL) ON COMMIT DROP";
+
+    private static final String ANALYZE_STAGING =
+            "ANALYZE import_tags; ANALYZE import_geofences; ANALYZE import_notes; ANALYZE import_note_tags";
+
+    // tags defined by the upload or named by its notes, unless the user already has one by that name
+    private static final String INSERT_TAGS =
+            "INSERT INTO tags (user_id, name, color, created_at) " +
+            "SELECT ?, s.name, COALESCE(MAX(s.color), ?), NOW() " +
+            "FROM (SELECT name, color FROM import_tags " +
+            "      UNION ALL SELECT DISTINCT name, NULL FROM import_note_tags) s " +
+            "WHERE NOT EXISTS (SELECT 1 FROM tags t WHERE t.user_id = ? AND t.name = s.name) " +
+            "GROUP BY s.name";
+
+    private static final String INSERT_GEOFENCES =
+            "INSERT INTO geofence (id, user_id, latitude, longitude, radius, address_name, created_at) " +
+            "SELECT id, ?, latitude, longitude, radius, address_name, COALESCE(created_at, NOW()) " +
+            "FROM import_geofences";
+
+    private static final String INSERT_NOTES =
+            "INSERT INTO notes (id, user_id, title, text, text_version, pinned, created_at, last_edited, " +
+            "  reminder_time, geofence, background_color) " +
+            "SELECT n.id, ?, n.title, n.text, 0, n.pinned, COALESCE(n.created_at, NOW()), " +
+            "  COALESCE(n.last_edited, n.created_at, NOW()), n.reminder_time, g.id, n.background_color " +
+            "FROM import_notes n LEFT JOIN import_geofences g ON g.source_id = n.geofence_ref " +
+            "ORDER BY n.seq";
+
+    // TagService keeps names unique per user but the table does not; a duplicate resolves to the oldest
+    private static final String INSERT_NOTE_TAGS =
+            "INSERT INTO note_tags (note_id, user_id, tag_id) " +
+            "SELECT DISTINCT n.id, ?, t.id " +
+            "FROM import_note_tags nt " +
+            "JOIN import_notes n ON n.seq = nt.note_seq " +
+            "JOIN (SELECT name, MIN(id) AS id FROM tags WHERE user_id = ? GROUP BY name) t ON t.name = nt.name";
+
+    private final ImportJobRepository importJobRepository;
+    private final DataSource dataSource;
+    private final ImportProperties properties;
+
+    /**
+     * Record a validated upload as a queued job, and drop the user's old jobs.
+     */
+    @Transactional
+    public ImportJobResponse createJob(String userId, StagedImport staged) {
+        UUID userUuid = UUID.fromString(userId);
+        importJobRepository.deleteByUserIdAndCreatedBefore(userUuid, Instant.now().minus(properties.getRetention()));
+
+        ImportJob job = ImportJob.builder()
+                .id(UUID.randomUUID())
+                .userId(userUuid)
+                .state(ImportState.QUEUED)
+                .linesRead(staged.linesRead())
+                .rejected(staged.rejected())
+                .skipped(staged.skipped())
+                .notesStaged(staged.notes())
+                .errors(staged.errors().isEmpty() ? null : String.join("\n", staged.errors()))
+                .build();
+        ImportJob saved = importJobRepository.save(job);
+        log.info("Import {} queued for user {}: {} notes, {} tags, {} rejected lines",
+                saved.getId(), userId, staged.notes(), staged.tags(), staged.rejected());
+        return toResponse(saved, false);
+    }
+
+    @Transactional
+    public void markLoading(String userId, UUID jobId) {
+        ImportJob job = findJob(userId, jobId);
+        job.setState(ImportState.LOADING);
+        importJobRepository.save(job);
+    }
+
+    /**
+     * Merge a staged upload into the user's data and complete the job, in one transaction.
+     */
+    @Transactional
+    public void load(String userId, UUID jobId, StagedImport staged) {
+        UUID userUuid = UUID.fromString(userId);
+        ImportJob job = findJob(userId, jobId);
+        long started = System.nanoTime();
+
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            execute(connection, STAGING_TABLES);
+            CopyManager copy = connection.unwrap(PGConnection.class).getCopyAPI();
+            copyIn(copy, staged, StagedImport.TAGS, "import_tags (name, color)");
+            copyIn(copy, staged, StagedImport.GEOFENCES,
+                    "import_geofences (source_id, latitude, longitude, radius, address_name, created_at)");
+            copyIn(copy, staged, StagedImport.NOTES,
+                    "import_notes (seq, title, text, pinned, background_color, created_at, last_edited, reminder_time, geofence_ref)");
+            copyIn(copy, staged, StagedImport.NOTE_TAGS, "import_note_tags (note_seq, name)");
+            execute(connection, ANALYZE_STAGING);
+
+            int tagsCreated = update(connection, INSERT_TAGS, userUuid, properties.getDefaultTagColor(), userUuid);
+            execute(connection, "UPDATE import_geofences SET id = nextval(pg_get_serial_sequence('geofence', 'id'))");
+            int geofences = update(connection, INSERT_GEOFENCES, userUuid);
+            execute(connection, "UPDATE import_notes SET id = nextval(pg_get_serial_sequence('notes', 'id'))");
+            int notes = update(connection, INSERT_NOTES, userUuid);
+            int noteTags = update(connection, INSERT_NOTE_TAGS, userUuid, userUuid);
+
+            job.setState(ImportState.COMPLETED);
+            job.setNotesImported(notes);
+            job.setTagsCreated(tagsCreated);
+            job.setGeofencesImported(geofences);
+            job.setFinishedAt(Instant.now());
+            importJobRepository.save(job);
+            log.info("Import {} merged for user {}: {} notes, {} new tags, {} geofences, {} tag links in {} ms",
+                    jobId, userId, notes, tagsCreated, geofences, noteTags, (System.nanoTime() - started) / 1_000_000);
+        } catch (SQLException | IOException e) {
+            throw new IllegalStateException("Import " + jobId + " could not be merged: " + e.getMessage(), e);
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    @Transactional
+    public void fail(String userId, UUID jobId, String error) {
+        ImportJob job = findJob(userId, jobId);
+        job.setState(ImportState.FAILED);
+        job.setErrors(job.getErrors() == null ? error : error + "\n" + job.getErrors());
+        job.setFinishedAt(Instant.now());
+        importJobRepository.save(job);
+    }
+
+    /**
+     * Get an import's progress. A job that stopped moving while queued or loading belongs to
+     * a replica that went away, and is reported as failed.
+     */
+    @DbPriority(PriorityClass.INTERACTIVE)
+    @Transactional(readOnly = true)
+    public ImportJobResponse getJob(String userId, UUID jobId) {
+        ImportJob job = findJob(userId, jobId);
+        boolean stale = (job.getState() == ImportState.QUEUED || job.getState() == ImportState.LOADING)
+                && job.getUpdatedAt().isBefore(Instant.now().minus(properties.getStaleAfter()));
+        return toResponse(job, stale);
+    }
+
+    private ImportJob findJob(String userId, UUID jobId) {
+        return importJobRepository.findByIdAndUserId(jobId, UUID.fromString(userId))
+                .orElseThrow(() -> new ResourceNotFoundException("Import", "id", jobId));
+    }
+
+    private static ImportJobResponse toResponse(ImportJob job, boolean stale) {
+        List<String> errors = new ArrayList<>();
+        if (stale) {
+            errors.add("interrupted: the server running this import stopped");
+        }
+        if (job.getErrors() != null) {
+            errors.addAll(List.of(job.getErrors().split("\n")));
+        }
+        return ImportJobResponse.builder()
+                .id(job.getId())
+                .state(stale ? ImportState.FAILED : job.getState())
+                .linesRead(job.getLinesRead())
+                .rejected(job.getRejected())
+                .skipped(job.getSkipped())
+                .notesStaged(job.getNotesStaged())
+                .notesImported(job.getNotesImported())
+                .tagsCreated(job.getTagsCreated())
+                .geofencesImported(job.getGeofencesImported())
+                .errors(errors)
+                .createdAt(job.getCreatedAt())
+                .updatedAt(job.getUpdatedAt())
+                .finishedAt(job.getFinishedAt())
+                .build();
+    }
+
+    private static void copyIn(CopyManager copy, StagedImport staged, String file, String table)
+            throws SQLException, IOException {
+        try (Reader rows = Files.newBufferedReader(staged.file(file), StandardCharsets.UTF_8)) {
+            copy.copyIn("COPY " + table + " FROM STDIN", rows);
+        }
+    }
+
+    private static void execute(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    private static int update(Connection connection, String sql, Object... parameters) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (int i = 0; i < parameters.length; i++) {
+                statement.setObject(i + 1, parameters[i]);
+            }
+            return statement.executeUpdate();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.csci310.anchornotes.service;
+
+import com.csci310.anchornotes.concurrency.DbPriority;
+import com.csci310.anchornotes.concurrency.PriorityClass;
+import com.csci310.anchornotes.repository.JobLeaseRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Database side of {@link com.csci310.anchornotes.jobs.JobCoordinator}.
+ *
+ * Single-row lease updates run as interactive work: queued behind bulk requests they could
+ * outlive the lease they are renewing. {@link DbPriority} is set per method rather than on
+ * the class because these calls are keyed by job, not user, and must stay out of the
+ * per-user single-flight bookkeeping.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class JobLeaseService {
+
+    private final JobLeaseRepository jobLeaseRepository;
+
+    /**
+     * Make sure the job has exactly {@code partitions} rows, dropping unheld extras.
+     */
+    @Transactional
+    @DbPriority(PriorityClass.INTERACTIVE)
+    public void register(String jobName, int partitions) {
+        int added = jobLeaseRepository.insertMissingPartitions(jobName, partitions);
+        int removed = jobLeaseRepository.deleteExtraPartitions(jobName, partitions);
+        if (added > 0 || removed > 0) {
+            log.info("Job {} registered with {} partitions ({} added, {} removed)", jobName, partitions, added, removed);
+        }
+    }
+
+    @Transactional
+    @DbPriority(PriorityClass.INTERACTIVE)
+    public List<JobLeaseRepository.ClaimedPartition> claimDue(String jobName, String owner, int limit, Duration lease) {
+        return jobLeaseRepository.claimDue(jobName, owner, limit, lease.toMillis());
+    }
+
+    /**
+     * Extend all of the owner's live leases; returns the ones still held as "job:partition".
+     */
+    @Transactional
+    @DbPriority(PriorityClass.INTERACTIVE)
+    public List<String> renewAll(String owner, Duration lease) {
+        return jobLeaseRepository.renewAll(owner, lease.toMillis());
+    }
+
+    /**
+     * Release a partition after a run. Returns false if the lease had already been lost.
+     */
+    @Transactional
+    @DbPriority(PriorityClass.INTERACTIVE)
+    public boolean complete(String jobName, int partition, String owner, Duration interval, String error) {
+        return jobLeaseRepository.complete(jobName, partition, owner, interval.toMillis(), error) > 0;
+    }
+
+    @Transactional
+    @DbPriority(PriorityClass.INTERACTIVE)
+    public int releaseAll(String owner) {
+        return jobLeaseRepository.releaseAll(owner);
+    }
+}
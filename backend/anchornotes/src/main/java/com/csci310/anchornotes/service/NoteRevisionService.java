@@ -0,0 +1,179 @@
+package com.csci310.anchornotes.service;
+
+import com.csci310.anchornotes.concurrency.DbPriority;
+import com.csci310.anchornotes.concurrency.PriorityClass;
+import com.csci310.anchornotes.config.RevisionProperties;
+import com.csci310.anchornotes.dto.note.NoteResponse;
+import com.csci310.anchornotes.dto.revision.RevisionResponse;
+import com.csci310.anchornotes.dto.revision.RevisionSummaryResponse;
+import com.csci310.anchornotes.entity.Note;
+import com.csci310.anchornotes.entity.NoteRevision;
+import com.csci310.anchornotes.events.ChangeEvent;
+import com.csci310.anchornotes.exception.ConflictException;
+import com.csci310.anchornotes.exception.ResourceNotFoundException;
+import com.csci310.anchornotes.repository.NoteRepository;
+import com.csci310.anchornotes.repository.NoteRevisionRepository;
+import com.csci310.anchornotes.util.EntityMapper;
+import com.csci310.anchornotes.util.TextDelta;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Revision history for note text, stored as a delta chain with a full snapshot every
+ * {@code app.revisions.snapshot-interval} revisions.
+ */
+@Service
+@DbPriority(PriorityClass.INTERACTIVE)
+@RequiredArgsConstructor
+@Slf4j
+public class NoteRevisionService {
+
+    private final NoteRevisionRepository noteRevisionRepository;
+    private final NoteRepository noteRepository;
+    private final RevisionProperties revisionProperties;
+    private final EntityMapper entityMapper;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Record the note text as of {@code revision}. Must be called in the transaction that wrote
+     * the note, after the note row has been flushed, with the text it replaced.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(Long noteId, UUID userId, long revision, String title, String previousText, String text) {
+        if (!revisionProperties.isEnabled()) {
+            return;
+        }
+        String current = text != null ? text : "";
+        int interval = Math.max(1, revisionProperties.getSnapshotInterval());
+        Long latest = noteRevisionRepository.findLatestRevision(noteId).orElse(null);
+
+        // A delta is only usable if the revision before it is stored
+        boolean snapshot = revision % interval == 0 || latest == null || latest != revision - 1;
+        byte[] payload = snapshot
+                ? TextDelta.snapshot(current)
+                : TextDelta.diff(previousText != null ? previousText : "", current);
+
+        try {
+            noteRevisionRepository.saveAndFlush(NoteRevision.builder()
+                    .noteId(noteId)
+                    .userId(userId)
+                    .revision(revision)
+                    .snapshot(snapshot)
+                    .title(title)
+                    .payload(payload)
+                    .textLength(current.length())
+                    .build());
+        } catch (DataIntegrityViolationException e) {
+            throw new ConflictException("Note was changed concurrently, reload it and try again");
+        }
+
+        if (snapshot && revision >= revisionProperties.getRetainRevisions()) {
+            int pruned = noteRevisionRepository.deleteBeforeSnapshotAtOrBelow(
+                    noteId, revision - revisionProperties.getRetainRevisions() + 1);
+            if (pruned > 0) {
+                log.debug("Pruned {} revisions of note {}", pruned, noteId);
+            }
+        }
+    }
+
+    /**
+     * List stored revisions of a note, newest first
+     */
+    @Transactional(readOnly = true)
+    public List<RevisionSummaryResponse> listRevisions(String userId, Long noteId) {
+        log.info("Listing revisions of note {} for user: {}", noteId, userId);
+
+        UUID userUuid = UUID.fromString(userId);
+        noteRepository.findTextByIdAndUserId(noteId, userUuid)
+                .orElseThrow(() -> new ResourceNotFoundException("Note not found"));
+
+        return noteRevisionRepository.findSummaries(noteId, userUuid).stream()
+                .map(summary -> RevisionSummaryResponse.builder()
+                        .revision(summary.getRevision())
+                        .title(summary.getTitle())
+                        .length(summary.getTextLength())
+                        .createdAt(summary.getCreatedAt())
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Rebuild one revision of a note
+     */
+    @Transactional(readOnly = true)
+    public RevisionResponse getRevision(String userId, Long noteId, Long revision) {
+        log.info("Fetching revision {} of note {} for user: {}", revision, noteId, userId);
+
+        Reconstructed target = reconstruct(noteId, UUID.fromString(userId), revision);
+        return RevisionResponse.builder()
+                .noteId(noteId.toString())
+                .revision(target.revision().getRevision())
+                .title(target.revision().getTitle())
+                .text(target.text())
+                .createdAt(target.revision().getCreatedAt())
+                .build();
+    }
+
+    /**
+     * Make an old revision the current note text. The restore itself becomes a new revision.
+     */
+    @Transactional
+    public NoteResponse restoreRevision(String userId, Long noteId, Long revision) {
+        log.info("Restoring note {} to revision {} for user: {}", noteId, revision, userId);
+
+        UUID userUuid = UUID.fromString(userId);
+        Note note = noteRepository.findByIdAndUserId(noteId, userUuid)
+                .orElseThrow(() -> new ResourceNotFoundException("Note not found"));
+        Reconstructed target = reconstruct(noteId, userUuid, revision);
+
+        String previousText = note.getText();
+        note.setTitle(target.revision().getTitle());
+        note.setText(target.text());
+        note.setTextVersion(note.getTextVersion() + 1);
+        Note saved = noteRepository.saveAndFlush(note);
+        record(noteId, userUuid, saved.getTextVersion(), saved.getTitle(), previousText, saved.getText());
+        eventPublisher.publishEvent(ChangeEvent.note(userId, noteId, ChangeEvent.Action.UPDATED));
+
+        log.info("Note {} restored to revision {} as revision {}", noteId, revision, saved.getTextVersion());
+        return entityMapper.toNoteResponse(saved);
+    }
+
+    /**
+     * Rebuild the text of a revision. Work is bounded by the snapshot interval:
+     * one snapshot plus at most interval - 1 deltas.
+     */
+    private Reconstructed reconstruct(Long noteId, UUID userId, Long revision) {
+        NoteRevision base = noteRevisionRepository
+                .findTopByNoteIdAndUserIdAndSnapshotTrueAndRevisionLessThanEqualOrderByRevisionDesc(noteId, userId, revision)
+                .orElseThrow(() -> new ResourceNotFoundException("Revision not found"));
+
+        String text = TextDelta.fromSnapshot(base.getPayload());
+        NoteRevision last = base;
+        for (NoteRevision next : noteRevisionRepository.findChain(noteId, base.getRevision(), revision)) {
+            if (next.getRevision() != last.getRevision() + 1) {
+                throw new ResourceNotFoundException("Revision not found");
+            }
+            text = next.getSnapshot()
+                    ? TextDelta.fromSnapshot(next.getPayload())
+                    : TextDelta.apply(text, next.getPayload());
+            last = next;
+        }
+        if (!last.getRevision().equals(revision)) {
+            throw new ResourceNotFoundException("Revision not found");
+        }
+
+        return new Reconstructed(last, text);
+    }
+
+    private record Reconstructed(NoteRevision revision, String text) {
+    }
+}
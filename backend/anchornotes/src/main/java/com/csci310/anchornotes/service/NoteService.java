@@ -1,16 +1,25 @@
 package com.csci310.anchornotes.service;
 
+import com.csci310.anchornotes.concurrency.DbPriority;
+import com.csci310.anchornotes.concurrency.PriorityClass;
+import com.csci310.anchornotes.concurrency.SingleFlight;
 import com.csci310.anchornotes.dto.geofence.GeofenceRequest;
 import com.csci310.anchornotes.dto.note.*;
 import com.csci310.anchornotes.dto.reminder.TimeReminderRequest;
 import com.csci310.anchornotes.entity.Geofence;
 import com.csci310.anchornotes.entity.Note;
 import com.csci310.anchornotes.entity.Tag;
+import com.csci310.anchornotes.events.ChangeEvent;
+import com.csci310.anchornotes.exception.BadRequestException;
+import com.csci310.anchornotes.exception.ConflictException;
 import com.csci310.anchornotes.exception.ResourceNotFoundException;
+import com.csci310.anchornotes.reminder.ReminderChangedEvent;
 import com.csci310.anchornotes.repository.*;
 import com.csci310.anchornotes.util.EntityMapper;
+import com.csci310.anchornotes.util.SnippetFinder;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -24,8 +33,10 @@ import java.time.ZoneId;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
+@DbPriority(PriorityClass.INTERACTIVE)
 @RequiredArgsConstructor
 @Slf4j
 public class NoteService {
@@ -34,6 +45,8 @@ public class NoteService {
     private final TagRepository tagRepository;
     private final GeofenceRepository geofenceRepository;
     private final EntityMapper entityMapper;
+    private final NoteRevisionService noteRevisionService;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Create a new note
@@ -77,6 +90,14 @@ public class NoteService {
         }
 
         Note saved = noteRepository.save(note);
+        noteRevisionService.record(saved.getId(), userUuid, saved.getTextVersion(), saved.getTitle(), null, saved.getText());
+        eventPublisher.publishEvent(ChangeEvent.note(userId, saved.getId(), ChangeEvent.Action.CREATED));
+        if (saved.getGeofence() != null) {
+            eventPublisher.publishEvent(ChangeEvent.geofence(userId, saved.getId(), ChangeEvent.Action.CREATED));
+        }
+        if (saved.getReminderTime() != null) {
+            eventPublisher.publishEvent(new ReminderChangedEvent(userId, saved.getId(), saved.getReminderTime()));
+        }
         log.info("Note created successfully with ID: {}", saved.getId());
 
         return entityMapper.toNoteResponse(saved);
@@ -99,6 +120,8 @@ public class NoteService {
     /**
      * Get all notes for the current user
      */
+    @SingleFlight("notes")
+    @DbPriority(PriorityClass.BULK)
     @Transactional(readOnly = true)
     public List<NoteResponse> getAllNotes(String userId) {
         log.info("Fetching all notes for user: {}", userId);
@@ -124,11 +147,15 @@ public class NoteService {
         Note note = noteRepository.findByIdAndUserId(noteId, userUuid)
                 .orElseThrow(() -> new ResourceNotFoundException("Note not found"));
 
+        String previousText = note.getText();
+        boolean textChanged = request.getText() != null && !request.getText().equals(previousText);
+
         if (request.getTitle() != null) {
             note.setTitle(request.getTitle());
         }
-        if (request.getText() != null) {
+        if (textChanged) {
             note.setText(request.getText());
+            note.setTextVersion(note.getTextVersion() + 1);
         }
         if (request.getPinned() != null) {
             note.setPinned(request.getPinned());
@@ -146,12 +173,71 @@ public class NoteService {
             note.setTags(tags);
         }
 
-        Note updated = noteRepository.save(note);
+        Note updated = noteRepository.saveAndFlush(note);
+        if (textChanged) {
+            noteRevisionService.record(noteId, userUuid, updated.getTextVersion(), updated.getTitle(), previousText, updated.getText());
+        }
+        eventPublisher.publishEvent(ChangeEvent.note(userId, noteId, ChangeEvent.Action.UPDATED));
         log.info("Note {} updated successfully", noteId);
 
         return entityMapper.toNoteResponse(updated);
     }
 
+    /**
+     * Apply a list of edits to the note body against a known base version.
+     * Each edit's offset refers to the text as left by the edits before it.
+     */
+    @Transactional
+    public TextPatchResponse patchText(String userId, Long noteId, TextPatchRequest request) {
+        log.info("Patching text of note {} for user: {} ({} ops)", noteId, userId, request.getOps().size());
+
+        UUID userUuid = UUID.fromString(userId);
+        NoteRepository.NoteText current = noteRepository.findTextByIdAndUserId(noteId, userUuid)
+                .orElseThrow(() -> new ResourceNotFoundException("Note not found"));
+
+        if (!current.getTextVersion().equals(request.getBaseVersion())) {
+            throw new ConflictException("Note text has changed since version " + request.getBaseVersion(),
+                    current.getTextVersion());
+        }
+
+        String patched = applyEdits(current.getText() != null ? current.getText() : "", request.getOps());
+        Instant now = Instant.now();
+        int updated = noteRepository.updateTextIfVersion(noteId, userUuid, request.getBaseVersion(), patched, now);
+        if (updated == 0) {
+            // Another patch committed between our read and write
+            Long latest = noteRepository.findTextByIdAndUserId(noteId, userUuid)
+                    .map(NoteRepository.NoteText::getTextVersion)
+                    .orElseThrow(() -> new ResourceNotFoundException("Note not found"));
+            throw new ConflictException("Note text has changed since version " + request.getBaseVersion(), latest);
+        }
+
+        noteRevisionService.record(noteId, userUuid, request.getBaseVersion() + 1, current.getTitle(), current.getText(), patched);
+        eventPublisher.publishEvent(ChangeEvent.note(userId, noteId, ChangeEvent.Action.UPDATED));
+
+        log.info("Note {} text patched to version {}", noteId, request.getBaseVersion() + 1);
+        return TextPatchResponse.builder()
+                .id(noteId.toString())
+                .textVersion(request.getBaseVersion() + 1)
+                .length(patched.length())
+                .lastEdited(now)
+                .build();
+    }
+
+    static String applyEdits(String text, List<TextPatchRequest.TextEdit> ops) {
+        StringBuilder builder = new StringBuilder(text);
+        for (TextPatchRequest.TextEdit op : ops) {
+            int offset = op.getOffset();
+            int deleteCount = op.getDeleteCount();
+            // compared without adding the two, which could overflow past the check
+            if (offset < 0 || deleteCount < 0 || offset > builder.length() || deleteCount > builder.length() - offset) {
+                throw new BadRequestException("Edit at offset " + offset + " deleting " + deleteCount
+                        + " chars is out of range for text of length " + builder.length());
+            }
+            builder.replace(offset, offset + deleteCount, op.getInsertText() != null ? op.getInsertText() : "");
+        }
+        return builder.toString();
+    }
+
     /**
      * Delete a note
      */
@@ -159,30 +245,57 @@ public class NoteService {
     public void deleteNote(String userId, Long noteId) {
         log.info("Deleting note {} for user: {}", noteId, userId);
 
-        UUID userUuid = UUID.fromString(userId);
-        if (!noteRepository.findByIdAndUserId(noteId, userUuid).isPresent()) {
+        if (deleteOwnedNotes(UUID.fromString(userId), List.of(noteId)).isEmpty()) {
             throw new ResourceNotFoundException("Note not found");
         }
-
-        noteRepository.deleteByIdAndUserId(noteId, userUuid);
+        eventPublisher.publishEvent(ChangeEvent.note(userId, noteId, ChangeEvent.Action.DELETED));
+        eventPublisher.publishEvent(new ReminderChangedEvent(userId, noteId, null));
         log.info("Note {} deleted successfully", noteId);
     }
 
+    /**
+     * Delete many notes in one call. Ids that do not exist or belong to
+     * another user are skipped; returns how many were deleted.
+     */
+    @Transactional
+    public int deleteNotes(String userId, List<Long> noteIds) {
+        log.info("Bulk deleting {} notes for user: {}", noteIds.size(), userId);
+
+        List<Long> deleted = deleteOwnedNotes(UUID.fromString(userId), new HashSet<>(noteIds));
+        if (deleted.isEmpty()) {
+            throw new ResourceNotFoundException("No matching notes found");
+        }
+        for (Long id : deleted) {
+            eventPublisher.publishEvent(ChangeEvent.note(userId, id, ChangeEvent.Action.DELETED));
+            eventPublisher.publishEvent(new ReminderChangedEvent(userId, id, null));
+        }
+        log.info("Deleted {} of {} requested notes", deleted.size(), noteIds.size());
+        return deleted.size();
+    }
+
+    private List<Long> deleteOwnedNotes(UUID userUuid, Collection<Long> noteIds) {
+        noteRepository.deleteTagLinksForNotes(noteIds, userUuid);
+        return noteRepository.deleteByIdsAndUserId(noteIds, userUuid);
+    }
+
     /**
      * Pin or unpin a note
      */
     @Transactional
-    public NoteResponse pinNote(String userId, Long noteId, Boolean pinned) {
+    public NoteStateResponse pinNote(String userId, Long noteId, Boolean pinned) {
         log.info("Setting pin status to {} for note {} and user: {}", pinned, noteId, userId);
 
-        UUID userUuid = UUID.fromString(userId);
-        Note note = noteRepository.findByIdAndUserId(noteId, userUuid)
-                .orElseThrow(() -> new ResourceNotFoundException("Note not found"));
-
-        note.setPinned(pinned);
-        Note updated = noteRepository.save(note);
+        Instant now = Instant.now();
+        if (noteRepository.updatePinned(noteId, UUID.fromString(userId), pinned, now) == 0) {
+            throw new ResourceNotFoundException("Note not found");
+        }
+        eventPublisher.publishEvent(ChangeEvent.note(userId, noteId, ChangeEvent.Action.UPDATED));
 
-        return entityMapper.toNoteResponse(updated);
+        return NoteStateResponse.builder()
+                .id(noteId.toString())
+                .pinned(pinned)
+                .lastEdited(now)
+                .build();
     }
 
     /**
@@ -206,6 +319,7 @@ public class NoteService {
 
         note.setTags(tags);
         Note updated = noteRepository.save(note);
+        eventPublisher.publishEvent(ChangeEvent.note(userId, noteId, ChangeEvent.Action.UPDATED));
 
         return entityMapper.toNoteResponse(updated);
     }
@@ -215,25 +329,28 @@ public class NoteService {
      * NOTE: Does NOT clear geofence - both can coexist
      */
     @Transactional
-    public NoteResponse setTimeReminder(String userId, Long noteId, TimeReminderRequest request) {
+    public NoteStateResponse setTimeReminder(String userId, Long noteId, TimeReminderRequest request) {
         log.info("Setting time reminder for note {} and user: {}", noteId, userId);
 
-        UUID userUuid = UUID.fromString(userId);
-        Note note = noteRepository.findByIdAndUserId(noteId, userUuid)
-                .orElseThrow(() -> new ResourceNotFoundException("Note not found"));
-
         Instant reminderTime = convertToUtc(
                 request.getLocalDateTime(),
                 request.getTimeZone()
         );
 
-        note.setReminderTime(reminderTime);
         // NOTE: Does NOT clear geofence - both can coexist
-
-        Note updated = noteRepository.save(note);
+        Instant now = Instant.now();
+        if (noteRepository.updateReminderTime(noteId, UUID.fromString(userId), reminderTime, now) == 0) {
+            throw new ResourceNotFoundException("Note not found");
+        }
+        eventPublisher.publishEvent(ChangeEvent.note(userId, noteId, ChangeEvent.Action.UPDATED));
+        eventPublisher.publishEvent(new ReminderChangedEvent(userId, noteId, reminderTime));
         log.info("Time reminder set for note {}: {}", noteId, reminderTime);
 
-        return entityMapper.toNoteResponse(updated);
+        return NoteStateResponse.builder()
+                .id(noteId.toString())
+                .reminderTimeUtc(reminderTime)
+                .lastEdited(now)
+                .build();
     }
 
     /**
@@ -253,6 +370,8 @@ public class NoteService {
         // NOTE: Does NOT clear reminderTime - both can coexist
 
         Note updated = noteRepository.save(note);
+        eventPublisher.publishEvent(ChangeEvent.note(userId, noteId, ChangeEvent.Action.UPDATED));
+        eventPublisher.publishEvent(ChangeEvent.geofence(userId, noteId, ChangeEvent.Action.UPDATED));
         log.info("Geofence reminder set for note {}", noteId);
 
         return entityMapper.toNoteResponse(updated);
@@ -265,21 +384,41 @@ public class NoteService {
     public void clearReminders(String userId, Long noteId) {
         log.info("Clearing all reminders for note {} and user: {}", noteId, userId);
 
-        UUID userUuid = UUID.fromString(userId);
-        Note note = noteRepository.findByIdAndUserId(noteId, userUuid)
-                .orElseThrow(() -> new ResourceNotFoundException("Note not found"));
-
-        note.setReminderTime(null);
-        note.setGeofence(null);
-        noteRepository.save(note);
+        if (noteRepository.clearReminders(noteId, UUID.fromString(userId), Instant.now()) == 0) {
+            throw new ResourceNotFoundException("Note not found");
+        }
 
+        eventPublisher.publishEvent(ChangeEvent.note(userId, noteId, ChangeEvent.Action.UPDATED));
+        eventPublisher.publishEvent(ChangeEvent.geofence(userId, noteId, ChangeEvent.Action.DELETED));
+        eventPublisher.publishEvent(new ReminderChangedEvent(userId, noteId, null));
         log.info("All reminders cleared for note {}", noteId);
     }
 
+    /**
+     * Set or clear the background color of a note
+     */
+    @Transactional
+    public NoteStateResponse setBackgroundColor(String userId, Long noteId, String backgroundColor) {
+        log.info("Setting background color for note {} and user: {}", noteId, userId);
+
+        Instant now = Instant.now();
+        if (noteRepository.updateBackgroundColor(noteId, UUID.fromString(userId), backgroundColor, now) == 0) {
+            throw new ResourceNotFoundException("Note not found");
+        }
+        eventPublisher.publishEvent(ChangeEvent.note(userId, noteId, ChangeEvent.Action.UPDATED));
+
+        return NoteStateResponse.builder()
+                .id(noteId.toString())
+                .backgroundColor(backgroundColor)
+                .lastEdited(now)
+                .build();
+    }
+
     /**
      * Get relevant notes (within time window OR inside geofence)
      * CRITICAL: Supports BOTH time and geofence simultaneously
      */
+    @DbPriority(PriorityClass.BULK)
     @Transactional(readOnly = true)
     public List<NoteResponse> getRelevantNotes(String userId, RelevantNotesRequest request) {
         log.info("Fetching relevant notes for user: {}", userId);
@@ -326,6 +465,7 @@ public class NoteService {
     /**
      * Search notes by title and content only
      */
+    @DbPriority(PriorityClass.BULK)
     @Transactional(readOnly = true)
     public SearchResponse searchNotes(String userId, SearchRequest request) {
         log.info("Searching notes for user: {} with query: {}", userId, request.getQ());
@@ -350,17 +490,34 @@ public class NoteService {
                 .map(entityMapper::toNoteResponse)
                 .collect(Collectors.toList());
 
+        // Snippets come from the same rows, so the client can draw the list without full texts
+        Map<String, List<SnippetResponse>> snippets = null;
+        if (!query.isEmpty()) {
+            SnippetFinder finder = new SnippetFinder(query);
+            snippets = new LinkedHashMap<>();
+            for (NoteResponse item : items) {
+                snippets.put(item.getId(), Stream.of(finder.find("title", item.getTitle()), finder.find("text", item.getText()))
+                        .filter(Objects::nonNull)
+                        .toList());
+            }
+        }
+        if (Boolean.FALSE.equals(request.getIncludeText())) {
+            items.forEach(item -> item.setText(null));
+        }
+
         log.info("Search returned {} results out of {} total", items.size(), page.getTotalElements());
 
         return SearchResponse.builder()
                 .total(page.getTotalElements())
                 .items(items)
+                .snippets(snippets)
                 .build();
     }
 
     /**
      * Filter notes with various criteria
      */
+    @DbPriority(PriorityClass.BULK)
     @Transactional(readOnly = true)
     public SearchResponse filterNotes(String userId, com.csci310.anchornotes.dto.note.FilterRequest request) {
         log.info("Filtering notes for user: {}", userId);
@@ -372,16 +529,11 @@ public class NoteService {
 
         UUID userUuid = UUID.fromString(userId);
 
-        // Convert tag IDs list to PostgreSQL array format
-        boolean hasTagFilter = request.getTagIds() != null && !request.getTagIds().isEmpty();
-        String tagIdsArray = hasTagFilter ?
-            "{" + request.getTagIds().stream().map(String::valueOf).collect(Collectors.joining(",")) + "}" :
-            "{}";
-
+        boolean hasTagFilter = hasTagFilter(request);
         Page<Note> page = noteRepository.filterNotes(
                 userUuid,
                 hasTagFilter,
-                tagIdsArray,
+                toTagIdsArray(request),
                 request.getHasPhoto(),
                 request.getHasAudio(),
                 request.getHasLocation(),
@@ -402,8 +554,72 @@ public class NoteService {
                 .build();
     }
 
+    /**
+     * Count matches per tag and per photo/audio/location flag for the current filter,
+     * so the filter screen can show counts and disable options that would return nothing.
+     */
+    @DbPriority(PriorityClass.BULK)
+    @Transactional(readOnly = true)
+    public FacetsResponse getFilterFacets(String userId, com.csci310.anchornotes.dto.note.FilterRequest request) {
+        log.info("Counting filter facets for user: {}", userId);
+
+        List<NoteRepository.FacetCount> rows = noteRepository.countFacets(
+                UUID.fromString(userId),
+                hasTagFilter(request),
+                toTagIdsArray(request),
+                request.getHasPhoto(),
+                request.getHasAudio(),
+                request.getHasLocation(),
+                request.getEditedStart(),
+                request.getEditedEnd()
+        );
+
+        FacetsResponse response = FacetsResponse.builder()
+                .tags(new ArrayList<>())
+                .hasPhoto(new FacetsResponse.FlagCount())
+                .hasAudio(new FacetsResponse.FlagCount())
+                .hasLocation(new FacetsResponse.FlagCount())
+                .build();
+        for (NoteRepository.FacetCount row : rows) {
+            long count = row.getCount();
+            switch (row.getFacet()) {
+                case "total" -> response.setTotal(count);
+                case "tag" -> response.getTags().add(
+                        new FacetsResponse.TagCount(String.valueOf(row.getValue()), count));
+                case "hasPhoto" -> setFlagCount(response.getHasPhoto(), row.getValue(), count);
+                case "hasAudio" -> setFlagCount(response.getHasAudio(), row.getValue(), count);
+                case "hasLocation" -> setFlagCount(response.getHasLocation(), row.getValue(), count);
+                default -> log.warn("Ignoring unknown facet {}", row.getFacet());
+            }
+        }
+
+        log.info("Facets: {} matching notes, {} tags", response.getTotal(), response.getTags().size());
+        return response;
+    }
+
     // Helper methods
 
+    private static boolean hasTagFilter(com.csci310.anchornotes.dto.note.FilterRequest request) {
+        return request.getTagIds() != null && !request.getTagIds().isEmpty();
+    }
+
+    /**
+     * Convert tag IDs list to PostgreSQL array format
+     */
+    private static String toTagIdsArray(com.csci310.anchornotes.dto.note.FilterRequest request) {
+        return hasTagFilter(request) ?
+            "{" + request.getTagIds().stream().map(String::valueOf).collect(Collectors.joining(",")) + "}" :
+            "{}";
+    }
+
+    private static void setFlagCount(FacetsResponse.FlagCount flag, Long value, long count) {
+        if (value != null && value == 1L) {
+            flag.setTrueCount(count);
+        } else {
+            flag.setFalseCount(count);
+        }
+    }
+
     /**
      * Create or find an existing geofence
      */
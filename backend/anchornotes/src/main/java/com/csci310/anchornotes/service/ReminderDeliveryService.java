@@ -0,0 +1,66 @@
+package com.csci310.anchornotes.service;
+
+import com.csci310.anchornotes.concurrency.DbPriority;
+import com.csci310.anchornotes.concurrency.PriorityClass;
+import com.csci310.anchornotes.reminder.DueReminder;
+import com.csci310.anchornotes.repository.ReminderDeliveryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Database side of the reminder scheduler. Runs as bulk work so background loads never
+ * take a connection ahead of user requests.
+ */
+@Service
+@DbPriority(PriorityClass.BULK)
+@RequiredArgsConstructor
+@Slf4j
+public class ReminderDeliveryService {
+
+    private final ReminderDeliveryRepository reminderDeliveryRepository;
+
+    @Transactional(readOnly = true)
+    public List<ReminderDeliveryRepository.PendingReminder> findUndelivered(Instant from, Instant to,
+                                                                             int partition, int partitions) {
+        return reminderDeliveryRepository.findUndelivered(from, to, partition, partitions);
+    }
+
+    /**
+     * Claim the reminder for delivery by {@code owner}. False if it has moved, was already
+     * delivered, or another replica holds an unexpired claim on it.
+     */
+    @Transactional
+    public boolean claim(DueReminder reminder, String owner, Duration claimTimeout) {
+        return reminderDeliveryRepository.claim(reminder.noteId(), UUID.fromString(reminder.userId()),
+                reminder.reminderTime(), owner, claimTimeout.toMillis()) > 0;
+    }
+
+    /**
+     * Record a delivery. Losing this write (crash right after notifying) means the reminder
+     * is delivered again once the claim expires, never skipped.
+     */
+    @Transactional
+    public void markDelivered(DueReminder reminder, String owner) {
+        if (reminderDeliveryRepository.markDelivered(reminder.noteId(), reminder.reminderTime(), owner) == 0) {
+            log.warn("Claim on note {} expired before delivery was recorded; it may be delivered again",
+                    reminder.noteId());
+        }
+    }
+
+    @Transactional
+    public void releaseClaim(DueReminder reminder, String owner) {
+        reminderDeliveryRepository.releaseClaim(reminder.noteId(), reminder.reminderTime(), owner);
+    }
+
+    @Transactional
+    public int deleteOlderThan(Instant cutoff) {
+        return reminderDeliveryRepository.deleteOlderThan(cutoff);
+    }
+}
@@ -0,0 +1,48 @@
+package com.csci310.anchornotes.service;
+
+import com.csci310.anchornotes.concurrency.DbPriority;
+import com.csci310.anchornotes.concurrency.PriorityClass;
+import com.csci310.anchornotes.dto.stats.StatsResponse;
+import com.csci310.anchornotes.entity.UserNoteStats;
+import com.csci310.anchornotes.repository.UserNoteStatsRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.UUID;
+
+@Service
+@DbPriority(PriorityClass.INTERACTIVE)
+@RequiredArgsConstructor
+@Slf4j
+public class StatsService {
+
+    private final UserNoteStatsRepository statsRepository;
+
+    /**
+     * Get note statistics for the statistics screen.
+     * Reads the trigger-maintained counter row, so the cost does not grow with note count.
+     * A user who has never created a note or tag has no row yet and gets zeros.
+     */
+    @Transactional(readOnly = true)
+    public StatsResponse getStats(String userId) {
+        log.info("Fetching stats for user: {}", userId);
+
+        UserNoteStats stats = statsRepository.findById(UUID.fromString(userId))
+                .orElseGet(UserNoteStats::new);
+
+        long total = stats.getTotalNotes();
+        return StatsResponse.builder()
+                .totalNotes(total)
+                .pinnedNotes(stats.getPinnedNotes())
+                .timeReminders(stats.getTimeReminders())
+                .geofenceNotes(stats.getGeofenceNotes())
+                .photoNotes(stats.getPhotoNotes())
+                .audioNotes(stats.getAudioNotes())
+                .totalTags(stats.getTotalTags())
+                .averageTagsPerNote(total == 0 ? 0.0 : (double) stats.getTagAssignments() / total)
+                .updatedAt(stats.getUpdatedAt())
+                .build();
+    }
+}
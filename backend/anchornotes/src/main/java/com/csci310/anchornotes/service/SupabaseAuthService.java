@@ -1,32 +1,69 @@
 package com.csci310.anchornotes.service;
 
+import com.csci310.anchornotes.concurrency.CircuitBreaker;
 import com.csci310.anchornotes.config.SupabaseConfig;
+import com.csci310.anchornotes.config.SupabaseHttpProperties;
 import com.csci310.anchornotes.dto.AuthRequest;
 import com.csci310.anchornotes.dto.AuthResponse;
 import com.csci310.anchornotes.dto.RegisterRequest;
 import com.csci310.anchornotes.exception.BadRequestException;
+import com.csci310.anchornotes.exception.ServiceUnavailableException;
 import com.csci310.anchornotes.exception.UnauthorizedException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import lombok.RequiredArgsConstructor;
+import com.fasterxml.jackson.databind.node.MissingNode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
 
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class SupabaseAuthService {
 
+    private static final String UNAVAILABLE_MESSAGE = "Authentication service is temporarily unavailable, please retry shortly";
+
     private final SupabaseConfig supabaseConfig;
-    private final RestTemplate restTemplate = new RestTemplate();
+    private final RestTemplate restTemplate;
+    private final SupabaseHttpProperties.Retry retry;
+    private final CircuitBreaker circuitBreaker;
+    private final Counter retries;
+    private final Counter rejected;
     private final ObjectMapper objectMapper = new ObjectMapper();
 
+    public SupabaseAuthService(SupabaseConfig supabaseConfig,
+                               RestTemplate supabaseRestTemplate,
+                               SupabaseHttpProperties httpProperties,
+                               MeterRegistry meterRegistry) {
+        this.supabaseConfig = supabaseConfig;
+        this.restTemplate = supabaseRestTemplate;
+        this.retry = httpProperties.getRetry();
+
+        SupabaseHttpProperties.Breaker breaker = httpProperties.getCircuitBreaker();
+        this.circuitBreaker = new CircuitBreaker("supabase-auth", breaker.getSlidingWindowSize(),
+                breaker.getMinimumCalls(), breaker.getFailureRateThreshold(),
+                breaker.getOpenDuration(), breaker.getHalfOpenCalls());
+
+        Gauge.builder("app.supabase.auth.circuit.state", circuitBreaker, cb -> cb.getState().ordinal())
+                .description("0 = closed, 1 = open, 2 = half-open")
+                .register(meterRegistry);
+        this.retries = Counter.builder("app.supabase.auth.retries").register(meterRegistry);
+        this.rejected = Counter.builder("app.supabase.auth.rejected")
+                .description("Calls refused because the circuit breaker was open")
+                .register(meterRegistry);
+    }
+
     public AuthResponse register(RegisterRequest request) {
         log.info("Registering user with Supabase: {}", request.getEmail());
 
@@ -48,15 +85,9 @@ public class SupabaseAuthService {
 
             HttpEntity<Map<String, Object>> entity = new HttpEntity<>(body, headers);
 
-            ResponseEntity<String> response = restTemplate.exchange(
-                    url,
-                    HttpMethod.POST,
-                    entity,
-                    String.class
-            );
-
-            log.debug("Supabase registration response: {}", response.getBody());
-            JsonNode jsonResponse = objectMapper.readTree(response.getBody());
+            // Signup creates an account, so it is never retried
+            JsonNode jsonResponse = call(url, HttpMethod.POST, entity, false);
+            log.debug("Supabase registration response: {}", jsonResponse);
 
             String email = request.getEmail();
             String accessToken = null;
@@ -106,6 +137,8 @@ public class SupabaseAuthService {
         } catch (HttpClientErrorException e) {
             log.error("Error registering user with Supabase: {}", e.getResponseBodyAsString());
             throw new BadRequestException("Registration failed: " + extractErrorMessage(e.getResponseBodyAsString()));
+        } catch (ServiceUnavailableException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Unexpected error during registration", e);
             throw new BadRequestException("Registration failed: " + e.getMessage());
@@ -128,18 +161,12 @@ public class SupabaseAuthService {
 
             HttpEntity<Map<String, String>> entity = new HttpEntity<>(body, headers);
 
-            ResponseEntity<String> response = restTemplate.exchange(
-                    url,
-                    HttpMethod.POST,
-                    entity,
-                    String.class
-            );
-
-            log.debug("Supabase login response: {}", response.getBody());
-            JsonNode jsonResponse = objectMapper.readTree(response.getBody());
+            // A password grant only issues a new session, so repeating it is safe
+            JsonNode jsonResponse = call(url, HttpMethod.POST, entity, true);
+            log.debug("Supabase login response: {}", jsonResponse);
 
             if (!jsonResponse.has("access_token")) {
-                log.error("No access_token in response: {}", response.getBody());
+                log.error("No access_token in response: {}", jsonResponse);
                 throw new UnauthorizedException("Login failed: Invalid response from Supabase");
             }
 
@@ -178,6 +205,8 @@ public class SupabaseAuthService {
         } catch (HttpClientErrorException e) {
             log.error("Error logging in user with Supabase: {}", e.getResponseBodyAsString());
             throw new UnauthorizedException("Login failed: Invalid credentials");
+        } catch (ServiceUnavailableException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Unexpected error during login", e);
             throw new UnauthorizedException("Login failed: " + e.getMessage());
@@ -214,16 +243,12 @@ public class SupabaseAuthService {
 
             HttpEntity<Map<String, String>> entity = new HttpEntity<>(body, headers);
 
-            ResponseEntity<String> response = restTemplate.exchange(
-                    url,
-                    HttpMethod.PUT,
-                    entity,
-                    String.class
-            );
+            // Setting the password to the same value twice has the same effect as once
+            call(url, HttpMethod.PUT, entity, true);
 
             log.info("Password changed successfully");
 
-        } catch (BadRequestException e) {
+        } catch (BadRequestException | ServiceUnavailableException e) {
             throw e;
         } catch (HttpClientErrorException e) {
             log.error("Error changing password with Supabase: {}", e.getResponseBodyAsString());
@@ -244,19 +269,14 @@ public class SupabaseAuthService {
 
             HttpEntity<Void> entity = new HttpEntity<>(headers);
 
-            ResponseEntity<String> response = restTemplate.exchange(
-                    url,
-                    HttpMethod.GET,
-                    entity,
-                    String.class
-            );
-
-            JsonNode jsonResponse = objectMapper.readTree(response.getBody());
+            JsonNode jsonResponse = call(url, HttpMethod.GET, entity, true);
             if (jsonResponse.has("email")) {
                 return jsonResponse.get("email").asText();
             }
 
             throw new BadRequestException("Could not extract email from token");
+        } catch (ServiceUnavailableException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Error getting user email from token", e);
             throw new BadRequestException("Invalid access token");
@@ -277,21 +297,14 @@ public class SupabaseAuthService {
 
             HttpEntity<Map<String, String>> entity = new HttpEntity<>(body, headers);
 
-            ResponseEntity<String> response = restTemplate.exchange(
-                    url,
-                    HttpMethod.POST,
-                    entity,
-                    String.class
-            );
-
-            JsonNode jsonResponse = objectMapper.readTree(response.getBody());
+            JsonNode jsonResponse = call(url, HttpMethod.POST, entity, true);
             if (!jsonResponse.has("access_token")) {
                 throw new UnauthorizedException("Current password is incorrect");
             }
         } catch (HttpClientErrorException e) {
             log.error("Current password verification failed: {}", e.getResponseBodyAsString());
             throw new UnauthorizedException("Current password is incorrect");
-        } catch (UnauthorizedException e) {
+        } catch (UnauthorizedException | ServiceUnavailableException e) {
             throw e;
         } catch (Exception e) {
             log.error("Error verifying current password", e);
@@ -299,6 +312,67 @@ public class SupabaseAuthService {
         }
     }
 
+    /**
+     * Sends one request through the circuit breaker and returns the parsed body. The JSON is
+     * read straight from the response stream by the message converter.
+     *
+     * 4xx responses are passed through to the caller as {@link HttpClientErrorException} and do
+     * not count against the breaker. 5xx responses, timeouts and connection failures count as
+     * failures; idempotent calls are retried with jittered exponential backoff up to the
+     * configured attempts, and once those are exhausted (or the breaker is open) the call fails
+     * with {@link ServiceUnavailableException}. Any other client error (an unknown status code,
+     * a body that cannot be read) is recorded as a failure and rethrown without retrying.
+     */
+    private JsonNode call(String url, HttpMethod method, HttpEntity<?> entity, boolean idempotent) {
+        int maxAttempts = idempotent ? Math.max(1, retry.getMaxAttempts()) : 1;
+        long backoffMillis = retry.getInitialBackoff().toMillis();
+
+        for (int attempt = 1; ; attempt++) {
+            if (!circuitBreaker.tryAcquirePermission()) {
+                rejected.increment();
+                log.warn("Supabase auth circuit is open, rejecting {} {}", method, url);
+                throw new ServiceUnavailableException(UNAVAILABLE_MESSAGE);
+            }
+
+            try {
+                ResponseEntity<JsonNode> response = restTemplate.exchange(url, method, entity, JsonNode.class);
+                circuitBreaker.onSuccess();
+                return response.getBody() != null ? response.getBody() : MissingNode.getInstance();
+            } catch (HttpClientErrorException e) {
+                circuitBreaker.onSuccess();
+                throw e;
+            } catch (HttpServerErrorException | ResourceAccessException e) {
+                circuitBreaker.onFailure();
+                if (attempt >= maxAttempts) {
+                    log.error("Supabase auth call {} {} failed after {} attempt(s): {}", method, url, attempt, e.getMessage());
+                    throw new ServiceUnavailableException(UNAVAILABLE_MESSAGE);
+                }
+                log.warn("Supabase auth call {} {} failed (attempt {}/{}), retrying: {}", method, url, attempt, maxAttempts, e.getMessage());
+                retries.increment();
+                sleep(backoffMillis + ThreadLocalRandom.current().nextLong(backoffMillis + 1));
+                backoffMillis *= 2;
+            } catch (RestClientException e) {
+                // unknown status codes, unreadable bodies and the like: not retried, but the
+                // breaker still has to hear about the call or a half-open probe slot is lost
+                circuitBreaker.onFailure();
+                throw e;
+            }
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException(UNAVAILABLE_MESSAGE);
+        }
+    }
+
+    CircuitBreaker.State getCircuitState() {
+        return circuitBreaker.getState();
+    }
+
     private String extractErrorMessage(String responseBody) {
         try {
             JsonNode json = objectMapper.readTree(responseBody);
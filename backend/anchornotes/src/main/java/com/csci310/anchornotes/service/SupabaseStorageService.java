@@ -1,16 +1,24 @@
 package com.csci310.anchornotes.service;
 
 import com.csci310.anchornotes.config.SupabaseConfig;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.InputStreamSource;
 import org.springframework.stereotype.Service;
-import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @Service
@@ -18,8 +26,17 @@ import java.util.UUID;
 @Slf4j
 public class SupabaseStorageService {
 
+    private static final Duration DELETE_TIMEOUT = Duration.ofSeconds(30);
+
     private final SupabaseConfig supabaseConfig;
 
+    // Shared so downloads and thumbnail uploads reuse connections instead of opening one client per file
+    private final HttpClient storageClient = HttpClient.newBuilder()
+        .followRedirects(HttpClient.Redirect.NORMAL)
+        .build();
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
     /**
      * Generate a pre-signed upload URL for file upload
      * @param bucket - "Photo" or "Voice"
@@ -65,66 +82,164 @@ public class SupabaseStorageService {
     }
 
     /**
-     * Upload file directly to Supabase Storage from backend
-     * @param bucket - bucket name (e.g., "attachment")
-     * @param file - multipart file from request
-     * @return FileUploadResponse with file path and public URL
+     * Open a stored file for reading without loading it into memory. The body is pulled from
+     * the connection only as fast as the caller reads it.
+     * @param bucket - bucket to use when mediaUrl is a bare file path
+     * @param mediaUrl - public URL or file path as saved on the attachment
+     * @param timeout - connect and response-header timeout
+     * @return file content; the caller must close it
      */
-    public FileUploadResponse uploadFile(String bucket, MultipartFile file) throws IOException {
-        // Generate unique file path
-        String uniqueFileName = UUID.randomUUID().toString() + "_" + file.getOriginalFilename();
-
-        // Construct upload URL
-        String uploadUrl = String.format(
-            "%s/storage/v1/object/%s/%s",
-            supabaseConfig.getUrl(),
-            bucket,
-            uniqueFileName
-        );
+    public InputStream openFile(String bucket, String mediaUrl, Duration timeout) throws IOException {
+        return fetchObject(objectPath(bucket, mediaUrl), null, timeout).body();
+    }
 
-        log.info("Uploading file: {} to bucket: {} (size: {} bytes)", uniqueFileName, bucket, file.getSize());
+    /**
+     * Start reading a stored file, or part of it, and return as soon as the headers arrive
+     * @param objectPath - bucket and file path, as returned by objectPath
+     * @param range - Range header to send, or null for the whole file
+     * @param timeout - connect and response-header timeout
+     * @return the response, whose body the caller must close; 200, 206, or 416 when the range is past the end
+     */
+    public HttpResponse<InputStream> fetchObject(String objectPath, String range, Duration timeout) throws IOException {
+        HttpRequest.Builder builder = HttpRequest.newBuilder()
+            .uri(URI.create(supabaseConfig.getUrl() + "/storage/v1/object/" + objectPath))
+            .header("Authorization", "Bearer " + supabaseConfig.getServiceRole())
+            .timeout(timeout)
+            .GET();
+        if (range != null) {
+            builder.header("Range", range);
+        }
 
         try {
-            // Create HTTP client
-            HttpClient client = HttpClient.newHttpClient();
-
-            // Build request with file content
-            HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(uploadUrl))
-                .header("Authorization", "Bearer " + supabaseConfig.getServiceRole())
-                .header("Content-Type", file.getContentType())
-                .POST(HttpRequest.BodyPublishers.ofByteArray(file.getBytes()))
-                .build();
-
-            // Send request
-            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
-
-            if (response.statusCode() >= 200 && response.statusCode() < 300) {
-                log.info("File uploaded successfully: {}", uniqueFileName);
-                String publicUrl = getPublicUrl(bucket, uniqueFileName);
-                return new FileUploadResponse(uniqueFileName, publicUrl);
-            } else {
-                log.error("Failed to upload file. Status: {}, Response: {}", response.statusCode(), response.body());
-                throw new IOException("Failed to upload file to Supabase Storage: " + response.body());
+            HttpResponse<InputStream> response = storageClient.send(builder.build(), HttpResponse.BodyHandlers.ofInputStream());
+            int status = response.statusCode();
+            if ((status >= 200 && status < 300) || (status == 416 && range != null)) {
+                return response;
             }
+            response.body().close();
+            throw new IOException("Storage returned " + status + " for " + objectPath);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Download interrupted", e);
+        }
+    }
+
+    /**
+     * Store bytes at a path, replacing any object already there
+     * @param objectPath - bucket and file path, as returned by objectPath
+     * @param content - file content
+     * @param contentType - MIME type to serve it with
+     * @param timeout - request timeout
+     */
+    public void putObject(String objectPath, byte[] content, String contentType, Duration timeout) throws IOException {
+        send(objectPath, HttpRequest.BodyPublishers.ofByteArray(content), contentType, timeout);
+    }
 
+    /**
+     * Stream a file to a path, replacing any object already there. The content is read as it
+     * is sent rather than copied into memory first.
+     * @param objectPath - bucket and file path, as returned by objectPath
+     * @param content - file content, opened once
+     * @param size - content length in bytes
+     * @param contentType - MIME type to serve it with, or null
+     * @param timeout - request timeout
+     */
+    public void putObject(String objectPath, InputStreamSource content, long size, String contentType, Duration timeout) throws IOException {
+        HttpRequest.BodyPublisher body = HttpRequest.BodyPublishers.fromPublisher(
+            HttpRequest.BodyPublishers.ofInputStream(() -> {
+                try {
+                    return content.getInputStream();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }),
+            size);
+        log.info("Uploading file: {} (size: {} bytes)", objectPath, size);
+        send(objectPath, body, contentType != null ? contentType : "application/octet-stream", timeout);
+    }
+
+    private void send(String objectPath, HttpRequest.BodyPublisher body, String contentType, Duration timeout) throws IOException {
+        HttpRequest request = HttpRequest.newBuilder()
+            .uri(URI.create(supabaseConfig.getUrl() + "/storage/v1/object/" + objectPath))
+            .header("Authorization", "Bearer " + supabaseConfig.getServiceRole())
+            .header("Content-Type", contentType)
+            .header("x-upsert", "true")
+            .timeout(timeout)
+            .POST(body)
+            .build();
+
+        try {
+            HttpResponse<String> response = storageClient.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() < 200 || response.statusCode() >= 300) {
+                throw new IOException("Storage returned " + response.statusCode() + " for " + objectPath + ": " + response.body());
+            }
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
-            log.error("Upload interrupted", e);
             throw new IOException("Upload interrupted", e);
         }
     }
 
+    /**
+     * Bucket and file path of a stored file
+     * @param bucket - bucket to use when mediaUrl is a bare file path
+     * @param mediaUrl - public URL or file path as saved on the attachment
+     */
+    public String objectPath(String bucket, String mediaUrl) {
+        String publicPrefix = supabaseConfig.getUrl() + "/storage/v1/object/public/";
+        return mediaUrl.startsWith(publicPrefix)
+            ? mediaUrl.substring(publicPrefix.length())
+            : bucket + "/" + mediaUrl;
+    }
+
     /**
      * Delete a file from storage
-     * @param bucket - "Photo" or "Voice"
-     * @param filePath - file path
+     * @param bucket - bucket to use when filePath is a bare file path
+     * @param filePath - public URL or file path
+     */
+    public void deleteFile(String bucket, String filePath) throws IOException {
+        deleteFiles(bucket, List.of(filePath));
+    }
+
+    /**
+     * Delete files from storage. Files that are already gone are skipped, so a caller can list
+     * every file that might exist (thumbnails, a kept original) without checking first.
+     * @param bucket - bucket to use for bare file paths
+     * @param filePaths - public URLs or file paths
      */
-    public void deleteFile(String bucket, String filePath) {
-        // In a real implementation, you would call the Supabase Storage API
-        // to delete the file using the service role key
-        log.info("Deleting file: {} from bucket: {}", filePath, bucket);
-        // TODO: Implement actual deletion via Supabase Storage API
+    public void deleteFiles(String bucket, List<String> filePaths) throws IOException {
+        Map<String, List<String>> namesByBucket = new LinkedHashMap<>();
+        for (String filePath : filePaths) {
+            String objectPath = objectPath(bucket, filePath);
+            int slash = objectPath.indexOf('/');
+            namesByBucket.computeIfAbsent(objectPath.substring(0, slash), b -> new ArrayList<>())
+                .add(objectPath.substring(slash + 1));
+        }
+        for (Map.Entry<String, List<String>> entry : namesByBucket.entrySet()) {
+            log.info("Deleting {} file(s) from bucket: {}", entry.getValue().size(), entry.getKey());
+            delete(entry.getKey(), entry.getValue());
+        }
+    }
+
+    // The bulk delete answers 200 with the objects it removed, leaving out names it did not find
+    private void delete(String bucket, List<String> names) throws IOException {
+        HttpRequest request = HttpRequest.newBuilder()
+            .uri(URI.create(supabaseConfig.getUrl() + "/storage/v1/object/" + bucket))
+            .header("Authorization", "Bearer " + supabaseConfig.getServiceRole())
+            .header("Content-Type", "application/json")
+            .timeout(DELETE_TIMEOUT)
+            .method("DELETE", HttpRequest.BodyPublishers.ofByteArray(
+                objectMapper.writeValueAsBytes(Map.of("prefixes", names))))
+            .build();
+
+        try {
+            HttpResponse<String> response = storageClient.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() < 200 || response.statusCode() >= 300) {
+                throw new IOException("Storage returned " + response.statusCode() + " deleting from " + bucket + ": " + response.body());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Delete interrupted", e);
+        }
     }
 
     // Inner class for upload URL response
@@ -145,23 +260,4 @@ public class SupabaseStorageService {
             return filePath;
         }
     }
-
-    // Inner class for file upload response
-    public static class FileUploadResponse {
-        private final String filePath;
-        private final String publicUrl;
-
-        public FileUploadResponse(String filePath, String publicUrl) {
-            this.filePath = filePath;
-            this.publicUrl = publicUrl;
-        }
-
-        public String getFilePath() {
-            return filePath;
-        }
-
-        public String getPublicUrl() {
-            return publicUrl;
-        }
-    }
 }
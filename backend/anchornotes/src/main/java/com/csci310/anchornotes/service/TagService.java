@@ -1,32 +1,42 @@
 package com.csci310.anchornotes.service;
 
+import com.csci310.anchornotes.concurrency.DbPriority;
+import com.csci310.anchornotes.concurrency.PriorityClass;
+import com.csci310.anchornotes.concurrency.SingleFlight;
 import com.csci310.anchornotes.dto.tag.CreateTagRequest;
 import com.csci310.anchornotes.dto.tag.TagResponse;
 import com.csci310.anchornotes.entity.Tag;
+import com.csci310.anchornotes.events.ChangeEvent;
 import com.csci310.anchornotes.exception.BadRequestException;
 import com.csci310.anchornotes.exception.ResourceNotFoundException;
 import com.csci310.anchornotes.repository.TagRepository;
 import com.csci310.anchornotes.util.EntityMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Service
+@DbPriority(PriorityClass.INTERACTIVE)
 @RequiredArgsConstructor
 @Slf4j
 public class TagService {
 
     private final TagRepository tagRepository;
     private final EntityMapper entityMapper;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Get all tags for a user
      */
+    @SingleFlight("tags")
     public List<TagResponse> getAllTags(String userId) {
         log.info("Fetching all tags for user: {}", userId);
 
@@ -59,6 +69,7 @@ public class TagService {
                 .build();
 
         Tag saved = tagRepository.save(tag);
+        eventPublisher.publishEvent(ChangeEvent.tag(userId, saved.getId(), ChangeEvent.Action.CREATED));
         log.info("Tag created successfully with ID: {}", saved.getId());
 
         return entityMapper.toTagResponse(saved);
@@ -71,13 +82,34 @@ public class TagService {
     public void deleteTag(String userId, Long tagId) {
         log.info("Deleting tag {} for user: {}", tagId, userId);
 
-        UUID userUuid = UUID.fromString(userId);
-
-        if (!tagRepository.findByIdAndUserId(tagId, userUuid).isPresent()) {
+        if (deleteOwnedTags(UUID.fromString(userId), List.of(tagId)).isEmpty()) {
             throw new ResourceNotFoundException("Tag not found");
         }
-
-        tagRepository.deleteByIdAndUserId(tagId, userUuid);
+        eventPublisher.publishEvent(ChangeEvent.tag(userId, tagId, ChangeEvent.Action.DELETED));
         log.info("Tag {} deleted successfully", tagId);
     }
+
+    /**
+     * Delete many tags in one call, removing them from every note and template.
+     * Returns how many tags were deleted.
+     */
+    @Transactional
+    public int deleteTags(String userId, List<Long> tagIds) {
+        log.info("Bulk deleting {} tags for user: {}", tagIds.size(), userId);
+
+        List<Long> deleted = deleteOwnedTags(UUID.fromString(userId), new HashSet<>(tagIds));
+        if (deleted.isEmpty()) {
+            throw new ResourceNotFoundException("No matching tags found");
+        }
+        deleted.forEach(id ->
+                eventPublisher.publishEvent(ChangeEvent.tag(userId, id, ChangeEvent.Action.DELETED)));
+        log.info("Deleted {} of {} requested tags", deleted.size(), tagIds.size());
+        return deleted.size();
+    }
+
+    private List<Long> deleteOwnedTags(UUID userUuid, Collection<Long> tagIds) {
+        tagRepository.deleteNoteLinksForTags(tagIds, userUuid);
+        tagRepository.deleteTemplateLinksForTags(tagIds, userUuid);
+        return tagRepository.deleteByIdsAndUserId(tagIds, userUuid);
+    }
 }
@@ -1,11 +1,14 @@
 package com.csci310.anchornotes.service;
 
+import com.csci310.anchornotes.concurrency.DbPriority;
+import com.csci310.anchornotes.concurrency.PriorityClass;
 import com.csci310.anchornotes.dto.note.NoteResponse;
 import com.csci310.anchornotes.dto.template.CreateTemplateRequest;
 import com.csci310.anchornotes.dto.template.InstantiateTemplateRequest;
 import com.csci310.anchornotes.dto.template.TemplateResponse;
 import com.csci310.anchornotes.dto.template.UpdateTemplateRequest;
 import com.csci310.anchornotes.entity.*;
+import com.csci310.anchornotes.events.ChangeEvent;
 import com.csci310.anchornotes.exception.ResourceNotFoundException;
 import com.csci310.anchornotes.repository.GeofenceRepository;
 import com.csci310.anchornotes.repository.NoteRepository;
@@ -14,9 +17,11 @@ import com.csci310.anchornotes.repository.TemplateRepository;
 import com.csci310.anchornotes.util.EntityMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -24,6 +29,7 @@ import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Service
+@DbPriority(PriorityClass.INTERACTIVE)
 @RequiredArgsConstructor
 @Slf4j
 public class TemplateService {
@@ -33,10 +39,12 @@ public class TemplateService {
     private final GeofenceRepository geofenceRepository;
     private final NoteRepository noteRepository;
     private final EntityMapper entityMapper;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Get all templates for a user
      */
+    @DbPriority(PriorityClass.BULK)
     @Transactional(readOnly = true)
     public List<TemplateResponse> getAllTemplates(String userId) {
         log.info("Fetching all templates for user: {}", userId);
@@ -88,6 +96,7 @@ public class TemplateService {
         }
 
         Template saved = templateRepository.save(template);
+        eventPublisher.publishEvent(ChangeEvent.template(userId, saved.getId(), ChangeEvent.Action.CREATED));
         log.info("Template created successfully with ID: {}", saved.getId());
 
         return entityMapper.toTemplateResponse(saved);
@@ -140,6 +149,7 @@ public class TemplateService {
         }
 
         Template updated = templateRepository.save(template);
+        eventPublisher.publishEvent(ChangeEvent.template(userId, templateId, ChangeEvent.Action.UPDATED));
         log.info("Template {} updated successfully", templateId);
 
         return entityMapper.toTemplateResponse(updated);
@@ -152,19 +162,39 @@ public class TemplateService {
     public void deleteTemplate(String userId, Long templateId) {
         log.info("Deleting template {} for user: {}", templateId, userId);
 
-        UUID userUuid = UUID.fromString(userId);
-
-        if (!templateRepository.findByIdAndUserId(templateId, userUuid).isPresent()) {
+        if (deleteOwnedTemplates(UUID.fromString(userId), List.of(templateId)).isEmpty()) {
             throw new ResourceNotFoundException("Template not found");
         }
-
-        templateRepository.deleteByIdAndUserId(templateId, userUuid);
+        eventPublisher.publishEvent(ChangeEvent.template(userId, templateId, ChangeEvent.Action.DELETED));
         log.info("Template {} deleted successfully", templateId);
     }
 
+    /**
+     * Delete many templates in one call. Returns how many were deleted.
+     */
+    @Transactional
+    public int deleteTemplates(String userId, List<Long> templateIds) {
+        log.info("Bulk deleting {} templates for user: {}", templateIds.size(), userId);
+
+        List<Long> deleted = deleteOwnedTemplates(UUID.fromString(userId), new HashSet<>(templateIds));
+        if (deleted.isEmpty()) {
+            throw new ResourceNotFoundException("No matching templates found");
+        }
+        deleted.forEach(id ->
+                eventPublisher.publishEvent(ChangeEvent.template(userId, id, ChangeEvent.Action.DELETED)));
+        log.info("Deleted {} of {} requested templates", deleted.size(), templateIds.size());
+        return deleted.size();
+    }
+
+    private List<Long> deleteOwnedTemplates(UUID userUuid, Collection<Long> templateIds) {
+        templateRepository.deleteTagLinksForTemplates(templateIds, userUuid);
+        return templateRepository.deleteByIdsAndUserId(templateIds, userUuid);
+    }
+
     /**
      * Instantiate a template to create a new note
      */
+    @DbPriority(PriorityClass.BULK)
     @Transactional
     public NoteResponse instantiateTemplate(String userId, Long templateId, InstantiateTemplateRequest request) {
         log.info("Instantiating template {} for user: {}", templateId, userId);
@@ -186,6 +216,10 @@ public class TemplateService {
                 .build();
 
         Note saved = noteRepository.save(note);
+        eventPublisher.publishEvent(ChangeEvent.note(userId, saved.getId(), ChangeEvent.Action.CREATED));
+        if (saved.getGeofence() != null) {
+            eventPublisher.publishEvent(ChangeEvent.geofence(userId, saved.getId(), ChangeEvent.Action.CREATED));
+        }
         log.info("Template {} instantiated to note {}", templateId, saved.getId());
 
         return entityMapper.toNoteResponse(saved);
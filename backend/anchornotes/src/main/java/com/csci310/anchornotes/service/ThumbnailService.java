@@ -0,0 +1,47 @@
+package com.csci310.anchornotes.service;
+
+import com.csci310.anchornotes.concurrency.DbPriority;
+import com.csci310.anchornotes.concurrency.PriorityClass;
+import com.csci310.anchornotes.events.ChangeEvent;
+import com.csci310.anchornotes.repository.PhotoAttachmentRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Database side of the thumbnail pipeline. Runs as bulk work so resizing never takes a
+ * connection ahead of user requests.
+ */
+@Service
+@DbPriority(PriorityClass.BULK)
+@RequiredArgsConstructor
+@Slf4j
+public class ThumbnailService {
+
+    private final PhotoAttachmentRepository attachmentRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Record the thumbnails stored for a photo ("" when it could not have any), and tell the
+     * note's other devices so they switch to them. False if the photo is gone.
+     */
+    @Transactional
+    public boolean recordThumbnails(String userId, Long noteId, Long attachmentId, String sizes) {
+        int updated = attachmentRepository.updateThumbnailSizes(attachmentId, UUID.fromString(userId), sizes);
+        if (updated > 0 && noteId != null && !sizes.isEmpty()) {
+            eventPublisher.publishEvent(ChangeEvent.note(userId, noteId, ChangeEvent.Action.UPDATED));
+        }
+        return updated > 0;
+    }
+
+    @Transactional(readOnly = true)
+    public List<PhotoAttachmentRepository.MissingThumbnails> findMissing(Instant createdBefore, int limit) {
+        return attachmentRepository.findMissingThumbnails(createdBefore, limit);
+    }
+}
@@ -0,0 +1,188 @@
+package com.csci310.anchornotes.service;
+
+import com.csci310.anchornotes.concurrency.DbPriority;
+import com.csci310.anchornotes.concurrency.PriorityClass;
+import com.csci310.anchornotes.config.UploadProperties;
+import com.csci310.anchornotes.dto.note.NoteResponse;
+import com.csci310.anchornotes.dto.upload.CreateUploadRequest;
+import com.csci310.anchornotes.dto.upload.UploadSessionResponse;
+import com.csci310.anchornotes.entity.UploadSession;
+import com.csci310.anchornotes.entity.UploadState;
+import com.csci310.anchornotes.exception.BadRequestException;
+import com.csci310.anchornotes.exception.ConflictException;
+import com.csci310.anchornotes.exception.ResourceNotFoundException;
+import com.csci310.anchornotes.repository.NoteRepository;
+import com.csci310.anchornotes.repository.UploadSessionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Locale;
+import java.util.UUID;
+
+/**
+ * Database side of resumable uploads: the sessions and the chunks received so far. A chunk
+ * and the offset it advances are written in one transaction, so after any interruption the
+ * offset a client reads back is exactly what is stored.
+ */
+@Service
+@DbPriority(PriorityClass.BULK)
+@RequiredArgsConstructor
+@Slf4j
+public class UploadSessionService {
+
+    private final UploadSessionRepository sessionRepository;
+    private final NoteRepository noteRepository;
+    private final AttachmentService attachmentService;
+    private final UploadProperties properties;
+
+    @Transactional
+    public UploadSessionResponse create(String userId, CreateUploadRequest request) {
+        UUID userUuid = UUID.fromString(userId);
+        if (request.getSize() > properties.getMaxSizeBytes()) {
+            throw new BadRequestException("File is larger than " + properties.getMaxSizeBytes() + " bytes");
+        }
+        noteRepository.findByIdAndUserId(request.getNoteId(), userUuid)
+                .orElseThrow(() -> new ResourceNotFoundException("Note not found"));
+        if (sessionRepository.countByUserIdAndState(userUuid, UploadState.OPEN) >= properties.getMaxOpenSessions()) {
+            throw new ConflictException("Too many uploads in progress; finish or cancel one first");
+        }
+
+        UploadSession session = sessionRepository.save(UploadSession.builder()
+                .id(UUID.randomUUID())
+                .userId(userUuid)
+                .noteId(request.getNoteId())
+                .kind(request.getKind())
+                .fileName(request.getFileName())
+                .mediaType(request.getMime())
+                .sizeBytes(request.getSize())
+                .sha256(request.getSha256() != null ? request.getSha256().toLowerCase(Locale.ROOT) : null)
+                .durationSec(request.getDurationSec())
+                .state(UploadState.OPEN)
+                .expiresAt(Instant.now().plus(properties.getExpireAfter()))
+                .build());
+        log.info("Upload session {} created for note {} ({} bytes)", session.getId(), request.getNoteId(), request.getSize());
+        return toResponse(session);
+    }
+
+    @DbPriority(PriorityClass.INTERACTIVE)
+    @Transactional(readOnly = true)
+    public UploadSessionResponse get(String userId, UUID sessionId) {
+        return toResponse(find(userId, sessionId));
+    }
+
+    /**
+     * Store a chunk that starts at the session's offset. False, with nothing stored, if the
+     * session has moved past (or not yet reached) that offset.
+     */
+    @Transactional
+    public boolean append(String userId, UUID sessionId, long offset, byte[] data) {
+        UUID userUuid = UUID.fromString(userId);
+        Instant expiresAt = Instant.now().plus(properties.getExpireAfter());
+        if (sessionRepository.advance(sessionId, userUuid, offset, data.length, expiresAt) == 0) {
+            return false;
+        }
+        sessionRepository.insertChunk(sessionId, userUuid, offset, data);
+        return true;
+    }
+
+    @Transactional(readOnly = true)
+    public byte[] readChunk(String userId, UUID sessionId, long offset) {
+        return sessionRepository.findChunk(sessionId, UUID.fromString(userId), offset)
+                .orElseThrow(() -> new IllegalStateException("Upload " + sessionId + " has no chunk at " + offset));
+    }
+
+    /**
+     * Take a session whose bytes have all arrived for completion, so a second complete request
+     * cannot attach the file twice. A session whose completion has stalled for the completion
+     * timeout is taken over; the returned session carries this attempt's completion id.
+     */
+    @Transactional
+    public UploadSession beginCompletion(String userId, UUID sessionId) {
+        UUID userUuid = UUID.fromString(userId);
+        Instant now = Instant.now();
+        if (sessionRepository.beginCompletion(sessionId, userUuid, UUID.randomUUID(),
+                now.minus(properties.getCompletionTimeout()), now.plus(properties.getExpireAfter())) == 0) {
+            UploadSession session = find(userId, sessionId);
+            throw switch (session.getState()) {
+                case OPEN -> new ConflictException("Upload has " + session.getReceivedBytes() + " of "
+                        + session.getSizeBytes() + " bytes");
+                case COMPLETING -> new ConflictException("Upload is already being completed");
+                case COMPLETED -> new ConflictException("Upload is already completed");
+            };
+        }
+        return find(userId, sessionId);
+    }
+
+    /**
+     * Attach the stored file to the note and mark the session completed in one transaction,
+     * so the note never gets the file without the session recording it. Refused if another
+     * attempt has taken the session over meanwhile.
+     * @param session - as returned by beginCompletion
+     * @param sha256 - the stored file's hash
+     */
+    @DbPriority(PriorityClass.INTERACTIVE)
+    @Transactional
+    public NoteResponse complete(String userId, UploadSession session, String sha256) {
+        UUID userUuid = UUID.fromString(userId);
+        if (sessionRepository.endCompletion(session.getId(), userUuid, session.getCompletionId(),
+                UploadState.COMPLETED.name()) == 0) {
+            throw new ConflictException("Upload was taken over by another complete request");
+        }
+        NoteResponse response = switch (session.getKind()) {
+            case PHOTO -> attachmentService.attachPhotoBlob(userId, session.getNoteId(), sha256);
+            case AUDIO -> attachmentService.attachAudioBlob(userId, session.getNoteId(), sha256, session.getDurationSec());
+        };
+        // the file is attached: drop the chunks, keep the session row until it expires
+        sessionRepository.deleteChunks(session.getId(), userUuid);
+        return response;
+    }
+
+    /** Completion failed after the bytes were all there; the client may try again. */
+    @Transactional
+    public void reopen(String userId, UploadSession session) {
+        sessionRepository.endCompletion(session.getId(), UUID.fromString(userId), session.getCompletionId(),
+                UploadState.OPEN.name());
+    }
+
+    /** The received bytes are unusable (they do not match the declared hash); start over. */
+    @Transactional
+    public void discard(String userId, UUID sessionId) {
+        sessionRepository.findByIdAndUserId(sessionId, UUID.fromString(userId)).ifPresent(sessionRepository::delete);
+    }
+
+    @Transactional
+    public void cancel(String userId, UUID sessionId) {
+        UploadSession session = find(userId, sessionId);
+        if (session.getState() == UploadState.COMPLETING) {
+            throw new ConflictException("Upload is being completed");
+        }
+        sessionRepository.delete(session);
+        log.info("Upload session {} cancelled", sessionId);
+    }
+
+    /** Delete up to limit sessions past their expiry, with their chunks. */
+    @Transactional
+    public int deleteExpired(Instant now, int limit) {
+        return sessionRepository.deleteExpired(now, limit);
+    }
+
+    private UploadSession find(String userId, UUID sessionId) {
+        return sessionRepository.findByIdAndUserId(sessionId, UUID.fromString(userId))
+                .orElseThrow(() -> new ResourceNotFoundException("Upload", "id", sessionId));
+    }
+
+    private static UploadSessionResponse toResponse(UploadSession session) {
+        return UploadSessionResponse.builder()
+                .id(session.getId())
+                .noteId(session.getNoteId())
+                .kind(session.getKind())
+                .state(session.getState())
+                .size(session.getSizeBytes())
+                .offset(session.getReceivedBytes())
+                .expiresAt(session.getExpiresAt())
+                .build();
+    }
+}
@@ -0,0 +1,8 @@
+package com.csci310.anchornotes.thumbnail;
+
+/**
+ * A photo was attached to a note and its file is in storage. Published by AttachmentService;
+ * the thumbnail pipeline picks it up after commit.
+ */
+public record PhotoUploadedEvent(String userId, Long noteId, Long attachmentId, String mediaUrl) {
+}
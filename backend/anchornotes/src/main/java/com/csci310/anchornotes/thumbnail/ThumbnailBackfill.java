@@ -0,0 +1,86 @@
+package com.csci310.anchornotes.thumbnail;
+
+import com.csci310.anchornotes.config.ThumbnailProperties;
+import com.csci310.anchornotes.datasource.RoutingContext;
+import com.csci310.anchornotes.datasource.ShardRouter;
+import com.csci310.anchornotes.jobs.ClusterJob;
+import com.csci310.anchornotes.repository.PhotoAttachmentRepository;
+import com.csci310.anchornotes.service.ThumbnailService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Queues photos on notes that still have no thumbnails: uploads from before the pipeline,
+ * and ones it dropped or failed on. Runs on one replica at a time (on every shard when
+ * sharded) and only fills the free part of the pipeline's queue.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.thumbnails", name = "enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class ThumbnailBackfill implements ClusterJob {
+
+    private final ThumbnailProperties properties;
+    private final ThumbnailService thumbnailService;
+    private final ThumbnailPipeline pipeline;
+    private final List<String> shards;
+
+    public ThumbnailBackfill(ThumbnailProperties properties,
+                             ThumbnailService thumbnailService,
+                             ThumbnailPipeline pipeline,
+                             ObjectProvider<ShardRouter> shardRouter) {
+        this.properties = properties;
+        this.thumbnailService = thumbnailService;
+        this.pipeline = pipeline;
+        ShardRouter router = shardRouter.getIfAvailable();
+        this.shards = router != null ? router.shards() : null;
+    }
+
+    @Override
+    public String name() {
+        return "thumbnails.backfill";
+    }
+
+    @Override
+    public Duration interval() {
+        return properties.getBackfillInterval();
+    }
+
+    @Override
+    public void run(int partition, int partitions) {
+        int queued = 0;
+        if (shards == null) {
+            queued = queueMissing();
+        } else {
+            for (String shard : shards) {
+                try (RoutingContext.Scope ignored = RoutingContext.bindShard(shard)) {
+                    queued += queueMissing();
+                }
+            }
+        }
+        if (queued > 0) {
+            log.info("Queued {} photos without thumbnails", queued);
+        }
+    }
+
+    private int queueMissing() {
+        int limit = Math.min(properties.getBackfillBatchSize(), pipeline.remainingCapacity());
+        if (limit <= 0) {
+            return 0;
+        }
+        Instant createdBefore = Instant.now().minus(properties.getBackfillMinAge());
+        int queued = 0;
+        for (PhotoAttachmentRepository.MissingThumbnails photo : thumbnailService.findMissing(createdBefore, limit)) {
+            if (pipeline.submit(new PhotoUploadedEvent(photo.getUserId().toString(), photo.getNoteId(),
+                    photo.getId(), photo.getMediaUrl()))) {
+                queued++;
+            }
+        }
+        return queued;
+    }
+}
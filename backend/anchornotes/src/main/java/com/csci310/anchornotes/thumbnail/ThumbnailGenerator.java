@@ -0,0 +1,156 @@
+package com.csci310.anchornotes.thumbnail;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Turns an image file into JPEG thumbnails whose longest edge is each of the given sizes.
+ *
+ * The original is decoded with source subsampling, so only about as many pixels as the
+ * largest thumbnail needs are ever held in memory, however large the photo. Each smaller size
+ * is scaled from the previous one, halving at most at a time so the result stays smooth.
+ * Transparent areas become white. Thread-safe; ImageIO readers and writers are per call.
+ */
+public class ThumbnailGenerator {
+
+    private final List<Integer> sizes;
+    private final float quality;
+    private final long maxPixels;
+
+    public ThumbnailGenerator(List<Integer> sizes, float quality, long maxPixels) {
+        if (sizes.isEmpty() || sizes.stream().anyMatch(size -> size <= 0)) {
+            throw new IllegalArgumentException("Thumbnail sizes must be positive: " + sizes);
+        }
+        this.sizes = sizes.stream().distinct().sorted(Comparator.reverseOrder()).toList();
+        this.quality = quality;
+        this.maxPixels = maxPixels;
+    }
+
+    /**
+     * @return JPEG bytes by size, smallest first
+     * @throws UnsupportedImageException if the file is not an image ImageIO can decode, or too large
+     */
+    public Map<Integer, byte[]> generate(byte[] source) throws IOException {
+        BufferedImage image = toRgb(decode(source, sizes.get(0)));
+        Map<Integer, byte[]> thumbnails = new TreeMap<>();
+        for (int size : sizes) {
+            image = scale(image, size);
+            thumbnails.put(size, encode(image));
+        }
+        return thumbnails;
+    }
+
+    private BufferedImage decode(byte[] source, int largest) throws IOException {
+        try (ImageInputStream input = new MemoryCacheImageInputStream(new ByteArrayInputStream(source))) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                throw new UnsupportedImageException("not an image format the server can decode");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > maxPixels) {
+                    throw new UnsupportedImageException(width + "x" + height + " is more than " + maxPixels + " pixels");
+                }
+                // the largest whole factor that still leaves at least `largest` pixels on the long edge
+                int factor = Math.max(1, Math.max(width, height) / largest);
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(factor, factor, 0, 0);
+                return reader.read(0, param);
+            } catch (UnsupportedImageException e) {
+                throw e;
+            } catch (IOException | RuntimeException e) {
+                throw new UnsupportedImageException("could not decode: " + e.getMessage());
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /** Opaque RGB copy of the image, with transparent areas white; the image itself if already RGB. */
+    public static BufferedImage toRgb(BufferedImage image) {
+        if (image.getType() == BufferedImage.TYPE_INT_RGB) {
+            return image;
+        }
+        BufferedImage rgb = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = rgb.createGraphics();
+        try {
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, rgb.getWidth(), rgb.getHeight());
+            graphics.drawImage(image, 0, 0, null);
+        } finally {
+            graphics.dispose();
+        }
+        return rgb;
+    }
+
+    /** Scales an RGB image so the longest edge is at most {@code size}; never scales up. */
+    public static BufferedImage scale(BufferedImage image, int size) {
+        int longest = Math.max(image.getWidth(), image.getHeight());
+        if (longest <= size) {
+            return image;
+        }
+        double ratio = (double) size / longest;
+        int targetWidth = Math.max(1, (int) Math.round(image.getWidth() * ratio));
+        int targetHeight = Math.max(1, (int) Math.round(image.getHeight() * ratio));
+        BufferedImage current = image;
+        while (current.getWidth() != targetWidth || current.getHeight() != targetHeight) {
+            int width = Math.max(targetWidth, current.getWidth() / 2);
+            int height = Math.max(targetHeight, current.getHeight() / 2);
+            BufferedImage next = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = next.createGraphics();
+            try {
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.drawImage(current, 0, 0, width, height, null);
+            } finally {
+                graphics.dispose();
+            }
+            current = next;
+        }
+        return current;
+    }
+
+    private byte[] encode(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (MemoryCacheImageOutputStream output = new MemoryCacheImageOutputStream(bytes)) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality);
+            param.setProgressiveMode(ImageWriteParam.MODE_DISABLED);
+            writer.setOutput(output);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return bytes.toByteArray();
+    }
+
+    /** The file cannot be made into thumbnails; retrying will not help. */
+    public static class UnsupportedImageException extends IOException {
+        public UnsupportedImageException(String message) {
+            super(message);
+        }
+    }
+}
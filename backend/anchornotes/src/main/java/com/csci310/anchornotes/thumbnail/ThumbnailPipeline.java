@@ -0,0 +1,170 @@
+package com.csci310.anchornotes.thumbnail;
+
+import com.csci310.anchornotes.config.ThumbnailProperties;
+import com.csci310.anchornotes.service.SupabaseStorageService;
+import com.csci310.anchornotes.service.ThumbnailService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Makes thumbnails of uploaded photos off the request path: download the original, resize,
+ * store the thumbnails next to it and record their sizes on the attachment.
+ *
+ * Work goes to a fixed pool with a bounded queue. When the queue is full the photo is not
+ * queued and the upload carries on; {@link ThumbnailBackfill} finds it later. A failed
+ * download or upload also leaves it to the backfill, while a file that cannot be decoded is
+ * recorded with no sizes so it is not tried again. Until a photo has thumbnails, clients
+ * show the original.
+ */
+@Component
+@Slf4j
+public class ThumbnailPipeline {
+
+    private static final String BUCKET = "attachment";
+
+    private final ThumbnailProperties properties;
+    private final SupabaseStorageService storageService;
+    private final ThumbnailService thumbnailService;
+    private final ThumbnailGenerator generator;
+    private final ThreadPoolExecutor workers;
+    // queued or running, so the backfill does not queue a photo twice
+    private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+
+    private final Counter created;
+    private final Counter unsupported;
+    private final Counter failed;
+    private final Counter dropped;
+    private final Timer duration;
+
+    public ThumbnailPipeline(ThumbnailProperties properties,
+                             SupabaseStorageService storageService,
+                             ThumbnailService thumbnailService,
+                             MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.storageService = storageService;
+        this.thumbnailService = thumbnailService;
+        this.generator = new ThumbnailGenerator(properties.getSizes(), properties.getQuality(),
+                properties.getMaxSourcePixels());
+        int threads = Math.max(1, properties.getWorkers());
+        this.workers = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, properties.getQueueCapacity())),
+                Thread.ofPlatform().name("thumbnail-", 0).daemon().factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("app.thumbnails.queued", workers, executor -> executor.getQueue().size())
+                .description("Photos waiting for a thumbnail worker")
+                .register(meterRegistry);
+        this.created = result(meterRegistry, "created");
+        this.unsupported = result(meterRegistry, "unsupported");
+        this.failed = result(meterRegistry, "failed");
+        this.dropped = result(meterRegistry, "dropped");
+        this.duration = Timer.builder("app.thumbnails.duration")
+                .description("Download, resize and store of one photo's thumbnails")
+                .register(meterRegistry);
+    }
+
+    private static Counter result(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("app.thumbnails.processed")
+                .tag("result", result)
+                .description("Photos handled by the thumbnail pipeline, by outcome")
+                .register(meterRegistry);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPhotoUploaded(PhotoUploadedEvent event) {
+        submit(event);
+    }
+
+    /**
+     * Queue a photo without waiting. False if it was not queued: the pipeline is off, the
+     * queue is full, or the photo is already queued.
+     */
+    public boolean submit(PhotoUploadedEvent event) {
+        if (!properties.isEnabled() || !pending.add(event.attachmentId())) {
+            return false;
+        }
+        try {
+            workers.execute(() -> {
+                try {
+                    process(event);
+                } finally {
+                    pending.remove(event.attachmentId());
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            pending.remove(event.attachmentId());
+            dropped.increment();
+            log.debug("Thumbnail queue full, leaving photo {} to the backfill", event.attachmentId());
+            return false;
+        }
+    }
+
+    public int remainingCapacity() {
+        return workers.getQueue().remainingCapacity();
+    }
+
+    void process(PhotoUploadedEvent event) {
+        Timer.Sample sample = Timer.start();
+        try {
+            byte[] source;
+            try (InputStream in = storageService.openFile(BUCKET, event.mediaUrl(), properties.getStorageTimeout())) {
+                source = in.readNBytes((int) Math.min(Integer.MAX_VALUE - 8, properties.getMaxSourceBytes() + 1));
+            }
+            if (source.length > properties.getMaxSourceBytes()) {
+                throw new ThumbnailGenerator.UnsupportedImageException(
+                        "larger than " + properties.getMaxSourceBytes() + " bytes");
+            }
+
+            Map<Integer, byte[]> thumbnails = generator.generate(source);
+            String objectPath = storageService.objectPath(BUCKET, event.mediaUrl());
+            for (Map.Entry<Integer, byte[]> thumbnail : thumbnails.entrySet()) {
+                storageService.putObject(Thumbnails.path(objectPath, thumbnail.getKey()), thumbnail.getValue(),
+                        Thumbnails.CONTENT_TYPE, properties.getStorageTimeout());
+            }
+            thumbnailService.recordThumbnails(event.userId(), event.noteId(), event.attachmentId(),
+                    Thumbnails.formatSizes(thumbnails.keySet()));
+            created.increment();
+            log.debug("Stored {} thumbnails for photo {}", thumbnails.size(), event.attachmentId());
+        } catch (ThumbnailGenerator.UnsupportedImageException e) {
+            unsupported.increment();
+            log.info("Photo {} gets no thumbnails: {}", event.attachmentId(), e.getMessage());
+            recordNone(event);
+        } catch (IOException | RuntimeException e) {
+            failed.increment();
+            log.warn("Thumbnails for photo {} failed, leaving it to the backfill: {}", event.attachmentId(), e.getMessage());
+        } finally {
+            sample.stop(duration);
+        }
+    }
+
+    private void recordNone(PhotoUploadedEvent event) {
+        try {
+            thumbnailService.recordThumbnails(event.userId(), event.noteId(), event.attachmentId(), "");
+        } catch (RuntimeException e) {
+            log.warn("Could not record photo {} as unsupported: {}", event.attachmentId(), e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        workers.shutdownNow();
+        workers.awaitTermination(5, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,41 @@
+package com.csci310.anchornotes.thumbnail;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Where a photo's thumbnails live: next to the original, with the size in the name
+ * ({@code abc_photo.png} has {@code abc_photo.thumb-160.jpg}), so the same rule turns a
+ * storage path or a public URL into the thumbnail's.
+ */
+public final class Thumbnails {
+
+    public static final String CONTENT_TYPE = "image/jpeg";
+
+    private Thumbnails() {
+    }
+
+    public static String path(String original, int size) {
+        int slash = original.lastIndexOf('/');
+        int dot = original.lastIndexOf('.');
+        String base = dot > slash + 1 ? original.substring(0, dot) : original;
+        return base + ".thumb-" + size + ".jpg";
+    }
+
+    /** Sizes as stored in photo_attachment.thumbnail_sizes; null or empty gives none. */
+    public static List<Integer> parseSizes(String sizes) {
+        List<Integer> parsed = new ArrayList<>();
+        if (sizes != null && !sizes.isBlank()) {
+            for (String size : sizes.split(",")) {
+                parsed.add(Integer.parseInt(size.trim()));
+            }
+        }
+        return parsed;
+    }
+
+    public static String formatSizes(Collection<Integer> sizes) {
+        return sizes.stream().map(String::valueOf).collect(Collectors.joining(","));
+    }
+}
@@ -0,0 +1,206 @@
+package com.csci310.anchornotes.upload;
+
+import com.csci310.anchornotes.blob.BlobSource;
+import com.csci310.anchornotes.blob.BlobUploader;
+import com.csci310.anchornotes.blob.Blobs;
+import com.csci310.anchornotes.config.UploadProperties;
+import com.csci310.anchornotes.dto.note.NoteResponse;
+import com.csci310.anchornotes.dto.upload.CreateUploadRequest;
+import com.csci310.anchornotes.dto.upload.UploadSessionResponse;
+import com.csci310.anchornotes.entity.UploadKind;
+import com.csci310.anchornotes.entity.UploadSession;
+import com.csci310.anchornotes.exception.BadRequestException;
+import com.csci310.anchornotes.service.UploadSessionService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+
+/**
+ * Resumable attachment uploads: create a session for the file, send it in chunks each starting
+ * at the offset the server reports, and complete it to attach the file to the note.
+ *
+ * A chunk is read in full before anything is stored, so a request that breaks off midway
+ * leaves the offset where it was and the client resends that chunk. A chunk that does not
+ * start at the current offset (typically a retry whose first response was lost) is not
+ * stored, and the caller gets the offset to continue from. On completion the chunks are put
+ * together in a temporary file on this replica, checked against the declared SHA-256, and
+ * stored like a direct upload. The chunks themselves are in the database, so each one may go
+ * to any replica. The file is attached in the same transaction that marks the session
+ * completed, so a failure at any point leaves it either attached and completed or neither.
+ */
+@Component
+@Slf4j
+public class ResumableUploads {
+
+    private final UploadSessionService sessionService;
+    private final BlobUploader blobUploader;
+    private final UploadProperties properties;
+
+    private final Counter chunksStored;
+    private final Counter chunksRejected;
+    private final Counter bytesStored;
+    private final Timer completed;
+    private final Timer failed;
+
+    public ResumableUploads(UploadSessionService sessionService,
+                            BlobUploader blobUploader,
+                            UploadProperties properties,
+                            MeterRegistry meterRegistry) {
+        this.sessionService = sessionService;
+        this.blobUploader = blobUploader;
+        this.properties = properties;
+        this.chunksStored = chunks(meterRegistry, "stored");
+        this.chunksRejected = chunks(meterRegistry, "rejected");
+        this.bytesStored = Counter.builder("app.uploads.bytes")
+                .description("Bytes of resumable uploads stored")
+                .register(meterRegistry);
+        this.completed = completion(meterRegistry, "completed");
+        this.failed = completion(meterRegistry, "failed");
+    }
+
+    private static Counter chunks(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("app.uploads.chunks")
+                .tag("result", result)
+                .description("Upload chunks received, by whether they were stored or started at the wrong offset")
+                .register(meterRegistry);
+    }
+
+    private static Timer completion(MeterRegistry meterRegistry, String result) {
+        return Timer.builder("app.uploads.completion")
+                .tag("result", result)
+                .description("Assembling, storing and attaching a finished upload")
+                .register(meterRegistry);
+    }
+
+    /** Whether a chunk was stored, and the session as it is now. */
+    public record AppendResult(boolean stored, UploadSessionResponse session) {
+    }
+
+    public UploadSessionResponse create(String userId, CreateUploadRequest request) {
+        return sessionService.create(userId, request);
+    }
+
+    public UploadSessionResponse status(String userId, UUID sessionId) {
+        return sessionService.get(userId, sessionId);
+    }
+
+    public void cancel(String userId, UUID sessionId) {
+        sessionService.cancel(userId, sessionId);
+    }
+
+    /**
+     * Store one chunk starting at offset.
+     * @param contentLength - length the client declared for the body, or -1 if unknown
+     * @throws IOException if the body could not be read; nothing is stored
+     */
+    public AppendResult append(String userId, UUID sessionId, long offset, InputStream body, long contentLength)
+            throws IOException {
+        if (offset < 0) {
+            throw new BadRequestException("Offset must not be negative");
+        }
+        byte[] data = body.readNBytes(properties.getMaxChunkBytes() + 1);
+        if (data.length > properties.getMaxChunkBytes()) {
+            throw new BadRequestException("Chunks may be at most " + properties.getMaxChunkBytes() + " bytes");
+        }
+        if (contentLength >= 0 && data.length != contentLength) {
+            // the connection closed early without an error; the partial chunk is not kept
+            throw new BadRequestException("Chunk ended after " + data.length + " of " + contentLength + " bytes");
+        }
+        if (data.length == 0) {
+            throw new BadRequestException("Chunk is empty");
+        }
+
+        boolean stored = sessionService.append(userId, sessionId, offset, data);
+        if (stored) {
+            chunksStored.increment();
+            bytesStored.increment(data.length);
+        } else {
+            chunksRejected.increment();
+        }
+        return new AppendResult(stored, sessionService.get(userId, sessionId));
+    }
+
+    /**
+     * Attach a fully received upload to its note. If storing or attaching fails the session
+     * stays open with all its bytes, so the client can simply complete it again. If this
+     * replica dies midway, a complete request after app.uploads.completion-timeout takes over.
+     */
+    public NoteResponse complete(String userId, UUID sessionId) throws IOException {
+        UploadSession session = sessionService.beginCompletion(userId, sessionId);
+        Timer.Sample sample = Timer.start();
+        Path file = null;
+        boolean done = false;
+        try {
+            file = assemble(userId, session);
+            if (session.getSha256() != null) {
+                String actual;
+                try (InputStream in = Files.newInputStream(file)) {
+                    actual = Blobs.sha256(in);
+                }
+                if (!actual.equals(session.getSha256())) {
+                    sessionService.discard(userId, sessionId);
+                    done = true;
+                    throw new BadRequestException("Upload does not match its SHA-256 (got " + actual + "); start it again");
+                }
+            }
+
+            BlobSource source = new BlobSource(new FileSystemResource(file), session.getSizeBytes(),
+                    session.getFileName(), session.getMediaType());
+            String sha256 = blobUploader.store(userId, source, session.getKind() == UploadKind.PHOTO);
+            NoteResponse response = sessionService.complete(userId, session, sha256);
+            done = true;
+            sample.stop(completed);
+            log.info("Upload {} completed ({} bytes) for note {}", sessionId, session.getSizeBytes(), session.getNoteId());
+            return response;
+        } catch (IOException | RuntimeException e) {
+            sample.stop(failed);
+            if (!done) {
+                log.warn("Completing upload {} failed, leaving it open for another try: {}", sessionId, e.getMessage());
+                reopen(userId, session);
+            }
+            throw e;
+        } finally {
+            if (file != null) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    private Path assemble(String userId, UploadSession session) throws IOException {
+        Path directory = properties.getSpoolDirectory() != null
+                ? Files.createDirectories(Path.of(properties.getSpoolDirectory()))
+                : Path.of(System.getProperty("java.io.tmpdir"));
+        Path file = Files.createTempFile(directory, "upload-", ".part");
+        try (OutputStream out = Files.newOutputStream(file)) {
+            long offset = 0;
+            while (offset < session.getSizeBytes()) {
+                byte[] chunk = sessionService.readChunk(userId, session.getId(), offset);
+                out.write(chunk);
+                offset += chunk.length;
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        return file;
+    }
+
+    private void reopen(String userId, UploadSession session) {
+        try {
+            sessionService.reopen(userId, session);
+        } catch (RuntimeException e) {
+            // another complete request takes it over after the completion timeout
+            log.warn("Could not reopen upload {}: {}", session.getId(), e.getMessage());
+        }
+    }
+}
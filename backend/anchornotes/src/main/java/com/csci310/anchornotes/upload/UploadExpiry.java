@@ -0,0 +1,63 @@
+package com.csci310.anchornotes.upload;
+
+import com.csci310.anchornotes.config.UploadProperties;
+import com.csci310.anchornotes.datasource.RoutingContext;
+import com.csci310.anchornotes.datasource.ShardRouter;
+import com.csci310.anchornotes.jobs.ClusterJob;
+import com.csci310.anchornotes.service.UploadSessionService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Deletes upload sessions, and the chunks they hold, once nothing has been sent to them for
+ * the expiry period. Runs on one replica at a time (on every shard when sharded).
+ */
+@Component
+@Slf4j
+public class UploadExpiry implements ClusterJob {
+
+    private final UploadProperties properties;
+    private final UploadSessionService sessionService;
+    private final List<String> shards;
+
+    public UploadExpiry(UploadProperties properties,
+                        UploadSessionService sessionService,
+                        ObjectProvider<ShardRouter> shardRouter) {
+        this.properties = properties;
+        this.sessionService = sessionService;
+        ShardRouter router = shardRouter.getIfAvailable();
+        this.shards = router != null ? router.shards() : null;
+    }
+
+    @Override
+    public String name() {
+        return "uploads.expire";
+    }
+
+    @Override
+    public Duration interval() {
+        return properties.getExpiryInterval();
+    }
+
+    @Override
+    public void run(int partition, int partitions) {
+        int deleted = 0;
+        if (shards == null) {
+            deleted = sessionService.deleteExpired(Instant.now(), properties.getExpiryBatchSize());
+        } else {
+            for (String shard : shards) {
+                try (RoutingContext.Scope ignored = RoutingContext.bindShard(shard)) {
+                    deleted += sessionService.deleteExpired(Instant.now(), properties.getExpiryBatchSize());
+                }
+            }
+        }
+        if (deleted > 0) {
+            log.info("Deleted {} expired upload sessions", deleted);
+        }
+    }
+}
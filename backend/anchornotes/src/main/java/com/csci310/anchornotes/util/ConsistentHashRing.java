@@ -0,0 +1,72 @@
+package com.csci310.anchornotes.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Consistent hash ring with virtual nodes. Each node is hashed onto the ring
+ * {@code virtualNodes} times; a key belongs to the first node point at or after its own
+ * hash. Adding or removing one of N nodes moves only about 1/N of the keys, and only to or
+ * from that node.
+ *
+ * Hashes are the first 8 bytes of MD5, so placement is the same on every JVM and in every
+ * process that routes to the same nodes. Immutable and thread-safe; lookups are a binary
+ * search over the sorted points.
+ */
+public final class ConsistentHashRing<T> {
+
+    private final long[] points;
+    private final List<T> owners;
+
+    public ConsistentHashRing(Collection<T> nodes, int virtualNodes) {
+        if (nodes.isEmpty() || virtualNodes < 1) {
+            throw new IllegalArgumentException("A ring needs at least one node and one virtual node per node");
+        }
+        List<Point<T>> all = new ArrayList<>(nodes.size() * virtualNodes);
+        for (T node : nodes) {
+            for (int i = 0; i < virtualNodes; i++) {
+                all.add(new Point<>(hash(node + "#" + i), node));
+            }
+        }
+        // ties (astronomically rare) resolve by node name so every process agrees
+        all.sort((a, b) -> a.hash != b.hash ? Long.compare(a.hash, b.hash)
+                : a.node.toString().compareTo(b.node.toString()));
+        this.points = new long[all.size()];
+        this.owners = new ArrayList<>(all.size());
+        for (int i = 0; i < all.size(); i++) {
+            points[i] = all.get(i).hash;
+            owners.add(all.get(i).node);
+        }
+    }
+
+    public T nodeFor(String key) {
+        int index = Arrays.binarySearch(points, hash(key));
+        if (index < 0) {
+            index = -index - 1;
+        }
+        // past the last point wraps around to the first
+        return owners.get(index == points.length ? 0 : index);
+    }
+
+    static long hash(String value) {
+        byte[] digest;
+        try {
+            digest = MessageDigest.getInstance("MD5").digest(value.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 is required by every JVM", e);
+        }
+        long hash = 0;
+        for (int i = 0; i < 8; i++) {
+            hash = (hash << 8) | (digest[i] & 0xff);
+        }
+        return hash;
+    }
+
+    private record Point<T>(long hash, T node) {
+    }
+}
@@ -6,11 +6,14 @@ import com.csci310.anchornotes.dto.note.NoteResponse;
 import com.csci310.anchornotes.dto.tag.TagResponse;
 import com.csci310.anchornotes.dto.template.TemplateResponse;
 import com.csci310.anchornotes.entity.*;
+import com.csci310.anchornotes.thumbnail.Thumbnails;
 import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -28,6 +31,7 @@ public class EntityMapper {
                 .id(note.getId().toString())
                 .title(note.getTitle())
                 .text(note.getText())
+                .textVersion(note.getTextVersion())
                 .pinned(note.getPinned())
                 .lastEdited(note.getLastEdited())
                 .createdAt(note.getCreatedAt())
@@ -85,10 +89,20 @@ public class EntityMapper {
             return null;
         }
 
+        Map<Integer, String> thumbnails = null;
+        List<Integer> sizes = Thumbnails.parseSizes(attachment.getThumbnailSizes());
+        if (!sizes.isEmpty() && attachment.getMediaUrl() != null) {
+            thumbnails = new LinkedHashMap<>();
+            for (int size : sizes) {
+                thumbnails.put(size, Thumbnails.path(attachment.getMediaUrl(), size));
+            }
+        }
+
         return AttachmentResponse.builder()
                 .id(attachment.getId().toString())
                 .url(attachment.getMediaUrl())
                 .durationSec(attachment.getDurationSec())
+                .thumbnails(thumbnails)
                 .build();
     }
 
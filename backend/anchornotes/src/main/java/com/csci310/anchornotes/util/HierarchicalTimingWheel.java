@@ -0,0 +1,213 @@
+package com.csci310.anchornotes.util;
+
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel: {@code levels} wheels of {@code 2^bits} buckets each, where a bucket
+ * at level L spans {@code 2^(bits*L)} ticks. Entries sit in intrusive doubly linked lists, so
+ * schedule and cancel are O(1). Each tick expires one level-0 bucket; whenever the lower levels
+ * wrap, the matching bucket one level up is cascaded down. Every entry moves at most
+ * {@code levels - 1} times before it fires, so expiry is O(1) amortized per entry.
+ *
+ * Deadlines beyond the top level's span go to an overflow list that is re-examined each time
+ * the top level cascades. Not thread-safe; callers serialize access.
+ */
+public class HierarchicalTimingWheel<T> {
+
+    /** Scheduled entry; pass it to {@link #cancel(Timeout)} to remove it. */
+    public static final class Timeout<T> {
+        private final T item;
+        private final long deadlineTick;
+        private Timeout<T> prev;
+        private Timeout<T> next;
+        private Bucket<T> bucket;
+
+        private Timeout(T item, long deadlineTick) {
+            this.item = item;
+            this.deadlineTick = deadlineTick;
+        }
+
+        public T item() {
+            return item;
+        }
+
+        public boolean isPending() {
+            return bucket != null;
+        }
+    }
+
+    private static final class Bucket<T> {
+        private Timeout<T> head;
+
+        void add(Timeout<T> timeout) {
+            timeout.bucket = this;
+            timeout.prev = null;
+            timeout.next = head;
+            if (head != null) {
+                head.prev = timeout;
+            }
+            head = timeout;
+        }
+
+        void remove(Timeout<T> timeout) {
+            if (timeout.prev != null) {
+                timeout.prev.next = timeout.next;
+            } else {
+                head = timeout.next;
+            }
+            if (timeout.next != null) {
+                timeout.next.prev = timeout.prev;
+            }
+            timeout.prev = null;
+            timeout.next = null;
+            timeout.bucket = null;
+        }
+
+        /** Detach and return the whole list. */
+        Timeout<T> drain() {
+            Timeout<T> first = head;
+            head = null;
+            return first;
+        }
+    }
+
+    private final long tickMillis;
+    private final int bits;
+    private final int mask;
+    private final int levels;
+    private final Bucket<T>[][] wheels;
+    private final Bucket<T> overflow = new Bucket<>();
+    /** Entries whose deadline had already passed when scheduled; fired on the next advance. */
+    private final Bucket<T> due = new Bucket<>();
+
+    private long currentTick;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    public HierarchicalTimingWheel(long tickMillis, int bits, int levels, long startMillis) {
+        if (tickMillis <= 0 || bits < 1 || bits > 16 || levels < 1 || (long) bits * levels > 62) {
+            throw new IllegalArgumentException("Invalid wheel shape: tick=" + tickMillis
+                    + "ms bits=" + bits + " levels=" + levels);
+        }
+        this.tickMillis = tickMillis;
+        this.bits = bits;
+        this.mask = (1 << bits) - 1;
+        this.levels = levels;
+        this.wheels = new Bucket[levels][1 << bits];
+        for (Bucket<T>[] wheel : wheels) {
+            for (int i = 0; i < wheel.length; i++) {
+                wheel[i] = new Bucket<>();
+            }
+        }
+        this.currentTick = startMillis / tickMillis;
+    }
+
+    public Timeout<T> schedule(long deadlineMillis, T item) {
+        // Round up so nothing fires before its deadline
+        long deadlineTick = Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis);
+        Timeout<T> timeout = new Timeout<>(item, deadlineTick);
+        place(timeout);
+        size++;
+        return timeout;
+    }
+
+    public boolean cancel(Timeout<T> timeout) {
+        if (timeout == null || timeout.bucket == null) {
+            return false;
+        }
+        timeout.bucket.remove(timeout);
+        size--;
+        return true;
+    }
+
+    /**
+     * Move the wheel forward to {@code nowMillis}, handing every entry that is due to
+     * {@code expired}, earlier ticks first. Returns how many entries expired.
+     */
+    public int advanceTo(long nowMillis, Consumer<T> expired) {
+        int fired = fire(due, expired);
+        long targetTick = Math.floorDiv(nowMillis, tickMillis);
+        while (currentTick < targetTick) {
+            currentTick++;
+            cascade();
+            // cascading can land entries due exactly now in the due list
+            fired += fire(due, expired);
+            fired += fire(wheels[0][(int) (currentTick & mask)], expired);
+        }
+        return fired;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long getTickMillis() {
+        return tickMillis;
+    }
+
+    /** Furthest deadline, relative to now, that fits in the wheels without the overflow list. */
+    public long getHorizonMillis() {
+        return (1L << (bits * levels)) * tickMillis;
+    }
+
+    private void place(Timeout<T> timeout) {
+        long delta = timeout.deadlineTick - currentTick;
+        if (delta <= 0) {
+            due.add(timeout);
+            return;
+        }
+        for (int level = 0; level < levels; level++) {
+            if (delta < 1L << (bits * (level + 1))) {
+                int slot = (int) ((timeout.deadlineTick >>> (bits * level)) & mask);
+                wheels[level][slot].add(timeout);
+                return;
+            }
+        }
+        overflow.add(timeout);
+    }
+
+    /**
+     * At a tick whose low {@code bits*L} bits are zero, the level-L bucket for this tick's
+     * position holds entries that now fit in a lower level; re-place them.
+     */
+    private void cascade() {
+        for (int level = 1; level < levels; level++) {
+            if ((currentTick & ((1L << (bits * level)) - 1)) != 0) {
+                return;
+            }
+            int slot = (int) ((currentTick >>> (bits * level)) & mask);
+            replaceAll(wheels[level][slot]);
+        }
+        if ((currentTick & ((1L << (bits * levels)) - 1)) == 0) {
+            replaceAll(overflow);
+        }
+    }
+
+    private void replaceAll(Bucket<T> bucket) {
+        Timeout<T> timeout = bucket.drain();
+        while (timeout != null) {
+            Timeout<T> next = timeout.next;
+            timeout.prev = null;
+            timeout.next = null;
+            timeout.bucket = null;
+            place(timeout);
+            timeout = next;
+        }
+    }
+
+    private int fire(Bucket<T> bucket, Consumer<T> expired) {
+        int fired = 0;
+        Timeout<T> timeout = bucket.drain();
+        while (timeout != null) {
+            Timeout<T> next = timeout.next;
+            timeout.prev = null;
+            timeout.next = null;
+            timeout.bucket = null;
+            size--;
+            fired++;
+            expired.accept(timeout.item);
+            timeout = next;
+        }
+        return fired;
+    }
+}
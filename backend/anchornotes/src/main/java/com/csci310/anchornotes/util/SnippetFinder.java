@@ -0,0 +1,148 @@
+package com.csci310.anchornotes.util;
+
+import com.csci310.anchornotes.dto.note.SnippetResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Finds search matches in note fields and cuts a bounded window of context around them.
+ *
+ * Matching follows the search query itself: the whole query as a case-insensitive substring
+ * (LOWER(field) LIKE '%query%'), with no tokenizing, so every highlight is something the
+ * database matched. The query is compiled once per search into a Knuth-Morris-Pratt table, and
+ * each field is then scanned in a single pass that stops at the end of the window. Characters
+ * are folded one UTF-16 unit at a time so offsets in the folded and original text agree.
+ * Matches do not overlap. Immutable, so one instance serves every note of a search.
+ */
+public final class SnippetFinder {
+
+    /** Characters kept before the first match when the field is longer than the window. */
+    public static final int CONTEXT_CHARS = 40;
+
+    /** Longest window returned, unless the match itself is longer. */
+    public static final int MAX_CHARS = 160;
+
+    // how far a window edge moves to avoid cutting a word in half
+    private static final int WORD_CHARS = 20;
+
+    private final char[] pattern;
+    // fallback[i]: length of the longest proper prefix of pattern[0..i] that is also its suffix
+    private final int[] fallback;
+    private final int contextChars;
+    private final int maxChars;
+
+    public SnippetFinder(String query) {
+        this(query, CONTEXT_CHARS, MAX_CHARS);
+    }
+
+    public SnippetFinder(String query, int contextChars, int maxChars) {
+        this.pattern = fold(query == null ? "" : query);
+        this.fallback = new int[pattern.length];
+        for (int i = 1, k = 0; i < pattern.length; i++) {
+            while (k > 0 && pattern[i] != pattern[k]) {
+                k = fallback[k - 1];
+            }
+            if (pattern[i] == pattern[k]) {
+                k++;
+            }
+            fallback[i] = k;
+        }
+        this.contextChars = contextChars;
+        this.maxChars = maxChars;
+    }
+
+    /**
+     * @param field name reported on the snippet
+     * @param value the field's text, or null
+     * @return the window around the first match and every match inside it, or null if the
+     *         query is empty or does not occur
+     */
+    public SnippetResponse find(String field, String value) {
+        if (value == null || pattern.length == 0) {
+            return null;
+        }
+        int length = value.length();
+        int windowStart = -1;
+        int windowEnd = -1;
+        List<SnippetResponse.Highlight> highlights = new ArrayList<>();
+        int matched = 0;
+        for (int i = 0; i < length; i++) {
+            char c = Character.toLowerCase(value.charAt(i));
+            while (matched > 0 && c != pattern[matched]) {
+                matched = fallback[matched - 1];
+            }
+            if (c == pattern[matched]) {
+                matched++;
+            }
+            if (matched == pattern.length) {
+                int matchStart = i + 1 - pattern.length;
+                if (windowStart < 0) {
+                    windowStart = windowStart(value, matchStart);
+                    windowEnd = windowEnd(value, windowStart, i + 1);
+                }
+                highlights.add(new SnippetResponse.Highlight(matchStart - windowStart, pattern.length));
+                matched = 0;
+            }
+            if (windowStart >= 0 && i + 1 >= windowEnd) {
+                break;
+            }
+        }
+        if (windowStart < 0) {
+            return null;
+        }
+        return SnippetResponse.builder()
+                .field(field)
+                .text(value.substring(windowStart, windowEnd))
+                .start(windowStart)
+                .fieldLength(length)
+                .highlights(highlights)
+                .build();
+    }
+
+    private int windowStart(String value, int matchStart) {
+        if (value.length() <= maxChars) {
+            return 0;
+        }
+        // near the end of the field, use the room left over for more context before the match
+        int start = Math.max(0, Math.min(matchStart - contextChars, value.length() - maxChars));
+        if (start > 0) {
+            // start at a word if one begins shortly after, before the match
+            for (int i = start; i < Math.min(matchStart, start + WORD_CHARS); i++) {
+                if (Character.isWhitespace(value.charAt(i))) {
+                    start = i + 1;
+                    break;
+                }
+            }
+            if (Character.isLowSurrogate(value.charAt(start))) {
+                start--;
+            }
+        }
+        return start;
+    }
+
+    private int windowEnd(String value, int windowStart, int firstMatchEnd) {
+        int end = Math.min(value.length(), Math.max(firstMatchEnd, windowStart + maxChars));
+        if (end < value.length()) {
+            // end after a word if one ends shortly before, after the first match
+            for (int i = end; i > Math.max(firstMatchEnd, end - WORD_CHARS); i--) {
+                if (Character.isWhitespace(value.charAt(i - 1))) {
+                    end = i - 1;
+                    break;
+                }
+            }
+            if (Character.isLowSurrogate(value.charAt(end))) {
+                end++;
+            }
+        }
+        return end;
+    }
+
+    private static char[] fold(String text) {
+        char[] folded = new char[text.length()];
+        for (int i = 0; i < folded.length; i++) {
+            folded[i] = Character.toLowerCase(text.charAt(i));
+        }
+        return folded;
+    }
+}
@@ -0,0 +1,125 @@
+package com.csci310.anchornotes.util;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Binary encodings for note revisions.
+ *
+ * A snapshot is the deflated UTF-8 text. A delta describes the single changed region between two
+ * texts: varint length of the unchanged prefix, varint length of the unchanged suffix, then the
+ * UTF-8 replacement for everything in between. Autosaves almost always touch one region, so a
+ * delta is usually a few bytes plus whatever was typed since the last save.
+ */
+public final class TextDelta {
+
+    private TextDelta() {
+    }
+
+    public static byte[] snapshot(String text) {
+        byte[] raw = text.getBytes(StandardCharsets.UTF_8);
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(16, raw.length / 3));
+            byte[] buffer = new byte[4096];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    public static String fromSnapshot(byte[] snapshot) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(snapshot);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(snapshot.length * 3);
+            byte[] buffer = new byte[4096];
+            while (!inflater.finished()) {
+                int n = inflater.inflate(buffer);
+                if (n == 0 && !inflater.finished() && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IllegalArgumentException("Truncated revision snapshot");
+                }
+                out.write(buffer, 0, n);
+            }
+            return out.toString(StandardCharsets.UTF_8);
+        } catch (DataFormatException e) {
+            throw new IllegalArgumentException("Corrupt revision snapshot", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    public static byte[] diff(String from, String to) {
+        int max = Math.min(from.length(), to.length());
+
+        int prefix = 0;
+        while (prefix < max && from.charAt(prefix) == to.charAt(prefix)) {
+            prefix++;
+        }
+        if (prefix > 0 && Character.isHighSurrogate(from.charAt(prefix - 1))) {
+            prefix--;
+        }
+
+        int suffix = 0;
+        while (suffix < max - prefix
+                && from.charAt(from.length() - 1 - suffix) == to.charAt(to.length() - 1 - suffix)) {
+            suffix++;
+        }
+        if (suffix > 0 && Character.isLowSurrogate(from.charAt(from.length() - suffix))) {
+            suffix--;
+        }
+
+        byte[] middle = to.substring(prefix, to.length() - suffix).getBytes(StandardCharsets.UTF_8);
+        ByteBuffer out = ByteBuffer.allocate(10 + middle.length);
+        putVarint(out, prefix);
+        putVarint(out, suffix);
+        out.put(middle);
+        byte[] result = new byte[out.position()];
+        out.flip().get(result);
+        return result;
+    }
+
+    public static String apply(String base, byte[] delta) {
+        ByteBuffer in = ByteBuffer.wrap(delta);
+        int prefix = getVarint(in);
+        int suffix = getVarint(in);
+        if (prefix + suffix > base.length()) {
+            throw new IllegalArgumentException("Revision delta does not fit its base text");
+        }
+        String middle = new String(delta, in.position(), in.remaining(), StandardCharsets.UTF_8);
+        return new StringBuilder(prefix + middle.length() + suffix)
+                .append(base, 0, prefix)
+                .append(middle)
+                .append(base, base.length() - suffix, base.length())
+                .toString();
+    }
+
+    private static void putVarint(ByteBuffer out, int value) {
+        while ((value & ~0x7f) != 0) {
+            out.put((byte) ((value & 0x7f) | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    private static int getVarint(ByteBuffer in) {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            byte b = in.get();
+            value |= (b & 0x7f) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint in revision delta");
+    }
+}
@@ -0,0 +1,15 @@
+-- GET /api/export reads each table in pages of "user_id = ? AND id > ? ORDER BY id LIMIT n".
+-- (user_id, id) turns every page into one short index range scan, so the cost per page does
+-- not grow with how far into the account the export is. They also serve plain user_id lookups,
+-- so the single-column indexes they cover are dropped.
+CREATE INDEX IF NOT EXISTS idx_notes_user_id_id ON notes (user_id, id);
+CREATE INDEX IF NOT EXISTS idx_tags_user_id_id ON tags (user_id, id);
+CREATE INDEX IF NOT EXISTS idx_templates_user_id_id ON templates (user_id, id);
+CREATE INDEX IF NOT EXISTS idx_geofence_user_id_id ON geofence (user_id, id);
+CREATE INDEX IF NOT EXISTS idx_photo_attachment_user_id_id ON photo_attachment (user_id, id);
+CREATE INDEX IF NOT EXISTS idx_audio_attachment_user_id_id ON audio_attachment (user_id, id);
+
+DROP INDEX IF EXISTS idx_tags_user_id;
+DROP INDEX IF EXISTS idx_templates_user_id;
+DROP INDEX IF EXISTS idx_geofence_user_id;
+DROP INDEX IF EXISTS idx_photo_attachment_user_id;
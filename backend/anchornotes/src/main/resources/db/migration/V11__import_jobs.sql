@@ -0,0 +1,21 @@
+-- Bulk imports (POST /api/import): one row per upload, so any replica can report its progress
+CREATE TABLE IF NOT EXISTS import_jobs (
+  id UUID PRIMARY KEY,
+  user_id UUID NOT NULL,
+  state TEXT NOT NULL,
+  lines_read BIGINT NOT NULL DEFAULT 0,
+  rejected BIGINT NOT NULL DEFAULT 0,
+  skipped BIGINT NOT NULL DEFAULT 0,
+  notes_staged BIGINT NOT NULL DEFAULT 0,
+  notes_imported BIGINT NOT NULL DEFAULT 0,
+  tags_created BIGINT NOT NULL DEFAULT 0,
+  geofences_imported BIGINT NOT NULL DEFAULT 0,
+  errors TEXT,
+  created_at TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+  updated_at TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+  finished_at TIMESTAMPTZ
+);
+
+CREATE INDEX IF NOT EXISTS idx_import_jobs_user_id ON import_jobs (user_id, created_at);
+
+COMMENT ON TABLE import_jobs IS 'Bulk import progress. The merge and the COMPLETED state commit in one transaction; errors holds the first rejected lines, one per line.';
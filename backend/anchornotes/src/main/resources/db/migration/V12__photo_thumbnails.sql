@@ -0,0 +1,9 @@
+-- Thumbnails of photo attachments, stored next to the original by the thumbnail pipeline.
+-- NULL until the pipeline has run for the photo; the partial index lets the backfill job find
+-- those without scanning every attachment.
+ALTER TABLE photo_attachment ADD COLUMN IF NOT EXISTS thumbnail_sizes TEXT;
+
+CREATE INDEX IF NOT EXISTS idx_photo_attachment_no_thumbnails ON photo_attachment (id)
+  WHERE thumbnail_sizes IS NULL;
+
+COMMENT ON COLUMN photo_attachment.thumbnail_sizes IS 'Comma-separated longest-edge sizes in px that have a thumbnail; empty if the photo could not be decoded, NULL if not processed yet.';
@@ -0,0 +1,60 @@
+-- Content-addressed attachment files. Each distinct file a user uploads is stored once, keyed
+-- by its SHA-256, and every photo/audio row with the same content points at it. Blobs are per
+-- user, so asking whether the server has a hash reveals nothing about other users' files.
+CREATE TABLE IF NOT EXISTS attachment_blobs (
+  user_id UUID NOT NULL,
+  sha256 CHAR(64) NOT NULL,
+  file_path TEXT NOT NULL,
+  media_type TEXT,
+  size_bytes BIGINT NOT NULL,
+  ref_count INT NOT NULL DEFAULT 0,
+  released_at TIMESTAMPTZ DEFAULT NOW(),
+  created_at TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+  PRIMARY KEY (user_id, sha256)
+);
+
+COMMENT ON TABLE attachment_blobs IS 'One stored file per user and content hash. ref_count is maintained by triggers on photo_attachment and audio_attachment; blobs at zero since released_at are deleted by the blob collector.';
+
+ALTER TABLE photo_attachment ADD COLUMN IF NOT EXISTS blob_sha256 CHAR(64);
+ALTER TABLE audio_attachment ADD COLUMN IF NOT EXISTS blob_sha256 CHAR(64);
+
+ALTER TABLE photo_attachment DROP CONSTRAINT IF EXISTS photo_attachment_blob_fk;
+ALTER TABLE photo_attachment ADD CONSTRAINT photo_attachment_blob_fk
+  FOREIGN KEY (user_id, blob_sha256) REFERENCES attachment_blobs (user_id, sha256);
+ALTER TABLE audio_attachment DROP CONSTRAINT IF EXISTS audio_attachment_blob_fk;
+ALTER TABLE audio_attachment ADD CONSTRAINT audio_attachment_blob_fk
+  FOREIGN KEY (user_id, blob_sha256) REFERENCES attachment_blobs (user_id, sha256);
+
+-- Attachments sharing a file (thumbnail reuse, recounts), and blobs waiting for the collector
+CREATE INDEX IF NOT EXISTS idx_photo_attachment_blob ON photo_attachment (user_id, blob_sha256)
+  WHERE blob_sha256 IS NOT NULL;
+CREATE INDEX IF NOT EXISTS idx_audio_attachment_blob ON audio_attachment (user_id, blob_sha256)
+  WHERE blob_sha256 IS NOT NULL;
+CREATE INDEX IF NOT EXISTS idx_attachment_blobs_released ON attachment_blobs (released_at)
+  WHERE ref_count = 0;
+
+-- OLD is NULL on INSERT and NEW is NULL on DELETE; an UPDATE that keeps the hash nets to zero
+CREATE OR REPLACE FUNCTION attachment_blob_refs_trigger() RETURNS TRIGGER AS $$
+BEGIN
+  IF TG_OP <> 'DELETE' AND NEW.blob_sha256 IS NOT NULL THEN
+    UPDATE attachment_blobs SET ref_count = ref_count + 1, released_at = NULL
+    WHERE user_id = NEW.user_id AND sha256 = NEW.blob_sha256;
+  END IF;
+  IF TG_OP <> 'INSERT' AND OLD.blob_sha256 IS NOT NULL THEN
+    UPDATE attachment_blobs SET ref_count = ref_count - 1,
+      released_at = CASE WHEN ref_count = 1 THEN NOW() ELSE released_at END
+    WHERE user_id = OLD.user_id AND sha256 = OLD.blob_sha256;
+  END IF;
+  RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS attachment_blob_refs_photo ON photo_attachment;
+CREATE TRIGGER attachment_blob_refs_photo
+  AFTER INSERT OR DELETE OR UPDATE OF blob_sha256 ON photo_attachment
+  FOR EACH ROW EXECUTE FUNCTION attachment_blob_refs_trigger();
+
+DROP TRIGGER IF EXISTS attachment_blob_refs_audio ON audio_attachment;
+CREATE TRIGGER attachment_blob_refs_audio
+  AFTER INSERT OR DELETE OR UPDATE OF blob_sha256 ON audio_attachment
+  FOR EACH ROW EXECUTE FUNCTION attachment_blob_refs_trigger();
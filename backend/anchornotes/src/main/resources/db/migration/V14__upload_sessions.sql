@@ -0,0 +1,35 @@
+-- Resumable uploads (/api/uploads). A session records where the client is; each chunk it has
+-- sent is a row, committed in the same transaction that advances received_bytes, so the offset
+-- reported after an interruption is exactly what is stored. Any replica can take the next chunk.
+CREATE TABLE IF NOT EXISTS upload_sessions (
+  id UUID PRIMARY KEY,
+  user_id UUID NOT NULL,
+  note_id BIGINT NOT NULL,
+  kind TEXT NOT NULL,
+  file_name TEXT,
+  media_type TEXT,
+  size_bytes BIGINT NOT NULL,
+  received_bytes BIGINT NOT NULL DEFAULT 0,
+  sha256 CHAR(64),
+  duration_sec INT,
+  state TEXT NOT NULL,
+  created_at TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+  updated_at TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+  expires_at TIMESTAMPTZ NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_upload_sessions_user_id ON upload_sessions (user_id, state);
+CREATE INDEX IF NOT EXISTS idx_upload_sessions_expires_at ON upload_sessions (expires_at);
+
+CREATE TABLE IF NOT EXISTS upload_chunks (
+  session_id UUID NOT NULL REFERENCES upload_sessions(id) ON DELETE CASCADE,
+  user_id UUID NOT NULL,
+  start_offset BIGINT NOT NULL,
+  data BYTEA NOT NULL,
+  PRIMARY KEY (session_id, start_offset)
+);
+
+-- Photos and audio are already compressed; storing chunks uncompressed saves the CPU
+ALTER TABLE upload_chunks ALTER COLUMN data SET STORAGE EXTERNAL;
+
+COMMENT ON TABLE upload_sessions IS 'Resumable attachment uploads in progress. Expired sessions are deleted with their chunks by the uploads.expire job.';
@@ -0,0 +1,6 @@
+-- Which attempt is completing an upload. A replica that dies midway leaves the session in
+-- COMPLETING; once updated_at is old enough another attempt takes it over with a new id, and
+-- only the attempt holding the current id can mark the session completed.
+ALTER TABLE upload_sessions ADD COLUMN IF NOT EXISTS completion_id UUID;
+
+COMMENT ON COLUMN upload_sessions.completion_id IS 'Attempt currently completing the upload; NULL unless state is COMPLETING.';
@@ -0,0 +1,4 @@
+-- Version counter for note bodies, used as the base version for PATCH /api/notes/{id}/text
+ALTER TABLE notes ADD COLUMN IF NOT EXISTS text_version BIGINT NOT NULL DEFAULT 0;
+
+COMMENT ON COLUMN notes.text_version IS 'Incremented on every change to text; text patches must name the current value.';
@@ -0,0 +1,15 @@
+-- Revision history for note text: a delta chain with a full snapshot every N revisions
+CREATE TABLE IF NOT EXISTS note_revisions (
+  id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+  note_id BIGINT NOT NULL REFERENCES notes(id) ON DELETE CASCADE,
+  user_id UUID NOT NULL,
+  revision BIGINT NOT NULL,
+  snapshot BOOLEAN NOT NULL,
+  title VARCHAR(500),
+  payload BYTEA NOT NULL,
+  text_length INT NOT NULL,
+  created_at TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+  UNIQUE (note_id, revision)
+);
+
+COMMENT ON TABLE note_revisions IS 'Note text history. revision matches notes.text_version; payload is a deflated snapshot or a delta against revision - 1.';
@@ -0,0 +1,131 @@
+-- Per-user note statistics kept current by triggers, so GET /api/stats is a primary-key read
+CREATE TABLE IF NOT EXISTS user_note_stats (
+  user_id UUID PRIMARY KEY,
+  total_notes BIGINT NOT NULL DEFAULT 0,
+  pinned_notes BIGINT NOT NULL DEFAULT 0,
+  time_reminders BIGINT NOT NULL DEFAULT 0,
+  geofence_notes BIGINT NOT NULL DEFAULT 0,
+  photo_notes BIGINT NOT NULL DEFAULT 0,
+  audio_notes BIGINT NOT NULL DEFAULT 0,
+  total_tags BIGINT NOT NULL DEFAULT 0,
+  tag_assignments BIGINT NOT NULL DEFAULT 0,
+  updated_at TIMESTAMPTZ NOT NULL DEFAULT NOW()
+);
+
+COMMENT ON TABLE user_note_stats IS 'Counters maintained by triggers on notes, tags and note_tags. Rebuild with the backfill at the end of V4 if they ever drift.';
+
+CREATE OR REPLACE FUNCTION bump_user_note_stats(
+  p_user_id UUID, d_total BIGINT, d_pinned BIGINT, d_time BIGINT, d_geofence BIGINT,
+  d_photo BIGINT, d_audio BIGINT, d_tags BIGINT, d_assignments BIGINT
+) RETURNS VOID AS $$
+BEGIN
+  IF d_total = 0 AND d_pinned = 0 AND d_time = 0 AND d_geofence = 0 AND d_photo = 0
+     AND d_audio = 0 AND d_tags = 0 AND d_assignments = 0 THEN
+    RETURN;
+  END IF;
+  INSERT INTO user_note_stats AS s (user_id, total_notes, pinned_notes, time_reminders, geofence_notes,
+                                    photo_notes, audio_notes, total_tags, tag_assignments)
+  VALUES (p_user_id, d_total, d_pinned, d_time, d_geofence, d_photo, d_audio, d_tags, d_assignments)
+  ON CONFLICT (user_id) DO UPDATE SET
+    total_notes = s.total_notes + EXCLUDED.total_notes,
+    pinned_notes = s.pinned_notes + EXCLUDED.pinned_notes,
+    time_reminders = s.time_reminders + EXCLUDED.time_reminders,
+    geofence_notes = s.geofence_notes + EXCLUDED.geofence_notes,
+    photo_notes = s.photo_notes + EXCLUDED.photo_notes,
+    audio_notes = s.audio_notes + EXCLUDED.audio_notes,
+    total_tags = s.total_tags + EXCLUDED.total_tags,
+    tag_assignments = s.tag_assignments + EXCLUDED.tag_assignments,
+    updated_at = NOW();
+END;
+$$ LANGUAGE plpgsql;
+
+-- OLD is NULL on INSERT and NEW is NULL on DELETE, so one expression covers all three operations
+CREATE OR REPLACE FUNCTION user_note_stats_notes_trigger() RETURNS TRIGGER AS $$
+BEGIN
+  PERFORM bump_user_note_stats(
+    COALESCE(NEW.user_id, OLD.user_id),
+    (TG_OP <> 'DELETE')::int - (TG_OP <> 'INSERT')::int,
+    COALESCE(NEW.pinned, FALSE)::int - COALESCE(OLD.pinned, FALSE)::int,
+    (NEW.reminder_time IS NOT NULL)::int - (OLD.reminder_time IS NOT NULL)::int,
+    (NEW.geofence IS NOT NULL)::int - (OLD.geofence IS NOT NULL)::int,
+    (NEW.image_file IS NOT NULL)::int - (OLD.image_file IS NOT NULL)::int,
+    (NEW.audio_file IS NOT NULL)::int - (OLD.audio_file IS NOT NULL)::int,
+    0, 0);
+  RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION user_note_stats_tags_trigger() RETURNS TRIGGER AS $$
+BEGIN
+  PERFORM bump_user_note_stats(COALESCE(NEW.user_id, OLD.user_id), 0, 0, 0, 0, 0, 0,
+    CASE WHEN TG_OP = 'INSERT' THEN 1 ELSE -1 END, 0);
+  RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- The owner comes from the tag, falling back to the note: a cascade from either parent
+-- fires after that parent row is already gone, but the other one is still there
+CREATE OR REPLACE FUNCTION user_note_stats_note_tags_trigger() RETURNS TRIGGER AS $$
+DECLARE
+  owner UUID;
+BEGIN
+  SELECT user_id INTO owner FROM tags WHERE id = COALESCE(NEW.tag_id, OLD.tag_id);
+  IF owner IS NULL THEN
+    SELECT user_id INTO owner FROM notes WHERE id = COALESCE(NEW.note_id, OLD.note_id);
+  END IF;
+  IF owner IS NOT NULL THEN
+    PERFORM bump_user_note_stats(owner, 0, 0, 0, 0, 0, 0, 0,
+      CASE WHEN TG_OP = 'INSERT' THEN 1 ELSE -1 END);
+  END IF;
+  RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS user_note_stats_notes ON notes;
+CREATE TRIGGER user_note_stats_notes
+  AFTER INSERT OR DELETE OR UPDATE OF pinned, reminder_time, geofence, image_file, audio_file ON notes
+  FOR EACH ROW EXECUTE FUNCTION user_note_stats_notes_trigger();
+
+DROP TRIGGER IF EXISTS user_note_stats_tags ON tags;
+CREATE TRIGGER user_note_stats_tags
+  AFTER INSERT OR DELETE ON tags
+  FOR EACH ROW EXECUTE FUNCTION user_note_stats_tags_trigger();
+
+DROP TRIGGER IF EXISTS user_note_stats_note_tags ON note_tags;
+CREATE TRIGGER user_note_stats_note_tags
+  AFTER INSERT OR DELETE ON note_tags
+  FOR EACH ROW EXECUTE FUNCTION user_note_stats_note_tags_trigger();
+
+-- Backfill (safe to re-run: recomputes every row from the base tables)
+INSERT INTO user_note_stats (user_id, total_notes, pinned_notes, time_reminders, geofence_notes,
+                             photo_notes, audio_notes, total_tags, tag_assignments)
+SELECT u.user_id,
+       COALESCE(n.total_notes, 0), COALESCE(n.pinned_notes, 0), COALESCE(n.time_reminders, 0),
+       COALESCE(n.geofence_notes, 0), COALESCE(n.photo_notes, 0), COALESCE(n.audio_notes, 0),
+       COALESCE(t.total_tags, 0), COALESCE(a.tag_assignments, 0)
+FROM (SELECT user_id FROM notes UNION SELECT user_id FROM tags) u
+LEFT JOIN (
+  SELECT user_id,
+         COUNT(*) AS total_notes,
+         COUNT(*) FILTER (WHERE pinned) AS pinned_notes,
+         COUNT(reminder_time) AS time_reminders,
+         COUNT(geofence) AS geofence_notes,
+         COUNT(image_file) AS photo_notes,
+         COUNT(audio_file) AS audio_notes
+  FROM notes GROUP BY user_id
+) n ON n.user_id = u.user_id
+LEFT JOIN (SELECT user_id, COUNT(*) AS total_tags FROM tags GROUP BY user_id) t ON t.user_id = u.user_id
+LEFT JOIN (
+  SELECT tg.user_id, COUNT(*) AS tag_assignments
+  FROM note_tags nt JOIN tags tg ON tg.id = nt.tag_id GROUP BY tg.user_id
+) a ON a.user_id = u.user_id
+ON CONFLICT (user_id) DO UPDATE SET
+  total_notes = EXCLUDED.total_notes,
+  pinned_notes = EXCLUDED.pinned_notes,
+  time_reminders = EXCLUDED.time_reminders,
+  geofence_notes = EXCLUDED.geofence_notes,
+  photo_notes = EXCLUDED.photo_notes,
+  audio_notes = EXCLUDED.audio_notes,
+  total_tags = EXCLUDED.total_tags,
+  tag_assignments = EXCLUDED.tag_assignments,
+  updated_at = NOW();
@@ -0,0 +1,12 @@
+-- Delivered time reminders, so a reminder fires at least once and is not repeated after a restart
+CREATE TABLE IF NOT EXISTS reminder_deliveries (
+  id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+  note_id BIGINT NOT NULL REFERENCES notes(id) ON DELETE CASCADE,
+  user_id UUID NOT NULL,
+  reminder_time TIMESTAMPTZ NOT NULL,
+  delivered_at TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+  attempts INT NOT NULL,
+  UNIQUE (note_id, reminder_time)
+);
+
+COMMENT ON TABLE reminder_deliveries IS 'One row per delivered (note, reminder_time). Moving a reminder makes it deliverable again.';
@@ -0,0 +1,23 @@
+-- Leases for background jobs, so each (job, partition) runs on one replica per interval
+CREATE TABLE IF NOT EXISTS job_leases (
+  job_name TEXT NOT NULL,
+  partition_no INT NOT NULL,
+  owner TEXT,
+  lease_until TIMESTAMPTZ NOT NULL DEFAULT 'epoch',
+  next_run_at TIMESTAMPTZ NOT NULL DEFAULT 'epoch',
+  last_started_at TIMESTAMPTZ,
+  last_finished_at TIMESTAMPTZ,
+  last_error TEXT,
+  PRIMARY KEY (job_name, partition_no)
+);
+
+COMMENT ON TABLE job_leases IS 'One row per job partition. A replica claims due rows with FOR UPDATE SKIP LOCKED and holds them until lease_until; an expired lease (crashed owner) can be claimed by anyone.';
+
+-- Reminder deliveries become claims: a row with delivered_at NULL is a replica delivering it
+-- right now (until claimed_until), so two replicas never notify for the same reminder at once
+ALTER TABLE reminder_deliveries ALTER COLUMN delivered_at DROP NOT NULL;
+ALTER TABLE reminder_deliveries ALTER COLUMN delivered_at DROP DEFAULT;
+ALTER TABLE reminder_deliveries ADD COLUMN IF NOT EXISTS claimed_by TEXT;
+ALTER TABLE reminder_deliveries ADD COLUMN IF NOT EXISTS claimed_until TIMESTAMPTZ;
+
+CREATE INDEX IF NOT EXISTS idx_reminder_deliveries_reminder_time ON reminder_deliveries (reminder_time);
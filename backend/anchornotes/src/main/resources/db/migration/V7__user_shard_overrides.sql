@@ -0,0 +1,10 @@
+-- Shard directory: users placed somewhere other than their consistent-hash shard.
+-- Only read on the primary shard; harmless (empty) on the others.
+CREATE TABLE IF NOT EXISTS user_shard_overrides (
+  user_id UUID PRIMARY KEY,
+  shard TEXT NOT NULL,
+  moving BOOLEAN NOT NULL DEFAULT false,
+  updated_at TIMESTAMPTZ NOT NULL DEFAULT NOW()
+);
+
+COMMENT ON TABLE user_shard_overrides IS 'Per-user shard assignments written by the rebalance tool. While moving is true the user''s writes are rejected and their data is being copied to shard.';
@@ -0,0 +1,20 @@
+-- note_tags carries the owner of the note, so it can be partitioned by user_id (V9) and
+-- every join to it can name the user
+ALTER TABLE note_tags ADD COLUMN IF NOT EXISTS user_id UUID;
+
+UPDATE note_tags nt SET user_id = n.user_id
+FROM notes n
+WHERE n.id = nt.note_id AND nt.user_id IS NULL;
+
+ALTER TABLE note_tags ALTER COLUMN user_id SET NOT NULL;
+
+COMMENT ON COLUMN note_tags.user_id IS 'Owner of the note (and the tag); written by the application with each link.';
+
+-- The owner is now on the row itself
+CREATE OR REPLACE FUNCTION user_note_stats_note_tags_trigger() RETURNS TRIGGER AS $$
+BEGIN
+  PERFORM bump_user_note_stats(COALESCE(NEW.user_id, OLD.user_id), 0, 0, 0, 0, 0, 0, 0,
+    CASE WHEN TG_OP = 'INSERT' THEN 1 ELSE -1 END);
+  RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
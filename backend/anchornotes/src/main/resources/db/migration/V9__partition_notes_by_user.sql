@@ -0,0 +1,92 @@
+-- Hash-partition notes and note_tags by user_id into 16 partitions each, so a per-user query
+-- touches one partition and vacuum and index maintenance work on 1/16 of the rows at a time.
+-- Rebuilds both tables in one transaction; writes to them are blocked while it runs.
+-- The primary keys become (id, user_id) and (note_id, tag_id, user_id), and the tables that
+-- reference notes do so through (note_id, user_id). Grants and RLS policies on the old tables
+-- are not carried over.
+BEGIN;
+
+LOCK TABLE notes, note_tags IN ACCESS EXCLUSIVE MODE;
+
+ALTER TABLE notes RENAME TO notes_unpartitioned;
+ALTER TABLE note_tags RENAME TO note_tags_unpartitioned;
+
+CREATE TABLE notes (
+  LIKE notes_unpartitioned INCLUDING DEFAULTS INCLUDING IDENTITY INCLUDING COMMENTS,
+  PRIMARY KEY (id, user_id)
+) PARTITION BY HASH (user_id);
+
+CREATE TABLE note_tags (
+  LIKE note_tags_unpartitioned INCLUDING DEFAULTS INCLUDING COMMENTS,
+  PRIMARY KEY (note_id, tag_id, user_id)
+) PARTITION BY HASH (user_id);
+
+DO $$
+BEGIN
+  FOR i IN 0..15 LOOP
+    EXECUTE format('CREATE TABLE notes_p%s PARTITION OF notes FOR VALUES WITH (MODULUS 16, REMAINDER %s)',
+                   lpad(i::text, 2, '0'), i);
+    EXECUTE format('CREATE TABLE note_tags_p%s PARTITION OF note_tags FOR VALUES WITH (MODULUS 16, REMAINDER %s)',
+                   lpad(i::text, 2, '0'), i);
+  END LOOP;
+END $$;
+
+INSERT INTO notes SELECT * FROM notes_unpartitioned;
+INSERT INTO note_tags SELECT * FROM note_tags_unpartitioned;
+
+-- Keep handing out ids where the old table left off (and with its increment, if shards
+-- interleave ids). An identity column got a fresh sequence; a serial column keeps its own.
+DO $$
+DECLARE
+  old_seq TEXT := pg_get_serial_sequence('notes_unpartitioned', 'id');
+  new_seq TEXT := pg_get_serial_sequence('notes', 'id');
+BEGIN
+  IF new_seq IS NOT NULL AND old_seq IS NOT NULL AND new_seq <> old_seq THEN
+    EXECUTE format('SELECT setval(%L, last_value, is_called) FROM %s', new_seq, old_seq);
+  ELSIF old_seq IS NOT NULL THEN
+    EXECUTE format('ALTER SEQUENCE %s OWNED BY notes.id', old_seq);
+  END IF;
+END $$;
+
+-- Also drops the foreign keys of note_revisions and reminder_deliveries, re-added below
+DROP TABLE note_tags_unpartitioned;
+DROP TABLE notes_unpartitioned CASCADE;
+
+-- Same index names as before; a partition holds many users, so the user index also carries
+-- the list order
+CREATE INDEX idx_notes_user_id ON notes (user_id, last_edited DESC);
+CREATE INDEX idx_notes_reminder_time ON notes (reminder_time);
+CREATE INDEX idx_notes_geofence ON notes (geofence);
+CREATE INDEX idx_notes_last_edited ON notes (last_edited);
+CREATE INDEX idx_note_tags_note_id ON note_tags (note_id);
+CREATE INDEX idx_note_tags_tag_id ON note_tags (tag_id);
+
+ALTER TABLE notes ADD FOREIGN KEY (geofence) REFERENCES geofence(id);
+ALTER TABLE notes ADD FOREIGN KEY (image_file) REFERENCES photo_attachment(id);
+ALTER TABLE notes ADD FOREIGN KEY (audio_file) REFERENCES audio_attachment(id);
+ALTER TABLE note_tags ADD FOREIGN KEY (note_id, user_id) REFERENCES notes (id, user_id) ON DELETE CASCADE;
+ALTER TABLE note_tags ADD FOREIGN KEY (tag_id) REFERENCES tags(id) ON DELETE CASCADE;
+ALTER TABLE note_revisions ADD FOREIGN KEY (note_id, user_id) REFERENCES notes (id, user_id) ON DELETE CASCADE;
+ALTER TABLE reminder_deliveries ADD FOREIGN KEY (note_id, user_id) REFERENCES notes (id, user_id) ON DELETE CASCADE;
+
+-- On Supabase notes.user_id also points at the auth user
+DO $$
+BEGIN
+  IF to_regclass('auth.users') IS NOT NULL THEN
+    ALTER TABLE notes ADD FOREIGN KEY (user_id) REFERENCES auth.users(id);
+  END IF;
+END $$;
+
+-- Stats triggers (V4, V8) were dropped with the old tables; the copy above did not fire them
+CREATE TRIGGER user_note_stats_notes
+  AFTER INSERT OR DELETE OR UPDATE OF pinned, reminder_time, geofence, image_file, audio_file ON notes
+  FOR EACH ROW EXECUTE FUNCTION user_note_stats_notes_trigger();
+
+CREATE TRIGGER user_note_stats_note_tags
+  AFTER INSERT OR DELETE ON note_tags
+  FOR EACH ROW EXECUTE FUNCTION user_note_stats_note_tags_trigger();
+
+COMMIT;
+
+ANALYZE notes;
+ANALYZE note_tags;
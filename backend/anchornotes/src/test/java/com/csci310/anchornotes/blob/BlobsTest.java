@@ -0,0 +1,53 @@
+package com.csci310.anchornotes.blob;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BlobsTest {
+
+    private static final UUID USER = UUID.fromString("00000000-0000-0000-0000-000000000001");
+
+    @Test
+    void hashesTheWholeStreamAcrossBufferBoundaries() throws IOException {
+        assertEquals("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad",
+                Blobs.sha256(new ByteArrayInputStream("abc".getBytes(StandardCharsets.US_ASCII))));
+        assertEquals("e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855",
+                Blobs.sha256(new ByteArrayInputStream(new byte[0])));
+
+        byte[] large = new byte[200_000];
+        new Random(7).nextBytes(large);
+        byte[] changed = large.clone();
+        changed[150_000] ^= 1;
+        String hash = Blobs.sha256(new ByteArrayInputStream(large));
+        assertEquals(hash, Blobs.sha256(new ByteArrayInputStream(large.clone())));
+        assertNotEquals(hash, Blobs.sha256(new ByteArrayInputStream(changed)));
+    }
+
+    @Test
+    void onlyHexSha256IsAccepted() {
+        String hash = "BA7816BF8F01CFEA414140DE5DAE2223B00361A396177A9CB410FF61F20015AD";
+        assertEquals(hash.toLowerCase(), Blobs.normalize(hash));
+        assertNull(Blobs.normalize(hash.substring(1)));
+        assertNull(Blobs.normalize(hash.substring(1) + "g"));
+        assertNull(Blobs.normalize("../" + hash));
+        assertNull(Blobs.normalize(null));
+    }
+
+    @Test
+    void filePathIsTheUserAndHashWithASaneExtension() {
+        String hash = "ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad";
+        assertEquals(USER + "/" + hash + ".jpg", Blobs.filePath(USER, hash, "IMG_0001.JPG"));
+        assertEquals(USER + "/" + hash + ".m4a", Blobs.filePath(USER, hash, "voice.note.m4a"));
+        assertEquals(USER + "/" + hash, Blobs.filePath(USER, hash, "upload"));
+        assertEquals(USER + "/" + hash, Blobs.filePath(USER, hash, null));
+        assertEquals(USER + "/" + hash, Blobs.filePath(USER, hash, "x.../../etc"));
+        assertEquals(USER + "/" + hash, Blobs.filePath(USER, hash, "photo."));
+    }
+}
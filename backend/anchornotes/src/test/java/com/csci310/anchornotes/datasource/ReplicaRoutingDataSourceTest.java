@@ -0,0 +1,168 @@
+package com.csci310.anchornotes.datasource;
+
+import com.csci310.anchornotes.config.ReadReplicaProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Drives the routing DataSource through real Spring transactions against two stub pools that
+ * only count the connections handed out.
+ */
+class ReplicaRoutingDataSourceTest {
+
+    private StubDataSource primary;
+    private StubDataSource replica;
+    private ReadReplicaProperties properties;
+    private ReadReplicaRouter router;
+    private DataSourceTransactionManager transactionManager;
+    private DataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        primary = new StubDataSource();
+        replica = new StubDataSource();
+        properties = new ReadReplicaProperties();
+        properties.setReadYourWritesWindow(Duration.ofMillis(200));
+        properties.setMaxLag(Duration.ofSeconds(1));
+        router = new ReadReplicaRouter(properties, replica, new SimpleMeterRegistry());
+
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(router);
+        routing.setTargetDataSources(Map.of(
+                ReadReplicaRouter.Target.PRIMARY, primary,
+                ReadReplicaRouter.Target.REPLICA, replica));
+        routing.setDefaultTargetDataSource(primary);
+        routing.afterPropertiesSet();
+        LazyConnectionDataSourceProxy lazy = new LazyConnectionDataSourceProxy(routing);
+        // otherwise the proxy borrows a primary connection once to detect them
+        lazy.setDefaultAutoCommit(true);
+        lazy.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        dataSource = lazy;
+        transactionManager = new DataSourceTransactionManager(dataSource);
+    }
+
+    @Test
+    void readOnlyTransactionsUseReplicaAndWritesUsePrimary() {
+        assertSame(replica, runQuery(null, true));
+        assertSame(primary, runQuery(null, false));
+    }
+
+    @Test
+    void userReadsOwnWritesFromPrimaryUntilWindowPasses() throws InterruptedException {
+        router.recordWrite("alice");
+
+        assertSame(primary, runQuery("alice", true));
+        assertSame(replica, runQuery("bob", true), "other users are unaffected");
+
+        Thread.sleep(300);
+        assertSame(replica, runQuery("alice", true));
+    }
+
+    @Test
+    void laggingOrUnreachableReplicaSendsReadsToPrimary() {
+        replica.lagMillis = 5_000;
+        router.checkReplica();
+        assertSame(primary, runQuery(null, true));
+
+        replica.lagMillis = 0;
+        router.checkReplica();
+        assertSame(replica, runQuery(null, true));
+
+        replica.down = true;
+        router.checkReplica();
+        assertSame(primary, runQuery(null, true));
+    }
+
+    @Test
+    void lagStretchesReadYourWritesWindow() throws InterruptedException {
+        replica.lagMillis = 600;
+        router.checkReplica();
+        router.recordWrite("alice");
+
+        Thread.sleep(300);
+        assertSame(primary, runQuery("alice", true), "still behind by more than the configured window");
+    }
+
+    /**
+     * Run one statement in a transaction as the given user and return the pool it used.
+     */
+    private StubDataSource runQuery(String userId, boolean readOnly) {
+        int primaryBefore = primary.connections.get();
+        int replicaBefore = replica.connections.get();
+
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(readOnly);
+        try (RoutingContext.Scope ignored = RoutingContext.bindUser(userId)) {
+            template.executeWithoutResult(status -> {
+                try {
+                    DataSourceUtils.getConnection(dataSource).createStatement();
+                } catch (SQLException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+        }
+
+        boolean usedPrimary = primary.connections.get() > primaryBefore;
+        boolean usedReplica = replica.connections.get() > replicaBefore;
+        assertNotEquals(usedPrimary, usedReplica, "exactly one pool should be used");
+        return usedPrimary ? primary : replica;
+    }
+
+    /**
+     * Hands out proxy connections that answer the calls Spring makes and a one-row result
+     * for the replica lag query.
+     */
+    private static class StubDataSource extends AbstractDataSource {
+
+        final AtomicInteger connections = new AtomicInteger();
+        volatile boolean down;
+        volatile long lagMillis;
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (down) {
+                throw new SQLException("connection refused");
+            }
+            connections.incrementAndGet();
+            return proxy(Connection.class);
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return getConnection();
+        }
+
+        private <T> T proxy(Class<T> type) {
+            return type.cast(Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{type},
+                    (proxy, method, args) -> switch (method.getName()) {
+                        case "getAutoCommit", "next" -> true;
+                        case "getTransactionIsolation" -> Connection.TRANSACTION_READ_COMMITTED;
+                        case "isClosed", "isReadOnly", "wasNull" -> false;
+                        case "createStatement" -> proxy(Statement.class);
+                        case "executeQuery" -> proxy(ResultSet.class);
+                        case "getLong" -> lagMillis;
+                        case "toString" -> "stub " + type.getSimpleName();
+                        case "hashCode" -> System.identityHashCode(proxy);
+                        case "equals" -> proxy == args[0];
+                        default -> null;
+                    }));
+        }
+    }
+}
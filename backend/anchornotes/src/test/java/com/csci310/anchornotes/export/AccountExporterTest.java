@@ -0,0 +1,250 @@
+package com.csci310.anchornotes.export;
+
+import com.csci310.anchornotes.config.ExportProperties;
+import com.csci310.anchornotes.config.SupabaseConfig;
+import com.csci310.anchornotes.entity.AudioAttachment;
+import com.csci310.anchornotes.entity.Geofence;
+import com.csci310.anchornotes.entity.PhotoAttachment;
+import com.csci310.anchornotes.entity.Tag;
+import com.csci310.anchornotes.exception.ServiceUnavailableException;
+import com.csci310.anchornotes.repository.NoteRepository;
+import com.csci310.anchornotes.repository.TemplateRepository;
+import com.csci310.anchornotes.service.ExportService;
+import com.csci310.anchornotes.service.SupabaseStorageService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Proxy;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.LongStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Streams exports from an in-memory {@link ExportService} and a local storage stub, and reads
+ * the output back.
+ */
+class AccountExporterTest {
+
+    private static final String USER = "cab3bea0-57a3-30da-bde4-f21c5df35821";
+    private static final byte[] PHOTO = "not really a jpeg".getBytes(StandardCharsets.UTF_8);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private HttpServer storage;
+    private StubExportService data;
+    private ExportProperties properties;
+    private AccountExporter exporter;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        storage = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        storage.createContext("/storage/v1/object/attachment/", exchange -> {
+            if (exchange.getRequestURI().getPath().endsWith("/photo-1.jpg")) {
+                exchange.sendResponseHeaders(200, PHOTO.length);
+                try (OutputStream body = exchange.getResponseBody()) {
+                    body.write(PHOTO);
+                }
+            } else {
+                exchange.sendResponseHeaders(404, -1);
+                exchange.close();
+            }
+        });
+        storage.start();
+
+        SupabaseConfig supabase = new SupabaseConfig();
+        supabase.setUrl("http://127.0.0.1:" + storage.getAddress().getPort());
+        supabase.setServiceRole("service-role");
+
+        data = new StubExportService();
+        properties = new ExportProperties();
+        properties.setPageSize(100);
+        properties.setMaxConcurrentExports(1);
+        properties.setPageRetryBackoff(Duration.ofMillis(10));
+        exporter = new AccountExporter(data, new SupabaseStorageService(supabase), properties, objectMapper,
+                new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        storage.stop(0);
+    }
+
+    @Test
+    void ndjsonPagesThroughEveryRecord() throws IOException {
+        data.notes = 1_234;
+
+        List<JsonNode> lines = readLines(export(ExportFormat.NDJSON));
+
+        assertEquals("export", lines.get(0).get("type").asText());
+        JsonNode end = lines.get(lines.size() - 1);
+        assertEquals("end", end.get("type").asText());
+        assertEquals(1_234, end.get("counts").get("note").asInt());
+        assertEquals(3, end.get("counts").get("tag").asInt());
+
+        List<JsonNode> notes = lines.stream().filter(line -> line.get("type").asText().equals("note")).toList();
+        assertEquals(1_234, notes.size());
+        assertEquals(LongStream.rangeClosed(1, 1_234).boxed().toList(),
+                notes.stream().map(note -> note.get("id").asLong()).toList(), "every note once, in id order");
+        assertEquals("[1,3]", notes.get(0).get("tagIds").toString());
+        assertEquals("[]", notes.get(1).get("tagIds").toString());
+
+        // 12 full pages and a short one, each starting after the previous page's last id
+        assertEquals(13, data.notePages.size());
+        assertEquals(List.of(0L, 100L, 200L), data.notePages.subList(0, 3));
+        assertEquals(1_200L, data.notePages.get(12));
+    }
+
+    @Test
+    void zipHoldsAttachmentBytesAndMarksMissingOnes() throws IOException {
+        Map<String, byte[]> entries = new HashMap<>();
+        List<String> order = new ArrayList<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(export(ExportFormat.ZIP)))) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                order.add(entry.getName());
+                entries.put(entry.getName(), zip.readAllBytes());
+            }
+        }
+
+        assertEquals(AccountExporter.NDJSON_ENTRY, order.get(0));
+        assertArrayEquals(PHOTO, entries.get("attachments/photos/1.jpg"));
+        assertTrue(entries.containsKey("attachments/photos/2.png.missing"), order.toString());
+        assertTrue(entries.containsKey("attachments/audio/1.m4a.missing"), order.toString());
+        assertFalse(entries.containsKey("attachments/photos/2.png"));
+
+        List<JsonNode> lines = readLines(entries.get(AccountExporter.NDJSON_ENTRY));
+        JsonNode photo = lines.stream().filter(line -> line.get("type").asText().equals("photo")).findFirst().orElseThrow();
+        assertEquals("attachments/photos/1.jpg", photo.get("file").asText());
+        assertEquals("end", lines.get(lines.size() - 1).get("type").asText());
+    }
+
+    @Test
+    void busyPageIsRetried() throws IOException {
+        data.busyReads.set(2);
+        properties.setPageAttempts(3);
+
+        List<JsonNode> lines = readLines(export(ExportFormat.NDJSON));
+
+        assertEquals("end", lines.get(lines.size() - 1).get("type").asText());
+    }
+
+    @Test
+    void exportsBeyondTheLimitAreRejected() {
+        AccountExporter.Permit first = exporter.reserve();
+        assertThrows(ServiceUnavailableException.class, exporter::reserve);
+
+        first.close();
+        first.close();
+        try (AccountExporter.Permit second = exporter.reserve()) {
+            assertThrows(ServiceUnavailableException.class, exporter::reserve, "a double close frees one slot only");
+        }
+    }
+
+    @Test
+    void attachmentPathKeepsPlausibleExtensions() {
+        assertEquals("attachments/photos/7.jpg", AccountExporter.attachmentPath("photos", 7L, "https://x/a/b_IMG.JPG"));
+        assertEquals("attachments/audio/7.m4a", AccountExporter.attachmentPath("audio", 7L, "b.m4a?token=1"));
+        assertEquals("attachments/photos/7", AccountExporter.attachmentPath("photos", 7L, "https://x/a/noext"));
+        assertEquals("attachments/photos/7", AccountExporter.attachmentPath("photos", 7L, "a.b/c..strange-ext"));
+    }
+
+    private byte[] export(ExportFormat format) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (AccountExporter.Permit ignored = exporter.reserve()) {
+            exporter.export(USER, format, out);
+        }
+        return out.toByteArray();
+    }
+
+    private List<JsonNode> readLines(byte[] ndjson) throws IOException {
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : new String(ndjson, StandardCharsets.UTF_8).split("\n")) {
+            lines.add(objectMapper.readTree(line));
+        }
+        return lines;
+    }
+
+    /** Serves generated rows with keyset semantics and records where each note page started. */
+    private static class StubExportService extends ExportService {
+
+        int notes = 5;
+        final List<Long> notePages = new ArrayList<>();
+        final AtomicInteger busyReads = new AtomicInteger();
+
+        StubExportService() {
+            super(null, null, null, null, null, null);
+        }
+
+        @Override
+        public List<Tag> findTagPage(String userId, long afterId, int limit) {
+            busy();
+            return page(3, afterId, limit, id -> Tag.builder().id(id).name("tag " + id).color("#fff").build());
+        }
+
+        @Override
+        public List<Geofence> findGeofencePage(String userId, long afterId, int limit) {
+            return page(1, afterId, limit, id -> Geofence.builder().id(id).latitude(34.0).longitude(-118.3)
+                    .radius(100).build());
+        }
+
+        @Override
+        public List<PhotoAttachment> findPhotoPage(String userId, long afterId, int limit) {
+            return page(2, afterId, limit, id -> PhotoAttachment.builder().id(id)
+                    .mediaUrl(id == 1 ? "photo-1.jpg" : "photo-" + id + ".png").mediaType("image").build());
+        }
+
+        @Override
+        public List<AudioAttachment> findAudioPage(String userId, long afterId, int limit) {
+            return page(1, afterId, limit, id -> AudioAttachment.builder().id(id).mediaUrl("voice.m4a").build());
+        }
+
+        @Override
+        public List<TemplateRepository.TemplateExportRow> findTemplatePage(String userId, long afterId, int limit) {
+            return page(2, afterId, limit, id -> row(TemplateRepository.TemplateExportRow.class,
+                    Map.of("getId", id, "getName", "template " + id, "getPinned", false)));
+        }
+
+        @Override
+        public List<NoteRepository.NoteExportRow> findNotePage(String userId, long afterId, int limit) {
+            notePages.add(afterId);
+            return page(notes, afterId, limit, id -> row(NoteRepository.NoteExportRow.class,
+                    Map.of("getId", id, "getTitle", "note " + id, "getText", "body", "getPinned", true,
+                            "getCreatedAt", Instant.EPOCH, "getTagIds", id % 2 == 1 ? "1,3" : "")));
+        }
+
+        private void busy() {
+            if (busyReads.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+                throw new ServiceUnavailableException("Server is busy, please retry shortly");
+            }
+        }
+
+        private static <T> List<T> page(int total, long afterId, int limit, Function<Long, T> row) {
+            return LongStream.rangeClosed(afterId + 1, Math.min(total, afterId + limit)).mapToObj(row::apply).toList();
+        }
+
+        private static <T> T row(Class<T> type, Map<String, Object> values) {
+            return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                    (proxy, method, args) -> values.get(method.getName())));
+        }
+    }
+}
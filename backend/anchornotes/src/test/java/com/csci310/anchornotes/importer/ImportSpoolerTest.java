@@ -0,0 +1,132 @@
+package com.csci310.anchornotes.importer;
+
+import com.csci310.anchornotes.config.ImportProperties;
+import com.csci310.anchornotes.exception.BadRequestException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Spools NDJSON uploads into a temporary directory and reads the COPY files back.
+ */
+class ImportSpoolerTest {
+
+    @TempDir
+    Path spool;
+
+    private ImportProperties properties;
+    private ImportSpooler spooler;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ImportProperties();
+        properties.setSpoolDirectory(spool.toString());
+        spooler = new ImportSpooler(properties, new ObjectMapper());
+    }
+
+    @Test
+    void exportRecordsAreStagedWithTagIdsResolvedToNames() throws IOException {
+        StagedImport staged = spool("""
+                {"type":"export","version":1}
+                {"type":"tag","id":7,"name":"Work","color":"#8B5CF6"}
+                {"type":"tag","id":9,"name":"Home","color":null}
+                {"type":"geofence","id":3,"latitude":34.02,"longitude":-118.28,"radius":150,"addressName":"USC"}
+                {"type":"photo","id":1,"url":"x.jpg"}
+                {"type":"note","id":1,"title":"Plan","text":"a","pinned":true,"createdAt":"2025-01-31T09:00:00Z","geofenceId":3,"tagIds":[9,7,9]}
+                {"type":"end","counts":{}}
+                """);
+
+        assertEquals(7, staged.linesRead());
+        assertEquals(0, staged.rejected(), staged.errors().toString());
+        assertEquals(1, staged.skipped());
+        assertEquals(List.of("Work\t#8B5CF6", "Home\t\\N"), read(staged, StagedImport.TAGS));
+        assertEquals(List.of("3\t34.02\t-118.28\t150\tUSC\t\\N"), read(staged, StagedImport.GEOFENCES));
+        assertEquals(List.of("1\tPlan\ta\ttrue\t\\N\t2025-01-31T09:00:00Z\t\\N\t\\N\t3"), read(staged, StagedImport.NOTES));
+        assertEquals(List.of("1\tHome", "1\tWork"), read(staged, StagedImport.NOTE_TAGS), "each tag once per note");
+        assertEquals(List.of(), staged.errors());
+    }
+
+    @Test
+    void plainNotesEscapeTextAndStageInlineGeofences() throws IOException {
+        StagedImport staged = spool("""
+                {"title":"tab\\there","text":"line one\\nline two\\r\\nback\\\\slash","tags":[" Ideas ","Ideas"]}
+                {"text":"second","geofence":{"latitude":1.5,"longitude":2.5,"radius":50}}
+                """);
+
+        assertEquals(0, staged.rejected(), staged.errors().toString());
+        assertEquals(List.of(
+                "1\ttab\\there\tline one\\nline two\\r\\nback\\\\slash\tfalse\t\\N\t\\N\t\\N\t\\N\t\\N",
+                "2\t\\N\tsecond\tfalse\t\\N\t\\N\t\\N\t\\N\t-2"), read(staged, StagedImport.NOTES));
+        assertEquals(List.of("-2\t1.5\t2.5\t50\t\\N\t\\N"), read(staged, StagedImport.GEOFENCES));
+        assertEquals(List.of("1\tIdeas"), read(staged, StagedImport.NOTE_TAGS));
+    }
+
+    @Test
+    void badLinesAreRejectedOnTheirOwn() throws IOException {
+        properties.setMaxLineLength(200);
+        StagedImport staged = spool("""
+                {"type":"note","text":"fine"}
+                not json
+                {"type":"note","tagIds":[42]}
+                {"type":"tag","name":"  "}
+                {"type":"note","createdAt":"yesterday"}
+                {"type":"geofence","latitude":91,"longitude":0,"radius":10}
+                {"type":"comment"}
+                {"type":"note","text":"%s"}
+
+                {"type":"note","text":"also fine"}
+                """.formatted("x".repeat(300)));
+
+        assertEquals(10, staged.linesRead());
+        assertEquals(7, staged.rejected());
+        assertEquals(2, staged.notes());
+        assertEquals(0, staged.noteTags(), "a rejected note stages none of its tags");
+        assertEquals(7, staged.errors().size());
+        assertTrue(staged.errors().get(0).startsWith("line 2: "), staged.errors().toString());
+        assertTrue(staged.errors().get(1).contains("tagIds 42"), staged.errors().toString());
+        assertTrue(staged.errors().get(6).startsWith("line 8: longer than 200"), staged.errors().toString());
+    }
+
+    @Test
+    void truncatedExportIsReported() throws IOException {
+        StagedImport staged = spool("""
+                {"type":"export","version":1}
+                {"type":"note","text":"a"}
+                """);
+
+        assertEquals(1, staged.notes());
+        assertEquals(List.of("no end record: the export looks truncated"), staged.errors());
+    }
+
+    @Test
+    void oversizedUploadsFailAsAWholeAndLeaveNothingBehind() throws IOException {
+        properties.setMaxNotes(2);
+        assertThrows(BadRequestException.class, () -> spool("{}\n{}\n{}\n"));
+
+        properties.setMaxNotes(100);
+        properties.setMaxBytes(64);
+        assertThrows(BadRequestException.class, () -> spool("{\"text\":\"%s\"}\n".formatted("x".repeat(100))));
+
+        try (var left = Files.list(spool)) {
+            assertEquals(0, left.count());
+        }
+    }
+
+    private StagedImport spool(String ndjson) throws IOException {
+        return spooler.spool(new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static List<String> read(StagedImport staged, String file) throws IOException {
+        return Files.readAllLines(staged.file(file), StandardCharsets.UTF_8);
+    }
+}
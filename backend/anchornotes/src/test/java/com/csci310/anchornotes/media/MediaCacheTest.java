@@ -0,0 +1,110 @@
+package com.csci310.anchornotes.media;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The disk cache behind attachment streaming, and how Range and If-Range pick the bytes.
+ */
+class MediaCacheTest {
+
+    private static final String ETAG = "\"abc\"";
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void leastRecentlyUsedFilesAreEvictedOverTheLimit() throws IOException {
+        MediaCache cache = new MediaCache(directory, 10, 10, Duration.ZERO);
+
+        MediaCache.Cached a = cache.put("attachment/a", bytes(4), 4);
+        cache.put("attachment/b", bytes(4), 4);
+        assertNotNull(cache.get("attachment/a"), "a is now the most recently used");
+        cache.put("attachment/c", bytes(4), 4);
+
+        assertNull(cache.get("attachment/b"));
+        assertEquals(a, cache.get("attachment/a"));
+        assertNotNull(cache.get("attachment/c"));
+        assertEquals(8, cache.size());
+        assertEquals(2, cache.count());
+        assertArrayEquals(new byte[] {0, 1, 2, 3}, Files.readAllBytes(a.path()));
+        try (var files = Files.list(directory)) {
+            assertEquals(2, files.count(), "the evicted file is deleted");
+        }
+    }
+
+    @Test
+    void oversizedAndShortFilesAreNotCached() throws IOException {
+        MediaCache cache = new MediaCache(directory, 100, 10, Duration.ZERO);
+
+        assertFalse(cache.accepts(11));
+        assertNull(cache.put("attachment/big", bytes(11), 11));
+        assertThrows(IOException.class, () -> cache.put("attachment/short", bytes(3), 5));
+
+        assertNull(cache.get("attachment/short"));
+        assertEquals(0, cache.size());
+        try (var files = Files.list(directory)) {
+            assertEquals(0, files.count(), "no temporary file is left behind");
+        }
+    }
+
+    @Test
+    void evictedFilesOutliveTheirGraceAndLeftoversAreDeletedOnStartup() throws IOException {
+        MediaCache cache = new MediaCache(directory, 4, 4, Duration.ofHours(1));
+        MediaCache.Cached a = cache.put("attachment/a", bytes(4), 4);
+        cache.put("attachment/b", bytes(4), 4);
+
+        assertNull(cache.get("attachment/a"));
+        assertTrue(Files.exists(a.path()), "a response may still be about to open it");
+
+        Files.writeString(directory.resolve("notes.txt"), "not ours");
+        new MediaCache(directory, 4, 4, Duration.ZERO);
+        try (var files = Files.list(directory)) {
+            assertEquals(1, files.count(), "only the cache's own files are deleted");
+        }
+    }
+
+    @Test
+    void singleRangesAreServedAndEverythingElseGetsTheWholeFile() {
+        assertEquals(new ByteRange(0, 99), ByteRange.select("bytes=0-99", null, ETAG, 1000));
+        assertEquals(new ByteRange(900, 999), ByteRange.select("bytes=900-", null, ETAG, 1000));
+        assertEquals(new ByteRange(950, 999), ByteRange.select("bytes=-50", null, ETAG, 1000));
+        assertEquals(new ByteRange(500, 999), ByteRange.select("bytes=500-5000", null, ETAG, 1000));
+        assertEquals("bytes 500-999/1000", new ByteRange(500, 999).contentRange(1000));
+
+        assertNull(ByteRange.select(null, null, ETAG, 1000));
+        assertNull(ByteRange.select("bytes=0-1,5-6", null, ETAG, 1000));
+        assertNull(ByteRange.select("lines=1-2", null, ETAG, 1000));
+        assertSame(ByteRange.UNSATISFIABLE, ByteRange.select("bytes=1000-", null, ETAG, 1000));
+        assertSame(ByteRange.UNSATISFIABLE, ByteRange.select("bytes=0-10", null, ETAG, 0));
+        assertEquals("bytes */1000", ByteRange.UNSATISFIABLE.contentRange(1000));
+    }
+
+    @Test
+    void ifRangeMustMatchTheEntityTagExactly() {
+        assertEquals(new ByteRange(10, 19), ByteRange.select("bytes=10-19", ETAG, ETAG, 1000));
+        assertNull(ByteRange.select("bytes=10-19", "\"other\"", ETAG, 1000));
+        assertNull(ByteRange.select("bytes=10-19", "W/" + ETAG, ETAG, 1000));
+        assertNull(ByteRange.select("bytes=10-19", "Wed, 21 Oct 2015 07:28:00 GMT", ETAG, 1000));
+
+        assertEquals("bytes=10-19", ByteRange.forward(" bytes=10-19", ETAG, ETAG));
+        assertNull(ByteRange.forward("bytes=10-19", "\"other\"", ETAG));
+        assertNull(ByteRange.forward("bytes=0-1,5-6", null, ETAG));
+    }
+
+    private static ByteArrayInputStream bytes(int length) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = (byte) i;
+        }
+        return new ByteArrayInputStream(bytes);
+    }
+}
@@ -0,0 +1,176 @@
+package com.csci310.anchornotes.photo;
+
+import com.csci310.anchornotes.blob.BlobSource;
+import com.csci310.anchornotes.config.PhotoProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Normalizes camera-like JPEGs drawn in memory, with metadata spliced in by hand.
+ */
+class PhotoNormalizerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private PhotoNormalizer normalizer;
+
+    @AfterEach
+    void shutdown() throws InterruptedException {
+        if (normalizer != null) {
+            normalizer.shutdown();
+        }
+    }
+
+    @Test
+    void largePhotoIsScaledDownAndKeepsOnlyItsOrientation() throws IOException {
+        normalizer = new PhotoNormalizer(properties(Duration.ofSeconds(30)), meterRegistry);
+        byte[] upload = withMetadata(jpeg(2400, 1800), 6);
+
+        BlobSource result = normalizer.normalize(source(upload, "IMG_0001.JPG"));
+
+        byte[] stored = read(result);
+        assertTrue(stored.length < upload.length / 2, stored.length + " of " + upload.length);
+        assertEquals(stored.length, result.size());
+        assertEquals("image/jpeg", result.contentType());
+        assertEquals("IMG_0001.JPG", result.fileName());
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(stored));
+        assertEquals(800, image.getWidth());
+        assertEquals(600, image.getHeight());
+        assertEquals(6, JpegSegments.orientation(new ByteArrayInputStream(stored)));
+        assertMetadataGone(stored);
+        assertEquals(1, meterRegistry.counter("app.photos.normalized", "result", "recompressed").count());
+        assertEquals(upload.length - stored.length, meterRegistry.counter("app.photos.bytes.saved").count());
+    }
+
+    @Test
+    void whenNoWorkerIsFreeMetadataIsStillStripped() throws IOException {
+        normalizer = new PhotoNormalizer(properties(Duration.ZERO), meterRegistry);
+        byte[] upload = withMetadata(jpeg(2400, 1800), 3);
+
+        BlobSource result = normalizer.normalize(source(upload, "photo.jpeg"));
+
+        byte[] stored = read(result);
+        assertEquals(3, JpegSegments.orientation(new ByteArrayInputStream(stored)));
+        assertMetadataGone(stored);
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(stored));
+        assertEquals(2400, image.getWidth(), "not re-encoded");
+        assertEquals(1, meterRegistry.counter("app.photos.normalized", "result", "dropped").count());
+    }
+
+    @Test
+    void otherFormatsAreStoredAsUploaded() throws IOException {
+        normalizer = new PhotoNormalizer(properties(Duration.ofSeconds(30)), meterRegistry);
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(40, 40, BufferedImage.TYPE_INT_ARGB), "png", png);
+        BlobSource upload = source(png.toByteArray(), "screenshot.png");
+
+        assertSame(upload, normalizer.normalize(upload));
+        assertEquals(1, meterRegistry.counter("app.photos.normalized", "result", "skipped").count());
+    }
+
+    @Test
+    void copyWithoutMetadataLeavesTheImageDataAlone() throws IOException {
+        byte[] original = jpeg(300, 200);
+        byte[] upload = withMetadata(original, 1);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        JpegSegments.copyWithoutMetadata(new ByteArrayInputStream(upload), out, JpegSegments.UPRIGHT);
+
+        assertArrayEquals(original, out.toByteArray(), "upright photos get no EXIF segment at all");
+        assertEquals(JpegSegments.UPRIGHT, JpegSegments.orientation(new ByteArrayInputStream(original)));
+        assertThrows(IOException.class, () -> JpegSegments.copyWithoutMetadata(
+                new ByteArrayInputStream("GIF89a".getBytes(StandardCharsets.US_ASCII)), new ByteArrayOutputStream(), 1));
+    }
+
+    private static PhotoProperties properties(Duration timeout) {
+        PhotoProperties properties = new PhotoProperties();
+        properties.setMaxDimension(800);
+        properties.setQuality(0.8f);
+        properties.setWorkers(1);
+        properties.setTimeout(timeout);
+        return properties;
+    }
+
+    private static BlobSource source(byte[] bytes, String fileName) {
+        return new BlobSource(new ByteArrayResource(bytes), bytes.length, fileName, "image/jpeg");
+    }
+
+    private static byte[] read(BlobSource source) throws IOException {
+        return source.content().getInputStream().readAllBytes();
+    }
+
+    private static void assertMetadataGone(byte[] stored) {
+        String text = new String(stored, StandardCharsets.ISO_8859_1);
+        assertFalse(text.contains("Pixel"), "camera model");
+        assertFalse(text.contains("34.0522"), "XMP location");
+        assertFalse(text.contains("taken at home"), "comment");
+    }
+
+    /** A noisy gradient at high quality, about as hard to compress as a phone photo. */
+    private static byte[] jpeg(int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Random random = new Random(42);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int r = (x * 255 / width + random.nextInt(24)) & 0xFF;
+                int g = (y * 255 / height + random.nextInt(24)) & 0xFF;
+                image.setRGB(x, y, r << 16 | g << 8 | 0x80);
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "jpg", out);
+        return out.toByteArray();
+    }
+
+    /** Inserts little-endian EXIF (model and orientation), XMP and a comment after the JFIF header. */
+    private static byte[] withMetadata(byte[] jpeg, int orientation) throws IOException {
+        int afterApp0 = 4 + ((jpeg[4] & 0xFF) << 8 | (jpeg[5] & 0xFF));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(jpeg, 0, afterApp0);
+
+        byte[] model = "Pixel 9\0".getBytes(StandardCharsets.US_ASCII);
+        ByteBuffer tiff = ByteBuffer.allocate(8 + 2 + 2 * 12 + 4 + model.length).order(ByteOrder.LITTLE_ENDIAN);
+        tiff.put((byte) 'I').put((byte) 'I').putShort((short) 42).putInt(8);
+        tiff.putShort((short) 2);
+        tiff.putShort((short) 0x0110).putShort((short) 2).putInt(model.length).putInt(8 + 2 + 2 * 12 + 4);
+        tiff.putShort((short) 0x0112).putShort((short) 3).putInt(1).putShort((short) orientation).putShort((short) 0);
+        tiff.putInt(0);
+        tiff.put(model);
+        segment(out, 0xE1, concat("Exif\0\0".getBytes(StandardCharsets.ISO_8859_1), tiff.array()));
+        segment(out, 0xE1, "http://ns.adobe.com/xap/1.0/\0<exif:GPSLatitude>34.0522</exif:GPSLatitude>"
+                .getBytes(StandardCharsets.ISO_8859_1));
+        segment(out, 0xFE, "taken at home".getBytes(StandardCharsets.ISO_8859_1));
+
+        out.write(jpeg, afterApp0, jpeg.length - afterApp0);
+        return out.toByteArray();
+    }
+
+    private static void segment(ByteArrayOutputStream out, int marker, byte[] payload) {
+        out.write(0xFF);
+        out.write(marker);
+        out.write((payload.length + 2) >> 8);
+        out.write((payload.length + 2) & 0xFF);
+        out.write(payload, 0, payload.length);
+    }
+
+    private static byte[] concat(byte[] a, byte[] b) {
+        byte[] joined = new byte[a.length + b.length];
+        System.arraycopy(a, 0, joined, 0, a.length);
+        System.arraycopy(b, 0, joined, a.length, b.length);
+        return joined;
+    }
+}
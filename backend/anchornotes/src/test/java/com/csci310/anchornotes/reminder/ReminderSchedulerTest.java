@@ -0,0 +1,58 @@
+package com.csci310.anchornotes.reminder;
+
+import com.csci310.anchornotes.config.JobProperties;
+import com.csci310.anchornotes.config.ReminderProperties;
+import com.csci310.anchornotes.datasource.ShardRouter;
+import com.csci310.anchornotes.jobs.ClusterNode;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReminderSchedulerTest {
+
+    private static final String OWNER = "00000000-0000-0000-0000-000000000001";
+    private static final String OTHER = "00000000-0000-0000-0000-000000000002";
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ReminderScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        // the ticker is never started, so nothing is delivered
+        scheduler = new ReminderScheduler(new ReminderProperties(), null, reminder -> { },
+                new StaticListableBeanFactory().getBeanProvider(ShardRouter.class),
+                new ClusterNode(new JobProperties()), meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        scheduler.shutdown();
+    }
+
+    @Test
+    void changesFromAnotherUserLeaveTheScheduledReminderAlone() {
+        Instant time = Instant.now().plus(Duration.ofMinutes(1));
+        scheduler.onReminderChanged(new ReminderChangedEvent(OWNER, 7L, time));
+        assertEquals(1, pending());
+
+        // a bulk delete listing someone else's note id, or a move by the wrong user
+        scheduler.onReminderChanged(new ReminderChangedEvent(OTHER, 7L, null));
+        scheduler.onReminderChanged(new ReminderChangedEvent(OTHER, 7L, time.plusSeconds(30)));
+        assertEquals(1, pending());
+
+        scheduler.onReminderChanged(new ReminderChangedEvent(OWNER, 7L, null));
+        assertEquals(0, pending());
+    }
+
+    private double pending() {
+        return meterRegistry.get("app.reminders.pending").gauge().value();
+    }
+}
@@ -0,0 +1,60 @@
+package com.csci310.anchornotes.service;
+
+import com.csci310.anchornotes.dto.note.TextPatchRequest;
+import com.csci310.anchornotes.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NoteServiceTextPatchTest {
+
+    @Test
+    void editsApplyInOrderEachAgainstTheTextLeftByThePrevious() {
+        String patched = NoteService.applyEdits("buy milk and eggs", List.of(
+                edit(4, 4, "bread"),
+                edit(18, 0, " today"),
+                edit(0, 0, "- ")));
+
+        assertEquals("- buy bread and eggs today", patched);
+    }
+
+    @Test
+    void editsMayTouchBothEndsOfTheText() {
+        assertEquals("", NoteService.applyEdits("gone", List.of(edit(0, 4, null))));
+        assertEquals("note.", NoteService.applyEdits("note", List.of(edit(4, 0, "."))));
+        assertEquals("first", NoteService.applyEdits("", List.of(edit(0, 0, "first"))));
+    }
+
+    @Test
+    void editsPastTheEndAreRejected() {
+        assertThrows(BadRequestException.class, () -> NoteService.applyEdits("short", List.of(edit(6, 0, "x"))));
+        assertThrows(BadRequestException.class, () -> NoteService.applyEdits("short", List.of(edit(3, 3, null))));
+        // in range of the original text, but not of the text the first edit left
+        assertThrows(BadRequestException.class, () -> NoteService.applyEdits("short", List.of(
+                edit(0, 5, "ab"), edit(1, 2, null))));
+    }
+
+    @Test
+    void offsetPlusDeleteCountOverflowingIsRejected() {
+        assertThrows(BadRequestException.class, () -> NoteService.applyEdits("some text", List.of(
+                edit(2, Integer.MAX_VALUE, null))));
+        assertThrows(BadRequestException.class, () -> NoteService.applyEdits("some text", List.of(
+                edit(Integer.MAX_VALUE, Integer.MAX_VALUE, null))));
+    }
+
+    @Test
+    void negativeOffsetsAndCountsAreRejected() {
+        assertThrows(BadRequestException.class, () -> NoteService.applyEdits("some text", List.of(edit(-1, 1, null))));
+        assertThrows(BadRequestException.class, () -> NoteService.applyEdits("some text", List.of(edit(4, -2, null))));
+    }
+
+    private static TextPatchRequest.TextEdit edit(int offset, int deleteCount, String insertText) {
+        return TextPatchRequest.TextEdit.builder()
+                .offset(offset)
+                .deleteCount(deleteCount)
+                .insertText(insertText)
+                .build();
+    }
+}
@@ -0,0 +1,236 @@
+package com.csci310.anchornotes.service;
+
+import com.csci310.anchornotes.concurrency.CircuitBreaker;
+import com.csci310.anchornotes.config.SupabaseConfig;
+import com.csci310.anchornotes.config.SupabaseHttpClientConfig;
+import com.csci310.anchornotes.config.SupabaseHttpProperties;
+import com.csci310.anchornotes.dto.AuthRequest;
+import com.csci310.anchornotes.dto.AuthResponse;
+import com.csci310.anchornotes.dto.RegisterRequest;
+import com.csci310.anchornotes.exception.ServiceUnavailableException;
+import com.csci310.anchornotes.exception.UnauthorizedException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Drives {@link SupabaseAuthService} against a local auth stub that can inject
+ * 5xx bursts and latency spikes.
+ */
+class SupabaseAuthServiceResilienceTest {
+
+    private FaultInjectingAuthStub stub;
+    private SupabaseAuthService authService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        stub = new FaultInjectingAuthStub();
+
+        SupabaseConfig supabaseConfig = new SupabaseConfig();
+        supabaseConfig.setUrl(stub.baseUrl());
+        supabaseConfig.setAnonKey("test-anon-key");
+
+        SupabaseHttpProperties properties = new SupabaseHttpProperties();
+        properties.setReadTimeout(Duration.ofMillis(300));
+        properties.getRetry().setMaxAttempts(3);
+        properties.getRetry().setInitialBackoff(Duration.ofMillis(5));
+        properties.getCircuitBreaker().setSlidingWindowSize(10);
+        properties.getCircuitBreaker().setMinimumCalls(5);
+        properties.getCircuitBreaker().setOpenDuration(Duration.ofMillis(500));
+        properties.getCircuitBreaker().setHalfOpenCalls(1);
+
+        authService = new SupabaseAuthService(supabaseConfig,
+                SupabaseHttpClientConfig.buildRestTemplate(properties), properties, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        stub.stop();
+    }
+
+    @Test
+    void loginRetriesThroughShortServerErrorBurst() {
+        stub.failNext(2);
+
+        AuthResponse response = authService.login(new AuthRequest("user@example.test", "secret1"));
+
+        assertEquals("stub-access-token", response.getToken());
+        assertEquals(3, stub.requests());
+    }
+
+    @Test
+    void signupIsNeverRetried() {
+        stub.failNext(1);
+
+        assertThrows(ServiceUnavailableException.class, () -> authService.register(
+                new RegisterRequest("newuser", "new@example.test", "secret1", "New User")));
+        assertEquals(1, stub.requests());
+    }
+
+    @Test
+    void latencySpikeFailsWithinTimeoutBudget() {
+        stub.delayMillis(2_000);
+
+        long started = System.nanoTime();
+        assertThrows(ServiceUnavailableException.class,
+                () -> authService.login(new AuthRequest("user@example.test", "secret1")));
+        long elapsedMillis = Duration.ofNanos(System.nanoTime() - started).toMillis();
+
+        // three attempts at a 300 ms read timeout plus small backoffs, well short of the 2 s stall
+        assertTrue(elapsedMillis < 1_800, "took " + elapsedMillis + " ms");
+        assertEquals(3, stub.requests());
+    }
+
+    @Test
+    void sustainedFailuresOpenCircuitAndRecoverAfterOpenDuration() throws InterruptedException {
+        stub.failNext(Integer.MAX_VALUE);
+        for (int i = 0; i < 2; i++) {
+            assertThrows(ServiceUnavailableException.class,
+                    () -> authService.login(new AuthRequest("user@example.test", "secret1")));
+        }
+        assertEquals(CircuitBreaker.State.OPEN, authService.getCircuitState());
+
+        int seenWhileOpen = stub.requests();
+        assertThrows(ServiceUnavailableException.class,
+                () -> authService.login(new AuthRequest("user@example.test", "secret1")));
+        assertEquals(seenWhileOpen, stub.requests(), "open circuit must not reach the upstream");
+
+        stub.failNext(0);
+        Thread.sleep(600);
+        AuthResponse response = authService.login(new AuthRequest("user@example.test", "secret1"));
+        assertEquals("stub-access-token", response.getToken());
+        assertEquals(CircuitBreaker.State.CLOSED, authService.getCircuitState());
+    }
+
+    @Test
+    void unreadableResponseInHalfOpenReopensCircuit() throws InterruptedException {
+        stub.failNext(Integer.MAX_VALUE);
+        for (int i = 0; i < 2; i++) {
+            assertThrows(ServiceUnavailableException.class,
+                    () -> authService.login(new AuthRequest("user@example.test", "secret1")));
+        }
+        assertEquals(CircuitBreaker.State.OPEN, authService.getCircuitState());
+
+        stub.failNext(0);
+        stub.garbleBody(true);
+        Thread.sleep(600);
+        assertThrows(UnauthorizedException.class,
+                () -> authService.login(new AuthRequest("user@example.test", "secret1")));
+        assertEquals(CircuitBreaker.State.OPEN, authService.getCircuitState(),
+                "the half-open probe must be reported, not leaked");
+
+        stub.garbleBody(false);
+        Thread.sleep(600);
+        AuthResponse response = authService.login(new AuthRequest("user@example.test", "secret1"));
+        assertEquals("stub-access-token", response.getToken());
+        assertEquals(CircuitBreaker.State.CLOSED, authService.getCircuitState());
+    }
+
+    @Test
+    void badCredentialsDoNotTripCircuit() {
+        stub.rejectCredentials(true);
+        for (int i = 0; i < 10; i++) {
+            assertThrows(UnauthorizedException.class,
+                    () -> authService.login(new AuthRequest("user@example.test", "wrong-password")));
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, authService.getCircuitState());
+        assertEquals(10, stub.requests());
+    }
+
+    /**
+     * Minimal Supabase Auth stand-in. Faults apply to every endpoint: the next N requests
+     * get a 503, every request can be delayed, logins can be answered with a 400, and a
+     * 200 can carry a body that is not JSON.
+     */
+    private static class FaultInjectingAuthStub {
+
+        private final HttpServer server;
+        private final AtomicInteger requests = new AtomicInteger();
+        private final AtomicInteger failuresRemaining = new AtomicInteger();
+        private final AtomicLong delayMillis = new AtomicLong();
+        private volatile boolean rejectCredentials;
+        private volatile boolean garbleBody;
+
+        FaultInjectingAuthStub() throws IOException {
+            server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+            server.setExecutor(Executors.newCachedThreadPool());
+            server.createContext("/auth/v1/", this::handle);
+            server.start();
+        }
+
+        String baseUrl() {
+            return "http://127.0.0.1:" + server.getAddress().getPort();
+        }
+
+        void failNext(int count) {
+            failuresRemaining.set(count);
+        }
+
+        void delayMillis(long millis) {
+            delayMillis.set(millis);
+        }
+
+        void rejectCredentials(boolean reject) {
+            rejectCredentials = reject;
+        }
+
+        void garbleBody(boolean garble) {
+            garbleBody = garble;
+        }
+
+        int requests() {
+            return requests.get();
+        }
+
+        void stop() {
+            server.stop(0);
+        }
+
+        private void handle(HttpExchange exchange) throws IOException {
+            requests.incrementAndGet();
+            exchange.getRequestBody().readAllBytes();
+            try {
+                long delay = delayMillis.get();
+                if (delay > 0) {
+                    Thread.sleep(delay);
+                }
+                if (failuresRemaining.getAndUpdate(n -> n > 0 ? n - 1 : 0) > 0) {
+                    respond(exchange, 503, "{\"msg\":\"upstream unavailable\"}");
+                } else if (garbleBody) {
+                    respond(exchange, 200, "<html>gateway error page</html>");
+                } else if (rejectCredentials) {
+                    respond(exchange, 400, "{\"error_description\":\"Invalid login credentials\"}");
+                } else if (exchange.getRequestURI().getPath().endsWith("/token")) {
+                    respond(exchange, 200, "{\"access_token\":\"stub-access-token\","
+                            + "\"user\":{\"email\":\"user@example.test\",\"user_metadata\":{\"username\":\"user\"}}}");
+                } else {
+                    respond(exchange, 200, "{\"id\":\"1\",\"email\":\"new@example.test\"}");
+                }
+            } catch (InterruptedException | IOException e) {
+                // client gave up (read timeout) and closed the connection
+            } finally {
+                exchange.close();
+            }
+        }
+
+        private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, bytes.length);
+            exchange.getResponseBody().write(bytes);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.csci310.anchornotes.thumbnail;
+
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.AlphaComposite;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Generates thumbnails from images drawn in memory and decodes them back.
+ */
+class ThumbnailGeneratorTest {
+
+    private final ThumbnailGenerator generator = new ThumbnailGenerator(List.of(480, 160), 0.8f, 50_000_000L);
+
+    @Test
+    void largePhotoIsScaledToEachSizeKeepingAspectRatio() throws IOException {
+        byte[] png = encode(image(4000, 2000, BufferedImage.TYPE_INT_RGB, Color.BLUE), "png");
+
+        Map<Integer, byte[]> thumbnails = generator.generate(png);
+
+        assertEquals(List.of(160, 480), List.copyOf(thumbnails.keySet()), "smallest first");
+        BufferedImage large = decode(thumbnails.get(480));
+        assertEquals(480, large.getWidth());
+        assertEquals(240, large.getHeight());
+        BufferedImage small = decode(thumbnails.get(160));
+        assertEquals(160, small.getWidth());
+        assertEquals(80, small.getHeight());
+        assertTrue(thumbnails.get(160).length < thumbnails.get(480).length);
+        assertEquals((byte) 0xFF, thumbnails.get(160)[0], "JPEG");
+        assertEquals((byte) 0xD8, thumbnails.get(160)[1], "JPEG");
+        assertTrue(new Color(small.getRGB(80, 40)).getBlue() > 200);
+    }
+
+    @Test
+    void smallPhotoIsNotScaledUpAndTransparencyBecomesWhite() throws IOException {
+        byte[] png = encode(image(100, 300, BufferedImage.TYPE_INT_ARGB, new Color(0, 0, 0, 0)), "png");
+
+        Map<Integer, byte[]> thumbnails = generator.generate(png);
+
+        BufferedImage large = decode(thumbnails.get(480));
+        assertEquals(100, large.getWidth());
+        assertEquals(300, large.getHeight());
+        BufferedImage small = decode(thumbnails.get(160));
+        assertEquals(53, small.getWidth());
+        assertEquals(160, small.getHeight());
+        Color corner = new Color(small.getRGB(0, 0));
+        assertTrue(corner.getRed() > 240 && corner.getGreen() > 240 && corner.getBlue() > 240, corner.toString());
+    }
+
+    @Test
+    void filesThatAreNotImagesOrTooLargeAreUnsupported() throws IOException {
+        assertThrows(ThumbnailGenerator.UnsupportedImageException.class,
+                () -> generator.generate("definitely not an image".getBytes(StandardCharsets.UTF_8)));
+
+        byte[] jpeg = encode(image(800, 600, BufferedImage.TYPE_INT_RGB, Color.RED), "jpg");
+        byte[] truncated = Arrays.copyOf(jpeg, 20);
+        assertThrows(ThumbnailGenerator.UnsupportedImageException.class, () -> generator.generate(truncated));
+
+        ThumbnailGenerator strict = new ThumbnailGenerator(List.of(160), 0.8f, 1_000);
+        assertThrows(ThumbnailGenerator.UnsupportedImageException.class, () -> strict.generate(jpeg));
+    }
+
+    @Test
+    void thumbnailsLiveNextToTheOriginal() {
+        assertEquals("attachment/abc_photo.thumb-160.jpg", Thumbnails.path("attachment/abc_photo.png", 160));
+        assertEquals("https://x.supabase.co/storage/v1/object/public/attachment/abc_photo.thumb-480.jpg",
+                Thumbnails.path("https://x.supabase.co/storage/v1/object/public/attachment/abc_photo.JPG", 480));
+        assertEquals("attachment/noext.thumb-160.jpg", Thumbnails.path("attachment/noext", 160));
+        assertEquals("a.b/.hidden.thumb-160.jpg", Thumbnails.path("a.b/.hidden", 160));
+        assertEquals(List.of(160, 480), Thumbnails.parseSizes("160,480"));
+        assertEquals(List.of(), Thumbnails.parseSizes(""));
+        assertEquals("160,480", Thumbnails.formatSizes(List.of(160, 480)));
+    }
+
+    private static BufferedImage image(int width, int height, int type, Color fill) {
+        BufferedImage image = new BufferedImage(width, height, type);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setComposite(AlphaComposite.Src);
+        graphics.setColor(fill);
+        graphics.fillRect(0, 0, width, height);
+        graphics.dispose();
+        return image;
+    }
+
+    private static byte[] encode(BufferedImage image, String format) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, format, out);
+        return out.toByteArray();
+    }
+
+    private static BufferedImage decode(byte[] bytes) throws IOException {
+        return ImageIO.read(new ByteArrayInputStream(bytes));
+    }
+}
@@ -0,0 +1,339 @@
+package com.csci310.anchornotes.upload;
+
+import com.csci310.anchornotes.blob.BlobSource;
+import com.csci310.anchornotes.blob.BlobUploader;
+import com.csci310.anchornotes.blob.Blobs;
+import com.csci310.anchornotes.config.UploadProperties;
+import com.csci310.anchornotes.dto.note.NoteResponse;
+import com.csci310.anchornotes.dto.upload.UploadSessionResponse;
+import com.csci310.anchornotes.entity.UploadKind;
+import com.csci310.anchornotes.entity.UploadSession;
+import com.csci310.anchornotes.entity.UploadState;
+import com.csci310.anchornotes.exception.BadRequestException;
+import com.csci310.anchornotes.exception.ConflictException;
+import com.csci310.anchornotes.service.UploadSessionService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Drives resumable uploads through interruptions, against in-memory stand-ins for the session
+ * tables (with the same offset rule as the SQL) and for the blob uploader.
+ */
+class ResumableUploadsTest {
+
+    private static final String USER = "00000000-0000-0000-0000-000000000001";
+    private static final Duration COMPLETION_TIMEOUT = Duration.ofMinutes(10);
+
+    private final byte[] file = new byte[25_000];
+    private InMemorySessions sessions;
+    private RecordingAttachments attachments;
+    private ResumableUploads uploads;
+
+    @BeforeEach
+    void setUp() {
+        new Random(3).nextBytes(file);
+        UploadProperties properties = new UploadProperties();
+        properties.setMaxChunkBytes(10_000);
+        sessions = new InMemorySessions();
+        attachments = new RecordingAttachments();
+        uploads = new ResumableUploads(sessions, attachments, properties, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void chunkCutOffMidwayStoresNothingAndTheUploadResumesFromTheReportedOffset() throws IOException {
+        UUID id = sessions.open(file.length, null);
+
+        assertTrue(put(id, 0, chunk(0, 10_000)).stored());
+        // the connection drops 4000 bytes into the second chunk
+        assertThrows(IOException.class, () -> uploads.append(USER, id, 10_000,
+                new FailingAfter(chunk(10_000, 20_000), 4_000), 10_000));
+        // or the body just ends early
+        assertThrows(BadRequestException.class, () -> uploads.append(USER, id, 10_000,
+                new ByteArrayInputStream(chunk(10_000, 14_000)), 10_000));
+
+        assertEquals(10_000, uploads.status(USER, id).getOffset());
+        assertTrue(put(id, 10_000, chunk(10_000, 20_000)).stored());
+        assertTrue(put(id, 20_000, chunk(20_000, 25_000)).stored());
+
+        uploads.complete(USER, id);
+        assertArrayEquals(file, attachments.received.get(0));
+        assertEquals(UploadState.COMPLETED, sessions.get(id).getState());
+        assertTrue(sessions.chunks(id).isEmpty());
+    }
+
+    @Test
+    void chunkResentAfterALostResponseIsNotStoredTwice() throws IOException {
+        UUID id = sessions.open(file.length, null);
+        put(id, 0, chunk(0, 10_000));
+
+        ResumableUploads.AppendResult retry = put(id, 0, chunk(0, 10_000));
+        assertFalse(retry.stored());
+        assertEquals(10_000, retry.session().getOffset());
+        // a chunk past the offset would leave a gap
+        assertFalse(put(id, 20_000, chunk(20_000, 25_000)).stored());
+
+        put(id, 10_000, chunk(10_000, 20_000));
+        put(id, 20_000, chunk(20_000, 25_000));
+        uploads.complete(USER, id);
+        assertArrayEquals(file, attachments.received.get(0));
+    }
+
+    @Test
+    void completingTooEarlyOrTwiceIsRefused() throws IOException {
+        UUID id = sessions.open(file.length, null);
+        put(id, 0, chunk(0, 10_000));
+        assertThrows(ConflictException.class, () -> uploads.complete(USER, id));
+        assertEquals(UploadState.OPEN, sessions.get(id).getState());
+
+        put(id, 10_000, chunk(10_000, 20_000));
+        put(id, 20_000, chunk(20_000, 25_000));
+        uploads.complete(USER, id);
+        assertThrows(ConflictException.class, () -> uploads.complete(USER, id));
+        assertEquals(1, attachments.received.size());
+    }
+
+    @Test
+    void failedStoreLeavesTheUploadOpenForAnotherTry() throws IOException {
+        UUID id = sessions.open(file.length, Blobs.sha256(new ByteArrayInputStream(file)));
+        put(id, 0, chunk(0, 10_000));
+        put(id, 10_000, chunk(10_000, 20_000));
+        put(id, 20_000, chunk(20_000, 25_000));
+
+        attachments.failures = 1;
+        assertThrows(IOException.class, () -> uploads.complete(USER, id));
+        assertEquals(UploadState.OPEN, sessions.get(id).getState());
+        assertEquals(25_000, sessions.get(id).getReceivedBytes());
+
+        uploads.complete(USER, id);
+        assertArrayEquals(file, attachments.received.get(0));
+    }
+
+    @Test
+    void failedAttachLeavesTheUploadOpenAndTheRetryAttachesOnce() throws IOException {
+        UUID id = received();
+
+        sessions.attachFailures = 1;
+        assertThrows(IllegalStateException.class, () -> uploads.complete(USER, id));
+        assertEquals(UploadState.OPEN, sessions.get(id).getState());
+        assertTrue(sessions.attached.isEmpty());
+
+        uploads.complete(USER, id);
+        assertEquals(1, sessions.attached.size());
+        assertEquals(UploadState.COMPLETED, sessions.get(id).getState());
+    }
+
+    @Test
+    void completionLeftByADeadReplicaIsTakenOverOnceStale() throws IOException {
+        UUID id = received();
+        // a replica takes the session for completion and dies
+        UploadSession dead = sessions.beginCompletion(USER, id);
+
+        assertThrows(ConflictException.class, () -> uploads.complete(USER, id));
+        sessions.get(id).setUpdatedAt(Instant.now().minus(COMPLETION_TIMEOUT).minusSeconds(1));
+        uploads.complete(USER, id);
+        assertEquals(UploadState.COMPLETED, sessions.get(id).getState());
+
+        // the first attempt cannot attach the file a second time
+        assertThrows(ConflictException.class, () -> sessions.complete(USER, dead, "0".repeat(64)));
+        assertEquals(1, sessions.attached.size());
+    }
+
+    @Test
+    void uploadThatDoesNotMatchItsHashIsDiscarded() throws IOException {
+        byte[] other = file.clone();
+        other[0] ^= 1;
+        UUID id = sessions.open(file.length, Blobs.sha256(new ByteArrayInputStream(other)));
+        put(id, 0, chunk(0, 10_000));
+        put(id, 10_000, chunk(10_000, 20_000));
+        put(id, 20_000, chunk(20_000, 25_000));
+
+        assertThrows(BadRequestException.class, () -> uploads.complete(USER, id));
+        assertNull(sessions.get(id));
+        assertTrue(attachments.received.isEmpty());
+    }
+
+    @Test
+    void oversizedChunkIsRejected() {
+        UUID id = sessions.open(file.length, null);
+        assertThrows(BadRequestException.class, () -> uploads.append(USER, id, 0,
+                new ByteArrayInputStream(chunk(0, 10_001)), -1));
+        assertEquals(0, uploads.status(USER, id).getOffset());
+    }
+
+    private UUID received() throws IOException {
+        UUID id = sessions.open(file.length, null);
+        put(id, 0, chunk(0, 10_000));
+        put(id, 10_000, chunk(10_000, 20_000));
+        put(id, 20_000, chunk(20_000, 25_000));
+        return id;
+    }
+
+    private ResumableUploads.AppendResult put(UUID id, long offset, byte[] data) throws IOException {
+        return uploads.append(USER, id, offset, new ByteArrayInputStream(data), data.length);
+    }
+
+    private byte[] chunk(int from, int to) {
+        return Arrays.copyOfRange(file, from, to);
+    }
+
+    /** Yields some bytes, then fails the way a reset connection does. */
+    private static class FailingAfter extends InputStream {
+        private final InputStream delegate;
+        private int remaining;
+
+        FailingAfter(byte[] data, int failAfter) {
+            this.delegate = new ByteArrayInputStream(data);
+            this.remaining = failAfter;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining-- <= 0) {
+                throw new IOException("Connection reset");
+            }
+            return delegate.read();
+        }
+    }
+
+    private static class InMemorySessions extends UploadSessionService {
+        private final TreeMap<UUID, UploadSession> sessions = new TreeMap<>();
+        private final TreeMap<UUID, TreeMap<Long, byte[]>> chunks = new TreeMap<>();
+        private final List<String> attached = new ArrayList<>();
+        private int attachFailures;
+
+        InMemorySessions() {
+            super(null, null, null, null);
+        }
+
+        UUID open(long size, String sha256) {
+            UUID id = UUID.randomUUID();
+            sessions.put(id, UploadSession.builder().id(id).userId(UUID.fromString(USER)).noteId(7L)
+                    .kind(UploadKind.AUDIO).fileName("memo.m4a").mediaType("audio/mp4").sizeBytes(size)
+                    .sha256(sha256).state(UploadState.OPEN).build());
+            chunks.put(id, new TreeMap<>());
+            return id;
+        }
+
+        UploadSession get(UUID id) {
+            return sessions.get(id);
+        }
+
+        TreeMap<Long, byte[]> chunks(UUID id) {
+            return chunks.get(id);
+        }
+
+        @Override
+        public UploadSessionResponse get(String userId, UUID sessionId) {
+            UploadSession session = sessions.get(sessionId);
+            return UploadSessionResponse.builder().id(sessionId).state(session.getState())
+                    .size(session.getSizeBytes()).offset(session.getReceivedBytes()).build();
+        }
+
+        @Override
+        public boolean append(String userId, UUID sessionId, long offset, byte[] data) {
+            UploadSession session = sessions.get(sessionId);
+            if (session.getState() != UploadState.OPEN || session.getReceivedBytes() != offset
+                    || offset + data.length > session.getSizeBytes()) {
+                return false;
+            }
+            session.setReceivedBytes(offset + data.length);
+            chunks.get(sessionId).put(offset, data.clone());
+            return true;
+        }
+
+        @Override
+        public byte[] readChunk(String userId, UUID sessionId, long offset) {
+            return chunks.get(sessionId).get(offset);
+        }
+
+        @Override
+        public UploadSession beginCompletion(String userId, UUID sessionId) {
+            UploadSession session = sessions.get(sessionId);
+            boolean stalled = session.getState() == UploadState.COMPLETING
+                    && session.getUpdatedAt().isBefore(Instant.now().minus(COMPLETION_TIMEOUT));
+            if ((session.getState() != UploadState.OPEN && !stalled) || session.getReceivedBytes() != session.getSizeBytes()) {
+                throw new ConflictException("not ready: " + session.getState());
+            }
+            session.setState(UploadState.COMPLETING);
+            session.setCompletionId(UUID.randomUUID());
+            session.setUpdatedAt(Instant.now());
+            // what the caller read back, which a later takeover does not change
+            return UploadSession.builder().id(sessionId).userId(session.getUserId()).noteId(session.getNoteId())
+                    .kind(session.getKind()).fileName(session.getFileName()).mediaType(session.getMediaType())
+                    .sizeBytes(session.getSizeBytes()).receivedBytes(session.getReceivedBytes())
+                    .sha256(session.getSha256()).state(session.getState())
+                    .completionId(session.getCompletionId()).build();
+        }
+
+        @Override
+        public NoteResponse complete(String userId, UploadSession claimed, String sha256) {
+            UploadSession session = sessions.get(claimed.getId());
+            if (session.getState() != UploadState.COMPLETING || !session.getCompletionId().equals(claimed.getCompletionId())) {
+                throw new ConflictException("taken over");
+            }
+            if (attachFailures > 0) {
+                // the transaction rolls back, leaving the session as it was
+                attachFailures--;
+                throw new IllegalStateException("Connection reset");
+            }
+            session.setState(UploadState.COMPLETED);
+            session.setCompletionId(null);
+            chunks.get(claimed.getId()).clear();
+            attached.add(sha256);
+            return new NoteResponse();
+        }
+
+        @Override
+        public void reopen(String userId, UploadSession claimed) {
+            UploadSession session = sessions.get(claimed.getId());
+            if (session.getState() == UploadState.COMPLETING && session.getCompletionId().equals(claimed.getCompletionId())) {
+                session.setState(UploadState.OPEN);
+                session.setCompletionId(null);
+            }
+        }
+
+        @Override
+        public void discard(String userId, UUID sessionId) {
+            sessions.remove(sessionId);
+            chunks.remove(sessionId);
+        }
+    }
+
+    private static class RecordingAttachments extends BlobUploader {
+        private final List<byte[]> received = new ArrayList<>();
+        private int failures;
+
+        RecordingAttachments() {
+            super(null, null, null, null);
+        }
+
+        @Override
+        public String store(String userId, BlobSource source, boolean photo) throws IOException {
+            if (failures > 0) {
+                failures--;
+                throw new IOException("Storage returned 502");
+            }
+            try (InputStream in = source.content().getInputStream()) {
+                byte[] bytes = in.readAllBytes();
+                assertEquals(source.size(), bytes.length);
+                received.add(bytes);
+                return Blobs.sha256(new ByteArrayInputStream(bytes));
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.csci310.anchornotes.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConsistentHashRingTest {
+
+    private static final int KEYS = 50_000;
+
+    @Test
+    void spreadsKeysEvenlyAcrossNodes() {
+        ConsistentHashRing<String> ring = new ConsistentHashRing<>(List.of("s0", "s1", "s2", "s3"), 128);
+        Map<String, Integer> counts = new HashMap<>();
+        for (String key : keys()) {
+            counts.merge(ring.nodeFor(key), 1, Integer::sum);
+        }
+
+        assertEquals(4, counts.size());
+        for (int count : counts.values()) {
+            assertEquals(KEYS / 4.0, count, KEYS / 4.0 * 0.2, "each node within 20% of its fair share: " + counts);
+        }
+    }
+
+    @Test
+    void addingANodeOnlyMovesKeysToIt() {
+        ConsistentHashRing<String> before = new ConsistentHashRing<>(List.of("s0", "s1", "s2"), 128);
+        ConsistentHashRing<String> after = new ConsistentHashRing<>(List.of("s0", "s1", "s2", "s3"), 128);
+
+        int moved = 0;
+        for (String key : keys()) {
+            String from = before.nodeFor(key);
+            String to = after.nodeFor(key);
+            if (!from.equals(to)) {
+                assertEquals("s3", to, "keys only move to the new node");
+                moved++;
+            }
+        }
+        assertEquals(KEYS / 4.0, moved, KEYS / 4.0 * 0.2, "about a quarter of the keys move");
+    }
+
+    @Test
+    void placementDoesNotDependOnNodeOrder() {
+        ConsistentHashRing<String> a = new ConsistentHashRing<>(List.of("s0", "s1", "s2"), 64);
+        ConsistentHashRing<String> b = new ConsistentHashRing<>(List.of("s2", "s0", "s1"), 64);
+        for (String key : keys()) {
+            assertEquals(a.nodeFor(key), b.nodeFor(key));
+        }
+    }
+
+    private static List<String> keys() {
+        // user ids are random UUIDs; a fixed seed keeps the test deterministic
+        Random random = new Random(41);
+        return Stream.generate(() -> new UUID(random.nextLong(), random.nextLong()).toString())
+                .limit(KEYS)
+                .toList();
+    }
+}
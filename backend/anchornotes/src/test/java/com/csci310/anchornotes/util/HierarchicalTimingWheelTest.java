@@ -0,0 +1,107 @@
+package com.csci310.anchornotes.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HierarchicalTimingWheelTest {
+
+    private static final long START = 1_700_000_000_000L;
+
+    @Test
+    void firesNoEarlierThanDeadlineAndWithinOneTick() {
+        // 4 levels of 8 buckets at 100 ms: 409.6 s fit in the wheels, later deadlines overflow
+        HierarchicalTimingWheel<Long> wheel = new HierarchicalTimingWheel<>(100, 3, 4, START);
+        Random random = new Random(38);
+        for (int i = 0; i < 5_000; i++) {
+            wheel.schedule(START + random.nextInt(1_000_000), null);
+        }
+        long[] deadlines = random.longs(2_000, 0, 1_000_000).map(d -> START + d).toArray();
+        for (long deadline : deadlines) {
+            wheel.schedule(deadline, deadline);
+        }
+
+        List<long[]> fired = new ArrayList<>();
+        for (long now = START; now <= START + 1_000_100; now += 100) {
+            long at = now;
+            wheel.advanceTo(now, deadline -> {
+                if (deadline != null) {
+                    fired.add(new long[]{deadline, at});
+                }
+            });
+        }
+
+        assertEquals(deadlines.length, fired.size());
+        assertEquals(0, wheel.size());
+        for (long[] pair : fired) {
+            assertTrue(pair[1] >= pair[0], "fired early: deadline " + pair[0] + " at " + pair[1]);
+            assertTrue(pair[1] - pair[0] < 100, "fired late: deadline " + pair[0] + " at " + pair[1]);
+        }
+    }
+
+    @Test
+    void cancelledEntriesNeverFire() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(1_000, 6, 4, START);
+        HierarchicalTimingWheel.Timeout<String> kept = wheel.schedule(START + 5_000, "kept");
+        HierarchicalTimingWheel.Timeout<String> dropped = wheel.schedule(START + 5_000, "dropped");
+        HierarchicalTimingWheel.Timeout<String> far = wheel.schedule(START + 90_000_000, "far");
+
+        assertTrue(wheel.cancel(dropped));
+        assertFalse(wheel.cancel(dropped));
+        assertTrue(wheel.cancel(far));
+        assertEquals(1, wheel.size());
+
+        List<String> fired = new ArrayList<>();
+        wheel.advanceTo(START + 100_000_000, fired::add);
+        assertEquals(List.of("kept"), fired);
+        assertFalse(kept.isPending());
+    }
+
+    @Test
+    void pastDeadlinesFireOnNextAdvance() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(1_000, 6, 4, START);
+        wheel.schedule(START - 60_000, "overdue");
+
+        List<String> fired = new ArrayList<>();
+        wheel.advanceTo(START, fired::add);
+        assertEquals(List.of("overdue"), fired);
+    }
+
+    /**
+     * Pending reminders spread over the next week at one-second ticks (the scheduler's shape):
+     * a day of ticking fires exactly those due that day, each in its own tick.
+     */
+    @Test
+    void remindersSpreadOverAWeekFireOnTheirDay() {
+        HierarchicalTimingWheel<Long> wheel = new HierarchicalTimingWheel<>(1_000, 6, 4, START);
+        Random random = new Random(310);
+        long week = 7L * 24 * 3600 * 1000;
+        long day = 24L * 3600 * 1000;
+
+        int dueWithinDay = 0;
+        for (int i = 0; i < 5_000; i++) {
+            long deadline = START + (long) (random.nextDouble() * week);
+            if (deadline <= START + day) {
+                dueWithinDay++;
+            }
+            wheel.schedule(deadline, deadline);
+        }
+
+        List<long[]> fired = new ArrayList<>();
+        for (long now = START; now <= START + day; now += 60_000) {
+            long at = now;
+            wheel.advanceTo(now, deadline -> fired.add(new long[]{deadline, at}));
+        }
+
+        assertEquals(dueWithinDay, fired.size());
+        assertEquals(5_000 - dueWithinDay, wheel.size());
+        for (long[] pair : fired) {
+            assertTrue(pair[1] >= pair[0], "fired early: deadline " + pair[0] + " at " + pair[1]);
+            assertTrue(pair[1] - pair[0] < 60_000, "fired late: deadline " + pair[0] + " at " + pair[1]);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.csci310.anchornotes.util;
+
+import com.csci310.anchornotes.dto.note.SnippetResponse;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnippetFinderTest {
+
+    @Test
+    void shortFieldsAreReturnedWholeWithEveryMatch() {
+        SnippetResponse snippet = new SnippetFinder("COFFEE").find("title", "Coffee with Sam, then more coffee");
+
+        assertEquals("title", snippet.getField());
+        assertEquals("Coffee with Sam, then more coffee", snippet.getText());
+        assertEquals(0, snippet.getStart());
+        assertEquals(33, snippet.getFieldLength());
+        assertEquals(List.of(new SnippetResponse.Highlight(0, 6), new SnippetResponse.Highlight(27, 6)),
+                snippet.getHighlights());
+    }
+
+    @Test
+    void longFieldsGetABoundedWindowStartingAtAWord() {
+        String text = "word ".repeat(100) + "the library closes early " + "word ".repeat(100);
+        SnippetResponse snippet = new SnippetFinder("library").find("text", text);
+
+        int match = text.indexOf("library");
+        assertTrue(snippet.getText().length() <= SnippetFinder.MAX_CHARS);
+        assertTrue(snippet.getStart() > 0 && snippet.getStart() < match);
+        assertTrue(match - snippet.getStart() <= SnippetFinder.CONTEXT_CHARS);
+        assertTrue(snippet.getText().startsWith("word "), snippet.getText());
+        assertFalse(snippet.getText().endsWith(" "), "trimmed to a word");
+        assertEquals(1, snippet.getHighlights().size());
+        SnippetResponse.Highlight highlight = snippet.getHighlights().get(0);
+        assertEquals("library", snippet.getText().substring(highlight.getStart(), highlight.getStart() + highlight.getLength()));
+        assertEquals(match, snippet.getStart() + highlight.getStart());
+    }
+
+    @Test
+    void matchesNearTheEndUseTheRoomLeftForContext() {
+        String text = "a".repeat(300) + " deadline";
+        SnippetResponse snippet = new SnippetFinder("deadline").find("text", text);
+
+        assertEquals(text.length(), snippet.getStart() + snippet.getText().length());
+        assertEquals(text.length() - SnippetFinder.MAX_CHARS, snippet.getStart());
+    }
+
+    @Test
+    void partialMatchesFallBackWithoutMissingOverlappingStarts() {
+        // naive restarts would skip the match that begins inside "aab"
+        SnippetResponse snippet = new SnippetFinder("aab").find("text", "aaab xaabaab");
+        assertEquals(List.of(new SnippetResponse.Highlight(1, 3), new SnippetResponse.Highlight(6, 3),
+                new SnippetResponse.Highlight(9, 3)), snippet.getHighlights());
+
+        SnippetResponse nonOverlapping = new SnippetFinder("aa").find("text", "aaaa");
+        assertEquals(2, nonOverlapping.getHighlights().size());
+    }
+
+    @Test
+    void noSnippetWithoutAMatchOrQuery() {
+        assertNull(new SnippetFinder("gym").find("text", "nothing here"));
+        assertNull(new SnippetFinder("gym").find("text", null));
+        assertNull(new SnippetFinder("").find("text", "gym"));
+        assertNull(new SnippetFinder(null).find("text", "gym"));
+    }
+
+    @Test
+    void windowsDoNotSplitSurrogatePairs() {
+        String emoji = "😀";
+        String text = emoji.repeat(100) + "x" + "target" + emoji.repeat(100);
+        SnippetResponse snippet = new SnippetFinder("target").find("text", text);
+
+        assertFalse(Character.isLowSurrogate(snippet.getText().charAt(0)));
+        assertFalse(Character.isHighSurrogate(snippet.getText().charAt(snippet.getText().length() - 1)));
+    }
+}
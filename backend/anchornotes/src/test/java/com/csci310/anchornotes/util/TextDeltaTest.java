@@ -0,0 +1,92 @@
+package com.csci310.anchornotes.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TextDeltaTest {
+
+    private static final int SNAPSHOT_INTERVAL = 20;
+
+    @Test
+    void deltaRoundTripsSingleRegionEdits() {
+        assertRoundTrip("", "hello");
+        assertRoundTrip("hello", "");
+        assertRoundTrip("hello world", "hello brave world");
+        assertRoundTrip("hello brave world", "hello world");
+        assertRoundTrip("aaaa", "aaaaa");
+        assertRoundTrip("abc", "xyz");
+    }
+
+    @Test
+    void deltaNeverSplitsSurrogatePairs() {
+        // both emoji share their high surrogate, so a naive prefix would end mid-pair
+        assertRoundTrip("note 😀 end", "note 😁 end");
+        assertRoundTrip("😀", "😀😀");
+    }
+
+    @Test
+    void snapshotRoundTrips() {
+        String text = "Grocery list\n- milk\n- eggs\n- café beans ☕\n".repeat(50);
+        assertEquals(text, TextDelta.fromSnapshot(TextDelta.snapshot(text)));
+        assertEquals("", TextDelta.fromSnapshot(TextDelta.snapshot("")));
+    }
+
+    /**
+     * A chain of 200 autosaves of a note that starts around 4 KB, with a snapshot every 20
+     * revisions, replays every revision exactly and is far smaller than a full copy per save.
+     */
+    @Test
+    void deltaChainReplaysAutosavesAndStaysSmall() {
+        Random random = new Random(310);
+        String[] words = {"meeting", "notes", "remember", "to", "buy", "the", "campus", "library",
+                "project", "deadline", "friday", "call", "mom", "about", "weekend", "plans"};
+
+        StringBuilder text = new StringBuilder();
+        while (text.length() < 4_000) {
+            text.append(words[random.nextInt(words.length)]).append(random.nextInt(12) == 0 ? ".\n" : " ");
+        }
+
+        String previous = text.toString();
+        long fullCopyBytes = previous.getBytes(StandardCharsets.UTF_8).length;
+        long chainBytes = TextDelta.snapshot(previous).length;
+        String replayed = previous;
+
+        for (int revision = 1; revision <= 200; revision++) {
+            // an autosave covers a few words typed at the cursor, occasionally a deletion
+            int cursor = random.nextInt(text.length() + 1);
+            if (random.nextInt(5) == 0 && cursor + 20 <= text.length()) {
+                text.delete(cursor, cursor + 1 + random.nextInt(20));
+            } else {
+                StringBuilder typed = new StringBuilder();
+                for (int i = 0, n = 1 + random.nextInt(4); i < n; i++) {
+                    typed.append(words[random.nextInt(words.length)]).append(' ');
+                }
+                text.insert(cursor, typed);
+            }
+            String current = text.toString();
+
+            fullCopyBytes += current.getBytes(StandardCharsets.UTF_8).length;
+            if (revision % SNAPSHOT_INTERVAL == 0) {
+                byte[] snapshot = TextDelta.snapshot(current);
+                chainBytes += snapshot.length;
+                replayed = TextDelta.fromSnapshot(snapshot);
+            } else {
+                byte[] delta = TextDelta.diff(previous, current);
+                chainBytes += delta.length;
+                replayed = TextDelta.apply(replayed, delta);
+            }
+            assertEquals(current, replayed);
+            previous = current;
+        }
+
+        assertTrue(chainBytes * 10 < fullCopyBytes, "delta chain should be at least 10x smaller than full copies");
+    }
+
+    private static void assertRoundTrip(String from, String to) {
+        assertEquals(to, TextDelta.apply(from, TextDelta.diff(from, to)));
+    }
+}
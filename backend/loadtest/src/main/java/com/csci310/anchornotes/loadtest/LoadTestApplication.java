@@ -0,0 +1,169 @@
+package com.csci310.anchornotes.loadtest;
+
+import com.csci310.anchornotes.loadtest.bench.ImportBenchmark;
+import com.csci310.anchornotes.loadtest.bench.PerUserQueryBenchmark;
+import com.csci310.anchornotes.loadtest.bench.PhotoBenchmark;
+import com.csci310.anchornotes.loadtest.report.LoadReport;
+import com.csci310.anchornotes.loadtest.seed.SeededUser;
+import com.csci310.anchornotes.loadtest.seed.SyntheticDataSeeder;
+import com.csci310.anchornotes.loadtest.stub.SupabaseStubServer;
+import com.csci310.anchornotes.loadtest.workload.ClientSession;
+import com.csci310.anchornotes.loadtest.workload.Endpoint;
+import com.csci310.anchornotes.loadtest.workload.WorkloadMix;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Entry point for the offline load test.
+ *
+ * <pre>
+ *   mvn -q compile exec:java -Dexec.args=stubs   # only run the Supabase stand-ins
+ *   mvn -q compile exec:java -Dexec.args=seed    # only seed the database
+ *   mvn -q compile exec:java -Dexec.args=query-bench   # time per-user queries against the database
+ *   mvn -q compile exec:java -Dexec.args=partition     # hash-partition notes and note_tags
+ *   mvn -q compile exec:java -Dexec.args=import-bench  # time POST /api/import against a running backend
+ *   mvn -q compile exec:java -Dexec.args=photo-bench   # photo upload size and latency against a running backend
+ *   mvn -q compile exec:java                     # stubs + seed + run + report
+ * </pre>
+ *
+ * See README.md for how to start the backend against the stubs.
+ */
+public class LoadTestApplication {
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.fromSystemProperties();
+        String mode = args.length > 0 ? args[0] : "run";
+
+        switch (mode) {
+            case "stubs" -> runStubsOnly(config);
+            case "seed" -> new SyntheticDataSeeder(config).seed();
+            case "run" -> runLoadTest(config);
+            case "query-bench" -> new PerUserQueryBenchmark(config).run();
+            case "partition" -> new PerUserQueryBenchmark(config).partition();
+            case "import-bench" -> new ImportBenchmark(config).run();
+            case "photo-bench" -> new PhotoBenchmark(config).run();
+            default -> throw new IllegalArgumentException("Unknown mode: " + mode
+                    + " (expected stubs, seed, run, query-bench, partition, import-bench or photo-bench)");
+        }
+    }
+
+    private static void runStubsOnly(LoadTestConfig config) throws Exception {
+        try (SupabaseStubServer ignored = new SupabaseStubServer(config.stubPort(), config.jwtSecret()).start()) {
+            System.out.println("Supabase stubs listening on " + config.stubBaseUrl() + " (Ctrl+C to stop)");
+            Thread.currentThread().join();
+        }
+    }
+
+    private static void runLoadTest(LoadTestConfig config) throws Exception {
+        WorkloadMix mix = WorkloadMix.named(config.mix());
+        try (SupabaseStubServer stubs = new SupabaseStubServer(config.stubPort(), config.jwtSecret()).start()) {
+            System.out.println("Supabase stubs listening on " + config.stubBaseUrl());
+
+            if (config.seed()) {
+                new SyntheticDataSeeder(config).seed();
+            }
+
+            HttpClient httpClient = HttpClient.newBuilder()
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .executor(Executors.newVirtualThreadPerTaskExecutor())
+                    .build();
+            awaitBackend(httpClient, config.baseUrl());
+
+            ObjectMapper objectMapper = new ObjectMapper();
+            int total = config.concurrency() + config.stormClients();
+            WorkloadMix stormMix = config.stormClients() > 0 ? WorkloadMix.named(config.stormMix()) : null;
+            List<ClientSession> sessions = new ArrayList<>(total);
+            List<WorkloadMix> mixes = new ArrayList<>(total);
+            for (int i = 0; i < total; i++) {
+                int userIndex = i % config.users();
+                ClientSession session = new ClientSession(httpClient, objectMapper, config.baseUrl(), config.randomSeed() + i);
+                session.login(SeededUser.emailFor(userIndex), SeededUser.PASSWORD);
+                sessions.add(session);
+                mixes.add(i < config.concurrency() ? mix : stormMix);
+            }
+            System.out.printf("Logged in %d sessions across %d users%n", sessions.size(), Math.min(config.users(), sessions.size()));
+            if (stormMix != null) {
+                System.out.printf("%d of them run the '%s' storm mix%n", config.stormClients(), stormMix.name());
+            }
+
+            LoadReport report = drive(sessions, mixes, config);
+            report.print(System.out, mix.name(), config.duration());
+            report.writeCsv(Path.of(config.reportFile()), mix.name(), config.duration());
+            System.out.printf("Stub traffic: %d auth, %d storage requests%n", stubs.authRequests(), stubs.storageRequests());
+            System.out.println("CSV written to " + config.reportFile());
+        }
+    }
+
+    /**
+     * Runs every session in a closed loop on its own mix: warmup first (not recorded), then the measured window.
+     */
+    private static LoadReport drive(List<ClientSession> sessions, List<WorkloadMix> mixes, LoadTestConfig config) throws InterruptedException {
+        LoadReport report = new LoadReport();
+        AtomicBoolean recording = new AtomicBoolean(false);
+        AtomicBoolean running = new AtomicBoolean(true);
+
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < sessions.size(); i++) {
+                ClientSession session = sessions.get(i);
+                WorkloadMix mix = mixes.get(i);
+                Random random = new Random(config.randomSeed() * 31 + i);
+                workers.submit(() -> {
+                    while (running.get()) {
+                        Endpoint endpoint = mix.next(random);
+                        long started = System.nanoTime();
+                        boolean success;
+                        try {
+                            int status = session.execute(endpoint);
+                            success = status >= 200 && status < 300;
+                        } catch (Exception e) {
+                            success = false;
+                        }
+                        if (recording.get()) {
+                            report.record(endpoint, System.nanoTime() - started, success);
+                        }
+                    }
+                    return null;
+                });
+            }
+
+            System.out.printf("Warming up for %ds...%n", config.warmup().toSeconds());
+            TimeUnit.MILLISECONDS.sleep(config.warmup().toMillis());
+            recording.set(true);
+            System.out.printf("Measuring for %ds with %d concurrent clients...%n", config.duration().toSeconds(), sessions.size());
+            TimeUnit.MILLISECONDS.sleep(config.duration().toMillis());
+            recording.set(false);
+            running.set(false);
+        }
+        return report;
+    }
+
+    private static void awaitBackend(HttpClient httpClient, String baseUrl) throws InterruptedException {
+        HttpRequest health = HttpRequest.newBuilder(URI.create(baseUrl + "/health")).timeout(Duration.ofSeconds(2)).build();
+        long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(2);
+        System.out.println("Waiting for backend at " + baseUrl + " ...");
+        while (System.nanoTime() < deadline) {
+            try {
+                if (httpClient.send(health, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (Exception ignored) {
+                // not up yet
+            }
+            TimeUnit.SECONDS.sleep(1);
+        }
+        throw new IllegalStateException("Backend did not become healthy at " + baseUrl);
+    }
+}
@@ -0,0 +1,87 @@
+package com.csci310.anchornotes.loadtest;
+
+import java.time.Duration;
+
+/**
+ * Load test settings, read from -Dloadtest.* system properties so runs can be
+ * scripted and compared without editing code.
+ */
+public record LoadTestConfig(
+        String baseUrl,
+        String dbUrl,
+        String dbUser,
+        String dbPassword,
+        String jwtSecret,
+        int stubPort,
+        boolean seed,
+        int users,
+        int notesPerUser,
+        int tagsPerUser,
+        double geofenceRatio,
+        double reminderRatio,
+        int concurrency,
+        int stormClients,
+        String stormMix,
+        Duration warmup,
+        Duration duration,
+        String mix,
+        String reportFile,
+        long randomSeed,
+        int benchQueries,
+        int importNotes,
+        String photoCorpus,
+        int photoCount
+) {
+
+    public static LoadTestConfig fromSystemProperties() {
+        return new LoadTestConfig(
+                string("baseUrl", "http://localhost:8080"),
+                string("dbUrl", "jdbc:postgresql://127.0.0.1:54322/postgres"),
+                string("dbUser", "postgres"),
+                string("dbPassword", "postgres"),
+                string("jwtSecret", "loadtest-jwt-secret-that-is-at-least-256-bits-long-0123456789"),
+                integer("stubPort", 54399),
+                bool("seed", true),
+                integer("users", 50),
+                integer("notesPerUser", 200),
+                integer("tagsPerUser", 8),
+                decimal("geofenceRatio", 0.15),
+                decimal("reminderRatio", 0.10),
+                integer("concurrency", 32),
+                integer("stormClients", 0),
+                string("stormMix", "bulk"),
+                Duration.ofSeconds(integer("warmupSeconds", 10)),
+                Duration.ofSeconds(integer("durationSeconds", 60)),
+                string("mix", "android"),
+                string("reportFile", "target/loadtest-report.csv"),
+                Long.getLong("loadtest.randomSeed", 310L),
+                integer("benchQueries", 20_000),
+                integer("importNotes", 50_000),
+                string("photoCorpus", ""),
+                integer("photoCount", 12)
+        );
+    }
+
+    /** Base URL the backend should be started with as SUPABASE_URL. */
+    public String stubBaseUrl() {
+        return "http://localhost:" + stubPort;
+    }
+
+    private static String string(String key, String defaultValue) {
+        return System.getProperty("loadtest." + key, defaultValue);
+    }
+
+    private static int integer(String key, int defaultValue) {
+        return Integer.getInteger("loadtest." + key, defaultValue);
+    }
+
+    private static boolean bool(String key, boolean defaultValue) {
+        String value = System.getProperty("loadtest." + key);
+        return value != null ? Boolean.parseBoolean(value) : defaultValue;
+    }
+
+    private static double decimal(String key, double defaultValue) {
+        String value = System.getProperty("loadtest." + key);
+        return value != null ? Double.parseDouble(value) : defaultValue;
+    }
+}
@@ -0,0 +1,151 @@
+package com.csci310.anchornotes.loadtest.bench;
+
+import com.csci310.anchornotes.loadtest.LoadTestConfig;
+import com.csci310.anchornotes.loadtest.seed.SeededUser;
+import com.csci310.anchornotes.loadtest.stub.SupabaseStubServer;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times POST /api/import end to end: generates an NDJSON file of plain notes, uploads it as
+ * seeded user 0 and polls the job until the merge completes.
+ *
+ * <pre>
+ *   mvn -q compile exec:java -Dexec.args=import-bench -Dloadtest.importNotes=50000
+ * </pre>
+ */
+public class ImportBenchmark {
+
+    private static final String[] WORDS = {"meeting", "project", "gym", "exam", "coffee", "library", "trip",
+            "call", "idea", "groceries", "draft", "review", "deadline", "campus", "lecture"};
+    private static final int TAG_POOL = 40;
+    private static final int TAGS_PER_NOTE = 3;
+
+    private final LoadTestConfig config;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+
+    public ImportBenchmark(LoadTestConfig config) {
+        this.config = config;
+    }
+
+    public void run() throws Exception {
+        Path file = Files.createTempFile("import-bench-", ".ndjson");
+        try (SupabaseStubServer ignored = new SupabaseStubServer(config.stubPort(), config.jwtSecret()).start()) {
+            generate(file, config.importNotes());
+            System.out.printf("Generated %,d notes (%,d bytes) in %s%n", config.importNotes(), Files.size(file), file);
+
+            String token = login();
+            long started = System.nanoTime();
+            HttpResponse<String> accepted = httpClient.send(HttpRequest.newBuilder(URI.create(config.baseUrl() + "/api/import"))
+                    .header("Authorization", "Bearer " + token)
+                    .header("Content-Type", "application/x-ndjson")
+                    .timeout(Duration.ofMinutes(10))
+                    .POST(HttpRequest.BodyPublishers.ofFile(file))
+                    .build(), HttpResponse.BodyHandlers.ofString());
+            if (accepted.statusCode() != 202) {
+                throw new IOException("Import was not accepted: HTTP " + accepted.statusCode() + " " + accepted.body());
+            }
+            long uploaded = System.nanoTime();
+            String location = accepted.headers().firstValue("Location").orElseThrow();
+            System.out.printf("Upload validated and spooled in %d ms%n", TimeUnit.NANOSECONDS.toMillis(uploaded - started));
+
+            JsonNode job = poll(location, token);
+            long finished = System.nanoTime();
+            double minutes = (finished - started) / 60e9;
+            System.out.printf("Import %s %s: %d notes, %d new tags, %d rejected lines%n",
+                    job.path("id").asText(), job.path("state").asText(), job.path("notesImported").asLong(),
+                    job.path("tagsCreated").asLong(), job.path("rejected").asLong());
+            System.out.printf("Merge %d ms, total %d ms, %,.0f notes/min%n",
+                    TimeUnit.NANOSECONDS.toMillis(finished - uploaded), TimeUnit.NANOSECONDS.toMillis(finished - started),
+                    job.path("notesImported").asLong() / minutes);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /** Long-tailed note bodies like the seeder's, each with a few tags from a shared pool. */
+    private void generate(Path file, int notes) throws IOException {
+        Random random = new Random(config.randomSeed());
+        Instant base = Instant.parse("2025-01-01T00:00:00Z");
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+             JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+            json.setRootValueSeparator(null);
+            for (int i = 0; i < notes; i++) {
+                json.writeStartObject();
+                json.writeStringField("title", "Imported " + WORDS[random.nextInt(WORDS.length)] + " " + i);
+                json.writeStringField("text", body(random));
+                json.writeBooleanField("pinned", random.nextInt(20) == 0);
+                json.writeStringField("createdAt", base.plusSeconds(i * 60L).toString());
+                json.writeArrayFieldStart("tags");
+                for (int t = 0; t < TAGS_PER_NOTE; t++) {
+                    json.writeString("import-tag-" + random.nextInt(TAG_POOL));
+                }
+                json.writeEndArray();
+                if (random.nextDouble() < config.geofenceRatio()) {
+                    json.writeObjectFieldStart("geofence");
+                    json.writeNumberField("latitude", 34.0 + random.nextDouble() * 0.1);
+                    json.writeNumberField("longitude", -118.3 + random.nextDouble() * 0.1);
+                    json.writeNumberField("radius", 100 + random.nextInt(400));
+                    json.writeEndObject();
+                }
+                json.writeEndObject();
+                json.flush();
+                out.write('\n');
+            }
+        }
+    }
+
+    private static String body(Random random) {
+        int words = (int) Math.min(2_000, 5 + Math.round(-Math.log(1 - random.nextDouble()) * 40));
+        StringBuilder text = new StringBuilder();
+        for (int w = 0; w < words; w++) {
+            text.append(w == 0 ? "" : random.nextInt(12) == 0 ? "\n" : " ").append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return text.toString();
+    }
+
+    private String login() throws IOException, InterruptedException {
+        byte[] body = objectMapper.writeValueAsBytes(objectMapper.createObjectNode()
+                .put("username", SeededUser.emailFor(0)).put("password", SeededUser.PASSWORD));
+        HttpResponse<byte[]> response = httpClient.send(HttpRequest.newBuilder(URI.create(config.baseUrl() + "/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                .build(), HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IOException("Login failed: HTTP " + response.statusCode());
+        }
+        return objectMapper.readTree(response.body()).path("data").path("token").asText();
+    }
+
+    private JsonNode poll(String location, String token) throws IOException, InterruptedException {
+        HttpRequest status = HttpRequest.newBuilder(URI.create(config.baseUrl() + location))
+                .header("Authorization", "Bearer " + token)
+                .build();
+        long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(30);
+        while (System.nanoTime() < deadline) {
+            JsonNode job = objectMapper.readTree(httpClient.send(status, HttpResponse.BodyHandlers.ofByteArray()).body());
+            String state = job.path("state").asText();
+            if (state.equals("COMPLETED") || state.equals("FAILED")) {
+                return job;
+            }
+            TimeUnit.MILLISECONDS.sleep(200);
+        }
+        throw new IllegalStateException("Import did not finish within 30 minutes");
+    }
+}
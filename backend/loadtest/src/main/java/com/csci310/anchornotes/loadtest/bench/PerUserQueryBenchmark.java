@@ -0,0 +1,253 @@
+package com.csci310.anchornotes.loadtest.bench;
+
+import com.csci310.anchornotes.loadtest.LoadTestConfig;
+import com.csci310.anchornotes.loadtest.report.LatencyRecorder;
+import com.csci310.anchornotes.loadtest.seed.SeededUser;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Times the backend's per-user note queries straight against the database, without the
+ * HTTP layer, so the notes table layout is the only thing that changes between runs.
+ *
+ * <pre>
+ *   mvn -q compile exec:java -Dexec.args=query-bench   # measure the current layout
+ *   mvn -q compile exec:java -Dexec.args=partition     # apply partition_notes.sql
+ * </pre>
+ */
+public class PerUserQueryBenchmark {
+
+    /** The SQL the backend issues for the list, open, search and tag filter screens. */
+    private static final Map<String, String> QUERIES = new LinkedHashMap<>();
+
+    static {
+        QUERIES.put("list", "SELECT n.* FROM notes n WHERE n.user_id = ? "
+                + "ORDER BY n.last_edited DESC LIMIT 20");
+        QUERIES.put("open", "SELECT n.*, t.* FROM notes n "
+                + "LEFT JOIN note_tags nt ON nt.note_id = n.id AND nt.user_id = n.user_id "
+                + "LEFT JOIN tags t ON t.id = nt.tag_id WHERE n.user_id = ? AND n.id = ?");
+        QUERIES.put("search", "SELECT DISTINCT n.* FROM notes n LEFT JOIN geofence g ON n.geofence = g.id "
+                + "WHERE n.user_id = ? AND (LOWER(n.text) LIKE LOWER('%' || ? || '%') "
+                + "OR LOWER(n.title) LIKE LOWER('%' || ? || '%') OR LOWER(g.address_name) LIKE LOWER('%' || ? || '%')) "
+                + "ORDER BY n.last_edited DESC LIMIT 20");
+        QUERIES.put("filter-tag", "SELECT DISTINCT n.* FROM notes n "
+                + "LEFT JOIN note_tags nt ON nt.note_id = n.id AND nt.user_id = n.user_id "
+                + "WHERE n.user_id = ? AND nt.tag_id = ? ORDER BY n.last_edited DESC LIMIT 20");
+    }
+
+    /** One note of the user and one of its tags, looked up before each round and not timed. */
+    private static final String PICK = "SELECT nt.note_id, nt.tag_id FROM note_tags nt WHERE nt.user_id = ? LIMIT 1";
+
+    private static final String[] SEARCH_TERMS = {"meeting", "grocer", "idea", "call", "zz-no-match"};
+
+    private final LoadTestConfig config;
+
+    public PerUserQueryBenchmark(LoadTestConfig config) {
+        this.config = config;
+    }
+
+    /**
+     * Convert notes and note_tags to the hash-partitioned layout, unless they already are.
+     */
+    public void partition() throws SQLException {
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            if (layout(connection).equals("partitioned")) {
+                System.out.println("notes is already partitioned");
+                return;
+            }
+            long started = System.nanoTime();
+            statement.execute(resource("/partition_notes.sql"));
+            System.out.printf("Partitioned notes and note_tags in %d ms%n", (System.nanoTime() - started) / 1_000_000);
+        }
+    }
+
+    public void run() throws Exception {
+        Map<String, LatencyRecorder> recorders = new LinkedHashMap<>();
+        QUERIES.keySet().forEach(name -> recorders.put(name, new LatencyRecorder()));
+
+        String layout;
+        long totalNotes;
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            layout = layout(connection);
+            try (ResultSet rs = statement.executeQuery("SELECT COUNT(*) FROM notes")) {
+                rs.next();
+                totalNotes = rs.getLong(1);
+            }
+            System.out.printf("notes is %s, %d rows in total%n", layout, totalNotes);
+            printPlan(connection, SeededUser.userIdFor(0));
+        }
+
+        int threads = config.concurrency();
+        int perThread = Math.max(1, config.benchQueries() / threads);
+        AtomicInteger failures = new AtomicInteger();
+        long started = System.nanoTime();
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                Random random = new Random(config.randomSeed() * 31 + t);
+                futures.add(workers.submit(() -> {
+                    try (Connection connection = connect()) {
+                        Map<String, PreparedStatement> statements = prepare(connection);
+                        // first tenth warms the cache and plan, unrecorded
+                        int warmup = perThread / 10;
+                        for (int i = 0; i < perThread + warmup; i++) {
+                            runOne(connection, statements, random, i < warmup ? null : recorders, failures);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        double seconds = (System.nanoTime() - started) / 1e9;
+        print(System.out, recorders, layout, totalNotes, seconds);
+        writeCsv(Path.of("target", "query-bench-" + layout + ".csv"), recorders, layout, totalNotes);
+        if (failures.get() > 0) {
+            System.out.printf("%d queries failed%n", failures.get());
+        }
+    }
+
+    private void runOne(Connection connection, Map<String, PreparedStatement> statements, Random random,
+                        Map<String, LatencyRecorder> recorders, AtomicInteger failures) throws SQLException {
+        UUID userId = SeededUser.userIdFor(random.nextInt(config.users()));
+        long[] pick = pick(statements.get("pick"), userId);
+        long noteId = pick[0];
+        long tagId = pick[1];
+        for (Map.Entry<String, String> query : QUERIES.entrySet()) {
+            PreparedStatement ps = statements.get(query.getKey());
+            ps.setObject(1, userId);
+            switch (query.getKey()) {
+                case "open" -> ps.setLong(2, noteId);
+                case "search" -> {
+                    String term = SEARCH_TERMS[random.nextInt(SEARCH_TERMS.length)];
+                    ps.setString(2, term);
+                    ps.setString(3, term);
+                    ps.setString(4, term);
+                }
+                case "filter-tag" -> ps.setLong(2, tagId);
+                default -> {
+                }
+            }
+            long started = System.nanoTime();
+            boolean success = true;
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    // drain like the backend would
+                }
+            } catch (SQLException e) {
+                success = false;
+                failures.incrementAndGet();
+            }
+            if (recorders != null) {
+                recorders.get(query.getKey()).record(System.nanoTime() - started, success);
+            }
+        }
+    }
+
+    private static long[] pick(PreparedStatement ps, UUID userId) throws SQLException {
+        ps.setObject(1, userId);
+        try (ResultSet rs = ps.executeQuery()) {
+            return rs.next() ? new long[]{rs.getLong(1), rs.getLong(2)} : new long[]{-1, -1};
+        }
+    }
+
+    private static Map<String, PreparedStatement> prepare(Connection connection) throws SQLException {
+        Map<String, PreparedStatement> statements = new LinkedHashMap<>();
+        for (Map.Entry<String, String> query : QUERIES.entrySet()) {
+            statements.put(query.getKey(), connection.prepareStatement(query.getValue()));
+        }
+        statements.put("pick", connection.prepareStatement(PICK));
+        return statements;
+    }
+
+    /** Shows whether the tag filter is pruned to one partition of notes and of note_tags. */
+    private static void printPlan(Connection connection, UUID userId) throws SQLException {
+        long[] pick;
+        try (PreparedStatement ps = connection.prepareStatement(PICK)) {
+            pick = pick(ps, userId);
+        }
+        System.out.println("Plan for the tag filter query:");
+        try (PreparedStatement ps = connection.prepareStatement("EXPLAIN (COSTS OFF) " + QUERIES.get("filter-tag"))) {
+            ps.setObject(1, userId);
+            ps.setLong(2, pick[1]);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    System.out.println("  " + rs.getString(1));
+                }
+            }
+        }
+    }
+
+    private static String layout(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT relkind FROM pg_class WHERE oid = to_regclass('notes')")) {
+            return rs.next() && "p".equals(rs.getString(1)) ? "partitioned" : "single-table";
+        }
+    }
+
+    private Connection connect() throws SQLException {
+        return DriverManager.getConnection(config.dbUrl(), config.dbUser(), config.dbPassword());
+    }
+
+    private static String resource(String name) throws SQLException {
+        try (InputStream in = PerUserQueryBenchmark.class.getResourceAsStream(name)) {
+            if (in == null) {
+                throw new IllegalStateException(name + " missing from classpath");
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new SQLException("Could not read " + name, e);
+        }
+    }
+
+    private static void print(PrintStream out, Map<String, LatencyRecorder> recorders, String layout,
+                              long totalNotes, double seconds) {
+        out.printf(Locale.ROOT, "%nPer-user queries, %s notes table (%d notes), %.0fs%n", layout, totalNotes, seconds);
+        out.printf(Locale.ROOT, "%-12s %9s %7s %9s %9s %9s %9s%n",
+                "query", "count", "errors", "p50 ms", "p95 ms", "p99 ms", "max ms");
+        recorders.forEach((name, recorder) -> {
+            LatencyRecorder.Snapshot s = recorder.snapshot();
+            out.printf(Locale.ROOT, "%-12s %9d %7d %9.2f %9.2f %9.2f %9.2f%n", name, s.count(), s.errors(),
+                    s.percentileMillis(50), s.percentileMillis(95), s.percentileMillis(99), s.maxMillis());
+        });
+    }
+
+    private static void writeCsv(Path file, Map<String, LatencyRecorder> recorders, String layout, long totalNotes)
+            throws IOException {
+        List<String> lines = new ArrayList<>();
+        lines.add("layout,total_notes,query,count,errors,p50_ms,p95_ms,p99_ms,max_ms");
+        recorders.forEach((name, recorder) -> {
+            LatencyRecorder.Snapshot s = recorder.snapshot();
+            lines.add(String.format(Locale.ROOT, "%s,%d,%s,%d,%d,%.3f,%.3f,%.3f,%.3f", layout, totalNotes, name,
+                    s.count(), s.errors(), s.percentileMillis(50), s.percentileMillis(95), s.percentileMillis(99),
+                    s.maxMillis()));
+        });
+        Files.createDirectories(file.getParent());
+        Files.write(file, lines);
+        System.out.println("CSV written to " + file);
+    }
+}
@@ -0,0 +1,237 @@
+package com.csci310.anchornotes.loadtest.bench;
+
+import com.csci310.anchornotes.loadtest.LoadTestConfig;
+import com.csci310.anchornotes.loadtest.report.LatencyRecorder;
+import com.csci310.anchornotes.loadtest.seed.SeededUser;
+import com.csci310.anchornotes.loadtest.stub.SupabaseStubServer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Measures photo normalization on upload: sends each JPEG of a corpus to
+ * POST /api/notes/{id}/photo/upload as seeded user 0, then asks the backend how large the
+ * stored file is. Without a corpus it generates 12MP camera-like photos, with EXIF, that are
+ * new on every run.
+ *
+ * <pre>
+ *   mvn -q compile exec:java -Dexec.args=photo-bench -Dloadtest.photoCorpus=/path/to/jpegs
+ * </pre>
+ */
+public class PhotoBenchmark {
+
+    private final LoadTestConfig config;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+
+    private record Sample(String name, long uploadedBytes, long storedBytes, long nanos) {
+    }
+
+    public PhotoBenchmark(LoadTestConfig config) {
+        this.config = config;
+    }
+
+    public void run() throws Exception {
+        try (SupabaseStubServer ignored = new SupabaseStubServer(config.stubPort(), config.jwtSecret()).start()) {
+            String token = login();
+            long noteId = createNote(token);
+            LatencyRecorder latency = new LatencyRecorder();
+            List<Sample> samples = new ArrayList<>();
+
+            List<Path> corpus = corpus();
+            int photos = corpus != null ? corpus.size() : config.photoCount();
+            Random random = new Random(System.nanoTime());
+            for (int i = 0; i < photos; i++) {
+                String name = corpus != null ? corpus.get(i).getFileName().toString() : "synthetic-" + i + ".jpg";
+                byte[] photo = corpus != null ? Files.readAllBytes(corpus.get(i)) : synthetic(random);
+
+                long started = System.nanoTime();
+                HttpResponse<String> response = upload(token, noteId, name, photo);
+                long nanos = System.nanoTime() - started;
+                latency.record(nanos, response.statusCode() == 201);
+                if (response.statusCode() != 201) {
+                    System.out.printf("%s: HTTP %d %s%n", name, response.statusCode(), response.body());
+                    continue;
+                }
+                long stored = storedSize(token, sha256(photo));
+                samples.add(new Sample(name, photo.length, stored, nanos));
+                System.out.printf(Locale.ROOT, "%-40s %,12d -> %,12d bytes  %7.1f ms%n",
+                        name, photo.length, stored, nanos / 1e6);
+            }
+
+            long uploaded = samples.stream().mapToLong(Sample::uploadedBytes).sum();
+            long stored = samples.stream().mapToLong(Sample::storedBytes).sum();
+            LatencyRecorder.Snapshot s = latency.snapshot();
+            System.out.printf(Locale.ROOT, "%nPhotos %d (%d errors): %,d bytes uploaded, %,d stored, %.1f%% saved%n",
+                    s.count(), s.errors(), uploaded, stored, uploaded == 0 ? 0 : 100.0 * (uploaded - stored) / uploaded);
+            System.out.printf(Locale.ROOT, "Upload p50 %.1f ms, p95 %.1f ms, max %.1f ms%n",
+                    s.percentileMillis(50), s.percentileMillis(95), s.maxMillis());
+            writeCsv(Path.of("target", "photo-bench.csv"), samples);
+        }
+    }
+
+    private List<Path> corpus() throws IOException {
+        if (config.photoCorpus().isBlank()) {
+            return null;
+        }
+        try (Stream<Path> files = Files.list(Path.of(config.photoCorpus()))) {
+            List<Path> jpegs = files.filter(file -> file.getFileName().toString().toLowerCase(Locale.ROOT).matches(".*\\.jpe?g"))
+                    .sorted()
+                    .toList();
+            if (jpegs.isEmpty()) {
+                throw new IllegalArgumentException("No .jpg files in " + config.photoCorpus());
+            }
+            return jpegs;
+        }
+    }
+
+    /** A 4032x3024 noisy gradient at quality 0.95 with an EXIF segment, like a phone camera's output. */
+    private static byte[] synthetic(Random random) throws IOException {
+        int width = 4032;
+        int height = 3024;
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        int hue = random.nextInt(256);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int r = (x * 255 / width + random.nextInt(16)) & 0xFF;
+                int g = (y * 255 / height + random.nextInt(16)) & 0xFF;
+                image.setRGB(x, y, r << 16 | g << 8 | hue);
+            }
+        }
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream jpeg = new ByteArrayOutputStream();
+        try (MemoryCacheImageOutputStream output = new MemoryCacheImageOutputStream(jpeg)) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(0.95f);
+            writer.setOutput(output);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return withExif(jpeg.toByteArray());
+    }
+
+    // big-endian EXIF with a camera model and orientation 6, placed after the JFIF header
+    private static byte[] withExif(byte[] jpeg) {
+        byte[] tiff = {
+                'M', 'M', 0, 42, 0, 0, 0, 8,
+                0, 2,
+                0x01, 0x10, 0, 2, 0, 0, 0, 4, 'P', 'h', 'n', 0,
+                0x01, 0x12, 0, 3, 0, 0, 0, 1, 0, 6, 0, 0,
+                0, 0, 0, 0};
+        byte[] header = "Exif\0\0".getBytes(StandardCharsets.ISO_8859_1);
+        int afterApp0 = 4 + ((jpeg[4] & 0xFF) << 8 | (jpeg[5] & 0xFF));
+        int length = 2 + header.length + tiff.length;
+        ByteArrayOutputStream out = new ByteArrayOutputStream(jpeg.length + length + 2);
+        out.write(jpeg, 0, afterApp0);
+        out.write(0xFF);
+        out.write(0xE1);
+        out.write(length >> 8);
+        out.write(length & 0xFF);
+        out.writeBytes(header);
+        out.writeBytes(tiff);
+        out.write(jpeg, afterApp0, jpeg.length - afterApp0);
+        return out.toByteArray();
+    }
+
+    private HttpResponse<String> upload(String token, long noteId, String name, byte[] photo)
+            throws IOException, InterruptedException {
+        String boundary = "photo-bench-" + UUID.randomUUID();
+        ByteArrayOutputStream body = new ByteArrayOutputStream(photo.length + 512);
+        body.writeBytes(("--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"file\"; filename=\"" + name + "\"\r\n"
+                + "Content-Type: image/jpeg\r\n\r\n").getBytes(StandardCharsets.UTF_8));
+        body.writeBytes(photo);
+        body.writeBytes(("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.UTF_8));
+        return httpClient.send(HttpRequest.newBuilder(URI.create(config.baseUrl() + "/api/notes/" + noteId + "/photo/upload"))
+                .header("Authorization", "Bearer " + token)
+                .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                .timeout(Duration.ofMinutes(2))
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body.toByteArray()))
+                .build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private long storedSize(String token, String sha256) throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = httpClient.send(HttpRequest.newBuilder(
+                        URI.create(config.baseUrl() + "/api/attachments/blobs/" + sha256))
+                .header("Authorization", "Bearer " + token)
+                .build(), HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IOException("Blob lookup failed: HTTP " + response.statusCode());
+        }
+        return objectMapper.readTree(response.body()).path("sizeBytes").asLong();
+    }
+
+    private long createNote(String token) throws IOException, InterruptedException {
+        byte[] body = objectMapper.writeValueAsBytes(objectMapper.createObjectNode()
+                .put("title", "Photo benchmark").put("text", "Holds the photos uploaded by photo-bench"));
+        HttpResponse<byte[]> response = httpClient.send(HttpRequest.newBuilder(URI.create(config.baseUrl() + "/api/notes"))
+                .header("Authorization", "Bearer " + token)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                .build(), HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 201) {
+            throw new IOException("Could not create a note: HTTP " + response.statusCode());
+        }
+        return objectMapper.readTree(response.body()).path("id").asLong();
+    }
+
+    private String login() throws IOException, InterruptedException {
+        byte[] body = objectMapper.writeValueAsBytes(objectMapper.createObjectNode()
+                .put("username", SeededUser.emailFor(0)).put("password", SeededUser.PASSWORD));
+        HttpResponse<byte[]> response = httpClient.send(HttpRequest.newBuilder(URI.create(config.baseUrl() + "/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                .build(), HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IOException("Login failed: HTTP " + response.statusCode());
+        }
+        return objectMapper.readTree(response.body()).path("data").path("token").asText();
+    }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void writeCsv(Path file, List<Sample> samples) throws IOException {
+        List<String> lines = new ArrayList<>();
+        lines.add("photo,uploaded_bytes,stored_bytes,saved_pct,upload_ms");
+        for (Sample sample : samples) {
+            lines.add(String.format(Locale.ROOT, "%s,%d,%d,%.1f,%.1f", sample.name(), sample.uploadedBytes(),
+                    sample.storedBytes(), 100.0 * (sample.uploadedBytes() - sample.storedBytes()) / sample.uploadedBytes(),
+                    sample.nanos() / 1e6));
+        }
+        Files.createDirectories(file.getParent());
+        Files.write(file, lines);
+        System.out.println("CSV written to " + file);
+    }
+}
@@ -0,0 +1,53 @@
+package com.csci310.anchornotes.loadtest.report;
+
+import java.util.Arrays;
+
+/**
+ * Collects raw latencies for one endpoint. Samples are kept exactly (not bucketed) so
+ * percentiles from two runs can be compared without histogram resolution noise.
+ */
+public class LatencyRecorder {
+
+    private long[] samples = new long[1024];
+    private int count;
+    private long errors;
+
+    public synchronized void record(long nanos, boolean success) {
+        if (!success) {
+            errors++;
+        }
+        if (count == samples.length) {
+            samples = Arrays.copyOf(samples, samples.length * 2);
+        }
+        samples[count++] = nanos;
+    }
+
+    public synchronized Snapshot snapshot() {
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        return new Snapshot(sorted, errors);
+    }
+
+    public record Snapshot(long[] sortedNanos, long errors) {
+
+        public long count() {
+            return sortedNanos.length;
+        }
+
+        /**
+         * Nearest-rank percentile in milliseconds.
+         */
+        public double percentileMillis(double percentile) {
+            if (sortedNanos.length == 0) {
+                return 0;
+            }
+            int rank = (int) Math.ceil(percentile / 100.0 * sortedNanos.length);
+            int index = Math.min(sortedNanos.length - 1, Math.max(0, rank - 1));
+            return sortedNanos[index] / 1_000_000.0;
+        }
+
+        public double maxMillis() {
+            return sortedNanos.length == 0 ? 0 : sortedNanos[sortedNanos.length - 1] / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.csci310.anchornotes.loadtest.report;
+
+import com.csci310.anchornotes.loadtest.workload.Endpoint;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Per-endpoint throughput and latency percentiles for one measured window.
+ */
+public class LoadReport {
+
+    private final Map<Endpoint, LatencyRecorder> recorders = new EnumMap<>(Endpoint.class);
+
+    public LoadReport() {
+        for (Endpoint endpoint : Endpoint.values()) {
+            recorders.put(endpoint, new LatencyRecorder());
+        }
+    }
+
+    public void record(Endpoint endpoint, long nanos, boolean success) {
+        recorders.get(endpoint).record(nanos, success);
+    }
+
+    public void print(PrintStream out, String mix, Duration window) {
+        double seconds = window.toMillis() / 1000.0;
+        out.printf(Locale.ROOT, "%nWorkload '%s' over %.0fs%n", mix, seconds);
+        out.printf(Locale.ROOT, "%-32s %9s %7s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p95 ms", "p99 ms", "max ms");
+        long totalRequests = 0;
+        long totalErrors = 0;
+        for (Map.Entry<Endpoint, LatencyRecorder> entry : recorders.entrySet()) {
+            LatencyRecorder.Snapshot s = entry.getValue().snapshot();
+            if (s.count() == 0) {
+                continue;
+            }
+            totalRequests += s.count();
+            totalErrors += s.errors();
+            out.printf(Locale.ROOT, "%-32s %9d %7d %9.1f %9.1f %9.1f %9.1f %9.1f%n",
+                    entry.getKey().route(), s.count(), s.errors(), s.count() / seconds,
+                    s.percentileMillis(50), s.percentileMillis(95), s.percentileMillis(99), s.maxMillis());
+        }
+        out.printf(Locale.ROOT, "%-32s %9d %7d %9.1f%n", "TOTAL", totalRequests, totalErrors, totalRequests / seconds);
+    }
+
+    /**
+     * Writes one CSV row per endpoint so runs before and after a capacity change can be diffed.
+     */
+    public void writeCsv(Path file, String mix, Duration window) throws IOException {
+        double seconds = window.toMillis() / 1000.0;
+        List<String> lines = new ArrayList<>();
+        lines.add("mix,endpoint,requests,errors,rps,p50_ms,p95_ms,p99_ms,max_ms");
+        for (Map.Entry<Endpoint, LatencyRecorder> entry : recorders.entrySet()) {
+            LatencyRecorder.Snapshot s = entry.getValue().snapshot();
+            if (s.count() == 0) {
+                continue;
+            }
+            lines.add(String.format(Locale.ROOT, "%s,%s,%d,%d,%.2f,%.2f,%.2f,%.2f,%.2f",
+                    mix, entry.getKey().name(), s.count(), s.errors(), s.count() / seconds,
+                    s.percentileMillis(50), s.percentileMillis(95), s.percentileMillis(99), s.maxMillis()));
+        }
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        Files.write(file, lines);
+    }
+}
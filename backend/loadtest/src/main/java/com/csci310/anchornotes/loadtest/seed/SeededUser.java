@@ -0,0 +1,40 @@
+package com.csci310.anchornotes.loadtest.seed;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * A synthetic account and the ids the workload can address for it.
+ */
+public record SeededUser(
+        UUID id,
+        String email,
+        String password,
+        List<Long> noteIds,
+        List<Long> tagIds,
+        List<Long> geofenceNoteIds
+) {
+
+    public static final String PASSWORD = "loadtest-password";
+
+    public static UUID userIdFor(int index) {
+        return UUID.nameUUIDFromBytes(("anchornotes-loadtest-user-" + index).getBytes());
+    }
+
+    public static String emailFor(int index) {
+        return "loadtest-user-" + index + "@example.test";
+    }
+
+    /** Inverse of {@link #emailFor(int)}; used by the auth stub to mint tokens. */
+    public static UUID userIdForEmail(String email) {
+        if (email != null && email.startsWith("loadtest-user-") && email.endsWith("@example.test")) {
+            String index = email.substring("loadtest-user-".length(), email.indexOf('@'));
+            try {
+                return userIdFor(Integer.parseInt(index));
+            } catch (NumberFormatException ignored) {
+                // fall through to a stable id derived from the address
+            }
+        }
+        return UUID.nameUUIDFromBytes(String.valueOf(email).getBytes());
+    }
+}
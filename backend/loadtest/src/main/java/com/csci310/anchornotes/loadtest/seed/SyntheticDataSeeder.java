@@ -0,0 +1,270 @@
+package com.csci310.anchornotes.loadtest.seed;
+
+import com.csci310.anchornotes.loadtest.LoadTestConfig;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.*;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Seeds a local Postgres with synthetic users, tags, geofences, notes and templates.
+ * Users get deterministic ids so the auth stub can mint matching tokens and reruns
+ * replace (rather than duplicate) a previous seed.
+ */
+public class SyntheticDataSeeder {
+
+    private static final String[] WORDS = {
+            "meeting", "groceries", "project", "deadline", "call", "mom", "birthday", "gym",
+            "lecture", "homework", "exam", "recipe", "travel", "flight", "hotel", "budget",
+            "idea", "draft", "review", "doctor", "appointment", "library", "coffee", "notes",
+            "chapter", "reading", "list", "errand", "pharmacy", "weekend", "hike", "campus"
+    };
+
+    private static final String[] COLORS = {"#8B5CF6", "#EF4444", "#10B981", "#F59E0B", "#3B82F6", "#EC4899"};
+
+    private static final String[] PLACES = {
+            "Leavey Library", "Doheny Library", "Lyon Center", "Trader Joe's", "Union Station",
+            "Office", "Home", "Coffee Bean", "Village Gym", "Doctor's office"
+    };
+
+    private static final String[] ID_COLUMN = {"id"};
+
+    private final LoadTestConfig config;
+    private final Random random;
+
+    public SyntheticDataSeeder(LoadTestConfig config) {
+        this.config = config;
+        this.random = new Random(config.randomSeed());
+    }
+
+    public List<SeededUser> seed() throws SQLException {
+        List<SeededUser> users = new ArrayList<>(config.users());
+        try (Connection connection = DriverManager.getConnection(config.dbUrl(), config.dbUser(), config.dbPassword())) {
+            applySchema(connection);
+            connection.setAutoCommit(false);
+
+            long started = System.nanoTime();
+            for (int i = 0; i < config.users(); i++) {
+                users.add(seedUser(connection, i));
+                connection.commit();
+                if ((i + 1) % 10 == 0 || i + 1 == config.users()) {
+                    System.out.printf("  seeded %d/%d users%n", i + 1, config.users());
+                }
+            }
+            System.out.printf("Seeded %d users x %d notes in %d ms%n",
+                    config.users(), config.notesPerUser(), (System.nanoTime() - started) / 1_000_000);
+        }
+        return users;
+    }
+
+    private void applySchema(Connection connection) throws SQLException {
+        try (InputStream in = SyntheticDataSeeder.class.getResourceAsStream("/schema.sql");
+             Statement statement = connection.createStatement()) {
+            if (in == null) {
+                throw new IllegalStateException("schema.sql missing from classpath");
+            }
+            statement.execute(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new SQLException("Could not read schema.sql", e);
+        }
+    }
+
+    private SeededUser seedUser(Connection connection, int index) throws SQLException {
+        UUID userId = SeededUser.userIdFor(index);
+        deleteExisting(connection, userId);
+
+        List<Long> tagIds = insertTags(connection, userId);
+
+        int notes = config.notesPerUser();
+        boolean[] hasGeofence = new boolean[notes];
+        for (int n = 0; n < notes; n++) {
+            hasGeofence[n] = random.nextDouble() < config.geofenceRatio();
+        }
+        List<Long> geofenceIds = insertGeofences(connection, userId, count(hasGeofence));
+
+        List<Long> noteIds = new ArrayList<>(notes);
+        List<Long> geofenceNoteIds = new ArrayList<>();
+        String sql = "INSERT INTO notes (user_id, title, text, pinned, created_at, last_edited, reminder_time, geofence, background_color) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        try (PreparedStatement ps = connection.prepareStatement(sql, ID_COLUMN)) {
+            Instant now = Instant.now();
+            int geofenceCursor = 0;
+            for (int n = 0; n < notes; n++) {
+                Instant lastEdited = now.minus(random.nextInt(180 * 24 * 60), ChronoUnit.MINUTES);
+                ps.setObject(1, userId);
+                ps.setString(2, sentence(2 + random.nextInt(5)));
+                ps.setString(3, body());
+                ps.setBoolean(4, random.nextDouble() < 0.1);
+                ps.setTimestamp(5, Timestamp.from(lastEdited.minus(random.nextInt(30), ChronoUnit.DAYS)));
+                ps.setTimestamp(6, Timestamp.from(lastEdited));
+                if (random.nextDouble() < config.reminderRatio()) {
+                    ps.setTimestamp(7, Timestamp.from(now.plus(random.nextInt(4 * 24 * 60) - 2 * 24 * 60, ChronoUnit.MINUTES)));
+                } else {
+                    ps.setNull(7, Types.TIMESTAMP_WITH_TIMEZONE);
+                }
+                if (hasGeofence[n]) {
+                    ps.setLong(8, geofenceIds.get(geofenceCursor++));
+                } else {
+                    ps.setNull(8, Types.BIGINT);
+                }
+                ps.setString(9, random.nextDouble() < 0.3 ? COLORS[random.nextInt(COLORS.length)] : null);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+            try (ResultSet keys = ps.getGeneratedKeys()) {
+                int n = 0;
+                while (keys.next()) {
+                    long noteId = keys.getLong(1);
+                    noteIds.add(noteId);
+                    if (hasGeofence[n++]) {
+                        geofenceNoteIds.add(noteId);
+                    }
+                }
+            }
+        }
+
+        insertNoteTags(connection, userId, noteIds, tagIds);
+        insertTemplates(connection, userId);
+
+        return new SeededUser(userId, SeededUser.emailFor(index), SeededUser.PASSWORD,
+                List.copyOf(noteIds), List.copyOf(tagIds), List.copyOf(geofenceNoteIds));
+    }
+
+    private void deleteExisting(Connection connection, UUID userId) throws SQLException {
+        String[] statements = {
+                "DELETE FROM note_tags WHERE user_id = ?",
+                "DELETE FROM template_tags WHERE template_id IN (SELECT id FROM templates WHERE user_id = ?)",
+                "DELETE FROM notes WHERE user_id = ?",
+                "DELETE FROM templates WHERE user_id = ?",
+                "DELETE FROM tags WHERE user_id = ?",
+                "DELETE FROM geofence WHERE user_id = ?"
+        };
+        for (String sql : statements) {
+            try (PreparedStatement ps = connection.prepareStatement(sql)) {
+                ps.setObject(1, userId);
+                ps.executeUpdate();
+            }
+        }
+    }
+
+    private List<Long> insertTags(Connection connection, UUID userId) throws SQLException {
+        String sql = "INSERT INTO tags (user_id, name, color) VALUES (?, ?, ?)";
+        try (PreparedStatement ps = connection.prepareStatement(sql, ID_COLUMN)) {
+            for (int t = 0; t < config.tagsPerUser(); t++) {
+                ps.setObject(1, userId);
+                ps.setString(2, WORDS[t % WORDS.length] + (t >= WORDS.length ? "-" + t : ""));
+                ps.setString(3, COLORS[t % COLORS.length]);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+            return generatedKeys(ps);
+        }
+    }
+
+    private List<Long> insertGeofences(Connection connection, UUID userId, int count) throws SQLException {
+        if (count == 0) {
+            return List.of();
+        }
+        String sql = "INSERT INTO geofence (user_id, latitude, longitude, radius, address_name) VALUES (?, ?, ?, ?, ?)";
+        try (PreparedStatement ps = connection.prepareStatement(sql, ID_COLUMN)) {
+            for (int g = 0; g < count; g++) {
+                ps.setObject(1, userId);
+                ps.setDouble(2, 34.0224 + (random.nextDouble() - 0.5) * 0.2);
+                ps.setDouble(3, -118.2851 + (random.nextDouble() - 0.5) * 0.2);
+                ps.setInt(4, 50 + random.nextInt(450));
+                ps.setString(5, PLACES[random.nextInt(PLACES.length)]);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+            return generatedKeys(ps);
+        }
+    }
+
+    private void insertNoteTags(Connection connection, UUID userId, List<Long> noteIds, List<Long> tagIds) throws SQLException {
+        if (tagIds.isEmpty()) {
+            return;
+        }
+        String sql = "INSERT INTO note_tags (note_id, tag_id, user_id) VALUES (?, ?, ?) ON CONFLICT DO NOTHING";
+        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+            for (Long noteId : noteIds) {
+                int tagCount = random.nextInt(Math.min(4, tagIds.size() + 1));
+                for (int t = 0; t < tagCount; t++) {
+                    ps.setLong(1, noteId);
+                    ps.setLong(2, tagIds.get(random.nextInt(tagIds.size())));
+                    ps.setObject(3, userId);
+                    ps.addBatch();
+                }
+            }
+            ps.executeBatch();
+        }
+    }
+
+    private void insertTemplates(Connection connection, UUID userId) throws SQLException {
+        String sql = "INSERT INTO templates (user_id, name, text, pinned) VALUES (?, ?, ?, ?)";
+        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+            for (int t = 0; t < 3; t++) {
+                ps.setObject(1, userId);
+                ps.setString(2, sentence(2));
+                ps.setString(3, sentence(20));
+                ps.setBoolean(4, t == 0);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+    }
+
+    /**
+     * Note bodies follow a long-tailed size distribution: mostly short notes,
+     * some medium ones and a few very long ones.
+     */
+    private String body() {
+        double p = random.nextDouble();
+        int words;
+        if (p < 0.70) {
+            words = 10 + random.nextInt(60);
+        } else if (p < 0.95) {
+            words = 70 + random.nextInt(600);
+        } else {
+            words = 700 + random.nextInt(6000);
+        }
+        return sentence(words);
+    }
+
+    private String sentence(int words) {
+        StringBuilder sb = new StringBuilder(words * 8);
+        for (int w = 0; w < words; w++) {
+            if (w > 0) {
+                sb.append(w % 12 == 0 ? ".\n" : " ");
+            }
+            sb.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return sb.toString();
+    }
+
+    private static List<Long> generatedKeys(Statement statement) throws SQLException {
+        List<Long> ids = new ArrayList<>();
+        try (ResultSet keys = statement.getGeneratedKeys()) {
+            while (keys.next()) {
+                ids.add(keys.getLong(1));
+            }
+        }
+        return ids;
+    }
+
+    private static int count(boolean[] flags) {
+        int count = 0;
+        for (boolean flag : flags) {
+            if (flag) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
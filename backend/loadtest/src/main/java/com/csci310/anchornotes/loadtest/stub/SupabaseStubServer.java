@@ -0,0 +1,179 @@
+package com.csci310.anchornotes.loadtest.stub;
+
+import com.csci310.anchornotes.loadtest.seed.SeededUser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.jsonwebtoken.Claims;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local stand-in for the parts of Supabase the backend talks to over HTTP:
+ * GoTrue auth (/auth/v1) and object storage (/storage/v1). Start the backend with
+ * SUPABASE_URL pointing here so login, register, change-password and uploads never
+ * leave the machine.
+ */
+public class SupabaseStubServer implements AutoCloseable {
+
+    private static final Duration TOKEN_TTL = Duration.ofHours(12);
+
+    private final HttpServer server;
+    private final TokenMinter tokenMinter;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, byte[]> objects = new ConcurrentHashMap<>();
+    private final AtomicLong authRequests = new AtomicLong();
+    private final AtomicLong storageRequests = new AtomicLong();
+
+    public SupabaseStubServer(int port, String jwtSecret) throws IOException {
+        this.tokenMinter = new TokenMinter(jwtSecret);
+        this.server = HttpServer.create(new InetSocketAddress("localhost", port), 256);
+        this.server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        this.server.createContext("/auth/v1/", this::handleAuth);
+        this.server.createContext("/storage/v1/object/", this::handleStorage);
+    }
+
+    public SupabaseStubServer start() {
+        server.start();
+        return this;
+    }
+
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    public TokenMinter tokenMinter() {
+        return tokenMinter;
+    }
+
+    public long authRequests() {
+        return authRequests.get();
+    }
+
+    public long storageRequests() {
+        return storageRequests.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    // Auth
+
+    private void handleAuth(HttpExchange exchange) throws IOException {
+        authRequests.incrementAndGet();
+        try (exchange) {
+            String path = exchange.getRequestURI().getPath();
+            String method = exchange.getRequestMethod();
+
+            if (path.equals("/auth/v1/signup") && method.equals("POST")) {
+                JsonNode body = objectMapper.readTree(exchange.getRequestBody());
+                String email = body.path("email").asText();
+                sendJson(exchange, 200, session(email, body.path("data")));
+            } else if (path.equals("/auth/v1/token") && method.equals("POST")) {
+                JsonNode body = objectMapper.readTree(exchange.getRequestBody());
+                String email = body.path("email").asText();
+                String password = body.path("password").asText();
+                if (email.endsWith("@example.test") && !SeededUser.PASSWORD.equals(password)) {
+                    sendJson(exchange, 400, objectMapper.createObjectNode()
+                            .put("error", "invalid_grant")
+                            .put("error_description", "Invalid login credentials"));
+                    return;
+                }
+                sendJson(exchange, 200, session(email, null));
+            } else if (path.equals("/auth/v1/user")) {
+                Claims claims = bearerClaims(exchange);
+                if (claims == null) {
+                    sendJson(exchange, 401, objectMapper.createObjectNode().put("msg", "Invalid JWT"));
+                    return;
+                }
+                exchange.getRequestBody().readAllBytes();
+                sendJson(exchange, 200, user(UUID.fromString(claims.getSubject()), (String) claims.get("email"), null));
+            } else {
+                sendJson(exchange, 404, objectMapper.createObjectNode().put("msg", "Not found"));
+            }
+        }
+    }
+
+    private ObjectNode session(String email, JsonNode metadata) {
+        UUID userId = SeededUser.userIdForEmail(email);
+        ObjectNode session = objectMapper.createObjectNode();
+        session.put("access_token", tokenMinter.mint(userId, email, TOKEN_TTL));
+        session.put("token_type", "bearer");
+        session.put("expires_in", TOKEN_TTL.toSeconds());
+        session.set("user", user(userId, email, metadata));
+        return session;
+    }
+
+    private ObjectNode user(UUID userId, String email, JsonNode metadata) {
+        ObjectNode user = objectMapper.createObjectNode();
+        user.put("id", userId.toString());
+        user.put("email", email);
+        if (metadata != null && !metadata.isMissingNode()) {
+            user.set("user_metadata", metadata);
+        } else {
+            user.putObject("user_metadata").put("username", email.split("@")[0]);
+        }
+        return user;
+    }
+
+    private Claims bearerClaims(HttpExchange exchange) {
+        String header = exchange.getRequestHeaders().getFirst("Authorization");
+        if (header == null || !header.startsWith("Bearer ")) {
+            return null;
+        }
+        return tokenMinter.parse(header.substring(7));
+    }
+
+    // Storage
+
+    private void handleStorage(HttpExchange exchange) throws IOException {
+        storageRequests.incrementAndGet();
+        try (exchange) {
+            String path = exchange.getRequestURI().getPath().substring("/storage/v1/object/".length());
+            String method = exchange.getRequestMethod();
+
+            if (method.equals("GET")) {
+                String key = path.startsWith("public/") ? path.substring("public/".length()) : path;
+                byte[] content = objects.get(key);
+                if (content == null) {
+                    sendJson(exchange, 404, objectMapper.createObjectNode().put("error", "not_found"));
+                    return;
+                }
+                exchange.sendResponseHeaders(200, content.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(content);
+                }
+            } else if (method.equals("POST") || method.equals("PUT")) {
+                objects.put(path, exchange.getRequestBody().readAllBytes());
+                sendJson(exchange, 200, objectMapper.createObjectNode().put("Key", path));
+            } else if (method.equals("DELETE")) {
+                objects.remove(path);
+                sendJson(exchange, 200, objectMapper.createObjectNode().put("message", "Successfully deleted"));
+            } else {
+                sendJson(exchange, 405, objectMapper.createObjectNode().put("error", "method_not_allowed"));
+            }
+        }
+    }
+
+    private void sendJson(HttpExchange exchange, int status, JsonNode body) throws IOException {
+        byte[] bytes = objectMapper.writeValueAsString(body).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.csci310.anchornotes.loadtest.stub;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * Mints HS256 tokens shaped like Supabase access tokens. The backend accepts them as long
+ * as it runs with SUPABASE_JWT_SECRET set to the same secret.
+ */
+public class TokenMinter {
+
+    private final Key key;
+
+    public TokenMinter(String secret) {
+        this.key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public String mint(UUID userId, String email, Duration ttl) {
+        Instant now = Instant.now();
+        return Jwts.builder()
+                .setSubject(userId.toString())
+                .claim("email", email)
+                .claim("role", "authenticated")
+                .setIssuedAt(Date.from(now))
+                .setExpiration(Date.from(now.plus(ttl)))
+                .signWith(key, SignatureAlgorithm.HS256)
+                .compact();
+    }
+
+    /**
+     * @return the token claims, or null when the token is invalid
+     */
+    public Claims parse(String token) {
+        try {
+            return Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody();
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
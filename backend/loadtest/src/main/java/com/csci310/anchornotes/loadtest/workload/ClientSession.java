@@ -0,0 +1,185 @@
+package com.csci310.anchornotes.loadtest.workload;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * One virtual device logged in as one user. Keeps the small amount of state the real
+ * client keeps (known note ids, the note currently open in the editor) so that the
+ * generated requests look like a person using the app.
+ */
+public class ClientSession {
+
+    private static final String[] SEARCH_TERMS = {"meeting", "project", "gym", "exam", "coffee", "library", "trip"};
+
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final String baseUrl;
+    private final Random random;
+
+    private String token;
+    private final List<Long> noteIds = new ArrayList<>();
+    private final List<Long> tagIds = new ArrayList<>();
+    private final List<String> geofenceIds = new ArrayList<>();
+
+    private Long openNoteId;
+    private String openNoteTitle;
+    private String openNoteText;
+
+    public ClientSession(HttpClient httpClient, ObjectMapper objectMapper, String baseUrl, long seed) {
+        this.httpClient = httpClient;
+        this.objectMapper = objectMapper;
+        this.baseUrl = baseUrl;
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Logs in through the backend (and therefore through the auth stub) and loads the
+     * ids the workload addresses, the same way MainActivity does on startup.
+     */
+    public void login(String email, String password) throws IOException, InterruptedException {
+        ObjectNode body = objectMapper.createObjectNode().put("username", email).put("password", password);
+        HttpResponse<byte[]> response = send(HttpRequest.newBuilder(uri("/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body))));
+        if (response.statusCode() != 200) {
+            throw new IOException("Login failed for " + email + ": HTTP " + response.statusCode());
+        }
+        token = objectMapper.readTree(response.body()).path("data").path("token").asText();
+
+        for (JsonNode note : objectMapper.readTree(get("/api/notes").body())) {
+            noteIds.add(note.path("id").asLong());
+        }
+        for (JsonNode tag : objectMapper.readTree(get("/api/tags").body())) {
+            tagIds.add(tag.path("id").asLong());
+        }
+        for (JsonNode geofence : objectMapper.readTree(get("/api/geofences").body())) {
+            geofenceIds.add(geofence.path("geofenceId").asText());
+        }
+    }
+
+    /**
+     * @return the HTTP status of the call
+     */
+    public int execute(Endpoint endpoint) throws IOException, InterruptedException {
+        return switch (endpoint) {
+            case LIST_NOTES -> get("/api/notes").statusCode();
+            case LIST_TAGS -> get("/api/tags").statusCode();
+            case OPEN_NOTE -> openNote();
+            case AUTOSAVE -> autosave();
+            case PIN_TOGGLE -> togglePin();
+            case SEARCH -> get("/api/notes/search?q=" + encode(pick(SEARCH_TERMS)) + "&limit=50&offset=0").statusCode();
+            case FILTER -> filter();
+            case RELEVANT_NOTES -> relevantNotes();
+            case GEOFENCE_SYNC -> get("/api/geofences").statusCode();
+        };
+    }
+
+    private int openNote() throws IOException, InterruptedException {
+        if (noteIds.isEmpty()) {
+            return get("/api/notes").statusCode();
+        }
+        long noteId = noteIds.get(random.nextInt(noteIds.size()));
+        HttpResponse<byte[]> response = get("/api/notes/" + noteId);
+        if (response.statusCode() == 200) {
+            JsonNode note = objectMapper.readTree(response.body());
+            openNoteId = noteId;
+            openNoteTitle = note.path("title").asText("");
+            openNoteText = note.path("text").asText("");
+        }
+        return response.statusCode();
+    }
+
+    /**
+     * NoteEditorActivity sends the full title and body on every autosave, so this does too.
+     */
+    private int autosave() throws IOException, InterruptedException {
+        if (openNoteId == null) {
+            return openNote();
+        }
+        openNoteText = openNoteText + (random.nextInt(8) == 0 ? "\n" : " ") + pick(SEARCH_TERMS);
+        ObjectNode body = objectMapper.createObjectNode()
+                .put("title", openNoteTitle)
+                .put("text", openNoteText);
+        return send(authorized("/api/notes/" + openNoteId)
+                .header("Content-Type", "application/json")
+                .PUT(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))).statusCode();
+    }
+
+    /**
+     * MainActivity's swipe-right: flip the pin flag of a note in the list.
+     */
+    private int togglePin() throws IOException, InterruptedException {
+        if (noteIds.isEmpty()) {
+            return get("/api/notes").statusCode();
+        }
+        long noteId = noteIds.get(random.nextInt(noteIds.size()));
+        ObjectNode body = objectMapper.createObjectNode().put("pinned", random.nextBoolean());
+        return send(authorized("/api/notes/" + noteId + "/pin")
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))).statusCode();
+    }
+
+    private int filter() throws IOException, InterruptedException {
+        StringBuilder query = new StringBuilder("/api/notes/filter?limit=50&offset=0");
+        if (!tagIds.isEmpty() && random.nextBoolean()) {
+            query.append("&tagIds=").append(tagIds.get(random.nextInt(tagIds.size())));
+        }
+        if (random.nextInt(3) == 0) {
+            query.append("&hasLocation=true");
+        }
+        return get(query.toString()).statusCode();
+    }
+
+    private int relevantNotes() throws IOException, InterruptedException {
+        ObjectNode body = objectMapper.createObjectNode().put("nowUtc", Instant.now().toString());
+        ArrayNode inside = body.putArray("insideGeofenceIds");
+        for (int i = 0; i < Math.min(3, geofenceIds.size()); i++) {
+            inside.add(geofenceIds.get(random.nextInt(geofenceIds.size())));
+        }
+        return send(authorized("/api/notes/relevant-notes")
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))).statusCode();
+    }
+
+    private HttpResponse<byte[]> get(String path) throws IOException, InterruptedException {
+        return send(authorized(path).GET());
+    }
+
+    private HttpRequest.Builder authorized(String path) {
+        return HttpRequest.newBuilder(uri(path))
+                .timeout(Duration.ofSeconds(60))
+                .header("Authorization", "Bearer " + token);
+    }
+
+    private HttpResponse<byte[]> send(HttpRequest.Builder request) throws IOException, InterruptedException {
+        return httpClient.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private URI uri(String path) {
+        return URI.create(baseUrl + path);
+    }
+
+    private String pick(String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,26 @@
+package com.csci310.anchornotes.loadtest.workload;
+
+/**
+ * Backend calls the Android client makes, named after the screen action that triggers them.
+ */
+public enum Endpoint {
+    LIST_NOTES("GET /api/notes"),
+    OPEN_NOTE("GET /api/notes/{id}"),
+    AUTOSAVE("PUT /api/notes/{id}"),
+    PIN_TOGGLE("POST /api/notes/{id}/pin"),
+    SEARCH("GET /api/notes/search"),
+    FILTER("GET /api/notes/filter"),
+    RELEVANT_NOTES("POST /api/notes/relevant-notes"),
+    GEOFENCE_SYNC("GET /api/geofences"),
+    LIST_TAGS("GET /api/tags");
+
+    private final String route;
+
+    Endpoint(String route) {
+        this.route = route;
+    }
+
+    public String route() {
+        return route;
+    }
+}
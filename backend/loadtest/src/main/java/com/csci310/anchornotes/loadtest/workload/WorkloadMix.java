@@ -0,0 +1,92 @@
+package com.csci310.anchornotes.loadtest.workload;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Weighted choice of the next {@link Endpoint} a virtual client calls.
+ */
+public class WorkloadMix {
+
+    private final String name;
+    private final Endpoint[] endpoints;
+    private final int[] cumulativeWeights;
+
+    private WorkloadMix(String name, Map<Endpoint, Integer> weights) {
+        this.name = name;
+        this.endpoints = weights.keySet().toArray(new Endpoint[0]);
+        this.cumulativeWeights = new int[endpoints.length];
+        int total = 0;
+        for (int i = 0; i < endpoints.length; i++) {
+            total += weights.get(endpoints[i]);
+            cumulativeWeights[i] = total;
+        }
+    }
+
+    /**
+     * Modeled on the Android client: MainActivity reloads the list and tags on every resume,
+     * NoteEditorActivity opens a note and autosaves it repeatedly, and the geofence and
+     * relevant-notes syncs run in the background.
+     */
+    public static WorkloadMix android() {
+        Map<Endpoint, Integer> weights = new EnumMap<>(Endpoint.class);
+        weights.put(Endpoint.LIST_NOTES, 15);
+        weights.put(Endpoint.LIST_TAGS, 5);
+        weights.put(Endpoint.OPEN_NOTE, 18);
+        weights.put(Endpoint.AUTOSAVE, 30);
+        weights.put(Endpoint.SEARCH, 8);
+        weights.put(Endpoint.FILTER, 6);
+        weights.put(Endpoint.RELEVANT_NOTES, 10);
+        weights.put(Endpoint.GEOFENCE_SYNC, 8);
+        return new WorkloadMix("android", weights);
+    }
+
+    /** Only the single-note calls a user sits waiting on: opening a note and autosaving it. */
+    public static WorkloadMix interactive() {
+        Map<Endpoint, Integer> weights = new EnumMap<>(Endpoint.class);
+        weights.put(Endpoint.OPEN_NOTE, 40);
+        weights.put(Endpoint.AUTOSAVE, 60);
+        return new WorkloadMix("interactive", weights);
+    }
+
+    /** Multi-row reads only; used as the storm in the DB admission scenario. */
+    public static WorkloadMix bulk() {
+        Map<Endpoint, Integer> weights = new EnumMap<>(Endpoint.class);
+        weights.put(Endpoint.LIST_NOTES, 50);
+        weights.put(Endpoint.FILTER, 25);
+        weights.put(Endpoint.SEARCH, 25);
+        return new WorkloadMix("bulk", weights);
+    }
+
+    /** Pin toggles only, for measuring the single-column update path. */
+    public static WorkloadMix pin() {
+        Map<Endpoint, Integer> weights = new EnumMap<>(Endpoint.class);
+        weights.put(Endpoint.PIN_TOGGLE, 1);
+        return new WorkloadMix("pin", weights);
+    }
+
+    public static WorkloadMix named(String name) {
+        return switch (name) {
+            case "android" -> android();
+            case "interactive" -> interactive();
+            case "bulk" -> bulk();
+            case "pin" -> pin();
+            default -> throw new IllegalArgumentException("Unknown workload mix: " + name);
+        };
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public Endpoint next(Random random) {
+        int pick = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (pick < cumulativeWeights[i]) {
+                return endpoints[i];
+            }
+        }
+        return endpoints[endpoints.length - 1];
+    }
+}
@@ -0,0 +1,426 @@
+-- Minimal AnchorNotes schema for a plain local Postgres.
+-- On a Supabase CLI database (which already has these tables) every statement is a no-op.
+-- Mirrors the structure described in database/CLEANUP_SCHEMA.sql, without the auth.users FKs.
+
+CREATE TABLE IF NOT EXISTS geofence (
+  id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+  user_id UUID NOT NULL,
+  latitude DOUBLE PRECISION NOT NULL,
+  longitude DOUBLE PRECISION NOT NULL,
+  radius INT NOT NULL,
+  address_name TEXT,
+  created_at TIMESTAMPTZ DEFAULT NOW()
+);
+
+CREATE TABLE IF NOT EXISTS photo_attachment (
+  id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+  user_id UUID NOT NULL,
+  media_url TEXT,
+  media_type TEXT,
+  duration_sec INT,
+  created_at TIMESTAMPTZ DEFAULT NOW()
+);
+
+CREATE TABLE IF NOT EXISTS audio_attachment (
+  id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+  user_id UUID NOT NULL,
+  media_url TEXT,
+  media_type TEXT,
+  created_at TIMESTAMPTZ DEFAULT NOW()
+);
+
+CREATE TABLE IF NOT EXISTS tags (
+  id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+  user_id UUID NOT NULL,
+  name TEXT NOT NULL,
+  color TEXT NOT NULL,
+  created_at TIMESTAMPTZ DEFAULT NOW()
+);
+
+CREATE TABLE IF NOT EXISTS notes (
+  id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+  user_id UUID NOT NULL,
+  title VARCHAR(500),
+  text TEXT,
+  text_version BIGINT NOT NULL DEFAULT 0,
+  pinned BOOLEAN NOT NULL DEFAULT FALSE,
+  created_at TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+  last_edited TIMESTAMPTZ,
+  reminder_time TIMESTAMPTZ,
+  geofence BIGINT REFERENCES geofence(id),
+  image_file BIGINT REFERENCES photo_attachment(id),
+  audio_file BIGINT REFERENCES audio_attachment(id),
+  background_color TEXT
+);
+
+CREATE TABLE IF NOT EXISTS templates (
+  id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+  user_id UUID NOT NULL,
+  name TEXT NOT NULL,
+  text TEXT,
+  pinned BOOLEAN NOT NULL DEFAULT FALSE,
+  geofence BIGINT REFERENCES geofence(id),
+  image_file BIGINT REFERENCES photo_attachment(id),
+  audio_file BIGINT REFERENCES photo_attachment(id),
+  background_color TEXT,
+  created_at TIMESTAMPTZ DEFAULT NOW()
+);
+
+CREATE TABLE IF NOT EXISTS note_tags (
+  note_id BIGINT NOT NULL REFERENCES notes(id) ON DELETE CASCADE,
+  tag_id BIGINT NOT NULL REFERENCES tags(id) ON DELETE CASCADE,
+  created_at TIMESTAMPTZ DEFAULT NOW(),
+  PRIMARY KEY (note_id, tag_id)
+);
+
+CREATE TABLE IF NOT EXISTS template_tags (
+  template_id BIGINT NOT NULL REFERENCES templates(id) ON DELETE CASCADE,
+  tag_id BIGINT NOT NULL REFERENCES tags(id) ON DELETE CASCADE,
+  created_at TIMESTAMPTZ DEFAULT NOW(),
+  PRIMARY KEY (template_id, tag_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_notes_user_id ON notes(user_id);
+CREATE INDEX IF NOT EXISTS idx_notes_reminder_time ON notes(reminder_time);
+CREATE INDEX IF NOT EXISTS idx_notes_geofence ON notes(geofence);
+CREATE INDEX IF NOT EXISTS idx_notes_last_edited ON notes(last_edited);
+CREATE INDEX IF NOT EXISTS idx_tags_user_id ON tags(user_id);
+CREATE INDEX IF NOT EXISTS idx_geofence_user_id ON geofence(user_id);
+CREATE INDEX IF NOT EXISTS idx_templates_user_id ON templates(user_id);
+CREATE INDEX IF NOT EXISTS idx_note_tags_note_id ON note_tags(note_id);
+CREATE INDEX IF NOT EXISTS idx_note_tags_tag_id ON note_tags(tag_id);
+
+ALTER TABLE notes ADD COLUMN IF NOT EXISTS text_version BIGINT NOT NULL DEFAULT 0;
+
+CREATE TABLE IF NOT EXISTS note_revisions (
+  id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+  note_id BIGINT NOT NULL REFERENCES notes(id) ON DELETE CASCADE,
+  user_id UUID NOT NULL,
+  revision BIGINT NOT NULL,
+  snapshot BOOLEAN NOT NULL,
+  title VARCHAR(500),
+  payload BYTEA NOT NULL,
+  text_length INT NOT NULL,
+  created_at TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+  UNIQUE (note_id, revision)
+);
+
+-- Per-user note statistics kept current by triggers, so GET /api/stats is a primary-key read
+CREATE TABLE IF NOT EXISTS user_note_stats (
+  user_id UUID PRIMARY KEY,
+  total_notes BIGINT NOT NULL DEFAULT 0,
+  pinned_notes BIGINT NOT NULL DEFAULT 0,
+  time_reminders BIGINT NOT NULL DEFAULT 0,
+  geofence_notes BIGINT NOT NULL DEFAULT 0,
+  photo_notes BIGINT NOT NULL DEFAULT 0,
+  audio_notes BIGINT NOT NULL DEFAULT 0,
+  total_tags BIGINT NOT NULL DEFAULT 0,
+  tag_assignments BIGINT NOT NULL DEFAULT 0,
+  updated_at TIMESTAMPTZ NOT NULL DEFAULT NOW()
+);
+
+
+CREATE OR REPLACE FUNCTION bump_user_note_stats(
+  p_user_id UUID, d_total BIGINT, d_pinned BIGINT, d_time BIGINT, d_geofence BIGINT,
+  d_photo BIGINT, d_audio BIGINT, d_tags BIGINT, d_assignments BIGINT
+) RETURNS VOID AS $$
+BEGIN
+  IF d_total = 0 AND d_pinned = 0 AND d_time = 0 AND d_geofence = 0 AND d_photo = 0
+     AND d_audio = 0 AND d_tags = 0 AND d_assignments = 0 THEN
+    RETURN;
+  END IF;
+  INSERT INTO user_note_stats AS s (user_id, total_notes, pinned_notes, time_reminders, geofence_notes,
+                                    photo_notes, audio_notes, total_tags, tag_assignments)
+  VALUES (p_user_id, d_total, d_pinned, d_time, d_geofence, d_photo, d_audio, d_tags, d_assignments)
+  ON CONFLICT (user_id) DO UPDATE SET
+    total_notes = s.total_notes + EXCLUDED.total_notes,
+    pinned_notes = s.pinned_notes + EXCLUDED.pinned_notes,
+    time_reminders = s.time_reminders + EXCLUDED.time_reminders,
+    geofence_notes = s.geofence_notes + EXCLUDED.geofence_notes,
+    photo_notes = s.photo_notes + EXCLUDED.photo_notes,
+    audio_notes = s.audio_notes + EXCLUDED.audio_notes,
+    total_tags = s.total_tags + EXCLUDED.total_tags,
+    tag_assignments = s.tag_assignments + EXCLUDED.tag_assignments,
+    updated_at = NOW();
+END;
+$$ LANGUAGE plpgsql;
+
+-- OLD is NULL on INSERT and NEW is NULL on DELETE, so one expression covers all three operations
+CREATE OR REPLACE FUNCTION user_note_stats_notes_trigger() RETURNS TRIGGER AS $$
+BEGIN
+  PERFORM bump_user_note_stats(
+    COALESCE(NEW.user_id, OLD.user_id),
+    (TG_OP <> 'DELETE')::int - (TG_OP <> 'INSERT')::int,
+    COALESCE(NEW.pinned, FALSE)::int - COALESCE(OLD.pinned, FALSE)::int,
+    (NEW.reminder_time IS NOT NULL)::int - (OLD.reminder_time IS NOT NULL)::int,
+    (NEW.geofence IS NOT NULL)::int - (OLD.geofence IS NOT NULL)::int,
+    (NEW.image_file IS NOT NULL)::int - (OLD.image_file IS NOT NULL)::int,
+    (NEW.audio_file IS NOT NULL)::int - (OLD.audio_file IS NOT NULL)::int,
+    0, 0);
+  RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION user_note_stats_tags_trigger() RETURNS TRIGGER AS $$
+BEGIN
+  PERFORM bump_user_note_stats(COALESCE(NEW.user_id, OLD.user_id), 0, 0, 0, 0, 0, 0,
+    CASE WHEN TG_OP = 'INSERT' THEN 1 ELSE -1 END, 0);
+  RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- The owner comes from the tag, falling back to the note: a cascade from either parent
+-- fires after that parent row is already gone, but the other one is still there
+CREATE OR REPLACE FUNCTION user_note_stats_note_tags_trigger() RETURNS TRIGGER AS $$
+DECLARE
+  owner UUID;
+BEGIN
+  SELECT user_id INTO owner FROM tags WHERE id = COALESCE(NEW.tag_id, OLD.tag_id);
+  IF owner IS NULL THEN
+    SELECT user_id INTO owner FROM notes WHERE id = COALESCE(NEW.note_id, OLD.note_id);
+  END IF;
+  IF owner IS NOT NULL THEN
+    PERFORM bump_user_note_stats(owner, 0, 0, 0, 0, 0, 0, 0,
+      CASE WHEN TG_OP = 'INSERT' THEN 1 ELSE -1 END);
+  END IF;
+  RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS user_note_stats_notes ON notes;
+CREATE TRIGGER user_note_stats_notes
+  AFTER INSERT OR DELETE OR UPDATE OF pinned, reminder_time, geofence, image_file, audio_file ON notes
+  FOR EACH ROW EXECUTE FUNCTION user_note_stats_notes_trigger();
+
+DROP TRIGGER IF EXISTS user_note_stats_tags ON tags;
+CREATE TRIGGER user_note_stats_tags
+  AFTER INSERT OR DELETE ON tags
+  FOR EACH ROW EXECUTE FUNCTION user_note_stats_tags_trigger();
+
+DROP TRIGGER IF EXISTS user_note_stats_note_tags ON note_tags;
+CREATE TRIGGER user_note_stats_note_tags
+  AFTER INSERT OR DELETE ON note_tags
+  FOR EACH ROW EXECUTE FUNCTION user_note_stats_note_tags_trigger();
+
+-- Backfill (safe to re-run: recomputes every row from the base tables)
+INSERT INTO user_note_stats (user_id, total_notes, pinned_notes, time_reminders, geofence_notes,
+                             photo_notes, audio_notes, total_tags, tag_assignments)
+SELECT u.user_id,
+       COALESCE(n.total_notes, 0), COALESCE(n.pinned_notes, 0), COALESCE(n.time_reminders, 0),
+       COALESCE(n.geofence_notes, 0), COALESCE(n.photo_notes, 0), COALESCE(n.audio_notes, 0),
+       COALESCE(t.total_tags, 0), COALESCE(a.tag_assignments, 0)
+FROM (SELECT user_id FROM notes UNION SELECT user_id FROM tags) u
+LEFT JOIN (
+  SELECT user_id,
+         COUNT(*) AS total_notes,
+         COUNT(*) FILTER (WHERE pinned) AS pinned_notes,
+         COUNT(reminder_time) AS time_reminders,
+         COUNT(geofence) AS geofence_notes,
+         COUNT(image_file) AS photo_notes,
+         COUNT(audio_file) AS audio_notes
+  FROM notes GROUP BY user_id
+) n ON n.user_id = u.user_id
+LEFT JOIN (SELECT user_id, COUNT(*) AS total_tags FROM tags GROUP BY user_id) t ON t.user_id = u.user_id
+LEFT JOIN (
+  SELECT tg.user_id, COUNT(*) AS tag_assignments
+  FROM note_tags nt JOIN tags tg ON tg.id = nt.tag_id GROUP BY tg.user_id
+) a ON a.user_id = u.user_id
+ON CONFLICT (user_id) DO UPDATE SET
+  total_notes = EXCLUDED.total_notes,
+  pinned_notes = EXCLUDED.pinned_notes,
+  time_reminders = EXCLUDED.time_reminders,
+  geofence_notes = EXCLUDED.geofence_notes,
+  photo_notes = EXCLUDED.photo_notes,
+  audio_notes = EXCLUDED.audio_notes,
+  total_tags = EXCLUDED.total_tags,
+  tag_assignments = EXCLUDED.tag_assignments,
+  updated_at = NOW();
+
+-- Delivered time reminders, so a reminder fires at least once and is not repeated after a restart
+CREATE TABLE IF NOT EXISTS reminder_deliveries (
+  id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+  note_id BIGINT NOT NULL REFERENCES notes(id) ON DELETE CASCADE,
+  user_id UUID NOT NULL,
+  reminder_time TIMESTAMPTZ NOT NULL,
+  delivered_at TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+  attempts INT NOT NULL,
+  UNIQUE (note_id, reminder_time)
+);
+
+-- Leases for background jobs, so each (job, partition) runs on one replica per interval
+CREATE TABLE IF NOT EXISTS job_leases (
+  job_name TEXT NOT NULL,
+  partition_no INT NOT NULL,
+  owner TEXT,
+  lease_until TIMESTAMPTZ NOT NULL DEFAULT 'epoch',
+  next_run_at TIMESTAMPTZ NOT NULL DEFAULT 'epoch',
+  last_started_at TIMESTAMPTZ,
+  last_finished_at TIMESTAMPTZ,
+  last_error TEXT,
+  PRIMARY KEY (job_name, partition_no)
+);
+
+-- Reminder deliveries become claims: a row with delivered_at NULL is a replica delivering it
+-- right now (until claimed_until), so two replicas never notify for the same reminder at once
+ALTER TABLE reminder_deliveries ALTER COLUMN delivered_at DROP NOT NULL;
+ALTER TABLE reminder_deliveries ALTER COLUMN delivered_at DROP DEFAULT;
+ALTER TABLE reminder_deliveries ADD COLUMN IF NOT EXISTS claimed_by TEXT;
+ALTER TABLE reminder_deliveries ADD COLUMN IF NOT EXISTS claimed_until TIMESTAMPTZ;
+
+CREATE INDEX IF NOT EXISTS idx_reminder_deliveries_reminder_time ON reminder_deliveries (reminder_time);
+
+-- Shard directory: users placed somewhere other than their consistent-hash shard.
+-- Only read on the primary shard; harmless (empty) on the others.
+CREATE TABLE IF NOT EXISTS user_shard_overrides (
+  user_id UUID PRIMARY KEY,
+  shard TEXT NOT NULL,
+  moving BOOLEAN NOT NULL DEFAULT false,
+  updated_at TIMESTAMPTZ NOT NULL DEFAULT NOW()
+);
+
+-- note_tags carries the owner of the note, so it can be partitioned by user_id (V9) and
+-- every join to it can name the user
+ALTER TABLE note_tags ADD COLUMN IF NOT EXISTS user_id UUID;
+
+UPDATE note_tags nt SET user_id = n.user_id
+FROM notes n
+WHERE n.id = nt.note_id AND nt.user_id IS NULL;
+
+ALTER TABLE note_tags ALTER COLUMN user_id SET NOT NULL;
+
+-- The owner is now on the row itself
+CREATE OR REPLACE FUNCTION user_note_stats_note_tags_trigger() RETURNS TRIGGER AS $$
+BEGIN
+  PERFORM bump_user_note_stats(COALESCE(NEW.user_id, OLD.user_id), 0, 0, 0, 0, 0, 0, 0,
+    CASE WHEN TG_OP = 'INSERT' THEN 1 ELSE -1 END);
+  RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- GET /api/export reads each table in pages of "user_id = ? AND id > ? ORDER BY id LIMIT n".
+-- (user_id, id) turns every page into one short index range scan, so the cost per page does
+-- not grow with how far into the account the export is. They also serve plain user_id lookups,
+-- so the single-column indexes they cover are dropped.
+CREATE INDEX IF NOT EXISTS idx_notes_user_id_id ON notes (user_id, id);
+CREATE INDEX IF NOT EXISTS idx_tags_user_id_id ON tags (user_id, id);
+CREATE INDEX IF NOT EXISTS idx_templates_user_id_id ON templates (user_id, id);
+CREATE INDEX IF NOT EXISTS idx_geofence_user_id_id ON geofence (user_id, id);
+CREATE INDEX IF NOT EXISTS idx_photo_attachment_user_id_id ON photo_attachment (user_id, id);
+CREATE INDEX IF NOT EXISTS idx_audio_attachment_user_id_id ON audio_attachment (user_id, id);
+
+DROP INDEX IF EXISTS idx_tags_user_id;
+DROP INDEX IF EXISTS idx_templates_user_id;
+DROP INDEX IF EXISTS idx_geofence_user_id;
+DROP INDEX IF EXISTS idx_photo_attachment_user_id;
+
+-- Bulk imports (POST /api/import): one row per upload, so any replica can report its progress
+CREATE TABLE IF NOT EXISTS import_jobs (
+  id UUID PRIMARY KEY,
+  user_id UUID NOT NULL,
+  state TEXT NOT NULL,
+  lines_read BIGINT NOT NULL DEFAULT 0,
+  rejected BIGINT NOT NULL DEFAULT 0,
+  skipped BIGINT NOT NULL DEFAULT 0,
+  notes_staged BIGINT NOT NULL DEFAULT 0,
+  notes_imported BIGINT NOT NULL DEFAULT 0,
+  tags_created BIGINT NOT NULL DEFAULT 0,
+  geofences_imported BIGINT NOT NULL DEFAULT 0,
+  errors TEXT,
+  created_at TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+  updated_at TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+  finished_at TIMESTAMPTZ
+);
+
+CREATE INDEX IF NOT EXISTS idx_import_jobs_user_id ON import_jobs (user_id, created_at);
+
+-- Thumbnails of photo attachments, stored next to the original by the thumbnail pipeline
+ALTER TABLE photo_attachment ADD COLUMN IF NOT EXISTS thumbnail_sizes TEXT;
+
+CREATE INDEX IF NOT EXISTS idx_photo_attachment_no_thumbnails ON photo_attachment (id)
+  WHERE thumbnail_sizes IS NULL;
+
+-- Content-addressed attachment files, one per user and SHA-256, reference-counted by triggers
+CREATE TABLE IF NOT EXISTS attachment_blobs (
+  user_id UUID NOT NULL,
+  sha256 CHAR(64) NOT NULL,
+  file_path TEXT NOT NULL,
+  media_type TEXT,
+  size_bytes BIGINT NOT NULL,
+  ref_count INT NOT NULL DEFAULT 0,
+  released_at TIMESTAMPTZ DEFAULT NOW(),
+  created_at TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+  PRIMARY KEY (user_id, sha256)
+);
+
+ALTER TABLE photo_attachment ADD COLUMN IF NOT EXISTS blob_sha256 CHAR(64);
+ALTER TABLE audio_attachment ADD COLUMN IF NOT EXISTS blob_sha256 CHAR(64);
+
+ALTER TABLE photo_attachment DROP CONSTRAINT IF EXISTS photo_attachment_blob_fk;
+ALTER TABLE photo_attachment ADD CONSTRAINT photo_attachment_blob_fk
+  FOREIGN KEY (user_id, blob_sha256) REFERENCES attachment_blobs (user_id, sha256);
+ALTER TABLE audio_attachment DROP CONSTRAINT IF EXISTS audio_attachment_blob_fk;
+ALTER TABLE audio_attachment ADD CONSTRAINT audio_attachment_blob_fk
+  FOREIGN KEY (user_id, blob_sha256) REFERENCES attachment_blobs (user_id, sha256);
+
+CREATE INDEX IF NOT EXISTS idx_photo_attachment_blob ON photo_attachment (user_id, blob_sha256)
+  WHERE blob_sha256 IS NOT NULL;
+CREATE INDEX IF NOT EXISTS idx_audio_attachment_blob ON audio_attachment (user_id, blob_sha256)
+  WHERE blob_sha256 IS NOT NULL;
+CREATE INDEX IF NOT EXISTS idx_attachment_blobs_released ON attachment_blobs (released_at)
+  WHERE ref_count = 0;
+
+CREATE OR REPLACE FUNCTION attachment_blob_refs_trigger() RETURNS TRIGGER AS $$
+BEGIN
+  IF TG_OP <> 'DELETE' AND NEW.blob_sha256 IS NOT NULL THEN
+    UPDATE attachment_blobs SET ref_count = ref_count + 1, released_at = NULL
+    WHERE user_id = NEW.user_id AND sha256 = NEW.blob_sha256;
+  END IF;
+  IF TG_OP <> 'INSERT' AND OLD.blob_sha256 IS NOT NULL THEN
+    UPDATE attachment_blobs SET ref_count = ref_count - 1,
+      released_at = CASE WHEN ref_count = 1 THEN NOW() ELSE released_at END
+    WHERE user_id = OLD.user_id AND sha256 = OLD.blob_sha256;
+  END IF;
+  RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS attachment_blob_refs_photo ON photo_attachment;
+CREATE TRIGGER attachment_blob_refs_photo
+  AFTER INSERT OR DELETE OR UPDATE OF blob_sha256 ON photo_attachment
+  FOR EACH ROW EXECUTE FUNCTION attachment_blob_refs_trigger();
+
+DROP TRIGGER IF EXISTS attachment_blob_refs_audio ON audio_attachment;
+CREATE TRIGGER attachment_blob_refs_audio
+  AFTER INSERT OR DELETE OR UPDATE OF blob_sha256 ON audio_attachment
+  FOR EACH ROW EXECUTE FUNCTION attachment_blob_refs_trigger();
+
+-- Resumable uploads (/api/uploads): session state plus the chunks received so far
+CREATE TABLE IF NOT EXISTS upload_sessions (
+  id UUID PRIMARY KEY,
+  user_id UUID NOT NULL,
+  note_id BIGINT NOT NULL,
+  kind TEXT NOT NULL,
+  file_name TEXT,
+  media_type TEXT,
+  size_bytes BIGINT NOT NULL,
+  received_bytes BIGINT NOT NULL DEFAULT 0,
+  sha256 CHAR(64),
+  duration_sec INT,
+  state TEXT NOT NULL,
+  created_at TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+  updated_at TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+  expires_at TIMESTAMPTZ NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_upload_sessions_user_id ON upload_sessions (user_id, state);
+CREATE INDEX IF NOT EXISTS idx_upload_sessions_expires_at ON upload_sessions (expires_at);
+
+CREATE TABLE IF NOT EXISTS upload_chunks (
+  session_id UUID NOT NULL REFERENCES upload_sessions(id) ON DELETE CASCADE,
+  user_id UUID NOT NULL,
+  start_offset BIGINT NOT NULL,
+  data BYTEA NOT NULL,
+  PRIMARY KEY (session_id, start_offset)
+);
+
+ALTER TABLE upload_chunks ALTER COLUMN data SET STORAGE EXTERNAL;